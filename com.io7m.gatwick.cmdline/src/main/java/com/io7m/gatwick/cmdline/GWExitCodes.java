@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline;
+
+/**
+ * The exit codes returned by the command-line tool.
+ */
+
+public final class GWExitCodes
+{
+  /**
+   * The command succeeded.
+   */
+
+  public static final int SUCCESS = 0;
+
+  /**
+   * The command failed for a reason not covered by any other exit code.
+   */
+
+  public static final int FAILURE = 1;
+
+  /**
+   * The command-line arguments were invalid.
+   */
+
+  public static final int USAGE = 2;
+
+  /**
+   * No suitable device could be found.
+   */
+
+  public static final int NO_DEVICE = 3;
+
+  /**
+   * The device failed, or failed to respond.
+   */
+
+  public static final int DEVICE_ERROR = 4;
+
+  /**
+   * A file could not be read or written.
+   */
+
+  public static final int IO_ERROR = 5;
+
+  private GWExitCodes()
+  {
+
+  }
+}
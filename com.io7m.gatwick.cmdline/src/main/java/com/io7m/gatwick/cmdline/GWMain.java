@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline;
+
+import com.io7m.gatwick.cmdline.internal.GWCommandLine;
+
+/**
+ * The main command-line entrypoint.
+ */
+
+public final class GWMain
+{
+  private GWMain()
+  {
+
+  }
+
+  /**
+   * Run the command-line tool and return an exit code.
+   *
+   * @param args Command-line arguments
+   *
+   * @return An exit code
+   *
+   * @see GWExitCodes
+   */
+
+  public static int run(
+    final String[] args)
+  {
+    return GWCommandLine.run(args, System.out, System.err);
+  }
+
+  /**
+   * The main command-line entrypoint.
+   *
+   * @param args Command-line arguments
+   */
+
+  public static void main(
+    final String[] args)
+  {
+    System.exit(run(args));
+  }
+}
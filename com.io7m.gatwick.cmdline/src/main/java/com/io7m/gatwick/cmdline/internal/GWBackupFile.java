@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>Functions to read and write backup files.</p>
+ *
+ * <p>A backup file consists of a header (a magic number and a version
+ * number) followed by any number of entries. Each entry consists of a device
+ * address, a size, and the data. All integers are big-endian. Entries are
+ * written as soon as they are read from the device, so a backup file can be
+ * produced without holding the whole backup in memory.</p>
+ */
+
+public final class GWBackupFile
+{
+  private static final int MAGIC = 0x4757424b;
+  private static final int VERSION = 1;
+
+  private GWBackupFile()
+  {
+
+  }
+
+  /**
+   * An entry in a backup file.
+   *
+   * @param address The device address of the first byte
+   * @param data    The data
+   */
+
+  public record Entry(
+    int address,
+    byte[] data)
+  {
+    /**
+     * An entry in a backup file.
+     *
+     * @param address The device address of the first byte
+     * @param data    The data
+     */
+
+    public Entry
+    {
+      Objects.requireNonNull(data, "data");
+    }
+  }
+
+  /**
+   * Write a file header.
+   *
+   * @param output The output
+   *
+   * @throws IOException On errors
+   */
+
+  public static void writeHeader(
+    final DataOutputStream output)
+    throws IOException
+  {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+  }
+
+  /**
+   * Write an entry.
+   *
+   * @param output  The output
+   * @param address The device address of the first byte
+   * @param data    The data
+   *
+   * @throws IOException On errors
+   */
+
+  public static void writeEntry(
+    final DataOutputStream output,
+    final int address,
+    final byte[] data)
+    throws IOException
+  {
+    output.writeInt(address);
+    output.writeInt(data.length);
+    output.write(data);
+  }
+
+  /**
+   * Read and check a file header.
+   *
+   * @param input The input
+   *
+   * @throws IOException On errors, or if the file is not a backup file
+   */
+
+  public static void readHeader(
+    final DataInputStream input)
+    throws IOException
+  {
+    final var magic = input.readInt();
+    if (magic != MAGIC) {
+      throw new IOException(
+        "Not a backup file (magic number 0x%08x, expected 0x%08x)"
+          .formatted(Integer.valueOf(magic), Integer.valueOf(MAGIC))
+      );
+    }
+
+    final var version = input.readInt();
+    if (version != VERSION) {
+      throw new IOException(
+        "Unsupported backup file version %d (expected %d)"
+          .formatted(Integer.valueOf(version), Integer.valueOf(VERSION))
+      );
+    }
+  }
+
+  /**
+   * Read an entry.
+   *
+   * @param input The input
+   *
+   * @return The entry, or nothing at the end of the file
+   *
+   * @throws IOException On errors
+   */
+
+  public static Optional<Entry> readEntry(
+    final DataInputStream input)
+    throws IOException
+  {
+    final int address;
+    try {
+      address = input.readInt();
+    } catch (final EOFException e) {
+      return Optional.empty();
+    }
+
+    final var size = input.readInt();
+    if (size <= 0 || size > 0x10_0000) {
+      throw new IOException(
+        "Corrupt backup entry at address 0x%08x (size %d)"
+          .formatted(Integer.valueOf(address), Integer.valueOf(size))
+      );
+    }
+
+    final var data = new byte[size];
+    input.readFully(data);
+    return Optional.of(new Entry(address, data));
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.SUCCESS;
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Back up ranges of device memory to a file. The file is written to a
+ * temporary file that replaces the target only when the backup is complete.
+ */
+
+public final class GWCommandBackup implements GWCommandType
+{
+  /**
+   * Back up ranges of device memory to a file.
+   */
+
+  public GWCommandBackup()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "backup";
+  }
+
+  @Override
+  public String usage()
+  {
+    return "FILE [ADDRESS:SIZE ...]";
+  }
+
+  @Override
+  public String description()
+  {
+    return "Back up device memory (by default, the system settings).";
+  }
+
+  @Override
+  public int execute(
+    final GWCommandContext context,
+    final List<String> arguments)
+    throws Exception
+  {
+    if (arguments.isEmpty()) {
+      throw new GWCommandException(USAGE, "A file is required.");
+    }
+
+    final var file =
+      Path.of(arguments.get(0)).toAbsolutePath();
+
+    final var ranges = new ArrayList<GWMemoryRange>();
+    for (final var text : arguments.subList(1, arguments.size())) {
+      ranges.add(GWMemoryRange.parse(text));
+    }
+    if (ranges.isEmpty()) {
+      ranges.addAll(GWMemoryRegions.system(context.controller()));
+    }
+
+    final var device =
+      context.controller().device();
+    final var fileTemp =
+      file.resolveSibling(file.getFileName() + ".tmp");
+
+    final var timeThen = System.nanoTime();
+    var total = 0L;
+
+    try (var output = new DataOutputStream(
+      new BufferedOutputStream(Files.newOutputStream(fileTemp)))) {
+      GWBackupFile.writeHeader(output);
+
+      for (final var range : ranges) {
+        total += range.size();
+      }
+
+      /*
+       * All ranges are read as a single pipeline so that the device is
+       * kept busy while earlier blocks are written to the file.
+       */
+
+      GWMemoryTransfers.read(
+        device,
+        ranges,
+        new Receiver(context, output, ranges)
+      );
+    }
+
+    Files.move(fileTemp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+
+    context.progress(
+      "backup: %d bytes in %d ms to %s",
+      Long.valueOf(total),
+      Long.valueOf((System.nanoTime() - timeThen) / 1_000_000L),
+      file
+    );
+    return SUCCESS;
+  }
+
+  /**
+   * A receiver that writes each block to the backup file, and reports each
+   * range as soon as its last block has been written. Blocks arrive in the
+   * order of the ranges, and no block spans two ranges, so a range is
+   * complete once as many bytes as its size have been received since the
+   * previous range completed.
+   */
+
+  private static final class Receiver
+    implements GWMemoryTransfers.GWMemoryReceiverType
+  {
+    private final GWCommandContext context;
+    private final DataOutputStream output;
+    private final List<GWMemoryRange> ranges;
+    private int rangeIndex;
+    private int rangeReceived;
+
+    Receiver(
+      final GWCommandContext inContext,
+      final DataOutputStream inOutput,
+      final List<GWMemoryRange> inRanges)
+    {
+      this.context =
+        Objects.requireNonNull(inContext, "context");
+      this.output =
+        Objects.requireNonNull(inOutput, "output");
+      this.ranges =
+        Objects.requireNonNull(inRanges, "ranges");
+    }
+
+    @Override
+    public void receive(
+      final int address,
+      final byte[] data)
+      throws Exception
+    {
+      GWBackupFile.writeEntry(this.output, address, data);
+
+      this.rangeReceived += data.length;
+
+      final var range = this.ranges.get(this.rangeIndex);
+      if (this.rangeReceived == range.size()) {
+        this.context.progress("backup: %s", range);
+        this.rangeReceived = 0;
+        ++this.rangeIndex;
+      }
+    }
+  }
+}
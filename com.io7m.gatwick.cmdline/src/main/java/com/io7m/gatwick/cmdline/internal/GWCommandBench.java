@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+
+import java.util.List;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.SUCCESS;
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * Measure the round-trip time and throughput of the link to the device by
+ * repeatedly reading the system settings.
+ */
+
+public final class GWCommandBench implements GWCommandType
+{
+  private static final int DEFAULT_COUNT = 100;
+
+  /**
+   * Measure the round-trip time and throughput of the link to the device.
+   */
+
+  public GWCommandBench()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "bench";
+  }
+
+  @Override
+  public String usage()
+  {
+    return "[COUNT]";
+  }
+
+  @Override
+  public String description()
+  {
+    return "Measure the link round-trip time and throughput.";
+  }
+
+  @Override
+  public int execute(
+    final GWCommandContext context,
+    final List<String> arguments)
+    throws Exception
+  {
+    final int count;
+    switch (arguments.size()) {
+      case 0 -> count = DEFAULT_COUNT;
+      case 1 -> count = GWNumbers.parseSize(arguments.get(0));
+      default -> throw new GWCommandException(USAGE, "Unexpected arguments.");
+    }
+
+    final var controller =
+      context.controller();
+    final var device =
+      controller.device();
+    final var range =
+      GWMemoryRegions.system(controller).get(0);
+    final var command =
+      new GWDeviceCommandRequestData(
+        range.address(),
+        GWIOAddresses.addressOf(range.size())
+      );
+
+    var minimum = Long.MAX_VALUE;
+    var maximum = 0L;
+    var total = 0L;
+
+    for (int index = 0; index < count; ++index) {
+      final var timeThen = System.nanoTime();
+      device.sendCommand(command);
+      final var time = System.nanoTime() - timeThen;
+
+      minimum = Math.min(minimum, time);
+      maximum = Math.max(maximum, time);
+      total += time;
+
+      if ((index + 1) % 10 == 0) {
+        context.progress(
+          "bench: %d/%d",
+          Integer.valueOf(index + 1),
+          Integer.valueOf(count)
+        );
+      }
+    }
+
+    final var mean = total / count;
+    final var bytesPerSecond =
+      ((long) range.size() * count * 1_000_000_000L) / Math.max(1L, total);
+
+    context.output().printf(
+      "requests %d size %d min-us %d mean-us %d max-us %d bytes-per-second %d%n",
+      Integer.valueOf(count),
+      Integer.valueOf(range.size()),
+      Long.valueOf(minimum / 1_000L),
+      Long.valueOf(mean / 1_000L),
+      Long.valueOf(maximum / 1_000L),
+      Long.valueOf(bytesPerSecond)
+    );
+    context.output().flush();
+    return SUCCESS;
+  }
+}
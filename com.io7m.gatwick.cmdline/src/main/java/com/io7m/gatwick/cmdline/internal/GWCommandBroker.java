@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import com.io7m.gatwick.device.broker.GWDeviceBroker;
+import com.io7m.gatwick.device.broker.GWDeviceBrokerConfiguration;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.SUCCESS;
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * Open the device and share it with other local processes until the tool
+ * is terminated.
+ */
+
+public final class GWCommandBroker implements GWCommandType
+{
+  private static final Duration STATISTICS_INTERVAL =
+    Duration.ofSeconds(10L);
+
+  /**
+   * Open the device and share it with other local processes.
+   */
+
+  public GWCommandBroker()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "broker";
+  }
+
+  @Override
+  public String usage()
+  {
+    return "[PORT [SHADOW-LIFETIME-MS]]";
+  }
+
+  @Override
+  public String description()
+  {
+    return "Share the device with other local processes.";
+  }
+
+  @Override
+  public int execute(
+    final GWCommandContext context,
+    final List<String> arguments)
+    throws Exception
+  {
+    final var defaults = GWDeviceBrokerConfiguration.defaults();
+    final var configuration =
+      switch (arguments.size()) {
+        case 0 -> defaults;
+        case 1 -> new GWDeviceBrokerConfiguration(
+          addressOf(arguments.get(0)),
+          defaults.shadowLifetime()
+        );
+        case 2 -> new GWDeviceBrokerConfiguration(
+          addressOf(arguments.get(0)),
+          Duration.ofMillis(GWNumbers.parseSize(arguments.get(1)))
+        );
+        default -> throw new GWCommandException(USAGE, "Unexpected arguments.");
+      };
+
+    final var device = context.device();
+    final GWDeviceBroker broker;
+    try {
+      broker = GWDeviceBroker.create(device, configuration);
+    } catch (final Exception e) {
+      device.close();
+      throw e;
+    }
+
+    try (broker) {
+      final var address = broker.address();
+      context.progress(
+        "broker: listening on %s:%d",
+        address.getHostString(),
+        Integer.valueOf(address.getPort())
+      );
+
+      final var stop = new CountDownLatch(1);
+      Runtime.getRuntime().addShutdownHook(new Thread(stop::countDown));
+
+      while (stop.getCount() > 0L) {
+        stop.await(
+          STATISTICS_INTERVAL.toMillis(),
+          TimeUnit.MILLISECONDS
+        );
+        final var stats = broker.statistics();
+        context.progress(
+          "broker: clients %d device-reads %d device-writes %d shadow-hits %d notifications %d",
+          Integer.valueOf(stats.clients()),
+          Long.valueOf(stats.deviceReads()),
+          Long.valueOf(stats.deviceWrites()),
+          Long.valueOf(stats.shadowHits()),
+          Long.valueOf(stats.notifications())
+        );
+      }
+    }
+    return SUCCESS;
+  }
+
+  private static InetSocketAddress addressOf(
+    final String text)
+    throws GWCommandException
+  {
+    final int port;
+    try {
+      port = Integer.parseInt(text);
+    } catch (final NumberFormatException e) {
+      throw new GWCommandException(
+        USAGE,
+        "Unparseable port '%s'.".formatted(text)
+      );
+    }
+    if (port < 0 || port > 65535) {
+      throw new GWCommandException(
+        USAGE,
+        "Port %d is out of range.".formatted(Integer.valueOf(port))
+      );
+    }
+    return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+  }
+}
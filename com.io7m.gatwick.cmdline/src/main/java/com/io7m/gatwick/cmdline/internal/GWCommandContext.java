@@ -0,0 +1,232 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import com.io7m.gatwick.controller.api.GWControllerDetectedDevice;
+import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.controller.api.GWControllerType;
+import com.io7m.gatwick.controller.main.GWControllers;
+import com.io7m.gatwick.device.api.GWDeviceConfiguration;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceFactoryProperty;
+import com.io7m.gatwick.device.api.GWDeviceFactoryType;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.taskrecorder.core.TRTaskRecorder;
+import com.io7m.taskrecorder.core.TRTaskSucceeded;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.NO_DEVICE;
+
+/**
+ * The context in which a command executes. The context opens a controller
+ * on demand and closes it when the command completes.
+ */
+
+public final class GWCommandContext implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWCommandContext.class);
+
+  private static final GWDeviceFactoryProperty FAKE =
+    new GWDeviceFactoryProperty("fake");
+  private static final GWDeviceFactoryProperty BROKER =
+    new GWDeviceFactoryProperty("broker");
+
+  private final GWCommandOptions options;
+  private final PrintStream output;
+  private final PrintStream error;
+  private final GWControllers controllers;
+  private GWControllerType controller;
+
+  /**
+   * Create a context.
+   *
+   * @param inOptions The shared options
+   * @param inOutput  The output stream
+   * @param inError   The error stream
+   */
+
+  public GWCommandContext(
+    final GWCommandOptions inOptions,
+    final PrintStream inOutput,
+    final PrintStream inError)
+  {
+    this.options =
+      Objects.requireNonNull(inOptions, "options");
+    this.output =
+      Objects.requireNonNull(inOutput, "output");
+    this.error =
+      Objects.requireNonNull(inError, "error");
+    this.controllers =
+      new GWControllers();
+  }
+
+  /**
+   * @return The output stream
+   */
+
+  public PrintStream output()
+  {
+    return this.output;
+  }
+
+  /**
+   * Report progress on the error stream, unless progress reporting is
+   * disabled.
+   *
+   * @param format The format string
+   * @param args   The format arguments
+   */
+
+  public void progress(
+    final String format,
+    final Object... args)
+  {
+    if (!this.options.quiet()) {
+      this.error.println(format.formatted(args));
+      this.error.flush();
+    }
+  }
+
+  private boolean isFactoryAllowed(
+    final GWDeviceFactoryType factory)
+  {
+    return factory.properties().contains(FAKE) == this.options.fake();
+  }
+
+  /**
+   * Detect devices.
+   *
+   * @return The detected devices
+   */
+
+  public List<GWControllerDetectedDevice> detectDevices()
+  {
+    final var recorder =
+      TRTaskRecorder.<List<GWControllerDetectedDevice>>create(
+        LOG, "Detecting devices...");
+
+    final var task =
+      this.controllers.detectDevices(recorder, this::isFactoryAllowed);
+
+    if (task.resolution() instanceof TRTaskSucceeded<List<GWControllerDetectedDevice>> success) {
+      return success.result();
+    }
+    return List.of();
+  }
+
+  /**
+   * Open the selected device, or return the controller if it has already
+   * been opened.
+   *
+   * @return A controller
+   *
+   * @throws GWCommandException    If no suitable device exists
+   * @throws GWControllerException If the device cannot be opened
+   */
+
+  public GWControllerType controller()
+    throws GWCommandException, GWControllerException
+  {
+    if (this.controller != null) {
+      return this.controller;
+    }
+
+    final var selected = this.selectDevice(d -> true);
+    final var description = selected.description();
+    this.progress("open: %s", description.midiDeviceName());
+
+    this.controller =
+      this.controllers.openController(
+        selected.deviceFactory(),
+        this.configurationOf(selected)
+      );
+    return this.controller;
+  }
+
+  /**
+   * Open the selected device directly, without a controller. Devices that
+   * are themselves provided by a broker are never selected. The caller
+   * takes ownership of the device.
+   *
+   * @return A device
+   *
+   * @throws GWCommandException If no suitable device exists
+   * @throws GWDeviceException  If the device cannot be opened
+   */
+
+  public GWDeviceType device()
+    throws GWCommandException, GWDeviceException
+  {
+    final var selected =
+      this.selectDevice(d -> {
+        return !d.deviceFactory().properties().contains(BROKER);
+      });
+
+    final var description = selected.description();
+    this.progress("open: %s", description.midiDeviceName());
+    return selected.deviceFactory().openDevice(this.configurationOf(selected));
+  }
+
+  private GWDeviceConfiguration configurationOf(
+    final GWControllerDetectedDevice selected)
+  {
+    return new GWDeviceConfiguration(
+      selected.description(),
+      Duration.ofSeconds(3L),
+      this.options.messageTimeout(),
+      3,
+      Duration.ofMillis(100L)
+    );
+  }
+
+  private GWControllerDetectedDevice selectDevice(
+    final Predicate<GWControllerDetectedDevice> filter)
+    throws GWCommandException
+  {
+    final var pattern = this.options.device();
+    return this.detectDevices()
+      .stream()
+      .filter(filter)
+      .filter(d -> {
+        return pattern.map(p -> {
+          return p.matcher(d.description().midiDeviceName()).find();
+        }).orElse(Boolean.TRUE).booleanValue();
+      })
+      .findFirst()
+      .orElseThrow(() -> {
+        return new GWCommandException(NO_DEVICE, "No suitable device found.");
+      });
+  }
+
+  @Override
+  public void close()
+    throws GWControllerException
+  {
+    if (this.controller != null) {
+      this.controller.close();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import java.util.List;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.NO_DEVICE;
+import static com.io7m.gatwick.cmdline.GWExitCodes.SUCCESS;
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * List the detected devices, one per line.
+ */
+
+public final class GWCommandDetect implements GWCommandType
+{
+  /**
+   * List the detected devices, one per line.
+   */
+
+  public GWCommandDetect()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "detect";
+  }
+
+  @Override
+  public String usage()
+  {
+    return "";
+  }
+
+  @Override
+  public String description()
+  {
+    return "List the detected devices.";
+  }
+
+  @Override
+  public int execute(
+    final GWCommandContext context,
+    final List<String> arguments)
+    throws Exception
+  {
+    if (!arguments.isEmpty()) {
+      throw new GWCommandException(USAGE, "Unexpected arguments.");
+    }
+
+    final var devices = context.detectDevices();
+    final var output = context.output();
+    for (final var device : devices) {
+      final var description = device.description();
+      output.printf(
+        "%s\t%s\t%s\t%s%n",
+        description.midiDeviceName(),
+        description.midiDeviceDescription(),
+        description.midiDeviceVendor(),
+        description.midiDeviceVersion()
+      );
+    }
+    output.flush();
+    return devices.isEmpty() ? NO_DEVICE : SUCCESS;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import com.io7m.gatwick.iovar.GWIOAddresses;
+
+import java.util.List;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.SUCCESS;
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * Print a hex dump of a range of device memory.
+ */
+
+public final class GWCommandDumpRange implements GWCommandType
+{
+  private static final int BYTES_PER_LINE = 16;
+
+  /**
+   * Print a hex dump of a range of device memory.
+   */
+
+  public GWCommandDumpRange()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "dump-range";
+  }
+
+  @Override
+  public String usage()
+  {
+    return "ADDRESS SIZE";
+  }
+
+  @Override
+  public String description()
+  {
+    return "Print a hex dump of a range of device memory.";
+  }
+
+  @Override
+  public int execute(
+    final GWCommandContext context,
+    final List<String> arguments)
+    throws Exception
+  {
+    if (arguments.size() != 2) {
+      throw new GWCommandException(USAGE, "An address and size are required.");
+    }
+
+    final var range =
+      new GWMemoryRange(
+        GWNumbers.parseAddress(arguments.get(0)),
+        GWNumbers.parseSize(arguments.get(1))
+      );
+
+    final var output = context.output();
+    final var line = new StringBuilder(80);
+
+    GWMemoryTransfers.read(
+      context.controller().device(),
+      range,
+      (address, data) -> {
+        final var base = GWIOAddresses.linearOf(address);
+        for (int index = 0; index < data.length; index += BYTES_PER_LINE) {
+          line.setLength(0);
+          line.append("%08x:".formatted(
+            Integer.valueOf(GWIOAddresses.addressOf(base + index))));
+
+          final var end = Math.min(data.length, index + BYTES_PER_LINE);
+          for (int k = index; k < end; ++k) {
+            line.append(" %02x".formatted(Integer.valueOf(data[k] & 0xff)));
+          }
+          output.println(line);
+        }
+        output.flush();
+      }
+    );
+    return SUCCESS;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import java.util.Objects;
+
+/**
+ * An exception raised by a command, carrying the exit code that the tool
+ * should return.
+ */
+
+public final class GWCommandException extends Exception
+{
+  private final int exitCode;
+
+  /**
+   * @return The exit code
+   */
+
+  public int exitCode()
+  {
+    return this.exitCode;
+  }
+
+  /**
+   * Construct an exception.
+   *
+   * @param inExitCode The exit code
+   * @param message    The message
+   */
+
+  public GWCommandException(
+    final int inExitCode,
+    final String message)
+  {
+    super(Objects.requireNonNull(message, "message"));
+    this.exitCode = inExitCode;
+  }
+}
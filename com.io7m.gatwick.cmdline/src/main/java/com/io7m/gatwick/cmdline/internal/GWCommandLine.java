@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.DEVICE_ERROR;
+import static com.io7m.gatwick.cmdline.GWExitCodes.FAILURE;
+import static com.io7m.gatwick.cmdline.GWExitCodes.IO_ERROR;
+import static com.io7m.gatwick.cmdline.GWExitCodes.SUCCESS;
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * Command-line parsing and dispatch.
+ */
+
+public final class GWCommandLine
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWCommandLine.class);
+
+  private static final List<GWCommandType> COMMANDS =
+    List.of(
+      new GWCommandDetect(),
+      new GWCommandBackup(),
+      new GWCommandRestore(),
+      new GWCommandDumpRange(),
+      new GWCommandSet(),
+      new GWCommandBench(),
+      new GWCommandBroker()
+    );
+
+  private GWCommandLine()
+  {
+
+  }
+
+  /**
+   * Run the command-line tool.
+   *
+   * @param args   The command-line arguments
+   * @param output The output stream
+   * @param error  The error stream
+   *
+   * @return An exit code
+   */
+
+  public static int run(
+    final String[] args,
+    final PrintStream output,
+    final PrintStream error)
+  {
+    final var arguments = Arrays.asList(args);
+
+    var options = GWCommandOptions.defaults();
+    var index = 0;
+
+    try {
+      while (index < arguments.size() && arguments.get(index).startsWith("--")) {
+        final var option = arguments.get(index);
+        switch (option) {
+          case "--help" -> {
+            usage(output);
+            return SUCCESS;
+          }
+          case "--fake" -> {
+            options = new GWCommandOptions(
+              options.device(), true, options.messageTimeout(), options.quiet());
+          }
+          case "--quiet" -> {
+            options = new GWCommandOptions(
+              options.device(), options.fake(), options.messageTimeout(), true);
+          }
+          case "--device" -> {
+            ++index;
+            options = new GWCommandOptions(
+              Optional.of(Pattern.compile(argument(arguments, index, option))),
+              options.fake(),
+              options.messageTimeout(),
+              options.quiet()
+            );
+          }
+          case "--message-timeout" -> {
+            ++index;
+            final var millis =
+              GWNumbers.parseSize(argument(arguments, index, option));
+            options = new GWCommandOptions(
+              options.device(),
+              options.fake(),
+              Duration.ofMillis(millis),
+              options.quiet()
+            );
+          }
+          default -> {
+            throw new GWCommandException(
+              USAGE, "Unrecognized option '%s'".formatted(option));
+          }
+        }
+        ++index;
+      }
+    } catch (final GWCommandException e) {
+      error.println("error: " + e.getMessage());
+      usage(error);
+      return e.exitCode();
+    } catch (final PatternSyntaxException e) {
+      error.println("error: invalid device pattern: " + e.getMessage());
+      return USAGE;
+    }
+
+    if (index >= arguments.size()) {
+      usage(error);
+      return USAGE;
+    }
+
+    final var name = arguments.get(index);
+    final var command =
+      COMMANDS.stream()
+        .filter(c -> c.name().equals(name))
+        .findFirst();
+
+    if (command.isEmpty()) {
+      error.println("error: unrecognized command '%s'".formatted(name));
+      usage(error);
+      return USAGE;
+    }
+
+    return execute(
+      command.get(),
+      options,
+      arguments.subList(index + 1, arguments.size()),
+      output,
+      error
+    );
+  }
+
+  private static int execute(
+    final GWCommandType command,
+    final GWCommandOptions options,
+    final List<String> arguments,
+    final PrintStream output,
+    final PrintStream error)
+  {
+    try (var context = new GWCommandContext(options, output, error)) {
+      return command.execute(context, arguments);
+    } catch (final GWCommandException e) {
+      error.println("error: " + e.getMessage());
+      if (e.exitCode() == USAGE) {
+        error.println("usage: gatwick [options] %s %s"
+                        .formatted(command.name(), command.usage()));
+      }
+      return e.exitCode();
+    } catch (final GWControllerException | GWDeviceException e) {
+      LOG.debug("device error: ", e);
+      error.println("error: device: " + e.getMessage());
+      return DEVICE_ERROR;
+    } catch (final IOException e) {
+      LOG.debug("i/o error: ", e);
+      error.println("error: i/o: " + e.getMessage());
+      return IO_ERROR;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      error.println("error: interrupted");
+      return FAILURE;
+    } catch (final Exception e) {
+      LOG.error("command failed: ", e);
+      error.println("error: " + e.getMessage());
+      return FAILURE;
+    }
+  }
+
+  private static String argument(
+    final List<String> arguments,
+    final int index,
+    final String option)
+    throws GWCommandException
+  {
+    if (index >= arguments.size()) {
+      throw new GWCommandException(
+        USAGE, "Option '%s' requires an argument".formatted(option));
+    }
+    return arguments.get(index);
+  }
+
+  private static void usage(
+    final PrintStream stream)
+  {
+    stream.println("usage: gatwick [options] command [arguments]");
+    stream.println();
+    stream.println("Options:");
+    stream.println("  --device PATTERN          Use the first device whose name matches PATTERN");
+    stream.println("  --fake                    Use fake devices");
+    stream.println("  --message-timeout MILLIS  The time to wait for each device response");
+    stream.println("  --quiet                   Do not report progress");
+    stream.println("  --help                    Show this help");
+    stream.println();
+    stream.println("Commands:");
+    for (final var command : COMMANDS) {
+      stream.println("  %-11s %s".formatted(command.name(), command.description()));
+      stream.println("  %-11s   %s %s".formatted("", command.name(), command.usage()));
+    }
+    stream.println();
+    stream.println("Exit codes:");
+    stream.println("  0 success, 1 failure, 2 usage, 3 no device, 4 device error, 5 i/o error");
+    stream.flush();
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Options shared by all commands.
+ *
+ * @param device         A pattern matched against MIDI device names
+ * @param fake           {@code true} if fake devices should be used
+ * @param messageTimeout The maximum length of time to wait for a response
+ * @param quiet          {@code true} if progress should not be reported
+ */
+
+public record GWCommandOptions(
+  Optional<Pattern> device,
+  boolean fake,
+  Duration messageTimeout,
+  boolean quiet)
+{
+  /**
+   * Options shared by all commands.
+   *
+   * @param device         A pattern matched against MIDI device names
+   * @param fake           {@code true} if fake devices should be used
+   * @param messageTimeout The maximum length of time to wait for a response
+   * @param quiet          {@code true} if progress should not be reported
+   */
+
+  public GWCommandOptions
+  {
+    Objects.requireNonNull(device, "device");
+    Objects.requireNonNull(messageTimeout, "messageTimeout");
+  }
+
+  /**
+   * @return The default options
+   */
+
+  public static GWCommandOptions defaults()
+  {
+    return new GWCommandOptions(
+      Optional.empty(),
+      false,
+      Duration.ofMillis(500L),
+      false
+    );
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.SUCCESS;
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * Write the contents of a backup file to the device.
+ */
+
+public final class GWCommandRestore implements GWCommandType
+{
+  /**
+   * Write the contents of a backup file to the device.
+   */
+
+  public GWCommandRestore()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "restore";
+  }
+
+  @Override
+  public String usage()
+  {
+    return "FILE";
+  }
+
+  @Override
+  public String description()
+  {
+    return "Restore device memory from a backup file.";
+  }
+
+  @Override
+  public int execute(
+    final GWCommandContext context,
+    final List<String> arguments)
+    throws Exception
+  {
+    if (arguments.size() != 1) {
+      throw new GWCommandException(USAGE, "Exactly one file is required.");
+    }
+
+    final var file = Path.of(arguments.get(0));
+    final var timeThen = System.nanoTime();
+    var total = 0L;
+
+    try (var input = new DataInputStream(
+      new BufferedInputStream(Files.newInputStream(file)))) {
+      GWBackupFile.readHeader(input);
+
+      final var device = context.controller().device();
+      while (true) {
+        final var entryOpt = GWBackupFile.readEntry(input);
+        if (entryOpt.isEmpty()) {
+          break;
+        }
+
+        final var entry = entryOpt.get();
+        context.progress(
+          "restore: 0x%08x:%d",
+          Integer.valueOf(entry.address()),
+          Integer.valueOf(entry.data().length)
+        );
+        GWMemoryTransfers.write(device, entry.address(), entry.data());
+        total += entry.data().length;
+      }
+    }
+
+    context.progress(
+      "restore: %d bytes in %d ms",
+      Long.valueOf(total),
+      Long.valueOf((System.nanoTime() - timeThen) / 1_000_000L)
+    );
+    return SUCCESS;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import java.util.List;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.SUCCESS;
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * Write bytes to device memory.
+ */
+
+public final class GWCommandSet implements GWCommandType
+{
+  /**
+   * Write bytes to device memory.
+   */
+
+  public GWCommandSet()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "set";
+  }
+
+  @Override
+  public String usage()
+  {
+    return "ADDRESS BYTE [BYTE ...]";
+  }
+
+  @Override
+  public String description()
+  {
+    return "Write bytes to device memory.";
+  }
+
+  @Override
+  public int execute(
+    final GWCommandContext context,
+    final List<String> arguments)
+    throws Exception
+  {
+    if (arguments.size() < 2) {
+      throw new GWCommandException(
+        USAGE, "An address and at least one byte are required.");
+    }
+
+    final var address =
+      GWNumbers.parseAddress(arguments.get(0));
+    final var values =
+      arguments.subList(1, arguments.size());
+    final var data =
+      new byte[values.size()];
+
+    for (int index = 0; index < data.length; ++index) {
+      data[index] = GWNumbers.parseDataByte(values.get(index));
+    }
+
+    GWMemoryTransfers.write(context.controller().device(), address, data);
+    context.progress(
+      "set: 0x%08x:%d",
+      Integer.valueOf(address),
+      Integer.valueOf(data.length)
+    );
+    return SUCCESS;
+  }
+}
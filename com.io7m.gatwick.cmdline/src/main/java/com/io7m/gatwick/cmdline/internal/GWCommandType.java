@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import java.util.List;
+
+/**
+ * A command.
+ */
+
+public interface GWCommandType
+{
+  /**
+   * @return The name used to invoke the command
+   */
+
+  String name();
+
+  /**
+   * @return A short description of the command's arguments
+   */
+
+  String usage();
+
+  /**
+   * @return A one-line description of the command
+   */
+
+  String description();
+
+  /**
+   * Execute the command.
+   *
+   * @param context   The command context
+   * @param arguments The command arguments
+   *
+   * @return An exit code
+   *
+   * @throws Exception On errors
+   * @see com.io7m.gatwick.cmdline.GWExitCodes
+   */
+
+  int execute(
+    GWCommandContext context,
+    List<String> arguments)
+    throws Exception;
+}
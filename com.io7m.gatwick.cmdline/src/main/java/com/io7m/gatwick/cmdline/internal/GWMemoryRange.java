@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import com.io7m.gatwick.iovar.GWIOAddresses;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * A range of device memory.
+ *
+ * @param address The device address of the first byte
+ * @param size    The number of bytes
+ */
+
+public record GWMemoryRange(
+  int address,
+  int size)
+{
+  /**
+   * A range of device memory.
+   *
+   * @param address The device address of the first byte
+   * @param size    The number of bytes
+   */
+
+  public GWMemoryRange
+  {
+    if (size <= 0) {
+      throw new IllegalArgumentException(
+        "Size %d must be positive".formatted(Integer.valueOf(size))
+      );
+    }
+  }
+
+  /**
+   * Parse a range of the form {@code ADDRESS:SIZE}.
+   *
+   * @param text The text
+   *
+   * @return A range
+   *
+   * @throws GWCommandException If the text is not a valid range
+   */
+
+  public static GWMemoryRange parse(
+    final String text)
+    throws GWCommandException
+  {
+    final var separator = text.indexOf(':');
+    if (separator == -1) {
+      throw new GWCommandException(
+        USAGE,
+        "Ranges must be of the form ADDRESS:SIZE (received '%s')"
+          .formatted(text)
+      );
+    }
+
+    return new GWMemoryRange(
+      GWNumbers.parseAddress(text.substring(0, separator)),
+      GWNumbers.parseSize(text.substring(separator + 1))
+    );
+  }
+
+  /**
+   * Split this range into ranges of at most the given size. Device memory
+   * is continuous across the 7-bit boundaries of each address byte.
+   *
+   * @param maximum The maximum size of each range
+   *
+   * @return The ranges
+   */
+
+  public List<GWMemoryRange> split(
+    final int maximum)
+  {
+    final var ranges = new ArrayList<GWMemoryRange>();
+    final var start = GWIOAddresses.linearOf(this.address);
+    final var end = start + this.size;
+
+    var position = start;
+    while (position < end) {
+      final var count = Math.min(maximum, end - position);
+      ranges.add(new GWMemoryRange(GWIOAddresses.addressOf(position), count));
+      position += count;
+    }
+    return List.copyOf(ranges);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "0x%08x:%d".formatted(
+      Integer.valueOf(this.address),
+      Integer.valueOf(this.size)
+    );
+  }
+}
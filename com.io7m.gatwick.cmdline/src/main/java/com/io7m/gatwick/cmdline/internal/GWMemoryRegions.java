@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import com.io7m.gatwick.controller.api.GWControllerType;
+
+import java.util.List;
+
+/**
+ * The regions of device memory that are backed up by default.
+ */
+
+public final class GWMemoryRegions
+{
+  private GWMemoryRegions()
+  {
+
+  }
+
+  /**
+   * The system settings and program change maps. The regions are derived
+   * from the expected sizes and base addresses of the structure definitions.
+   *
+   * @param controller The controller
+   *
+   * @return The system regions
+   */
+
+  public static List<GWMemoryRange> system(
+    final GWControllerType controller)
+  {
+    return controller.systemBlocks()
+      .stream()
+      .map(b -> new GWMemoryRange(b.address(), b.size()))
+      .toList();
+  }
+}
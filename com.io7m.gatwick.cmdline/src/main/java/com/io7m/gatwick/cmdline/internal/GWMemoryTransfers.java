@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+
+/**
+ * Functions to transfer ranges of memory to and from a device.
+ */
+
+public final class GWMemoryTransfers
+{
+  /**
+   * The maximum number of bytes transferred in a single message.
+   */
+
+  public static final int MAXIMUM_TRANSFER_SIZE = 128;
+
+  /**
+   * The maximum number of blocks that may be read ahead of the receiver.
+   */
+
+  public static final int PIPELINE_DEPTH = 8;
+
+  private GWMemoryTransfers()
+  {
+
+  }
+
+  /**
+   * A receiver of blocks of memory.
+   */
+
+  public interface GWMemoryReceiverType
+  {
+    /**
+     * A block of memory was received.
+     *
+     * @param address The device address of the first byte
+     * @param data    The data
+     *
+     * @throws Exception On errors
+     */
+
+    void receive(
+      int address,
+      byte[] data)
+      throws Exception;
+  }
+
+  /**
+   * Read a range of memory, passing each block to the given receiver as soon
+   * as it arrives.
+   *
+   * @param device   The device
+   * @param range    The range
+   * @param receiver The receiver
+   *
+   * @throws Exception On errors
+   */
+
+  public static void read(
+    final GWDeviceType device,
+    final GWMemoryRange range,
+    final GWMemoryReceiverType receiver)
+    throws Exception
+  {
+    read(device, List.of(range), receiver);
+  }
+
+  /**
+   * Read a sequence of ranges of memory, passing each block to the given
+   * receiver as soon as it arrives. Blocks are requested on a separate
+   * thread, up to {@link #PIPELINE_DEPTH} blocks ahead of the receiver, so
+   * that the device is not left idle whilst the receiver handles earlier
+   * blocks. The receiver is called on the calling thread, with blocks in the
+   * order of the given ranges.
+   *
+   * @param device   The device
+   * @param ranges   The ranges
+   * @param receiver The receiver
+   *
+   * @throws Exception On errors
+   */
+
+  public static void read(
+    final GWDeviceType device,
+    final List<GWMemoryRange> ranges,
+    final GWMemoryReceiverType receiver)
+    throws Exception
+  {
+    final var chunks = new ArrayList<GWMemoryRange>();
+    for (final var range : ranges) {
+      chunks.addAll(range.split(MAXIMUM_TRANSFER_SIZE));
+    }
+
+    final var queue =
+      new ArrayBlockingQueue<Fetched>(PIPELINE_DEPTH);
+
+    try (var executor = Executors.newSingleThreadExecutor(r -> {
+      final var thread = new Thread(r);
+      thread.setDaemon(true);
+      thread.setName(
+        "com.io7m.gatwick.cmdline.internal.GWMemoryTransfers[%d]"
+          .formatted(Long.valueOf(thread.getId()))
+      );
+      return thread;
+    })) {
+      executor.execute(() -> fetch(device, chunks, queue));
+
+      /*
+       * If the receiver fails, the fetching thread is interrupted so that
+       * it doesn't wait forever for space in the queue.
+       */
+
+      try {
+        for (int index = 0; index < chunks.size(); ++index) {
+          final var fetched = queue.take();
+          if (fetched.failure() != null) {
+            throw fetched.failure();
+          }
+          receiver.receive(fetched.address(), fetched.data());
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  private record Fetched(
+    int address,
+    byte[] data,
+    Exception failure)
+  {
+
+  }
+
+  private static void fetch(
+    final GWDeviceType device,
+    final List<GWMemoryRange> chunks,
+    final BlockingQueue<Fetched> queue)
+  {
+    try {
+      for (final var chunk : chunks) {
+        final var data = readChunk(device, chunk);
+        queue.put(new Fetched(chunk.address(), data, null));
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final Exception e) {
+      try {
+        queue.put(new Fetched(0, null, e));
+      } catch (final InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static byte[] readChunk(
+    final GWDeviceType device,
+    final GWMemoryRange chunk)
+    throws GWDeviceException, InterruptedException
+  {
+    /*
+     * The size field of a request is encoded in the same 7-bit form as
+     * addresses.
+     */
+
+    final var response =
+      device.sendCommand(
+        new GWDeviceCommandRequestData(
+          chunk.address(),
+          GWIOAddresses.addressOf(chunk.size())
+        )
+      );
+
+    return Arrays.copyOf(response.data(), chunk.size());
+  }
+
+  /**
+   * Write data to the device.
+   *
+   * @param device  The device
+   * @param address The device address of the first byte
+   * @param data    The data
+   *
+   * @throws GWDeviceException    On errors
+   * @throws InterruptedException On interruption
+   */
+
+  public static void write(
+    final GWDeviceType device,
+    final int address,
+    final byte[] data)
+    throws GWDeviceException, InterruptedException
+  {
+    final var range = new GWMemoryRange(address, data.length);
+
+    var offset = 0;
+    for (final var chunk : range.split(MAXIMUM_TRANSFER_SIZE)) {
+      device.sendCommand(
+        new GWDeviceCommandSetData(
+          chunk.address(),
+          Arrays.copyOfRange(data, offset, offset + chunk.size())
+        )
+      );
+      offset += chunk.size();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.cmdline.internal;
+
+import static com.io7m.gatwick.cmdline.GWExitCodes.USAGE;
+
+/**
+ * Functions to parse numbers from the command line. Numbers prefixed with
+ * {@code 0x} are hexadecimal, and underscores are ignored so that addresses
+ * can be written in the same form as the device documentation
+ * ({@code 0x1000_0000}).
+ */
+
+public final class GWNumbers
+{
+  private GWNumbers()
+  {
+
+  }
+
+  private static int parse(
+    final String text,
+    final String what)
+    throws GWCommandException
+  {
+    final var clean = text.replace("_", "");
+    try {
+      if (clean.startsWith("0x") || clean.startsWith("0X")) {
+        return Integer.parseUnsignedInt(clean.substring(2), 16);
+      }
+      return Integer.parseInt(clean);
+    } catch (final NumberFormatException e) {
+      throw new GWCommandException(
+        USAGE, "Invalid %s '%s'".formatted(what, text));
+    }
+  }
+
+  /**
+   * Parse a device address. Each byte of an address must be in the range
+   * {@code [0, 0x7f]}.
+   *
+   * @param text The text
+   *
+   * @return The address
+   *
+   * @throws GWCommandException On invalid addresses
+   */
+
+  public static int parseAddress(
+    final String text)
+    throws GWCommandException
+  {
+    final var address = parse(text, "address");
+    if ((address & 0x80808080) != 0) {
+      throw new GWCommandException(
+        USAGE,
+        "Invalid address '%s': each byte must be in the range [0, 0x7f]"
+          .formatted(text)
+      );
+    }
+    return address;
+  }
+
+  /**
+   * Parse a positive size.
+   *
+   * @param text The text
+   *
+   * @return The size
+   *
+   * @throws GWCommandException On invalid sizes
+   */
+
+  public static int parseSize(
+    final String text)
+    throws GWCommandException
+  {
+    final var size = parse(text, "size");
+    if (size <= 0) {
+      throw new GWCommandException(
+        USAGE, "Invalid size '%s': must be positive".formatted(text));
+    }
+    return size;
+  }
+
+  /**
+   * Parse a data byte in the range {@code [0, 0x7f]}.
+   *
+   * @param text The text
+   *
+   * @return The byte
+   *
+   * @throws GWCommandException On invalid bytes
+   */
+
+  public static byte parseDataByte(
+    final String text)
+    throws GWCommandException
+  {
+    final var value = parse(text, "byte");
+    if (value < 0 || value > 0x7f) {
+      throw new GWCommandException(
+        USAGE,
+        "Invalid byte '%s': must be in the range [0, 0x7f]".formatted(text)
+      );
+    }
+    return (byte) value;
+  }
+}
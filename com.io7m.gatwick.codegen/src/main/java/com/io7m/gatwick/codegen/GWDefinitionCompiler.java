@@ -18,6 +18,9 @@
 package com.io7m.gatwick.codegen;
 
 import com.io7m.gatwick.codegen.internal.GWEnumerations;
+import com.io7m.gatwick.codegen.internal.GWJavaFiles;
+import com.io7m.gatwick.codegen.internal.GWRawBlocks;
+import com.io7m.gatwick.codegen.internal.GWStructureTables;
 import com.io7m.gatwick.codegen.internal.GWStructures;
 import com.io7m.gatwick.codegen.jaxb.Enumeration;
 import com.io7m.gatwick.codegen.jaxb.ParameterBase;
@@ -29,11 +32,16 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -116,21 +124,19 @@ public final class GWDefinitionCompiler
         .collect(Collectors.toMap(Enumeration::getName, Function.identity()));
 
     this.checkStructures();
-    this.compileEnumerations();
-    this.compileStructures();
 
-    return Set.copyOf(this.files);
-  }
+    /*
+     * Every generated file is independent of every other, so each file is
+     * generated by a separate task. Enumerations and structures are
+     * generated at the same time.
+     */
 
-  private void compileStructures()
-    throws IOException
-  {
-    if (this.configuration.structures()) {
-      final var newFiles =
-        new GWStructures(this.configuration, this.structures)
-          .compile();
+    try (var executor = createExecutor()) {
+      final var tasks = new ArrayList<Future<Path>>();
+      tasks.addAll(this.compileEnumerations(executor));
+      tasks.addAll(this.compileStructures(executor));
 
-      for (final var file : newFiles) {
+      for (final var file : GWJavaFiles.awaitAll(tasks)) {
         Preconditions.checkPreconditionV(
           !this.files.contains(file),
           "File %s cannot be created twice",
@@ -139,25 +145,69 @@ public final class GWDefinitionCompiler
         this.files.add(file);
       }
     }
+
+    return Set.copyOf(this.files);
   }
 
-  private void compileEnumerations()
-    throws IOException
+  private static ExecutorService createExecutor()
   {
-    if (this.configuration.enumerations()) {
-      final var newFiles =
-        new GWEnumerations(this.configuration)
-          .compileEnumerations(this.enumerations.values());
+    return Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(),
+      r -> {
+        final var thread = new Thread(r);
+        thread.setDaemon(true);
+        thread.setName(
+          "com.io7m.gatwick.codegen.GWDefinitionCompiler[%d]"
+            .formatted(Long.valueOf(thread.getId()))
+        );
+        return thread;
+      });
+  }
 
-      for (final var file : newFiles) {
-        Preconditions.checkPreconditionV(
-          !this.files.contains(file),
-          "File %s cannot be created twice",
-          file
+  private List<Future<Path>> compileStructures(
+    final ExecutorService executor)
+  {
+    if (!this.configuration.structures()) {
+      return List.of();
+    }
+
+    final var tasks = new ArrayList<Future<Path>>();
+    switch (this.configuration.structureMode()) {
+      case CLASSES -> {
+        tasks.addAll(
+          new GWStructures(this.configuration, this.structures, executor)
+            .compile()
+        );
+      }
+      case TABLES -> {
+        tasks.addAll(
+          new GWStructureTables(this.configuration, this.structures, executor)
+            .compile()
         );
-        this.files.add(file);
       }
     }
+
+    /*
+     * The raw block table is generated in either mode, as it does not
+     * depend on the form of the structures.
+     */
+
+    tasks.addAll(
+      new GWRawBlocks(this.configuration, this.structures, executor)
+        .compile()
+    );
+    return List.copyOf(tasks);
+  }
+
+  private List<Future<Path>> compileEnumerations(
+    final ExecutorService executor)
+  {
+    if (!this.configuration.enumerations()) {
+      return List.of();
+    }
+
+    return new GWEnumerations(this.configuration, executor)
+      .compileEnumerations(this.enumerations.values());
   }
 
   private void checkStructures()
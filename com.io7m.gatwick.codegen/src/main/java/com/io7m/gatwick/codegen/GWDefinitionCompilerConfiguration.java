@@ -27,6 +27,7 @@ import java.util.Objects;
  * @param outputDirectory    The output directory
  * @param structures         {@code true} if structures should be generated
  * @param structurePackage   The package name for structure source files
+ * @param structureMode      The form in which structures are generated
  * @param enumerations       {@code true} if enumerations should be generated
  * @param enumerationPackage The package name for enumeration source files
  * @param apiPackage         The package containing API interfaces
@@ -37,6 +38,7 @@ public record GWDefinitionCompilerConfiguration(
   Path outputDirectory,
   boolean structures,
   String structurePackage,
+  GWStructureMode structureMode,
   boolean enumerations,
   String enumerationPackage,
   String apiPackage,
@@ -48,6 +50,7 @@ public record GWDefinitionCompilerConfiguration(
    * @param outputDirectory    The output directory
    * @param structures         {@code true} if structures should be generated
    * @param structurePackage   The package name for structure source files
+   * @param structureMode      The form in which structures are generated
    * @param enumerations       {@code true} if enumerations should be generated
    * @param enumerationPackage The package name for enumeration source files
    * @param apiPackage         The package containing API interfaces
@@ -58,6 +61,7 @@ public record GWDefinitionCompilerConfiguration(
   {
     Objects.requireNonNull(outputDirectory, "outputDirectory");
     Objects.requireNonNull(structurePackage, "structurePackage");
+    Objects.requireNonNull(structureMode, "structureMode");
     Objects.requireNonNull(enumerationPackage, "enumerationPackage");
     Objects.requireNonNull(definitions, "definitions");
     Objects.requireNonNull(apiPackage, "apiPackage");
@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.codegen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stamps recording the inputs of a previous compilation.
+ *
+ * <p>The output of the compiler is entirely determined by the definitions
+ * and the compiler itself, both of which are packaged together, and by the
+ * command-line arguments. A stamp file written into the output directory
+ * records a fingerprint of all of these, along with the files that were
+ * generated. If a later compilation has the same fingerprint and all the
+ * generated files are still present, then parsing the definitions and
+ * generating the sources can be skipped entirely.</p>
+ */
+
+public final class GWDefinitionStamps
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWDefinitionStamps.class);
+
+  /**
+   * The name of the stamp file.
+   */
+
+  public static final String STAMP_FILE = ".gatwick-codegen.stamp";
+
+  private GWDefinitionStamps()
+  {
+
+  }
+
+  /**
+   * Calculate a fingerprint for a compilation.
+   *
+   * @param arguments The compiler arguments
+   *
+   * @return The fingerprint, or nothing if the location of the compiler
+   * cannot be determined
+   *
+   * @throws IOException On errors
+   */
+
+  public static Optional<String> fingerprint(
+    final List<String> arguments)
+    throws IOException
+  {
+    Objects.requireNonNull(arguments, "arguments");
+
+    final var source =
+      GWDefinitionStamps.class.getProtectionDomain().getCodeSource();
+    if (source == null) {
+      return Optional.empty();
+    }
+
+    final Path location;
+    try {
+      location = Path.of(source.getLocation().toURI());
+    } catch (final URISyntaxException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+
+    final var digest = sha256();
+    for (final var argument : arguments) {
+      digest.update(argument.getBytes(UTF_8));
+      digest.update((byte) 0);
+    }
+
+    if (Files.isDirectory(location)) {
+      try (var stream = Files.walk(location)) {
+        final var files =
+          stream.filter(Files::isRegularFile)
+            .sorted()
+            .toList();
+
+        for (final var file : files) {
+          digest.update(location.relativize(file).toString().getBytes(UTF_8));
+          digest.update((byte) 0);
+          digestFile(digest, file);
+        }
+      }
+    } else {
+      digestFile(digest, location);
+    }
+
+    return Optional.of(HexFormat.of().formatHex(digest.digest()));
+  }
+
+  /**
+   * Determine if the output directory holds the results of a compilation
+   * with the given fingerprint.
+   *
+   * @param outputDirectory The output directory
+   * @param fingerprint     The fingerprint
+   *
+   * @return {@code true} if the output is up-to-date
+   *
+   * @throws IOException On errors
+   */
+
+  public static boolean isUpToDate(
+    final Path outputDirectory,
+    final String fingerprint)
+    throws IOException
+  {
+    Objects.requireNonNull(outputDirectory, "outputDirectory");
+    Objects.requireNonNull(fingerprint, "fingerprint");
+
+    final var stamp = outputDirectory.resolve(STAMP_FILE);
+    if (!Files.isRegularFile(stamp)) {
+      return false;
+    }
+
+    final var lines = Files.readAllLines(stamp, UTF_8);
+    if (lines.isEmpty() || !Objects.equals(lines.get(0), fingerprint)) {
+      LOG.debug("stamp {} does not match", stamp);
+      return false;
+    }
+
+    for (final var line : lines.subList(1, lines.size())) {
+      if (!Files.isRegularFile(outputDirectory.resolve(line))) {
+        LOG.debug("generated file {} is missing", line);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Write a stamp to the output directory.
+   *
+   * @param outputDirectory The output directory
+   * @param fingerprint     The fingerprint
+   * @param files           The generated files
+   *
+   * @throws IOException On errors
+   */
+
+  public static void write(
+    final Path outputDirectory,
+    final String fingerprint,
+    final Collection<Path> files)
+    throws IOException
+  {
+    Objects.requireNonNull(outputDirectory, "outputDirectory");
+    Objects.requireNonNull(fingerprint, "fingerprint");
+    Objects.requireNonNull(files, "files");
+
+    final var lines = new ArrayList<String>(files.size() + 1);
+    lines.add(fingerprint);
+    for (final var file : files) {
+      lines.add(outputDirectory.relativize(file).toString());
+    }
+    lines.subList(1, lines.size()).sort(String::compareTo);
+
+    Files.createDirectories(outputDirectory);
+    Files.write(outputDirectory.resolve(STAMP_FILE), lines, UTF_8);
+  }
+
+  /**
+   * Delete the stamp in the output directory, if one exists.
+   *
+   * @param outputDirectory The output directory
+   *
+   * @throws IOException On errors
+   */
+
+  public static void delete(
+    final Path outputDirectory)
+    throws IOException
+  {
+    Objects.requireNonNull(outputDirectory, "outputDirectory");
+    Files.deleteIfExists(outputDirectory.resolve(STAMP_FILE));
+  }
+
+  private static void digestFile(
+    final MessageDigest digest,
+    final Path file)
+    throws IOException
+  {
+    final var buffer = new byte[65536];
+    try (InputStream stream = Files.newInputStream(file)) {
+      while (true) {
+        final var r = stream.read(buffer);
+        if (r == -1) {
+          break;
+        }
+        digest.update(buffer, 0, r);
+      }
+    }
+  }
+
+  private static MessageDigest sha256()
+  {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -16,7 +16,12 @@
 
 package com.io7m.gatwick.codegen;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Main compiler entry point.
@@ -24,6 +29,9 @@ import java.nio.file.Paths;
 
 public final class MakeEnumerationsMain
 {
+  private static final Logger LOG =
+    LoggerFactory.getLogger(MakeEnumerationsMain.class);
+
   private MakeEnumerationsMain()
   {
 
@@ -45,6 +53,22 @@ public final class MakeEnumerationsMain
     final var structurePackageName = args[1];
     final var enumerationPackageName = args[2];
 
+    final var arguments = new ArrayList<String>();
+    arguments.add(MakeEnumerationsMain.class.getName());
+    arguments.addAll(List.of(args));
+
+    final var fingerprint =
+      GWDefinitionStamps.fingerprint(arguments);
+
+    if (fingerprint.isPresent()) {
+      if (GWDefinitionStamps.isUpToDate(outputDirectory, fingerprint.get())) {
+        LOG.info("Generated sources in {} are up-to-date", outputDirectory);
+        return;
+      }
+    }
+
+    GWDefinitionStamps.delete(outputDirectory);
+
     final var definitions =
       GWDefinitionParser.parse();
 
@@ -53,12 +77,18 @@ public final class MakeEnumerationsMain
         outputDirectory,
         false,
         structurePackageName,
+        GWStructureMode.CLASSES,
         true,
         enumerationPackageName,
         "com.io7m.gatwick.controller.api",
         definitions
       ));
 
-    compiler.execute();
+    final var files =
+      compiler.execute();
+
+    if (fingerprint.isPresent()) {
+      GWDefinitionStamps.write(outputDirectory, fingerprint.get(), files);
+    }
   }
 }
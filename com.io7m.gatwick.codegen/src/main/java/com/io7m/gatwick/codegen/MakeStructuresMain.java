@@ -16,7 +16,12 @@
 
 package com.io7m.gatwick.codegen;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Main compiler entry point.
@@ -24,6 +29,9 @@ import java.nio.file.Paths;
 
 public final class MakeStructuresMain
 {
+  private static final Logger LOG =
+    LoggerFactory.getLogger(MakeStructuresMain.class);
+
   private MakeStructuresMain()
   {
 
@@ -44,6 +52,26 @@ public final class MakeStructuresMain
     final var outputDirectory = Paths.get(args[0]);
     final var structurePackageName = args[1];
     final var enumerationPackageName = args[2];
+    final var structureMode =
+      args.length > 3
+        ? GWStructureMode.valueOf(args[3])
+        : GWStructureMode.CLASSES;
+
+    final var arguments = new ArrayList<String>();
+    arguments.add(MakeStructuresMain.class.getName());
+    arguments.addAll(List.of(args));
+
+    final var fingerprint =
+      GWDefinitionStamps.fingerprint(arguments);
+
+    if (fingerprint.isPresent()) {
+      if (GWDefinitionStamps.isUpToDate(outputDirectory, fingerprint.get())) {
+        LOG.info("Generated sources in {} are up-to-date", outputDirectory);
+        return;
+      }
+    }
+
+    GWDefinitionStamps.delete(outputDirectory);
 
     final var definitions =
       GWDefinitionParser.parse();
@@ -53,12 +81,18 @@ public final class MakeStructuresMain
         outputDirectory,
         true,
         structurePackageName,
+        structureMode,
         false,
         enumerationPackageName,
         "com.io7m.gatwick.controller.api",
         definitions
       ));
 
-    compiler.execute();
+    final var files =
+      compiler.execute();
+
+    if (fingerprint.isPresent()) {
+      GWDefinitionStamps.write(outputDirectory, fingerprint.get(), files);
+    }
   }
 }
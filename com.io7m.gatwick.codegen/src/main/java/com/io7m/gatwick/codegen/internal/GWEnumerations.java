@@ -19,6 +19,7 @@ package com.io7m.gatwick.codegen.internal;
 import com.io7m.gatwick.codegen.GWDefinitionCompilerConfiguration;
 import com.io7m.gatwick.codegen.jaxb.Enumeration;
 import com.io7m.gatwick.iovar.GWIOEnumerationInfoType;
+import com.io7m.gatwick.iovar.GWIOEnumerationRegistryType;
 import com.io7m.gatwick.iovar.GWIOSerializers;
 import com.io7m.gatwick.iovar.GWIOVariableDeserializeType;
 import com.io7m.gatwick.iovar.GWIOVariableSerializeType;
@@ -29,18 +30,22 @@ import com.io7m.jodist.JavaFile;
 import com.io7m.jodist.MethodSpec;
 import com.io7m.jodist.ParameterizedTypeName;
 import com.io7m.jodist.TypeSpec;
+import com.io7m.jodist.WildcardTypeName;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PROTECTED;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
 
@@ -50,48 +55,154 @@ import static javax.lang.model.element.Modifier.STATIC;
 
 public final class GWEnumerations
 {
+  private static final String REGISTRY_NAME = "GWEnumerationRegistry";
   private static final Pattern INVALID_START =
     Pattern.compile("^[^A-Z]+.*");
 
-  private final HashSet<Path> files;
   private final GWDefinitionCompilerConfiguration configuration;
+  private final ExecutorService executor;
 
   /**
    * Functions to generate enums.
    *
    * @param inConfiguration The compiler configuration
+   * @param inExecutor      The executor used to generate classes
    */
 
   public GWEnumerations(
-    final GWDefinitionCompilerConfiguration inConfiguration)
+    final GWDefinitionCompilerConfiguration inConfiguration,
+    final ExecutorService inExecutor)
   {
     this.configuration =
       Objects.requireNonNull(inConfiguration, "configuration");
-    this.files =
-      new HashSet<Path>();
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
   }
 
   /**
-   * Generate classes.
+   * Generate classes. Each class is generated by a separate task on the
+   * executor.
    *
    * @param enumerations The enumerations
    *
-   * @return The generated files
-   *
-   * @throws IOException On errors
+   * @return The tasks generating each file
    */
 
-  public Set<Path> compileEnumerations(
+  public List<Future<Path>> compileEnumerations(
     final Collection<Enumeration> enumerations)
-    throws IOException
   {
+    final var tasks =
+      new ArrayList<Future<Path>>(enumerations.size() + 1);
     for (final var e : enumerations) {
-      this.compileEnumeration(e);
+      tasks.add(this.executor.submit(() -> this.compileEnumeration(e)));
     }
-    return Set.copyOf(this.files);
+    tasks.add(this.executor.submit(() -> this.compileRegistry(enumerations)));
+    return List.copyOf(tasks);
+  }
+
+  /*
+   * Generate a registry that maps each enumeration class to its information
+   * without using reflection. The lookup for a given class is performed once
+   * and then cached in a ClassValue.
+   */
+
+  private Path compileRegistry(
+    final Collection<Enumeration> enumerations)
+    throws IOException
+  {
+    final var className =
+      ClassName.get(this.configuration.enumerationPackage(), REGISTRY_NAME);
+
+    final var infoType =
+      ParameterizedTypeName.get(
+        ClassName.get(GWIOEnumerationInfoType.class),
+        WildcardTypeName.subtypeOf(Object.class)
+      );
+    final var classType =
+      ParameterizedTypeName.get(
+        ClassName.get(Class.class),
+        WildcardTypeName.subtypeOf(Object.class)
+      );
+    final var classValueType =
+      ParameterizedTypeName.get(ClassName.get(ClassValue.class), infoType);
+    final var optionalType =
+      ParameterizedTypeName.get(ClassName.get(Optional.class), infoType);
+
+    final var lookup =
+      MethodSpec.methodBuilder("lookup")
+        .addModifiers(PRIVATE, STATIC)
+        .returns(infoType)
+        .addParameter(classType, "type", FINAL);
+
+    final var sorted =
+      enumerations.stream()
+        .map(Enumeration::getName)
+        .map(GWEnumerations::makeEnumerationName)
+        .sorted()
+        .toList();
+
+    for (final var name : sorted) {
+      final var enumType =
+        ClassName.get(this.configuration.enumerationPackage(), name);
+      lookup.beginControlFlow("if (type == $T.class)", enumType);
+      lookup.addStatement("return $T.info()", enumType);
+      lookup.endControlFlow();
+    }
+    lookup.addStatement("return null");
+
+    final var classValue =
+      TypeSpec.anonymousClassBuilder("")
+        .superclass(classValueType)
+        .addMethod(
+          MethodSpec.methodBuilder("computeValue")
+            .addAnnotation(Override.class)
+            .addModifiers(PROTECTED)
+            .returns(infoType)
+            .addParameter(classType, "type", FINAL)
+            .addStatement("return lookup(type)")
+            .build()
+        ).build();
+
+    final var classBuilder =
+      TypeSpec.classBuilder(className)
+        .addModifiers(PUBLIC, FINAL)
+        .addSuperinterface(GWIOEnumerationRegistryType.class)
+        .addJavadoc("A registry of all generated enumerations.")
+        .addField(
+          FieldSpec.builder(classValueType, "INFO", PRIVATE, STATIC, FINAL)
+            .initializer("$L", classValue)
+            .build()
+        )
+        .addMethod(
+          MethodSpec.constructorBuilder()
+            .addJavadoc("A registry of all generated enumerations.")
+            .addModifiers(PUBLIC)
+            .build()
+        )
+        .addMethod(lookup.build())
+        .addMethod(
+          MethodSpec.methodBuilder("findInfo")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .returns(optionalType)
+            .addParameter(classType, "enumClass", FINAL)
+            .addStatement(
+              "return $T.ofNullable(INFO.get(enumClass))",
+              Optional.class)
+            .build()
+        );
+
+    final var javaFile =
+      JavaFile.builder(
+        this.configuration.enumerationPackage(),
+        classBuilder.build()
+      ).build();
+
+    return GWJavaFiles.write(
+      this.configuration.outputDirectory(), className, javaFile);
   }
 
-  private void compileEnumeration(
+  private Path compileEnumeration(
     final Enumeration enumeration)
     throws IOException
   {
@@ -117,7 +228,8 @@ public final class GWEnumerations
       JavaFile.builder(this.configuration.enumerationPackage(), enumT)
         .build();
 
-    this.files.add(javaFile.writeToPath(this.configuration.outputDirectory()));
+    return GWJavaFiles.write(
+      this.configuration.outputDirectory(), className, javaFile);
   }
 
   private static MethodSpec makeEnumerationInfoMethod(
@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.codegen.internal;
+
+import com.io7m.jodist.ClassName;
+import com.io7m.jodist.JavaFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Functions to write generated source files.
+ */
+
+public final class GWJavaFiles
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWJavaFiles.class);
+
+  private GWJavaFiles()
+  {
+
+  }
+
+  /**
+   * Write the given source file to the output directory. If a file already
+   * exists with exactly the same content, the file is not written, so that
+   * its modification time is preserved and incremental compilation of the
+   * generated sources is not invalidated.
+   *
+   * @param outputDirectory The output directory
+   * @param className       The name of the top-level class in the file
+   * @param javaFile        The source file
+   *
+   * @return The path of the source file
+   *
+   * @throws IOException On errors
+   */
+
+  public static Path write(
+    final Path outputDirectory,
+    final ClassName className,
+    final JavaFile javaFile)
+    throws IOException
+  {
+    Objects.requireNonNull(outputDirectory, "outputDirectory");
+    Objects.requireNonNull(className, "className");
+    Objects.requireNonNull(javaFile, "javaFile");
+
+    var directory = outputDirectory;
+    for (final var segment : className.packageName().split("\\.")) {
+      if (!segment.isEmpty()) {
+        directory = directory.resolve(segment);
+      }
+    }
+
+    final var file =
+      directory.resolve(className.simpleName() + ".java");
+    final var content =
+      javaFile.toString().getBytes(UTF_8);
+
+    if (isUnchanged(file, content)) {
+      LOG.debug("unchanged {}", file);
+      return file;
+    }
+
+    /*
+     * Write the content to a temporary file and then atomically replace
+     * the target, so that an interrupted build cannot leave a truncated
+     * source file that would later compare as "unchanged".
+     */
+
+    Files.createDirectories(directory);
+    final var temporary =
+      directory.resolve(className.simpleName() + ".java.tmp");
+    Files.write(temporary, content);
+    Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    LOG.debug("wrote {}", file);
+    return file;
+  }
+
+  private static boolean isUnchanged(
+    final Path file,
+    final byte[] content)
+    throws IOException
+  {
+    if (!Files.isRegularFile(file)) {
+      return false;
+    }
+    if (Files.size(file) != content.length) {
+      return false;
+    }
+    return Arrays.equals(Files.readAllBytes(file), content);
+  }
+
+  /**
+   * Wait for all the given file generation tasks to complete.
+   *
+   * @param tasks The tasks
+   *
+   * @return The generated files
+   *
+   * @throws IOException On errors
+   */
+
+  public static List<Path> awaitAll(
+    final Collection<Future<Path>> tasks)
+    throws IOException
+  {
+    Objects.requireNonNull(tasks, "tasks");
+
+    final var files = new ArrayList<Path>(tasks.size());
+    try {
+      for (final var task : tasks) {
+        files.add(task.get());
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (final ExecutionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof IOException ex) {
+        throw ex;
+      }
+      if (cause instanceof UncheckedIOException ex) {
+        throw ex.getCause();
+      }
+      if (cause instanceof RuntimeException ex) {
+        throw ex;
+      }
+      if (cause instanceof Error ex) {
+        throw ex;
+      }
+      throw new IOException(cause);
+    } finally {
+      for (final var task : tasks) {
+        task.cancel(true);
+      }
+    }
+    return List.copyOf(files);
+  }
+}
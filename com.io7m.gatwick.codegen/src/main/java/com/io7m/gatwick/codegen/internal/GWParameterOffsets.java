@@ -45,4 +45,27 @@ public final class GWParameterOffsets
   {
     return parseHex(p.getOffset());
   }
+
+  /**
+   * The offset of {@code p} within an image of the enclosing structure.
+   * Device addresses are made up of four 7-bit values, and so an offset
+   * such as {@code 0x0000_0100} refers to the byte that immediately follows
+   * {@code 0x0000_007f} in data returned by the device.
+   *
+   * @param p The parameter
+   *
+   * @return the image offset of {@code p}
+   */
+
+  public static long imageOffsetOf(
+    final ParameterBase p)
+  {
+    final var offset = offsetOf(p);
+
+    var result = 0L;
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      result = (result << 7) | ((offset >>> shift) & 0x7fL);
+    }
+    return result;
+  }
 }
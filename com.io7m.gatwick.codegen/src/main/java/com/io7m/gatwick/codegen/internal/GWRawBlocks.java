@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.codegen.internal;
+
+import com.io7m.gatwick.codegen.GWDefinitionCompilerConfiguration;
+import com.io7m.gatwick.codegen.jaxb.Structure;
+import com.io7m.gatwick.codegen.jaxb.StructureReferenceType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import com.io7m.gatwick.iovar.GWIORawBlock;
+import com.io7m.jodist.ClassName;
+import com.io7m.jodist.CodeBlock;
+import com.io7m.jodist.FieldSpec;
+import com.io7m.jodist.JavaFile;
+import com.io7m.jodist.MethodSpec;
+import com.io7m.jodist.ParameterizedTypeName;
+import com.io7m.jodist.TypeSpec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.io7m.gatwick.codegen.internal.GWHexIntegers.parseHex;
+import static com.io7m.gatwick.codegen.internal.GWParameterOffsets.offsetOf;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Functions to generate the table of raw blocks. Every structure that
+ * declares an expected size can be transferred as an opaque block of that
+ * size, regardless of how much of its contents is actually described by
+ * parameters. The base addresses of blocks are known only for structures
+ * that are referenced directly by a root structure (a structure that is not
+ * itself referenced by any other structure).
+ */
+
+public final class GWRawBlocks
+{
+  /**
+   * The name of the generated class.
+   */
+
+  public static final String CLASS_NAME = "StructBlocks";
+
+  private final GWDefinitionCompilerConfiguration configuration;
+  private final Map<String, Structure> structures;
+  private final ExecutorService executor;
+
+  /**
+   * Functions to generate the table of raw blocks.
+   *
+   * @param inConfiguration The compiler config
+   * @param inStructures    The structures
+   * @param inExecutor      The executor used to generate classes
+   */
+
+  public GWRawBlocks(
+    final GWDefinitionCompilerConfiguration inConfiguration,
+    final Map<String, Structure> inStructures,
+    final ExecutorService inExecutor)
+  {
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
+    this.structures =
+      Objects.requireNonNull(inStructures, "structures");
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+  }
+
+  private record Block(
+    String name,
+    long address,
+    long encodedSize)
+  {
+
+  }
+
+  /**
+   * Generate the block class.
+   *
+   * @return The task generating the file
+   */
+
+  public List<Future<Path>> compile()
+  {
+    return List.of(this.executor.submit(this::compileBlocks));
+  }
+
+  private Path compileBlocks()
+    throws IOException
+  {
+    final var className =
+      ClassName.get(this.configuration.structurePackage(), CLASS_NAME);
+
+    final var spec = TypeSpec.classBuilder(className);
+    spec.addModifiers(PUBLIC, FINAL);
+    spec.addJavadoc("Raw blocks of device memory.\n");
+
+    spec.addField(
+      FieldSpec.builder(
+          ParameterizedTypeName.get(List.class, GWIORawBlock.class),
+          "BLOCKS",
+          PRIVATE,
+          STATIC,
+          FINAL)
+        .initializer(this.blocksInitializer())
+        .build()
+    );
+
+    spec.addField(
+      FieldSpec.builder(
+          ParameterizedTypeName.get(Map.class, String.class, Integer.class),
+          "SIZES",
+          PRIVATE,
+          STATIC,
+          FINAL)
+        .initializer(this.sizesInitializer())
+        .build()
+    );
+
+    spec.addMethod(
+      MethodSpec.constructorBuilder()
+        .addModifiers(PRIVATE)
+        .build()
+    );
+
+    spec.addMethod(
+      MethodSpec.methodBuilder("blocks")
+        .addJavadoc("@return The blocks referenced by root structures, ")
+        .addJavadoc("in address order\n")
+        .addModifiers(PUBLIC, STATIC)
+        .returns(ParameterizedTypeName.get(List.class, GWIORawBlock.class))
+        .addStatement("return BLOCKS")
+        .build()
+    );
+
+    spec.addMethod(
+      MethodSpec.methodBuilder("sizes")
+        .addJavadoc("@return The size in bytes of every structure that ")
+        .addJavadoc("declares an expected size\n")
+        .addModifiers(PUBLIC, STATIC)
+        .returns(
+          ParameterizedTypeName.get(Map.class, String.class, Integer.class))
+        .addStatement("return SIZES")
+        .build()
+    );
+
+    final var javaFile =
+      JavaFile.builder(this.configuration.structurePackage(), spec.build())
+        .build();
+
+    return GWJavaFiles.write(
+      this.configuration.outputDirectory(), className, javaFile);
+  }
+
+  private CodeBlock blocksInitializer()
+  {
+    final var blocks = this.blocks();
+    final var code = CodeBlock.builder();
+    code.add("$T.of(\n", List.class);
+    for (int index = 0; index < blocks.size(); ++index) {
+      final var block = blocks.get(index);
+      code.add(
+        "  $T.ofEncodedSize($S, 0x$L, 0x$L)$L\n",
+        GWIORawBlock.class,
+        block.name(),
+        "%08x".formatted(Long.valueOf(block.address())),
+        "%04x".formatted(Long.valueOf(block.encodedSize())),
+        index + 1 < blocks.size() ? "," : ""
+      );
+    }
+    code.add(")");
+    return code.build();
+  }
+
+  private CodeBlock sizesInitializer()
+  {
+    final var names =
+      this.structures.values()
+        .stream()
+        .filter(s -> s.getExpectedSize() != null)
+        .map(Structure::getName)
+        .sorted()
+        .toList();
+
+    final var code = CodeBlock.builder();
+    code.add("$T.ofEntries(\n", Map.class);
+    for (int index = 0; index < names.size(); ++index) {
+      final var name = names.get(index);
+      final var size =
+        (int) parseHex(this.structures.get(name).getExpectedSize());
+      code.add(
+        "  $T.entry($S, $T.valueOf($L))$L\n",
+        Map.class,
+        name,
+        Integer.class,
+        Integer.valueOf(GWIOAddresses.linearOf(size)),
+        index + 1 < names.size() ? "," : ""
+      );
+    }
+    code.add(")");
+    return code.build();
+  }
+
+  private List<Block> blocks()
+  {
+    final var referenced = new HashSet<String>();
+    for (final var structure : this.structures.values()) {
+      final var parameters =
+        structure.getParameterChainOrParameterEnumeratedOrParameterFractional();
+      for (final var parameter : parameters) {
+        if (parameter instanceof StructureReferenceType ref) {
+          referenced.add(ref.getType());
+        }
+      }
+    }
+
+    final var blocks = new ArrayList<Block>();
+    for (final var structure : this.structures.values()) {
+      if (referenced.contains(structure.getName())) {
+        continue;
+      }
+
+      final var parameters =
+        structure.getParameterChainOrParameterEnumeratedOrParameterFractional();
+      for (final var parameter : parameters) {
+        if (parameter instanceof StructureReferenceType ref) {
+          final var target = this.structures.get(ref.getType());
+          if (target == null) {
+            throw new IllegalArgumentException(
+              "No such structure: %s".formatted(ref.getType())
+            );
+          }
+
+          final var expected = target.getExpectedSize();
+          if (expected != null) {
+            blocks.add(
+              new Block(ref.getName(), offsetOf(ref), parseHex(expected))
+            );
+          }
+        }
+      }
+    }
+
+    blocks.sort(Comparator.comparingLong(Block::address));
+    return List.copyOf(blocks);
+  }
+}
@@ -0,0 +1,581 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.codegen.internal;
+
+import com.io7m.gatwick.codegen.GWDefinitionCompilerConfiguration;
+import com.io7m.gatwick.codegen.jaxb.ParameterBase;
+import com.io7m.gatwick.codegen.jaxb.ParameterChainType;
+import com.io7m.gatwick.codegen.jaxb.ParameterEnumeratedType;
+import com.io7m.gatwick.codegen.jaxb.ParameterFractionalType;
+import com.io7m.gatwick.codegen.jaxb.ParameterHighCutType;
+import com.io7m.gatwick.codegen.jaxb.ParameterIntegerDirectType;
+import com.io7m.gatwick.codegen.jaxb.ParameterIntegerMappedType;
+import com.io7m.gatwick.codegen.jaxb.ParameterLowCutType;
+import com.io7m.gatwick.codegen.jaxb.ParameterRate118AndOffType;
+import com.io7m.gatwick.codegen.jaxb.ParameterRate118Type;
+import com.io7m.gatwick.codegen.jaxb.ParameterRate318Type;
+import com.io7m.gatwick.codegen.jaxb.ParameterStringType;
+import com.io7m.gatwick.codegen.jaxb.Structure;
+import com.io7m.gatwick.codegen.jaxb.StructureReferenceType;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOAddressableType;
+import com.io7m.gatwick.iovar.GWIOCachedReadableType;
+import com.io7m.gatwick.iovar.GWIOImageCodecType;
+import com.io7m.gatwick.iovar.GWIOIntVariableType;
+import com.io7m.gatwick.iovar.GWIOStructure;
+import com.io7m.gatwick.iovar.GWIOStructureDescriptor;
+import com.io7m.gatwick.iovar.GWIOStructureTables;
+import com.io7m.gatwick.iovar.GWIOVariableContainerType;
+import com.io7m.gatwick.iovar.GWIOVariableType;
+import com.io7m.jattribute.core.Attributes;
+import com.io7m.jodist.ClassName;
+import com.io7m.jodist.CodeBlock;
+import com.io7m.jodist.FieldSpec;
+import com.io7m.jodist.JavaFile;
+import com.io7m.jodist.MethodSpec;
+import com.io7m.jodist.ParameterizedTypeName;
+import com.io7m.jodist.TypeName;
+import com.io7m.jodist.TypeSpec;
+import com.io7m.jodist.WildcardTypeName;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Functions to generate structure tables. A single class is generated that
+ * holds one compact text table per structure. The tables are interpreted at
+ * run time by {@link GWIOStructureTables} and {@link GWIOStructure}.
+ *
+ * <p>So that code written against the classes produced by
+ * {@link GWStructures} continues to compile, a facade class is also
+ * generated for each structure. A facade has the same name, fields, and
+ * methods as the corresponding generated class, but contains no codec or
+ * initialization logic of its own: each field is bound to the variable
+ * created by the runtime structure, and every operation is delegated to
+ * the runtime structure.</p>
+ */
+
+public final class GWStructureTables
+{
+  /**
+   * The name of the generated class.
+   */
+
+  public static final String CLASS_NAME = "StructTables";
+
+  private static final String HIGH_CUT = "HighCut";
+  private static final String LOW_CUT = "LowCut";
+
+  /*
+   * String constants are limited to 65535 bytes of modified UTF-8 in the
+   * class file constant pool.
+   */
+
+  private static final int TABLE_SIZE_LIMIT = 65535;
+
+  private final GWDefinitionCompilerConfiguration configuration;
+  private final Map<String, Structure> structures;
+  private final LinkedHashMap<ClassName, Integer> enumerations;
+  private final ExecutorService executor;
+
+  /**
+   * Functions to generate structure tables.
+   *
+   * @param inConfiguration The compiler config
+   * @param inStructures    The structures
+   * @param inExecutor      The executor used to generate classes
+   */
+
+  public GWStructureTables(
+    final GWDefinitionCompilerConfiguration inConfiguration,
+    final Map<String, Structure> inStructures,
+    final ExecutorService inExecutor)
+  {
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
+    this.structures =
+      Objects.requireNonNull(inStructures, "structures");
+    this.enumerations =
+      new LinkedHashMap<>();
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+  }
+
+  /**
+   * Generate the table class and the facade classes. Each class is
+   * generated by a separate task on the executor.
+   *
+   * @return The tasks generating each file
+   */
+
+  public List<Future<Path>> compile()
+  {
+    final var classes =
+      new GWStructures(this.configuration, this.structures, this.executor);
+
+    final var tasks =
+      new ArrayList<Future<Path>>(this.structures.size() + 1);
+    tasks.add(this.executor.submit(this::compileTables));
+    for (final var s : this.structures.values()) {
+      tasks.add(this.executor.submit(() -> this.compileFacade(classes, s)));
+    }
+    return List.copyOf(tasks);
+  }
+
+  private Path compileFacade(
+    final GWStructures classes,
+    final Structure structure)
+    throws IOException
+  {
+    final var className =
+      ClassName.get(
+        this.configuration.structurePackage(),
+        classes.structNameOf(structure)
+      );
+    final var tablesName =
+      ClassName.get(this.configuration.structurePackage(), CLASS_NAME);
+
+    final var spec = TypeSpec.classBuilder(className);
+    spec.addModifiers(PUBLIC, FINAL);
+    spec.addSuperinterface(GWIOVariableContainerType.class);
+    spec.addSuperinterface(GWIOCachedReadableType.class);
+    spec.addSuperinterface(GWIOAddressableType.class);
+    spec.addSuperinterface(GWIOImageCodecType.class);
+    spec.addField(GWIOStructure.class, "structure", PRIVATE, FINAL);
+
+    if (structure.getJavaInterface() != null) {
+      spec.addSuperinterface(
+        ClassName.get(
+          this.configuration.apiPackage(), structure.getJavaInterface()
+        )
+      );
+    }
+
+    spec.addMethod(
+      MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addParameter(GWDeviceType.class, "inDevice", FINAL)
+        .addParameter(Attributes.class, "inAttributes", FINAL)
+        .addParameter(int.class, "inBaseAddress", FINAL)
+        .addStatement(
+          "this($T.create(inDevice, inAttributes, $T.descriptor($S), "
+          + "inBaseAddress))",
+          GWIOStructure.class,
+          tablesName,
+          structure.getName())
+        .build()
+    );
+
+    final var constructor =
+      MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addParameter(GWIOStructure.class, "inStructure", FINAL)
+        .addStatement(
+          "this.structure = $T.requireNonNull(inStructure, $S)",
+          Objects.class,
+          "structure");
+
+    final var parameters =
+      structure.getParameterChainOrParameterEnumeratedOrParameterFractional();
+
+    for (final var p : parameters) {
+      try {
+        final var field = classes.createField(p);
+        spec.addField(field);
+        spec.addMethod(classes.createGetter(structure, p));
+
+        /*
+         * Structure references are bound to facades over the nested
+         * runtime structures. Variables are bound to the variables created
+         * by the runtime structure, checking that their types match.
+         */
+
+        if (field.type instanceof ParameterizedTypeName t) {
+          final var accessor =
+            t.rawType.equals(ClassName.get(GWIOIntVariableType.class))
+              ? "intVariable"
+              : "variable";
+
+          constructor.addStatement(
+            "this.$L = inStructure.$L($S, $T.class)",
+            field.name,
+            accessor,
+            p.getName(),
+            t.typeArguments.get(0));
+        } else {
+          constructor.addStatement(
+            "this.$L = new $T(inStructure.structure($S))",
+            field.name,
+            field.type,
+            p.getName());
+        }
+      } catch (final Exception e) {
+        throw new IllegalArgumentException(
+          "Encountered an error processing %s: %s: "
+            .formatted(structure.getName(), p),
+          e
+        );
+      }
+    }
+    spec.addMethod(constructor.build());
+
+    spec.addMethod(
+      delegate("address", TypeName.INT)
+        .addStatement("return this.structure.address()")
+        .build()
+    );
+    spec.addMethod(
+      delegate(
+        "variables",
+        ParameterizedTypeName.get(
+          ClassName.get(List.class),
+          ParameterizedTypeName.get(
+            ClassName.get(GWIOVariableType.class),
+            WildcardTypeName.subtypeOf(Object.class)
+          )
+        ))
+        .addStatement("return this.structure.variables()")
+        .build()
+    );
+    spec.addMethod(
+      delegate("readFromDevice", TypeName.VOID)
+        .addException(InterruptedException.class)
+        .addException(GWDeviceException.class)
+        .addStatement("this.structure.readFromDevice()")
+        .build()
+    );
+    spec.addMethod(
+      delegate("isFresh", TypeName.BOOLEAN)
+        .addParameter(Duration.class, "timeToLive", FINAL)
+        .addStatement("return this.structure.isFresh(timeToLive)")
+        .build()
+    );
+    spec.addMethod(
+      delegate("invalidate", TypeName.VOID)
+        .addStatement("this.structure.invalidate()")
+        .build()
+    );
+    spec.addMethod(
+      delegate("invalidateRange", TypeName.VOID)
+        .addParameter(int.class, "address", FINAL)
+        .addParameter(int.class, "size", FINAL)
+        .addStatement("this.structure.invalidateRange(address, size)")
+        .build()
+    );
+    spec.addMethod(
+      delegate("imageSize", TypeName.INT)
+        .addStatement("return this.structure.imageSize()")
+        .build()
+    );
+    spec.addMethod(
+      delegate("decodeFrom", TypeName.VOID)
+        .addParameter(ByteBuffer.class, "buffer", FINAL)
+        .addParameter(int.class, "offset", FINAL)
+        .addStatement("this.structure.decodeFrom(buffer, offset)")
+        .build()
+    );
+    spec.addMethod(
+      delegate("encodeTo", TypeName.VOID)
+        .addParameter(ByteBuffer.class, "buffer", FINAL)
+        .addParameter(int.class, "offset", FINAL)
+        .addStatement("this.structure.encodeTo(buffer, offset)")
+        .build()
+    );
+
+    final var javaFile =
+      JavaFile.builder(this.configuration.structurePackage(), spec.build())
+        .build();
+
+    return GWJavaFiles.write(
+      this.configuration.outputDirectory(), className, javaFile);
+  }
+
+  private static MethodSpec.Builder delegate(
+    final String name,
+    final TypeName returnType)
+  {
+    return MethodSpec.methodBuilder(name)
+      .addModifiers(PUBLIC)
+      .addAnnotation(Override.class)
+      .returns(returnType);
+  }
+
+  private Path compileTables()
+    throws IOException
+  {
+    this.enumerations.clear();
+
+    final var names =
+      this.structures.keySet()
+        .stream()
+        .sorted()
+        .toList();
+
+    final var tables = new ArrayList<String>(names.size());
+    for (final var name : names) {
+      final var structure = this.structures.get(name);
+      final var table = this.tableOf(structure);
+      if (table.getBytes(UTF_8).length >= TABLE_SIZE_LIMIT) {
+        throw new IllegalArgumentException(
+          "The table for structure %s is too large".formatted(name)
+        );
+      }
+      tables.add(table);
+    }
+
+    final var className =
+      ClassName.get(this.configuration.structurePackage(), CLASS_NAME);
+
+    final var spec = TypeSpec.classBuilder(className);
+    spec.addModifiers(PUBLIC, FINAL);
+    spec.addJavadoc("Structure tables.\n");
+
+    final var enumListType =
+      ParameterizedTypeName.get(
+        ClassName.get(List.class),
+        ParameterizedTypeName.get(
+          ClassName.get(Class.class),
+          WildcardTypeName.subtypeOf(
+            ParameterizedTypeName.get(
+              ClassName.get(Enum.class),
+              WildcardTypeName.subtypeOf(Object.class)
+            )
+          )
+        )
+      );
+
+    final var enumInit = CodeBlock.builder();
+    enumInit.add("$T.of(\n", List.class);
+    final var enumTypes = List.copyOf(this.enumerations.keySet());
+    for (int index = 0; index < enumTypes.size(); ++index) {
+      enumInit.add(
+        "  $T.class$L\n",
+        enumTypes.get(index),
+        index + 1 < enumTypes.size() ? "," : ""
+      );
+    }
+    enumInit.add(")");
+
+    spec.addField(
+      FieldSpec.builder(enumListType, "ENUMERATIONS", PRIVATE, STATIC, FINAL)
+        .initializer(enumInit.build())
+        .build()
+    );
+
+    spec.addField(
+      FieldSpec.builder(String[].class, "NAMES", PRIVATE, STATIC, FINAL)
+        .initializer(arrayOf(names))
+        .build()
+    );
+
+    spec.addField(
+      FieldSpec.builder(String[].class, "TABLES", PRIVATE, STATIC, FINAL)
+        .initializer(arrayOf(tables))
+        .build()
+    );
+
+    spec.addField(
+      FieldSpec.builder(
+          GWIOStructureTables.class, "TABLES_SET", PRIVATE, STATIC, FINAL)
+        .initializer(
+          "$T.create(NAMES, TABLES, ENUMERATIONS)",
+          GWIOStructureTables.class)
+        .build()
+    );
+
+    spec.addMethod(
+      MethodSpec.constructorBuilder()
+        .addModifiers(PRIVATE)
+        .build()
+    );
+
+    spec.addMethod(
+      MethodSpec.methodBuilder("descriptor")
+        .addJavadoc("@param name The structure name\n\n")
+        .addJavadoc("@return The description of the named structure\n")
+        .addModifiers(PUBLIC, STATIC)
+        .addParameter(String.class, "name", FINAL)
+        .returns(GWIOStructureDescriptor.class)
+        .addStatement("return TABLES_SET.descriptor(name)")
+        .build()
+    );
+
+    spec.addMethod(
+      MethodSpec.methodBuilder("names")
+        .addJavadoc("@return The names of all structures\n")
+        .addModifiers(PUBLIC, STATIC)
+        .returns(ParameterizedTypeName.get(Set.class, String.class))
+        .addStatement("return TABLES_SET.names()")
+        .build()
+    );
+
+    final var javaFile =
+      JavaFile.builder(this.configuration.structurePackage(), spec.build())
+        .build();
+
+    return GWJavaFiles.write(
+      this.configuration.outputDirectory(), className, javaFile);
+  }
+
+  private static CodeBlock arrayOf(
+    final List<String> values)
+  {
+    final var code = CodeBlock.builder();
+    code.add("{\n");
+    for (int index = 0; index < values.size(); ++index) {
+      code.add(
+        "  $S$L\n",
+        values.get(index),
+        index + 1 < values.size() ? "," : ""
+      );
+    }
+    code.add("}");
+    return code.build();
+  }
+
+  private String tableOf(
+    final Structure structure)
+  {
+    final var text = new StringBuilder(256);
+    final var parameters =
+      structure.getParameterChainOrParameterEnumeratedOrParameterFractional();
+
+    for (final var parameter : parameters) {
+      try {
+        this.lineOf(text, parameter);
+      } catch (final Exception e) {
+        throw new IllegalArgumentException(
+          "Encountered an error processing %s: %s: "
+            .formatted(structure.getName(), parameter),
+          e
+        );
+      }
+    }
+    return text.toString();
+  }
+
+  private void lineOf(
+    final StringBuilder text,
+    final ParameterBase parameter)
+  {
+    final var offset =
+      Long.toUnsignedString(GWParameterOffsets.offsetOf(parameter), 16);
+
+    final List<Object> fields;
+    if (parameter instanceof ParameterStringType p) {
+      fields = List.of("S", Long.valueOf(p.getLength()));
+    } else if (parameter instanceof ParameterIntegerMappedType p) {
+      fields = List.of(
+        "M",
+        Integer.valueOf(p.getDefault().intValueExact()),
+        Integer.valueOf(p.getMinInclusive().intValueExact()),
+        Integer.valueOf(p.getMaxInclusive().intValueExact()),
+        Integer.valueOf(p.getPhysicalMinInclusive().intValueExact()),
+        Integer.valueOf(p.getPhysicalMaxInclusive().intValueExact())
+      );
+    } else if (parameter instanceof ParameterIntegerDirectType p) {
+      fields = List.of(
+        "I",
+        Integer.valueOf(p.getDefault().intValueExact()),
+        Integer.valueOf(p.getMinInclusive().intValueExact()),
+        Integer.valueOf(p.getMaxInclusive().intValueExact())
+      );
+    } else if (parameter instanceof ParameterFractionalType p) {
+      fields = List.of(
+        "F",
+        Double.valueOf(p.getDefault()),
+        Double.valueOf(p.getMinInclusive()),
+        Double.valueOf(p.getMaxInclusive()),
+        Integer.valueOf(p.getPhysicalMinInclusive().intValueExact()),
+        Integer.valueOf(p.getPhysicalMaxInclusive().intValueExact())
+      );
+    } else if (parameter instanceof ParameterRate318Type) {
+      fields = List.of("R318");
+    } else if (parameter instanceof ParameterRate118Type) {
+      fields = List.of("R118");
+    } else if (parameter instanceof ParameterRate118AndOffType) {
+      fields = List.of("R119");
+    } else if (parameter instanceof ParameterChainType p) {
+      fields = List.of("C", Long.valueOf(GWParameterSizes.sizeOf(p)));
+    } else if (parameter instanceof StructureReferenceType p) {
+      if (!this.structures.containsKey(p.getType())) {
+        throw new IllegalArgumentException(
+          "No such structure: %s".formatted(p.getType())
+        );
+      }
+      fields = List.of("T", p.getType());
+    } else if (parameter instanceof ParameterEnumeratedType p) {
+      fields = List.of("E", this.enumerationIndexOf(p.getType()));
+    } else if (parameter instanceof ParameterHighCutType) {
+      fields = List.of("E", this.enumerationIndexOf(HIGH_CUT));
+    } else if (parameter instanceof ParameterLowCutType) {
+      fields = List.of("E", this.enumerationIndexOf(LOW_CUT));
+    } else {
+      throw new IllegalStateException(
+        "Unrecognized parameter type: %s".formatted(parameter)
+      );
+    }
+
+    final var name = parameter.getName();
+    if (name.indexOf('\t') != -1 || name.indexOf('\n') != -1) {
+      throw new IllegalArgumentException(
+        "Parameter names cannot contain tabs or newlines"
+      );
+    }
+
+    text.append(fields.get(0));
+    text.append('\t');
+    text.append(name);
+    text.append('\t');
+    text.append(offset);
+    for (int index = 1; index < fields.size(); ++index) {
+      text.append('\t');
+      text.append(fields.get(index));
+    }
+    text.append('\n');
+  }
+
+  private Integer enumerationIndexOf(
+    final String name)
+  {
+    final var className =
+      GWEnumerations.makeEnumerationClassName(this.configuration, name);
+
+    return this.enumerations.computeIfAbsent(
+      className,
+      k -> Integer.valueOf(this.enumerations.size())
+    );
+  }
+}
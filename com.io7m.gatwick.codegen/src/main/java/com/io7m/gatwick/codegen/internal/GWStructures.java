@@ -35,6 +35,15 @@ import com.io7m.gatwick.codegen.jaxb.StructureReferenceType;
 import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.device.api.GWDeviceType;
 import com.io7m.gatwick.iovar.GWIOAddressableType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import com.io7m.gatwick.iovar.GWIOCachedReadableType;
+import com.io7m.gatwick.iovar.GWIOCodecs;
+import com.io7m.gatwick.iovar.GWIOFreshness;
+import com.io7m.gatwick.iovar.GWIOImageCodecType;
+import com.io7m.gatwick.iovar.GWIOImages;
+import com.io7m.gatwick.iovar.GWIOIntConversions;
+import com.io7m.gatwick.iovar.GWIOIntVariable;
+import com.io7m.gatwick.iovar.GWIOIntVariableType;
 import com.io7m.gatwick.iovar.GWIORate118Milliseconds;
 import com.io7m.gatwick.iovar.GWIORate118Note;
 import com.io7m.gatwick.iovar.GWIORate118Type;
@@ -44,8 +53,8 @@ import com.io7m.gatwick.iovar.GWIORate119Type;
 import com.io7m.gatwick.iovar.GWIORate318Milliseconds;
 import com.io7m.gatwick.iovar.GWIORate318Note;
 import com.io7m.gatwick.iovar.GWIORate318Type;
-import com.io7m.gatwick.iovar.GWIOReadableType;
 import com.io7m.gatwick.iovar.GWIOSerializers;
+import com.io7m.gatwick.iovar.GWIOStructureReadEvent;
 import com.io7m.gatwick.iovar.GWIOVariable;
 import com.io7m.gatwick.iovar.GWIOVariableContainerType;
 import com.io7m.gatwick.iovar.GWIOVariableInformation;
@@ -63,17 +72,20 @@ import com.io7m.jodist.TypeVariableName;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
 
 /**
  * Functions to generate structures.
@@ -88,48 +100,49 @@ public final class GWStructures
   private static final Pattern UNDERSCORE_NUMBER =
     Pattern.compile("_([0-9])");
 
-  private final HashSet<Path> files;
   private final GWDefinitionCompilerConfiguration configuration;
   private final Map<String, Structure> structures;
+  private final ExecutorService executor;
 
   /**
    * Functions to generate structures.
    *
    * @param inConfiguration The compiler config
    * @param inStructures    The structures
+   * @param inExecutor      The executor used to generate classes
    */
 
   public GWStructures(
     final GWDefinitionCompilerConfiguration inConfiguration,
-    final Map<String, Structure> inStructures)
+    final Map<String, Structure> inStructures,
+    final ExecutorService inExecutor)
   {
     this.configuration =
       Objects.requireNonNull(inConfiguration, "configuration");
     this.structures =
       Objects.requireNonNull(inStructures, "structures");
-    this.files =
-      new HashSet<Path>();
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
   }
 
   /**
-   * Generate classes.
+   * Generate classes. Each class is generated by a separate task on the
+   * executor.
    *
-   * @return The generated files
-   *
-   * @throws IOException On errors
+   * @return The tasks generating each file
    */
 
-  public Set<Path> compile()
-    throws IOException
+  public List<Future<Path>> compile()
   {
+    final var tasks =
+      new ArrayList<Future<Path>>(this.structures.size());
     for (final var s : this.structures.values()) {
-      this.compileOne(s);
+      tasks.add(this.executor.submit(() -> this.compileOne(s)));
     }
-
-    return Set.copyOf(this.files);
+    return List.copyOf(tasks);
   }
 
-  private void compileOne(
+  private Path compileOne(
     final Structure structure)
     throws IOException
   {
@@ -141,8 +154,10 @@ public final class GWStructures
 
     final var spec = TypeSpec.classBuilder(className);
     spec.addSuperinterface(GWIOVariableContainerType.class);
-    spec.addSuperinterface(GWIOReadableType.class);
+    spec.addSuperinterface(GWIOCachedReadableType.class);
+    spec.addField(GWDeviceType.class, "device", PRIVATE, FINAL);
     spec.addField(int.class, "baseAddress", PRIVATE, FINAL);
+    spec.addField(GWIOFreshness.class, "freshness", PRIVATE, FINAL);
     spec.addModifiers(PUBLIC);
     spec.addModifiers(FINAL);
 
@@ -160,7 +175,9 @@ public final class GWStructures
         .addParameter(GWDeviceType.class, "inDevice", FINAL)
         .addParameter(Attributes.class, "inAttributes", FINAL)
         .addParameter(int.class, "inBaseAddress", FINAL)
-        .addCode("this.baseAddress = inBaseAddress;\n");
+        .addCode("this.device = inDevice;\n")
+        .addCode("this.baseAddress = inBaseAddress;\n")
+        .addCode("this.freshness = new $T();\n", GWIOFreshness.class);
 
     final var parameters =
       structure.getParameterChainOrParameterEnumeratedOrParameterFractional();
@@ -185,17 +202,23 @@ public final class GWStructures
       spec.addMethod(this.createGetter(structure, p));
     }
 
-    spec.addMethod(createReadFromDeviceMethod(parameters));
+    final var imageSize =
+      this.createCodec(spec, structure, className, parameters);
+
+    spec.addMethod(
+      createReadFromDeviceMethod(className, parameters, imageSize));
+    spec.addMethods(createFreshnessMethods(parameters));
     spec.addMethod(createVariablesMethod(parameters));
 
     final var javaFile =
       JavaFile.builder(this.configuration.structurePackage(), spec.build())
         .build();
 
-    this.files.add(javaFile.writeToPath(this.configuration.outputDirectory()));
+    return GWJavaFiles.write(
+      this.configuration.outputDirectory(), className, javaFile);
   }
 
-  private MethodSpec createGetter(
+  MethodSpec createGetter(
     final Structure structure,
     final ParameterBase p)
   {
@@ -290,8 +313,267 @@ public final class GWStructures
     return method.build();
   }
 
-  private static MethodSpec createReadFromDeviceMethod(
+  /*
+   * Generate a codec that decodes and encodes all the directly-declared
+   * parameters of the structure to and from an image of the structure in a
+   * single straight-line method. The layout of every parameter is resolved
+   * here, so the generated code consists of nothing but fixed-offset
+   * reads and writes. The size of the image is returned.
+   */
+
+  private long createCodec(
+    final TypeSpec.Builder spec,
+    final Structure structure,
+    final ClassName className,
     final List<ParameterBase> parameters)
+  {
+    final var decode =
+      MethodSpec.methodBuilder("decode")
+        .addJavadoc("Decode the structure from an image.\n\n")
+        .addJavadoc("@param target The target structure\n")
+        .addJavadoc("@param buffer The buffer containing the image\n")
+        .addJavadoc("@param offset The absolute offset of the image\n")
+        .addModifiers(PUBLIC, STATIC)
+        .addParameter(className, "target", FINAL)
+        .addParameter(ByteBuffer.class, "buffer", FINAL)
+        .addParameter(int.class, "offset", FINAL);
+
+    final var encode =
+      MethodSpec.methodBuilder("encode")
+        .addJavadoc("Encode the structure to an image.\n\n")
+        .addJavadoc("@param source The source structure\n")
+        .addJavadoc("@param buffer The buffer that will contain the image\n")
+        .addJavadoc("@param offset The absolute offset of the image\n")
+        .addModifiers(PUBLIC, STATIC)
+        .addParameter(className, "source", FINAL)
+        .addParameter(ByteBuffer.class, "buffer", FINAL)
+        .addParameter(int.class, "offset", FINAL);
+
+    long imageSize = 0L;
+    for (final var p : parameters) {
+      try {
+        imageSize = Math.max(
+          imageSize,
+          this.createCodecFor(structure, p, decode, encode)
+        );
+      } catch (final Exception e) {
+        throw new IllegalArgumentException(
+          "Encountered an error processing %s: %s: "
+            .formatted(structure.getName(), p),
+          e
+        );
+      }
+    }
+
+    spec.addSuperinterface(GWIOImageCodecType.class);
+    spec.addField(
+      FieldSpec.builder(int.class, "IMAGE_SIZE", PUBLIC, STATIC, FINAL)
+        .addJavadoc("The size of the structure's image in bytes. The image\n")
+        .addJavadoc("holds only the directly-declared parameters; the\n")
+        .addJavadoc("images of referenced structures are not included.")
+        .initializer("$L", Long.valueOf(imageSize))
+        .build()
+    );
+
+    spec.addMethod(decode.build());
+    spec.addMethod(encode.build());
+
+    spec.addMethod(
+      MethodSpec.methodBuilder("imageSize")
+        .addModifiers(PUBLIC)
+        .addAnnotation(Override.class)
+        .returns(int.class)
+        .addCode("return IMAGE_SIZE;")
+        .build()
+    );
+    spec.addMethod(
+      MethodSpec.methodBuilder("decodeFrom")
+        .addModifiers(PUBLIC)
+        .addAnnotation(Override.class)
+        .addParameter(ByteBuffer.class, "buffer", FINAL)
+        .addParameter(int.class, "offset", FINAL)
+        .addCode("decode(this, buffer, offset);")
+        .build()
+    );
+    spec.addMethod(
+      MethodSpec.methodBuilder("encodeTo")
+        .addModifiers(PUBLIC)
+        .addAnnotation(Override.class)
+        .addParameter(ByteBuffer.class, "buffer", FINAL)
+        .addParameter(int.class, "offset", FINAL)
+        .addCode("encode(this, buffer, offset);")
+        .build()
+    );
+    return imageSize;
+  }
+
+  /*
+   * Add the decoding and encoding statements for a single parameter, and
+   * return the offset of the first byte after the parameter in the image.
+   */
+
+  private long createCodecFor(
+    final Structure structure,
+    final ParameterBase parameter,
+    final MethodSpec.Builder decode,
+    final MethodSpec.Builder encode)
+  {
+    if (parameter instanceof StructureReferenceType) {
+      return 0L;
+    }
+
+    final var field =
+      fieldNameFor(parameter);
+    final var imageOffset =
+      GWParameterOffsets.imageOffsetOf(parameter);
+    final var at =
+      "offset + 0x" + Long.toUnsignedString(imageOffset, 16);
+
+    decode.addCode("// $L.$L\n", structure.getName(), parameter.getName());
+    encode.addCode("// $L.$L\n", structure.getName(), parameter.getName());
+
+    final long size;
+    if (parameter instanceof ParameterStringType p) {
+      size = p.getLength();
+      decode.addStatement(
+        "target.$L.setLocal($T.stringRead(buffer, $L, $L))",
+        field, GWIOCodecs.class, at, Long.valueOf(size));
+      encode.addStatement(
+        "$T.stringWrite(buffer, $L, $L, source.$L.get())",
+        GWIOCodecs.class, at, Long.valueOf(size), field);
+    } else if (parameter instanceof ParameterIntegerMappedType p) {
+      final var codec =
+        baseSerializersForMaxValue(p.getPhysicalMaxInclusive().intValueExact());
+      final var delta =
+        p.getMinInclusive().intValueExact()
+        - p.getPhysicalMinInclusive().intValueExact();
+
+      size = codec.size;
+      decode.addStatement(
+        "target.$L.setIntLocal($T.$LRead(buffer, $L) + ($L))",
+        field, GWIOCodecs.class, codec.codecPrefix, at,
+        Integer.valueOf(delta));
+      encode.addStatement(
+        "$T.$LWrite(buffer, $L, source.$L.getInt() - ($L))",
+        GWIOCodecs.class, codec.codecPrefix, at, field,
+        Integer.valueOf(delta));
+    } else if (parameter instanceof ParameterIntegerDirectType p) {
+      final var codec =
+        baseSerializersForMaxValue(p.getMaxInclusive().intValueExact());
+
+      size = codec.size;
+      decode.addStatement(
+        "target.$L.setIntLocal($T.$LRead(buffer, $L))",
+        field, GWIOCodecs.class, codec.codecPrefix, at);
+      encode.addStatement(
+        "$T.$LWrite(buffer, $L, source.$L.getInt())",
+        GWIOCodecs.class, codec.codecPrefix, at, field);
+    } else if (parameter instanceof ParameterFractionalType p) {
+      final var physMin =
+        p.getPhysicalMinInclusive().intValueExact();
+      final var physMax =
+        p.getPhysicalMaxInclusive().intValueExact();
+      final var codec =
+        baseSerializersForMaxValue(physMax);
+
+      /*
+       * The scale factors must match those calculated in
+       * GWIOSerializers.fractionalSerializer/fractionalDeserializer.
+       */
+
+      final var logicalDeltaInt =
+        (int) p.getMaxInclusive() - (int) p.getMinInclusive();
+      if (logicalDeltaInt == 0 || physMax == physMin) {
+        throw new IllegalArgumentException(
+          "Fractional parameter has an empty range.");
+      }
+
+      final var scaleDecode =
+        (p.getMaxInclusive() - p.getMinInclusive())
+        / ((double) physMax - (double) physMin);
+      final var scaleEncode =
+        (physMax - physMin) / logicalDeltaInt;
+
+      size = codec.size;
+      decode.addStatement(
+        "target.$L.setLocal($T.valueOf($L * (double) $T.$LRead(buffer, $L)))",
+        field, Double.class, Double.toString(scaleDecode),
+        GWIOCodecs.class, codec.codecPrefix, at);
+      encode.addStatement(
+        "$T.$LWrite(buffer, $L, (int) source.$L.get().doubleValue() * $L)",
+        GWIOCodecs.class, codec.codecPrefix, at, field,
+        Integer.valueOf(scaleEncode));
+    } else if (parameter instanceof ParameterRate318Type) {
+      size = 4L;
+      decode.addStatement(
+        "target.$L.setLocal($T.rate318Read(buffer, $L))",
+        field, GWIOCodecs.class, at);
+      encode.addStatement(
+        "$T.rate318Write(buffer, $L, source.$L.get())",
+        GWIOCodecs.class, at, field);
+    } else if (parameter instanceof ParameterRate118Type) {
+      size = 1L;
+      decode.addStatement(
+        "target.$L.setLocal($T.rate118Read(buffer, $L))",
+        field, GWIOCodecs.class, at);
+      encode.addStatement(
+        "$T.rate118Write(buffer, $L, source.$L.get())",
+        GWIOCodecs.class, at, field);
+    } else if (parameter instanceof ParameterRate118AndOffType) {
+      size = 1L;
+      decode.addStatement(
+        "target.$L.setLocal($T.rate119Read(buffer, $L))",
+        field, GWIOCodecs.class, at);
+      encode.addStatement(
+        "$T.rate119Write(buffer, $L, source.$L.get())",
+        GWIOCodecs.class, at, field);
+    } else if (parameter instanceof ParameterChainType p) {
+      size = GWParameterSizes.sizeOf(p);
+      decode.addStatement(
+        "target.$L.setLocal($T.rawRead(buffer, $L, $L))",
+        field, GWIOCodecs.class, at, Long.valueOf(size));
+      encode.addStatement(
+        "$T.rawWrite(buffer, $L, $L, source.$L.get())",
+        GWIOCodecs.class, at, Long.valueOf(size), field);
+    } else {
+      final ClassName enumType;
+      if (parameter instanceof ParameterEnumeratedType p) {
+        enumType = GWEnumerations.makeEnumerationClassName(
+          this.configuration, p.getType());
+      } else if (parameter instanceof ParameterHighCutType) {
+        enumType = GWEnumerations.makeEnumerationClassName(
+          this.configuration, HIGH_CUT);
+      } else if (parameter instanceof ParameterLowCutType) {
+        enumType = GWEnumerations.makeEnumerationClassName(
+          this.configuration, LOW_CUT);
+      } else {
+        throw new IllegalStateException(
+          "Unrecognized parameter type: %s".formatted(parameter)
+        );
+      }
+
+      size = GWParameterSizes.sizeOf(parameter);
+      decode.addStatement(
+        "target.$L.setIntLocal($T.uint8Read(buffer, $L))",
+        field, GWIOCodecs.class, at);
+      encode.addStatement(
+        "$T.uint8Write(buffer, $L, source.$L.getInt())",
+        GWIOCodecs.class, at, field);
+    }
+
+    return imageOffset + size;
+  }
+
+  /*
+   * Generate a method that reads the directly-declared parameters of the
+   * structure with a single image read, decodes the image with the
+   * generated codec, and then reads each of the referenced structures.
+   */
+
+  private static MethodSpec createReadFromDeviceMethod(
+    final ClassName className,
+    final List<ParameterBase> parameters,
+    final long imageSize)
   {
     final var method =
       MethodSpec.methodBuilder("readFromDevice")
@@ -300,16 +582,100 @@ public final class GWStructures
         .addException(InterruptedException.class)
         .addException(GWDeviceException.class);
 
+    method.addStatement(
+      "final $T event = new $T()",
+      GWIOStructureReadEvent.class,
+      GWIOStructureReadEvent.class);
+    method.addStatement("event.begin()");
+    method.addStatement(
+      "final long token = this.freshness.beginSynchronization()");
+
+    if (imageSize > 0L) {
+      method.addStatement(
+        "decode(this, $T.read(this.device, this.baseAddress, IMAGE_SIZE), 0)",
+        GWIOImages.class);
+    }
+
     for (final var p : parameters) {
-      method.addCode(
-        CodeBlock.of("this.$L.readFromDevice();\n", fieldNameFor(p))
-      );
+      if (p instanceof StructureReferenceType) {
+        method.addStatement("this.$L.readFromDevice()", fieldNameFor(p));
+      }
     }
 
+    method.addStatement("this.freshness.endSynchronization(token)");
+    method.addStatement("event.end()");
+    method.beginControlFlow("if (event.shouldCommit())");
+    method.addStatement("event.structure = $S", className.simpleName());
+    method.addStatement("event.address = this.baseAddress");
+    method.addStatement("event.size = IMAGE_SIZE");
+    method.addStatement("event.commit()");
+    method.endControlFlow();
     return method.build();
   }
 
-  private static String fieldNameFor(
+  /*
+   * Generate the methods that track whether the values held in the
+   * structure are up-to-date. A structure is only fresh if all of the
+   * structures it references are fresh, and invalidation is propagated to
+   * all of the structures referenced by this structure.
+   */
+
+  private static List<MethodSpec> createFreshnessMethods(
+    final List<ParameterBase> parameters)
+  {
+    final var references =
+      parameters.stream()
+        .filter(p -> p instanceof StructureReferenceType)
+        .map(GWStructures::fieldNameFor)
+        .toList();
+
+    final var isFresh =
+      MethodSpec.methodBuilder("isFresh")
+        .addModifiers(PUBLIC)
+        .addAnnotation(Override.class)
+        .returns(boolean.class)
+        .addParameter(Duration.class, "timeToLive", FINAL)
+        .beginControlFlow("if (!this.freshness.isFresh(timeToLive))")
+        .addStatement("return false")
+        .endControlFlow();
+
+    final var invalidate =
+      MethodSpec.methodBuilder("invalidate")
+        .addModifiers(PUBLIC)
+        .addAnnotation(Override.class)
+        .addStatement("this.freshness.invalidate()");
+
+    final var invalidateRange =
+      MethodSpec.methodBuilder("invalidateRange")
+        .addModifiers(PUBLIC)
+        .addAnnotation(Override.class)
+        .addParameter(int.class, "address", FINAL)
+        .addParameter(int.class, "size", FINAL)
+        .beginControlFlow(
+          "if ($T.overlaps(this.baseAddress, IMAGE_SIZE, address, size))",
+          GWIOAddresses.class)
+        .addStatement("this.freshness.invalidate()")
+        .endControlFlow();
+
+    for (final var reference : references) {
+      isFresh.beginControlFlow(
+          "if (!this.$L.isFresh(timeToLive))", reference)
+        .addStatement("return false")
+        .endControlFlow();
+      invalidate.addStatement("this.$L.invalidate()", reference);
+      invalidateRange.addStatement(
+        "this.$L.invalidateRange(address, size)", reference);
+    }
+
+    isFresh.addStatement("return true");
+    return List.of(
+      isFresh.build(),
+      invalidate.build(),
+      invalidateRange.build()
+    );
+  }
+
+  static String fieldNameFor(
     final ParameterBase parameter)
   {
     final var javaName = parameter.getJavaNameOverride();
@@ -354,7 +720,7 @@ public final class GWStructures
     );
   }
 
-  private FieldSpec createField(
+  FieldSpec createField(
     final ParameterBase parameter)
   {
     if (parameter instanceof ParameterStringType p) {
@@ -411,7 +777,7 @@ public final class GWStructures
 
     final var varType =
       ParameterizedTypeName.get(
-        ClassName.get(GWIOVariableType.class),
+        ClassName.get(GWIOIntVariableType.class),
         enumType
       );
 
@@ -430,7 +796,7 @@ public final class GWStructures
 
     final var varType =
       ParameterizedTypeName.get(
-        ClassName.get(GWIOVariableType.class),
+        ClassName.get(GWIOIntVariableType.class),
         enumType
       );
 
@@ -449,7 +815,7 @@ public final class GWStructures
 
     final var varType =
       ParameterizedTypeName.get(
-        ClassName.get(GWIOVariableType.class),
+        ClassName.get(GWIOIntVariableType.class),
         enumType
       );
 
@@ -527,7 +893,7 @@ public final class GWStructures
   {
     final var varType =
       ParameterizedTypeName.get(
-        ClassName.get(GWIOVariableType.class),
+        ClassName.get(GWIOIntVariableType.class),
         ClassName.get(Integer.class)
       );
 
@@ -542,7 +908,7 @@ public final class GWStructures
   {
     final var varType =
       ParameterizedTypeName.get(
-        ClassName.get(GWIOVariableType.class),
+        ClassName.get(GWIOIntVariableType.class),
         ClassName.get(Integer.class)
       );
 
@@ -595,11 +961,12 @@ public final class GWStructures
     final var code = CodeBlock.builder();
     code.add("// $L.$L\n", structure.getName(), p.getName());
     code.add(
-      "this.$L = $T.create(\n", fieldNameFor(p), GWIOVariable.class);
+      "this.$L = $T.create(\n", fieldNameFor(p), GWIOIntVariable.class);
     code.add("  inDevice,\n");
     code.add("  inAttributes,\n");
-    code.add("  $T.info().serializer(),\n", enumType);
-    code.add("  $T.info().deserializer(),\n", enumType);
+    code.add("  $T.info(),\n", enumType);
+    code.add("  $T.uint8IntSerializer(),\n", GWIOSerializers.class);
+    code.add("  $T.uint8IntDeserializer(),\n", GWIOSerializers.class);
     code.add("  $T.info().serializeSize(),\n", enumType);
 
     code.add(
@@ -630,11 +997,12 @@ public final class GWStructures
     final var code = CodeBlock.builder();
     code.add("// $L.$L\n", structure.getName(), p.getName());
     code.add(
-      "this.$L = $T.create(\n", fieldNameFor(p), GWIOVariable.class);
+      "this.$L = $T.create(\n", fieldNameFor(p), GWIOIntVariable.class);
     code.add("  inDevice,\n");
     code.add("  inAttributes,\n");
-    code.add("  $T.info().serializer(),\n", enumType);
-    code.add("  $T.info().deserializer(),\n", enumType);
+    code.add("  $T.info(),\n", enumType);
+    code.add("  $T.uint8IntSerializer(),\n", GWIOSerializers.class);
+    code.add("  $T.uint8IntDeserializer(),\n", GWIOSerializers.class);
     code.add("  $T.info().serializeSize(),\n", enumType);
 
     code.add(
@@ -665,11 +1033,12 @@ public final class GWStructures
     final var code = CodeBlock.builder();
     code.add("// $L.$L\n", structure.getName(), p.getName());
     code.add(
-      "this.$L = $T.create(\n", fieldNameFor(p), GWIOVariable.class);
+      "this.$L = $T.create(\n", fieldNameFor(p), GWIOIntVariable.class);
     code.add("  inDevice,\n");
     code.add("  inAttributes,\n");
-    code.add("  $T.info().serializer(),\n", enumType);
-    code.add("  $T.info().deserializer(),\n", enumType);
+    code.add("  $T.info(),\n", enumType);
+    code.add("  $T.uint8IntSerializer(),\n", GWIOSerializers.class);
+    code.add("  $T.uint8IntDeserializer(),\n", GWIOSerializers.class);
     code.add("  $T.info().serializeSize(),\n", enumType);
 
     code.add(
@@ -864,6 +1233,9 @@ public final class GWStructures
   private record GWSerializers(
     String serializeMethod,
     String deserializeMethod,
+    String intSerializeMethod,
+    String intDeserializeMethod,
+    String codecPrefix,
     int size)
   {
 
@@ -874,22 +1246,28 @@ public final class GWStructures
   {
     String serializerMethod = "uint8Serializer";
     String deserializerMethod = "uint8Deserializer";
+    String codecPrefix = "uint8";
     int serializeSize = 1;
 
     if (maxValue >= 127) {
       serializerMethod = "uint8As16Serializer";
       deserializerMethod = "uint8As16Deserializer";
+      codecPrefix = "uint8As16";
       serializeSize = 2;
     }
     if (maxValue >= 255) {
       serializerMethod = "uint16As32Serializer";
       deserializerMethod = "uint16As32Deserializer";
+      codecPrefix = "uint16As32";
       serializeSize = 4;
     }
 
     return new GWSerializers(
       serializerMethod,
       deserializerMethod,
+      codecPrefix + "IntSerializer",
+      codecPrefix + "IntDeserializer",
+      codecPrefix,
       serializeSize
     );
   }
@@ -910,9 +1288,10 @@ public final class GWStructures
     final var code = CodeBlock.builder();
     code.add("// $L.$L\n", structure.getName(), p.getName());
     code.add(
-      "this.$L = $T.create(\n", fieldNameFor(p), GWIOVariable.class);
+      "this.$L = $T.create(\n", fieldNameFor(p), GWIOIntVariable.class);
     code.add("  inDevice,\n");
     code.add("  inAttributes,\n");
+    code.add("  $T.integers(),\n", GWIOIntConversions.class);
 
     final GWSerializers serializers =
       baseSerializersForMaxValue(max.intValueExact());
@@ -920,12 +1299,12 @@ public final class GWStructures
     code.add(
       "  $T.$L(),\n",
       GWIOSerializers.class,
-      serializers.serializeMethod
+      serializers.intSerializeMethod
     );
     code.add(
       "  $T.$L(),\n",
       GWIOSerializers.class,
-      serializers.deserializeMethod
+      serializers.intDeserializeMethod
     );
     code.add("  $L,\n", Integer.valueOf(serializers.size));
     code.add(
@@ -1029,9 +1408,10 @@ public final class GWStructures
     final var code = CodeBlock.builder();
     code.add("// $L.$L\n", structure.getName(), p.getName());
     code.add(
-      "this.$L = $T.create(\n", fieldNameFor(p), GWIOVariable.class);
+      "this.$L = $T.create(\n", fieldNameFor(p), GWIOIntVariable.class);
     code.add("  inDevice,\n");
     code.add("  inAttributes,\n");
+    code.add("  $T.integers(),\n", GWIOIntConversions.class);
 
     final var baseSerializers =
       baseSerializersForMaxValue(physMax.intValueExact());
@@ -1039,9 +1419,9 @@ public final class GWStructures
     code.add(
       "  $T.$L($T.$L(), $L, $L, $L, $L),\n",
       GWIOSerializers.class,
-      "integerMappedSerializer",
+      "integerMappedIntSerializer",
       GWIOSerializers.class,
-      baseSerializers.serializeMethod,
+      baseSerializers.intSerializeMethod,
       Integer.valueOf(min.intValueExact()),
       Integer.valueOf(max.intValueExact()),
       Integer.valueOf(physMin.intValueExact()),
@@ -1050,9 +1430,9 @@ public final class GWStructures
     code.add(
       "  $T.$L($T.$L(), $L, $L, $L, $L),\n",
       GWIOSerializers.class,
-      "integerMappedDeserializer",
+      "integerMappedIntDeserializer",
       GWIOSerializers.class,
-      baseSerializers.deserializeMethod,
+      baseSerializers.intDeserializeMethod,
       Integer.valueOf(min.intValueExact()),
       Integer.valueOf(max.intValueExact()),
       Integer.valueOf(physMin.intValueExact()),
@@ -1107,7 +1487,7 @@ public final class GWStructures
     return code.build();
   }
 
-  private String structNameOf(
+  String structNameOf(
     final Structure structure)
   {
     return "Struct" + structure.getName()
@@ -18,23 +18,48 @@
 package com.io7m.gatwick.controller.api;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 /**
- * A chain graph.
+ * A chain graph. Graphs are immutable and array-backed: every node is
+ * assigned an index in "next" order when the graph is created, and all
+ * navigation (including branch spans and lengths) is precomputed.
  */
 
 public final class GWChainGraph implements GWChainGraphType
 {
   private final GWChainGraphNodeType first;
+  private final GWChainGraphNodeType[] nodes;
+  private final int[] depths;
+  private final int[] indices;
+  private final List<GWChainGraphNodeType> elements;
 
   private GWChainGraph(
-    final GWChainGraphNodeType inFirst)
+    final GWChainGraphNodeType inFirst,
+    final GWChainGraphNodeType[] inNodes)
   {
-    this.first = Objects.requireNonNull(inFirst, "first");
+    this.first =
+      Objects.requireNonNull(inFirst, "first");
+    this.nodes =
+      Objects.requireNonNull(inNodes, "nodes");
+    this.elements =
+      List.of(inNodes);
+
+    this.depths = new int[inNodes.length];
+    for (int index = 0; index < inNodes.length; ++index) {
+      this.depths[index] = inNodes[index].depth();
+    }
+
+    this.indices = new int[GWChainElementValue.values().length];
+    Arrays.fill(this.indices, -1);
+    for (int index = inNodes.length - 1; index >= 0; --index) {
+      this.indices[inNodes[index].element().ordinal()] = index;
+    }
   }
 
   @Override
@@ -46,122 +71,182 @@ public final class GWChainGraph implements GWChainGraphType
   @Override
   public List<GWChainGraphNodeType> elements()
   {
-    final var elements = new LinkedList<GWChainGraphNodeType>();
-    var current = this.first;
-    while (current != null) {
-      elements.add(current);
-      current = current.next().orElse(null);
-    }
-    return List.copyOf(elements);
+    return this.elements;
   }
 
-  private static final class GWChainGraphNode
-    implements GWChainGraphNodeType.GWChainGraphBlockType
+  @Override
+  public int size()
+  {
+    return this.nodes.length;
+  }
+
+  @Override
+  public GWChainGraphNodeType nodeAt(
+    final int index)
+  {
+    return this.nodes[Objects.checkIndex(index, this.nodes.length)];
+  }
+
+  @Override
+  public int depthAt(
+    final int index)
+  {
+    return this.depths[Objects.checkIndex(index, this.depths.length)];
+  }
+
+  @Override
+  public int indexOf(
+    final GWChainElementValue element)
+  {
+    return this.indices[element.ordinal()];
+  }
+
+  private abstract static class GWChainGraphNodeAbstract
   {
     private final GWChainElementValue element;
     private final int depth;
-    private GWChainGraphNodeType next;
-    private final GWChainGraphNodeType previous;
+    private final int index;
+    private Optional<GWChainGraphNodeType> next;
+    private Optional<GWChainGraphNodeType> previous;
 
-    GWChainGraphNode(
-      final GWChainGraphNodeType inPrevious,
+    GWChainGraphNodeAbstract(
       final GWChainElementValue inElement,
-      final int inDepth)
+      final int inDepth,
+      final int inIndex)
     {
-      this.previous =
-        inPrevious;
       this.element =
         Objects.requireNonNull(inElement, "inElement");
-      this.depth = inDepth;
+      this.depth =
+        inDepth;
+      this.index =
+        inIndex;
+      this.next =
+        Optional.empty();
+      this.previous =
+        Optional.empty();
     }
 
-    @Override
-    public GWChainElementValue element()
+    public final GWChainElementValue element()
     {
       return this.element;
     }
 
-    @Override
-    public Optional<GWChainGraphNodeType> next()
+    public final Optional<GWChainGraphNodeType> next()
     {
-      return Optional.ofNullable(this.next);
+      return this.next;
     }
 
-    @Override
-    public Optional<GWChainGraphNodeType> previous()
+    public final Optional<GWChainGraphNodeType> previous()
     {
-      return Optional.ofNullable(this.previous);
+      return this.previous;
     }
 
-    @Override
-    public int depth()
+    public final int depth()
     {
       return this.depth;
     }
 
+    public final int index()
+    {
+      return this.index;
+    }
+
+    /**
+     * Called once all nodes have been created.
+     *
+     * @param all All nodes in "next" order
+     */
+
+    void link(
+      final GWChainGraphNodeAbstract[] all)
+    {
+      if (this.index > 0) {
+        this.previous =
+          Optional.of((GWChainGraphNodeType) all[this.index - 1]);
+      }
+      if (this.index + 1 < all.length) {
+        this.next =
+          Optional.of((GWChainGraphNodeType) all[this.index + 1]);
+      }
+    }
+  }
+
+  private static final class GWChainGraphNode
+    extends GWChainGraphNodeAbstract
+    implements GWChainGraphNodeType.GWChainGraphBlockType
+  {
+    GWChainGraphNode(
+      final GWChainElementValue inElement,
+      final int inDepth,
+      final int inIndex)
+    {
+      super(inElement, inDepth, inIndex);
+    }
+
     @Override
     public String toString()
     {
       return "[GWChainGraphNode %s [depth %d]]"
-        .formatted(this.element, this.depth);
+        .formatted(this.element(), Integer.valueOf(this.depth()));
     }
   }
 
   private static final class GWChainGraphBranch
+    extends GWChainGraphNodeAbstract
     implements GWChainGraphNodeType.GWChainGraphBranchType
   {
     private GWChainGraphBranchRightLeg right;
-    private GWChainGraphNodeType next;
-    private final GWChainGraphNodeType previous;
-    private final GWChainElementValue element;
-    private final int depth;
+    private GWChainGraphNodeType left;
+    private GWChainGraphNodeType endOfLeft;
+    private GWChainGraphNodeType endOfRight;
+    private int splitIndex;
+    private int joinIndex;
+    private int leftLength;
+    private int rightLength;
 
     GWChainGraphBranch(
-      final GWChainGraphNodeType inPrevious,
       final GWChainElementValue inElement,
-      final int inDepth)
+      final int inDepth,
+      final int inIndex)
     {
-      this.previous =
-        inPrevious;
-      this.element =
-        Objects.requireNonNull(inElement, "inElement");
-      this.depth = inDepth;
+      super(inElement, inDepth, inIndex);
+      this.splitIndex = -1;
+      this.joinIndex = -1;
     }
 
     @Override
-    public GWChainElementValue element()
+    void link(
+      final GWChainGraphNodeAbstract[] all)
     {
-      return this.element;
-    }
+      super.link(all);
 
-    @Override
-    public Optional<GWChainGraphNodeType> next()
-    {
-      return Optional.ofNullable(this.next);
-    }
+      final var index = this.index();
+      final var leftEnd =
+        this.splitIndex >= 0 ? this.splitIndex : all.length;
+      final var rightEnd =
+        this.joinIndex >= 0 ? this.joinIndex : all.length;
 
-    @Override
-    public Optional<GWChainGraphNodeType> previous()
-    {
-      return Optional.ofNullable(this.previous);
-    }
+      this.left = this.next().orElse(null);
+      this.leftLength = Math.max(0, leftEnd - index - 1);
+      this.endOfLeft = (GWChainGraphNodeType) all[leftEnd - 1];
 
-    @Override
-    public int depth()
-    {
-      return this.depth;
+      if (this.splitIndex >= 0) {
+        this.rightLength = rightEnd - this.splitIndex - 1;
+        this.endOfRight =
+          (GWChainGraphNodeType) all[Math.min(rightEnd, all.length - 1)];
+      }
     }
 
     @Override
     public String toString()
     {
       return "[GWChainGraphBranch %s [depth %d]]"
-        .formatted(this.element, this.depth);
+        .formatted(this.element(), Integer.valueOf(this.depth()));
     }
 
     public GWChainElementValue closingElement()
     {
-      return switch (this.element) {
+      return switch (this.element()) {
         case DIVIDER_1 -> GWChainElementValue.MIXER_1;
         case DIVIDER_2 -> GWChainElementValue.MIXER_2;
         case DIVIDER_3 -> GWChainElementValue.MIXER_3;
@@ -171,7 +256,7 @@ public final class GWChainGraph implements GWChainGraphType
 
     public GWChainElementValue splittingElement()
     {
-      return switch (this.element) {
+      return switch (this.element()) {
         case DIVIDER_1 -> GWChainElementValue.BRANCH_SPLIT1;
         case DIVIDER_2 -> GWChainElementValue.BRANCH_SPLIT2;
         case DIVIDER_3 -> GWChainElementValue.BRANCH_SPLIT3;
@@ -182,7 +267,7 @@ public final class GWChainGraph implements GWChainGraphType
     @Override
     public GWChainGraphNodeType left()
     {
-      return this.next;
+      return this.left;
     }
 
     @Override
@@ -194,123 +279,55 @@ public final class GWChainGraph implements GWChainGraphType
     @Override
     public GWChainGraphNodeType endOfLeftBranch()
     {
-      GWChainGraphNodeType current = this;
-
-      while (true) {
-        final var nextNode =
-          current.next()
-            .orElse(null);
-
-        if (nextNode == null) {
-          return current;
-        }
-        if (nextNode.element() == this.splittingElement()) {
-          return current;
-        }
-        current = nextNode;
-      }
+      return this.endOfLeft;
     }
 
     @Override
     public GWChainGraphNodeType endOfRightBranch()
     {
-      GWChainGraphNodeType current = this.right;
-
-      while (true) {
-        final var nextNode =
-          current.next()
-            .orElse(null);
-
-        if (nextNode == null) {
-          return current;
-        }
-        if (nextNode.element() == this.closingElement()) {
-          return nextNode;
-        }
-        current = nextNode;
-      }
+      return this.endOfRight;
     }
 
     @Override
     public int leftLength()
     {
-      int length = 0;
-      GWChainGraphNodeType current = this.left();
-      while (current.element() != this.splittingElement()) {
-        ++length;
-
-        current = current.next().orElse(null);
-        if (current == null) {
-          break;
-        }
-      }
-      return length;
+      return this.leftLength;
     }
 
     @Override
     public int rightLength()
     {
-      int length = -1;
-      GWChainGraphNodeType current = this.right();
-      while (current.element() != this.closingElement()) {
-        ++length;
+      return this.rightLength;
+    }
 
-        current = current.next().orElse(null);
-        if (current == null) {
-          break;
-        }
-      }
-      return length;
+    @Override
+    public int splitIndex()
+    {
+      return this.splitIndex;
+    }
+
+    @Override
+    public int joinIndex()
+    {
+      return this.joinIndex;
     }
   }
 
   private static final class GWChainGraphBranchRightLeg
+    extends GWChainGraphNodeAbstract
     implements GWChainGraphNodeType.GWChainGraphBranchRightLegType
   {
-    private final GWChainElementValue element;
-    private final int depth;
-    private GWChainGraphNodeType next;
-    private final GWChainGraphNodeType previous;
     private final GWChainGraphBranchType branch;
 
     GWChainGraphBranchRightLeg(
-      final GWChainGraphNodeType inPrevious,
       final GWChainElementValue inElement,
       final int inDepth,
+      final int inIndex,
       final GWChainGraphBranchType inBranch)
     {
-      this.previous =
-        inPrevious;
-      this.element =
-        Objects.requireNonNull(inElement, "inElement");
+      super(inElement, inDepth, inIndex);
       this.branch =
         Objects.requireNonNull(inBranch, "inBranch");
-      this.depth =
-        inDepth;
-    }
-
-    @Override
-    public GWChainElementValue element()
-    {
-      return this.element;
-    }
-
-    @Override
-    public Optional<GWChainGraphNodeType> next()
-    {
-      return Optional.ofNullable(this.next);
-    }
-
-    @Override
-    public Optional<GWChainGraphNodeType> previous()
-    {
-      return Optional.ofNullable(this.previous);
-    }
-
-    @Override
-    public int depth()
-    {
-      return 0;
     }
 
     @Override
@@ -323,57 +340,25 @@ public final class GWChainGraph implements GWChainGraphType
     public String toString()
     {
       return "[GWChainGraphBranchRightLeg %s [depth %d]]"
-        .formatted(this.element, this.depth);
+        .formatted(this.element(), Integer.valueOf(this.depth()));
     }
   }
 
   private static final class GWChainGraphJoin
+    extends GWChainGraphNodeAbstract
     implements GWChainGraphNodeType.GWChainGraphJoinType
   {
-    private final GWChainElementValue element;
-    private final int depth;
-    private GWChainGraphNodeType next;
-    private final GWChainGraphNodeType previous;
     private final GWChainGraphBranchType branch;
 
     GWChainGraphJoin(
-      final GWChainGraphNodeType inPrevious,
       final GWChainElementValue inElement,
       final int inDepth,
+      final int inIndex,
       final GWChainGraphBranchType inBranch)
     {
-      this.previous =
-        inPrevious;
-      this.element =
-        Objects.requireNonNull(inElement, "inElement");
+      super(inElement, inDepth, inIndex);
       this.branch =
         Objects.requireNonNull(inBranch, "inBranch");
-      this.depth =
-        inDepth;
-    }
-
-    @Override
-    public GWChainElementValue element()
-    {
-      return this.element;
-    }
-
-    @Override
-    public Optional<GWChainGraphNodeType> next()
-    {
-      return Optional.ofNullable(this.next);
-    }
-
-    @Override
-    public Optional<GWChainGraphNodeType> previous()
-    {
-      return Optional.ofNullable(this.previous);
-    }
-
-    @Override
-    public int depth()
-    {
-      return this.depth;
     }
 
     @Override
@@ -386,7 +371,7 @@ public final class GWChainGraph implements GWChainGraphType
     public String toString()
     {
       return "[GWChainGraphJoin %s [depth %d]]"
-        .formatted(this.element, this.depth);
+        .formatted(this.element(), Integer.valueOf(this.depth()));
     }
   }
 
@@ -394,8 +379,7 @@ public final class GWChainGraph implements GWChainGraphType
   {
     private final ArrayDeque<GWChainGraphBranch> branchesOpen;
     private final LinkedList<GWChainElementValue> elementsRemaining;
-    private GWChainGraphNodeType mostRecentNode;
-    private GWChainGraphNodeType root;
+    private final ArrayList<GWChainGraphNodeAbstract> nodes;
     private int depthCurrent;
 
     private GenerationState(
@@ -405,8 +389,9 @@ public final class GWChainGraph implements GWChainGraphType
         new ArrayDeque<>(4);
       this.elementsRemaining =
         new LinkedList<>(chain);
+      this.nodes =
+        new ArrayList<>(chain.size());
 
-      this.mostRecentNode = null;
       this.depthCurrent = 0;
     }
 
@@ -420,8 +405,12 @@ public final class GWChainGraph implements GWChainGraphType
       return this.elementsRemaining.poll();
     }
 
+    private int nextIndex()
+    {
+      return this.nodes.size();
+    }
+
     public GWChainGraphNodeType beginBranch(
-      final GWChainGraphNodeType previous,
       final GWChainElementValue element)
     {
       return switch (element) {
@@ -438,9 +427,13 @@ public final class GWChainGraph implements GWChainGraphType
           }
 
           final var node =
-            new GWChainGraphBranch(previous, element, this.depthCurrent);
+            new GWChainGraphBranch(
+              element,
+              this.depthCurrent,
+              this.nextIndex()
+            );
           this.branchesOpen.push(node);
-          this.updateMostRecentNext(node);
+          this.nodes.add(node);
           yield node;
         }
 
@@ -453,34 +446,7 @@ public final class GWChainGraph implements GWChainGraphType
       };
     }
 
-    private void updateMostRecentNext(
-      final GWChainGraphNodeType next)
-    {
-      if (this.root == null) {
-        this.root = next;
-        this.mostRecentNode = next;
-        return;
-      }
-
-      final var recent = this.mostRecentNode;
-      if (recent != null) {
-        if (recent instanceof GWChainGraphJoin join) {
-          join.next = next;
-        } else if (recent instanceof GWChainGraphBranch branch) {
-          branch.next = next;
-        } else if (recent instanceof GWChainGraphNode node) {
-          node.next = next;
-        } else if (recent instanceof GWChainGraphBranchRightLeg leg) {
-          leg.next = next;
-        } else {
-          throw new IllegalStateException();
-        }
-      }
-      this.mostRecentNode = next;
-    }
-
     public GWChainGraphNodeType closeBranch(
-      final GWChainGraphNodeType previous,
       final GWChainElementValue element)
     {
       return switch (element) {
@@ -496,16 +462,22 @@ public final class GWChainGraph implements GWChainGraphType
           if (top.closingElement() != element) {
             throw new GWChainGraphValidityException(
               "Cannot close branch '%s' with '%s' when '%s' is still open."
-                .formatted(element, top.element, top.closingElement())
+                .formatted(element, top.element(), top.closingElement())
             );
           }
 
           --this.depthCurrent;
           final var node =
-            new GWChainGraphJoin(previous, element, this.depthCurrent, top);
+            new GWChainGraphJoin(
+              element,
+              this.depthCurrent,
+              this.nextIndex(),
+              top
+            );
 
+          top.joinIndex = node.index();
           this.branchesOpen.pop();
-          this.updateMostRecentNext(node);
+          this.nodes.add(node);
           yield node;
         }
 
@@ -519,7 +491,6 @@ public final class GWChainGraph implements GWChainGraphType
     }
 
     public GWChainGraphNodeType beginNode(
-      final GWChainGraphNodeType previous,
       final GWChainElementValue element)
     {
       return switch (element) {
@@ -564,8 +535,12 @@ public final class GWChainGraph implements GWChainGraphType
           SUB_SP_SIMULATOR_L,
           SUB_SP_SIMULATOR_R -> {
           final var node =
-            new GWChainGraphNode(previous, element, this.depthCurrent);
-          this.updateMostRecentNext(node);
+            new GWChainGraphNode(
+              element,
+              this.depthCurrent,
+              this.nextIndex()
+            );
+          this.nodes.add(node);
           yield node;
         }
 
@@ -579,7 +554,6 @@ public final class GWChainGraph implements GWChainGraphType
     }
 
     public GWChainGraphNodeType beginBranchSplit(
-      final GWChainGraphNodeType previous,
       final GWChainElementValue element)
     {
       return switch (element) {
@@ -595,21 +569,22 @@ public final class GWChainGraph implements GWChainGraphType
           if (top.splittingElement() != element) {
             throw new GWChainGraphValidityException(
               "Cannot split branch '%s' with '%s' when '%s' is still open."
-                .formatted(element, top.element, top.closingElement())
+                .formatted(element, top.element(), top.closingElement())
             );
           }
 
           ++this.depthCurrent;
           final var node =
             new GWChainGraphBranchRightLeg(
-              previous,
               element,
               this.depthCurrent,
+              this.nextIndex(),
               top
             );
 
           top.right = node;
-          this.updateMostRecentNext(node);
+          top.splitIndex = node.index();
+          this.nodes.add(node);
           yield node;
         }
 
@@ -621,6 +596,21 @@ public final class GWChainGraph implements GWChainGraphType
         }
       };
     }
+
+    GWChainGraphNodeType[] finish()
+    {
+      final var all =
+        this.nodes.toArray(new GWChainGraphNodeAbstract[0]);
+      final var result =
+        new GWChainGraphNodeType[all.length];
+
+      for (int index = 0; index < all.length; ++index) {
+        final var node = all[index];
+        node.link(all);
+        result[index] = (GWChainGraphNodeType) node;
+      }
+      return result;
+    }
   }
 
   /**
@@ -638,15 +628,19 @@ public final class GWChainGraph implements GWChainGraphType
     final List<GWChainElementValue> chain)
     throws GWChainGraphValidityException
   {
-    return new GWChainGraph(createStep(new GenerationState(chain)));
+    final var state = new GenerationState(chain);
+    createStep(state);
+
+    final var nodes = state.finish();
+    final var first =
+      nodes.length > 0 ? nodes[0] : null;
+    return new GWChainGraph(first, nodes);
   }
 
-  private static GWChainGraphNodeType createStep(
+  private static void createStep(
     final GenerationState state)
     throws GWChainGraphValidityException
   {
-    GWChainGraphNodeType previous = null;
-
     while (true) {
       final var current = state.peekNext();
       if (current == null) {
@@ -655,7 +649,7 @@ public final class GWChainGraph implements GWChainGraphType
 
       state.takeNext();
 
-      previous = switch (current) {
+      switch (current) {
         case AIRD_PREAMP_1,
           AIRD_PREAMP_2,
           BYPASS_MAIN_L,
@@ -696,25 +690,23 @@ public final class GWChainGraph implements GWChainGraphType
           SUB_OUT_R,
           SUB_SP_SIMULATOR_L,
           SUB_SP_SIMULATOR_R -> {
-          yield state.beginNode(previous, current);
+          state.beginNode(current);
         }
 
         case DIVIDER_1, DIVIDER_2, DIVIDER_3 -> {
-          yield state.beginBranch(previous, current);
+          state.beginBranch(current);
         }
 
         case MIXER_1, MIXER_2, MIXER_3 -> {
-          yield state.closeBranch(previous, current);
+          state.closeBranch(current);
         }
 
         case BRANCH_SPLIT1,
           BRANCH_SPLIT2,
           BRANCH_SPLIT3 -> {
-          yield state.beginBranchSplit(previous, current);
+          state.beginBranchSplit(current);
         }
-      };
+      }
     }
-
-    return state.root;
   }
 }
@@ -49,6 +49,12 @@ public sealed interface GWChainGraphNodeType
 
   int depth();
 
+  /**
+   * @return The index of the node in the graph's "next" order
+   */
+
+  int index();
+
   /**
    * The type of nodes that represent branches (dividers).
    */
@@ -91,6 +97,20 @@ public sealed interface GWChainGraphNodeType
      */
 
     int rightLength();
+
+    /**
+     * @return The index of the node that starts the right leg, or {@code -1}
+     * if the branch is never split
+     */
+
+    int splitIndex();
+
+    /**
+     * @return The index of the node that joins the legs, or {@code -1}
+     * if the branch is never closed
+     */
+
+    int joinIndex();
   }
 
   /**
@@ -36,4 +36,41 @@ public interface GWChainGraphType
    */
 
   List<GWChainGraphNodeType> elements();
+
+  /**
+   * @return The number of nodes in the graph
+   */
+
+  int size();
+
+  /**
+   * @param index The node index
+   *
+   * @return The node at index {@code index}
+   *
+   * @throws IndexOutOfBoundsException If {@code index} is not in the range
+   *                                   {@code [0, size())}
+   */
+
+  GWChainGraphNodeType nodeAt(int index);
+
+  /**
+   * @param index The node index
+   *
+   * @return The branch depth of the node at index {@code index}
+   *
+   * @throws IndexOutOfBoundsException If {@code index} is not in the range
+   *                                   {@code [0, size())}
+   */
+
+  int depthAt(int index);
+
+  /**
+   * @param element The chain element
+   *
+   * @return The index of the first node that holds {@code element}, or
+   * {@code -1} if there is no such node
+   */
+
+  int indexOf(GWChainElementValue element);
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.api;
+
+import java.util.Objects;
+
+/**
+ * An immutable layout of a chain graph. A layout holds the position of every
+ * chain element, and a list of line segments that connect the elements.
+ *
+ * @see GWChainLayouts
+ */
+
+public final class GWChainLayout
+{
+  private final GWChainGraphType graph;
+  private final double[] nodeX;
+  private final double[] nodeY;
+  private final double[] lines;
+  private final int lineCount;
+
+  GWChainLayout(
+    final GWChainGraphType inGraph,
+    final double[] inNodeX,
+    final double[] inNodeY,
+    final double[] inLines,
+    final int inLineCount)
+  {
+    this.graph =
+      Objects.requireNonNull(inGraph, "graph");
+    this.nodeX =
+      Objects.requireNonNull(inNodeX, "nodeX");
+    this.nodeY =
+      Objects.requireNonNull(inNodeY, "nodeY");
+    this.lines =
+      Objects.requireNonNull(inLines, "lines");
+    this.lineCount =
+      inLineCount;
+  }
+
+  /**
+   * @return The graph that was laid out
+   */
+
+  public GWChainGraphType graph()
+  {
+    return this.graph;
+  }
+
+  /**
+   * @param element The chain element
+   *
+   * @return The X position of the origin of the given element
+   */
+
+  public double nodeX(
+    final GWChainElementValue element)
+  {
+    return this.nodeX[element.ordinal()];
+  }
+
+  /**
+   * @param element The chain element
+   *
+   * @return The Y position of the origin of the given element
+   */
+
+  public double nodeY(
+    final GWChainElementValue element)
+  {
+    return this.nodeY[element.ordinal()];
+  }
+
+  /**
+   * @return The number of line segments
+   */
+
+  public int lineCount()
+  {
+    return this.lineCount;
+  }
+
+  /**
+   * @param index The line index in the range {@code [0, lineCount())}
+   *
+   * @return The X position of the start of the line
+   */
+
+  public double lineStartX(
+    final int index)
+  {
+    return this.lines[this.lineOffset(index)];
+  }
+
+  /**
+   * @param index The line index in the range {@code [0, lineCount())}
+   *
+   * @return The Y position of the start of the line
+   */
+
+  public double lineStartY(
+    final int index)
+  {
+    return this.lines[this.lineOffset(index) + 1];
+  }
+
+  /**
+   * @param index The line index in the range {@code [0, lineCount())}
+   *
+   * @return The X position of the end of the line
+   */
+
+  public double lineEndX(
+    final int index)
+  {
+    return this.lines[this.lineOffset(index) + 2];
+  }
+
+  /**
+   * @param index The line index in the range {@code [0, lineCount())}
+   *
+   * @return The Y position of the end of the line
+   */
+
+  public double lineEndY(
+    final int index)
+  {
+    return this.lines[this.lineOffset(index) + 3];
+  }
+
+  private int lineOffset(
+    final int index)
+  {
+    Objects.checkIndex(index, this.lineCount);
+    return index * 4;
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.api;
+
+import com.io7m.gatwick.controller.api.GWChainGraphNodeType.GWChainGraphBlockType;
+import com.io7m.gatwick.controller.api.GWChainGraphNodeType.GWChainGraphBranchRightLegType;
+import com.io7m.gatwick.controller.api.GWChainGraphNodeType.GWChainGraphBranchType;
+import com.io7m.gatwick.controller.api.GWChainGraphNodeType.GWChainGraphJoinType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.lang.Math.max;
+
+/**
+ * Functions to lay out chain graphs. The layout is a pure function of the
+ * graph and the sizes of the nodes, and can therefore be computed on any
+ * thread, and cached.
+ */
+
+public final class GWChainLayouts
+{
+  /**
+   * The vertical distance between branch depths.
+   */
+
+  public static final double DEPTH_HEIGHT = 48.0;
+
+  /*
+   * At most three branches can be open at once (one per divider), plus
+   * the main chain itself.
+   */
+
+  private static final int MAXIMUM_NESTING = 4;
+
+  private GWChainLayouts()
+  {
+
+  }
+
+  /**
+   * Lay out the given graph.
+   *
+   * @param graph The graph
+   * @param sizes The sizes of the nodes; a size must be present for every
+   *              element in the graph
+   *
+   * @return The layout
+   */
+
+  public static GWChainLayout layout(
+    final GWChainGraphType graph,
+    final Map<GWChainElementValue, GWChainLayoutNodeSize> sizes)
+  {
+    Objects.requireNonNull(graph, "graph");
+    Objects.requireNonNull(sizes, "sizes");
+
+    final var builder = new Builder(graph, sizes);
+    builder.arrangeNodes();
+    builder.arrangeLines();
+    return builder.build();
+  }
+
+  private static final class Builder
+  {
+    private final GWChainGraphType graph;
+    private final GWChainLayoutNodeSize[] sizes;
+    private final double[] nodeX;
+    private final double[] nodeY;
+    private final int[] branchXStart;
+    private final int[] branchXMax;
+    private final int[] branchXNow;
+    private final int[] branchStartWidth;
+    private int branchTop;
+    private double[] lines;
+    private int lineCount;
+
+    Builder(
+      final GWChainGraphType inGraph,
+      final Map<GWChainElementValue, GWChainLayoutNodeSize> inSizes)
+    {
+      this.graph = inGraph;
+
+      final var elements = GWChainElementValue.values();
+      this.sizes = new GWChainLayoutNodeSize[elements.length];
+      this.nodeX = new double[elements.length];
+      this.nodeY = new double[elements.length];
+
+      final var size = inGraph.size();
+      for (int index = 0; index < size; ++index) {
+        final var element = inGraph.nodeAt(index).element();
+        this.sizes[element.ordinal()] =
+          Objects.requireNonNull(
+            inSizes.get(element),
+            () -> "Size of element %s".formatted(element)
+          );
+      }
+
+      this.branchXStart = new int[MAXIMUM_NESTING];
+      this.branchXMax = new int[MAXIMUM_NESTING];
+      this.branchXNow = new int[MAXIMUM_NESTING];
+      this.branchStartWidth = new int[MAXIMUM_NESTING];
+      this.lines = new double[size * 8];
+    }
+
+    GWChainLayout build()
+    {
+      return new GWChainLayout(
+        this.graph,
+        this.nodeX,
+        this.nodeY,
+        Arrays.copyOf(this.lines, this.lineCount * 4),
+        this.lineCount
+      );
+    }
+
+    /*
+     * Node arrangement.
+     */
+
+    void arrangeNodes()
+    {
+      this.branchTop = 0;
+
+      /*
+       * Determine the horizontal offset of each node in a single pass over
+       * the graph. Node depths are precomputed by the graph.
+       */
+
+      final var size = this.graph.size();
+      for (int index = 0; index < size; ++index) {
+        final var node = this.graph.nodeAt(index);
+        final var ordinal = node.element().ordinal();
+        final var width = (int) this.sizes[ordinal].width();
+
+        final int x;
+        if (node instanceof GWChainGraphBranchType) {
+          x = this.startBranchLeft(width);
+        } else if (node instanceof GWChainGraphBranchRightLegType) {
+          x = this.startBranchRight();
+        } else if (node instanceof GWChainGraphJoinType) {
+          x = this.finishBranch(width);
+        } else {
+          x = this.addNode(width);
+        }
+
+        this.nodeX[ordinal] = x;
+        this.nodeY[ordinal] = this.graph.depthAt(index) * DEPTH_HEIGHT;
+      }
+    }
+
+    private void setX(
+      final int x)
+    {
+      final var top = this.branchTop;
+      this.branchXNow[top] = x;
+      this.branchXMax[top] = max(this.branchXMax[top], x);
+    }
+
+    private int startBranchLeft(
+      final int width)
+    {
+      final var x = this.branchXNow[this.branchTop];
+
+      final var top = ++this.branchTop;
+      this.branchXStart[top] = x;
+      this.branchXMax[top] = x;
+      this.branchXNow[top] = x;
+      this.branchStartWidth[top] = width;
+      this.setX(x + width);
+      return x;
+    }
+
+    private int startBranchRight()
+    {
+      final var top = this.branchTop;
+      this.setX(this.branchXStart[top] + this.branchStartWidth[top]);
+      return this.branchXNow[top];
+    }
+
+    private int finishBranch(
+      final int width)
+    {
+      final var xMaxThen = this.branchXMax[this.branchTop];
+      --this.branchTop;
+      this.setX(xMaxThen);
+      final var x = this.branchXNow[this.branchTop];
+      this.setX(x + width);
+      return x;
+    }
+
+    private int addNode(
+      final int width)
+    {
+      final var x = this.branchXNow[this.branchTop];
+      this.setX(x + width);
+      return x;
+    }
+
+    /*
+     * Line arrangement.
+     */
+
+    void arrangeLines()
+    {
+      final var size = this.graph.size();
+      for (int index = 0; index < size; ++index) {
+        final var node = this.graph.nodeAt(index);
+
+        if (node instanceof GWChainGraphBranchType branch) {
+          this.arrangeBranch(branch);
+          continue;
+        }
+
+        if (node instanceof GWChainGraphJoinType join) {
+          this.arrangeJoin(join);
+          continue;
+        }
+
+        if (node instanceof GWChainGraphBranchRightLegType) {
+          continue;
+        }
+
+        if (node instanceof GWChainGraphBlockType block) {
+          this.arrangeBlock(block);
+        }
+      }
+    }
+
+    private double centerX(
+      final GWChainGraphNodeType node)
+    {
+      final var ordinal = node.element().ordinal();
+      return this.nodeX[ordinal] + this.sizes[ordinal].centerX();
+    }
+
+    private double centerY(
+      final GWChainGraphNodeType node)
+    {
+      final var ordinal = node.element().ordinal();
+      return this.nodeY[ordinal] + this.sizes[ordinal].centerY();
+    }
+
+    private GWChainGraphNodeType nodeAfter(
+      final GWChainGraphNodeType node)
+    {
+      final var index = node.index() + 1;
+      if (index < this.graph.size()) {
+        return this.graph.nodeAt(index);
+      }
+      return null;
+    }
+
+    private void arrangeJoin(
+      final GWChainGraphJoinType join)
+    {
+      final var next = this.nodeAfter(join);
+      if (next == null) {
+        return;
+      }
+
+      this.createLineTo(join, next);
+    }
+
+    private void arrangeBlock(
+      final GWChainGraphBlockType block)
+    {
+      final var next = this.nodeAfter(block);
+      if (next == null) {
+        return;
+      }
+
+      /*
+       * If the "next" node is the start of the right leg of a branch,
+       * then we actually want to draw a line to the end of the branch
+       * instead.
+       */
+
+      final GWChainGraphNodeType nextTarget;
+      if (next instanceof GWChainGraphBranchRightLegType right) {
+        nextTarget = this.nodeAfter(right.branch().endOfRightBranch());
+        if (nextTarget == null) {
+          return;
+        }
+      } else {
+        nextTarget = next;
+      }
+
+      this.createLineTo(block, nextTarget);
+    }
+
+    private void arrangeBranch(
+      final GWChainGraphBranchType branch)
+    {
+      final var emptyLeft =
+        branch.leftLength() == 0;
+      final var emptyRight =
+        branch.rightLength() == 0;
+
+      /*
+       * If both branches are empty, then we need to draw flat line
+       * going from the start of the branch to the node after the end
+       * of the branch.
+       */
+
+      if (emptyLeft && emptyRight) {
+        this.createLineTo(
+          branch,
+          this.graph.nodeAt(branch.splitIndex() + 1)
+        );
+        return;
+      }
+
+      /*
+       * If the left branch is empty, then we need to draw flat line
+       * going from the start of the branch to the node after the end
+       * of the branch.
+       */
+
+      if (emptyLeft) {
+        this.createLineTo(branch, branch.endOfRightBranch());
+      } else {
+        this.createLineTo(branch, branch.left());
+      }
+
+      /*
+       * If the right branch is empty, then we need to draw a segmented
+       * line going through the (invisible) node that marks the start
+       * of the right branch.
+       */
+
+      if (emptyRight) {
+        this.createLineTo(branch, branch.right());
+        this.createLineTo(branch.right(), branch.endOfRightBranch());
+      } else {
+        this.createLineTo(branch, branch.right());
+      }
+    }
+
+    private void createLineTo(
+      final GWChainGraphNodeType source,
+      final GWChainGraphNodeType target)
+    {
+      final var e0cx = (long) (Math.floor(this.centerX(source)) + 0.5);
+      final var e0cy = (long) (Math.floor(this.centerY(source)) + 0.5);
+      final var e1cx = (long) (Math.floor(this.centerX(target)) + 0.5);
+      final var e1cy = (long) (Math.floor(this.centerY(target)) + 0.5);
+
+      /*
+       * The destination point is below the starting point. Create
+       * an L shape.
+       */
+
+      if (e1cy > e0cy) {
+        this.addLine(e0cx, e0cy, e0cx, e1cy);
+        this.addLine(e0cx, e1cy, e1cx, e1cy);
+        return;
+      }
+
+      /*
+       * The destination point is above the starting point. Create
+       * an inverted L shape.
+       */
+
+      if (e1cy < e0cy) {
+        this.addLine(e0cx, e0cy, e1cx, e0cy);
+        this.addLine(e1cx, e0cy, e1cx, e1cy);
+        return;
+      }
+
+      /*
+       * Otherwise, create a flat horizontal line.
+       */
+
+      this.addLine(e0cx, e0cy, e1cx, e1cy);
+    }
+
+    private void addLine(
+      final double p0x,
+      final double p0y,
+      final double p1x,
+      final double p1y)
+    {
+      final var offset = this.lineCount * 4;
+      if (offset + 4 > this.lines.length) {
+        this.lines = Arrays.copyOf(this.lines, (this.lines.length + 4) * 2);
+      }
+
+      this.lines[offset] = Math.floor(p0x) + 0.5;
+      this.lines[offset + 1] = Math.floor(p0y) + 0.5;
+      this.lines[offset + 2] = Math.floor(p1x) + 0.5;
+      this.lines[offset + 3] = Math.floor(p1y) + 0.5;
+      ++this.lineCount;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.api;
+
+import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>An I/O lane: an open controller together with a dedicated thread on
+ * which all operations on that controller are executed.</p>
+ *
+ * <p>Operations submitted to a lane are executed in submission order.
+ * Operations on different lanes execute concurrently, so a slow device
+ * does not delay operations on any other device.</p>
+ */
+
+public interface GWControllerLaneType extends AutoCloseable
+{
+  /**
+   * @return The device the lane's controller was opened on
+   */
+
+  GWDeviceMIDIDescription device();
+
+  /**
+   * @return {@code true} if the lane has been closed
+   */
+
+  boolean isClosed();
+
+  /**
+   * Submit a function for execution on the lane. If the lane is closed, the
+   * returned future fails with a {@link GWControllerException}.
+   *
+   * @param function The function
+   * @param <T>      The type of returned values
+   *
+   * @return A future representing the function in progress
+   */
+
+  <T> CompletableFuture<T> submit(
+    GWControllerFunctionType<T> function);
+
+  /**
+   * Close the lane. Operations already submitted are completed, and then the
+   * controller is closed. If this method is called from a function running
+   * on the lane, it returns without waiting for the controller to close, and
+   * any failure to close the controller is not reported.
+   *
+   * @throws GWControllerException On errors
+   */
+
+  @Override
+  void close()
+    throws GWControllerException;
+}
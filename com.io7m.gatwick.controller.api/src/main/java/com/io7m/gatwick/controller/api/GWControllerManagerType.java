@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.api;
+
+import com.io7m.gatwick.device.api.GWDeviceConfiguration;
+import com.io7m.gatwick.device.api.GWDeviceFactoryType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>A manager of several concurrently open controllers.</p>
+ *
+ * <p>Each controller is opened on its own {@link GWControllerLaneType}, and
+ * each lane executes operations independently of the others.</p>
+ */
+
+public interface GWControllerManagerType extends AutoCloseable
+{
+  /**
+   * Open a controller on a new lane. The device is opened on the new lane's
+   * thread, and so opening a device does not delay operations on any other
+   * lane. If the manager is closed before the lane has opened, the lane is
+   * closed and the future fails.
+   *
+   * @param deviceFactory       The device factory
+   * @param deviceConfiguration The device configuration
+   *
+   * @return A future representing the opened lane
+   */
+
+  CompletableFuture<GWControllerLaneType> open(
+    GWDeviceFactoryType deviceFactory,
+    GWDeviceConfiguration deviceConfiguration);
+
+  /**
+   * @return The currently open lanes, in the order in which they were opened
+   */
+
+  List<GWControllerLaneType> lanes();
+
+  /**
+   * Submit a function to every open lane. The function executes on all lanes
+   * concurrently. A failure on one lane does not affect the others.
+   *
+   * @param function The function
+   * @param <T>      The type of returned values
+   *
+   * @return The future for each lane
+   *
+   * @see CompletableFuture#allOf(CompletableFuture[])
+   */
+
+  <T> Map<GWControllerLaneType, CompletableFuture<T>> broadcast(
+    GWControllerFunctionType<T> function);
+
+  /**
+   * Close all lanes.
+   *
+   * @throws GWControllerException If any lane fails to close
+   */
+
+  @Override
+  void close()
+    throws GWControllerException;
+}
@@ -37,6 +37,13 @@ public final class GWControllerStandardErrorCodes
   public static final GWControllerErrorCode DEVICE_NO_SUITABLE_FACTORIES =
     new GWControllerErrorCode("controller-device-no-suitable-factories");
 
+  /**
+   * An operation was submitted to a controller that has been closed.
+   */
+
+  public static final GWControllerErrorCode CONTROLLER_CLOSED =
+    new GWControllerErrorCode("controller-closed");
+
   private GWControllerStandardErrorCodes()
   {
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.api;
+
+import com.io7m.gatwick.iovar.GWIOVariableType;
+
+/**
+ * <p>A transaction that groups writes to multiple variables.</p>
+ *
+ * <p>Values are staged with {@link #set(GWIOVariableType, Object)} and
+ * nothing is sent to the device until {@link #commit()} is called. On commit,
+ * the staged values are sent in address order, with writes to adjacent
+ * addresses merged into single device writes. Local values (and therefore
+ * any subscribers) are updated exactly once per variable, and only if every
+ * write succeeded.</p>
+ *
+ * <p>Transactions are not thread-safe and may only be committed once.</p>
+ */
+
+public interface GWControllerTransactionType
+{
+  /**
+   * Stage a value for the given variable. If a value has already been staged
+   * for the variable, the new value replaces it.
+   *
+   * @param variable The variable
+   * @param value    The value
+   * @param <T>      The type of values
+   *
+   * @return this
+   */
+
+  <T> GWControllerTransactionType set(
+    GWIOVariableType<T> variable,
+    T value);
+
+  /**
+   * @return The number of staged variables
+   */
+
+  int size();
+
+  /**
+   * Send all staged values to the device. The current contents of every
+   * range that will be written are read from the device first. If any write
+   * fails, the ranges that were already written are restored to those
+   * contents, local values are left unchanged, and an exception is raised.
+   *
+   * @throws GWControllerException On errors
+   * @throws InterruptedException  On interruption
+   */
+
+  void commit()
+    throws GWControllerException, InterruptedException;
+}
@@ -18,6 +18,9 @@
 package com.io7m.gatwick.controller.api;
 
 import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIORawBlock;
+
+import java.util.List;
 
 /**
  * A controller.
@@ -37,6 +40,26 @@ public interface GWControllerType extends AutoCloseable
 
   GWDeviceType device();
 
+  /**
+   * The blocks of device memory that hold the system settings. The blocks
+   * are transferred as opaque data; their contents are not interpreted.
+   *
+   * @return The system blocks, in address order
+   */
+
+  List<GWIORawBlock> systemBlocks();
+
+  /**
+   * Begin a new transaction. Writes staged in the transaction are not sent
+   * to the device until the transaction is committed.
+   *
+   * @return A new transaction
+   *
+   * @see GWControllerTransactionType
+   */
+
+  GWControllerTransactionType beginTransaction();
+
   @Override
   void close()
     throws GWControllerException;
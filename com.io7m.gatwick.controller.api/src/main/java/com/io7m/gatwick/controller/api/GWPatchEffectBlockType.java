@@ -16,7 +16,7 @@
 
 package com.io7m.gatwick.controller.api;
 
-import com.io7m.gatwick.iovar.GWIOReadableType;
+import com.io7m.gatwick.iovar.GWIOCachedReadableType;
 import com.io7m.gatwick.iovar.GWIOVariableType;
 
 import java.util.List;
@@ -25,7 +25,7 @@ import java.util.List;
  * A patch effect block.
  */
 
-public interface GWPatchEffectBlockType extends GWIOReadableType
+public interface GWPatchEffectBlockType extends GWIOCachedReadableType
 {
   /**
    * @return The list of variables exposed
@@ -17,7 +17,7 @@
 
 package com.io7m.gatwick.controller.api;
 
-import com.io7m.gatwick.iovar.GWIOReadableType;
+import com.io7m.gatwick.iovar.GWIOCachedReadableType;
 import com.io7m.gatwick.iovar.GWIOVariableContainerType;
 
 /**
@@ -25,7 +25,7 @@ import com.io7m.gatwick.iovar.GWIOVariableContainerType;
  */
 
 public interface GWPatchEffectType
-  extends GWIOReadableType, GWIOVariableContainerType
+  extends GWIOCachedReadableType, GWIOVariableContainerType
 {
 
 }
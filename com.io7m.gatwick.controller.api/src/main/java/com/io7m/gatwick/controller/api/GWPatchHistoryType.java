@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.api;
+
+/**
+ * <p>The edit history of a patch.</p>
+ *
+ * <p>Every write made to the patch is recorded as an undoable edit,
+ * alongside the contents of memory before the write. Consecutive writes to
+ * the same parameter made in quick succession (such as those produced by
+ * turning a dial) are recorded as a single edit. Undoing or redoing an edit
+ * writes only the ranges of memory that the edit changed.</p>
+ *
+ * <p>Only bytes that have previously been read from, or written to, the
+ * device can be restored. The history should be cleared when the device
+ * loads a different patch.</p>
+ */
+
+public interface GWPatchHistoryType
+{
+  /**
+   * @return {@code true} if there is an edit that can be undone
+   */
+
+  boolean canUndo();
+
+  /**
+   * @return {@code true} if there is an edit that can be redone
+   */
+
+  boolean canRedo();
+
+  /**
+   * Undo the most recent edit. Does nothing if there is no edit to undo.
+   *
+   * @throws GWControllerException On errors
+   * @throws InterruptedException  On interruption
+   */
+
+  void undo()
+    throws GWControllerException, InterruptedException;
+
+  /**
+   * Redo the most recently undone edit. Does nothing if there is no edit to
+   * redo.
+   *
+   * @throws GWControllerException On errors
+   * @throws InterruptedException  On interruption
+   */
+
+  void redo()
+    throws GWControllerException, InterruptedException;
+
+  /**
+   * Discard all edits and everything known about the patch memory.
+   */
+
+  void clear();
+}
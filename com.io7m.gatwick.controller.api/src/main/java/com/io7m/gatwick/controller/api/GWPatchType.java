@@ -16,8 +16,11 @@
 
 package com.io7m.gatwick.controller.api;
 
+import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.iovar.GWIOVariableType;
 
+import java.time.Duration;
+
 /**
  * The type of patches.
  */
@@ -90,6 +93,33 @@ public interface GWPatchType
 
   GWIOVariableType<GWChain> chain();
 
+  /**
+   * Read the current effects chain from the device if the chain has not been
+   * read within the given time to live, or has been invalidated since.
+   *
+   * @param timeToLive The time to live
+   *
+   * @throws InterruptedException If the operation is interrupted
+   * @throws GWDeviceException    If the device fails
+   */
+
+  void readChainFromDeviceIfStale(Duration timeToLive)
+    throws InterruptedException, GWDeviceException;
+
+  /**
+   * Invalidate all cached values in the patch. This is typically called when
+   * the current patch is changed, and forces the next "refresh if stale"
+   * operation on any part of the patch to read from the device.
+   */
+
+  void invalidate();
+
+  /**
+   * @return The edit history of the patch
+   */
+
+  GWPatchHistoryType history();
+
   /**
    * @return The DS1 patch block
    */
@@ -14,6 +14,9 @@
  * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
  */
 
+import com.io7m.gatwick.controller.api.GWEnumerationRegistry;
+import com.io7m.gatwick.iovar.GWIOEnumerationRegistryType;
+
 /**
  * GT-1000 controller (Controller API)
  */
@@ -27,5 +30,8 @@ module com.io7m.gatwick.controller.api
   requires transitive com.io7m.gatwick.iovar;
   requires transitive com.io7m.taskrecorder.core;
 
+  provides GWIOEnumerationRegistryType
+    with GWEnumerationRegistry;
+
   exports com.io7m.gatwick.controller.api;
 }
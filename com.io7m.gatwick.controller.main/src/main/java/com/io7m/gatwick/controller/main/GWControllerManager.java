@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main;
+
+import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.controller.api.GWControllerFactoryType;
+import com.io7m.gatwick.controller.api.GWControllerFunctionType;
+import com.io7m.gatwick.controller.api.GWControllerLaneType;
+import com.io7m.gatwick.controller.api.GWControllerManagerType;
+import com.io7m.gatwick.controller.main.internal.GWControllerLane;
+import com.io7m.gatwick.device.api.GWDeviceConfiguration;
+import com.io7m.gatwick.device.api.GWDeviceFactoryType;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.io7m.gatwick.controller.api.GWControllerStandardErrorCodes.CONTROLLER_CLOSED;
+
+/**
+ * A manager of several concurrently open controllers.
+ */
+
+public final class GWControllerManager implements GWControllerManagerType
+{
+  private final GWControllerFactoryType controllers;
+  private final CopyOnWriteArrayList<GWControllerLane> lanes;
+  private final AtomicBoolean closed;
+
+  /**
+   * Create a manager.
+   *
+   * @param inControllers The controller factory
+   */
+
+  public GWControllerManager(
+    final GWControllerFactoryType inControllers)
+  {
+    this.controllers =
+      Objects.requireNonNull(inControllers, "controllers");
+    this.lanes =
+      new CopyOnWriteArrayList<>();
+    this.closed =
+      new AtomicBoolean(false);
+  }
+
+  /**
+   * Create a manager using the default controller factory.
+   */
+
+  public GWControllerManager()
+  {
+    this(new GWControllers());
+  }
+
+  @Override
+  public CompletableFuture<GWControllerLaneType> open(
+    final GWDeviceFactoryType deviceFactory,
+    final GWDeviceConfiguration deviceConfiguration)
+  {
+    if (this.closed.get()) {
+      return CompletableFuture.failedFuture(closedException());
+    }
+
+    return GWControllerLane.open(
+      this.controllers,
+      deviceFactory,
+      deviceConfiguration,
+      this.lanes::remove
+    ).thenApply(lane -> {
+      this.lanes.add(lane);
+
+      /*
+       * The manager may have been closed while the lane was opening. The
+       * lane is added before the flag is checked, so that a lane is closed
+       * either here or by close(), and never missed by both.
+       */
+
+      if (this.closed.get()) {
+        final var ex = closedException();
+        try {
+          lane.close();
+        } catch (final GWControllerException e) {
+          ex.addSuppressed(e);
+        }
+        throw new CompletionException(ex);
+      }
+      return lane;
+    });
+  }
+
+  private static GWControllerException closedException()
+  {
+    return new GWControllerException(
+      CONTROLLER_CLOSED,
+      "The controller manager has been closed."
+    );
+  }
+
+  @Override
+  public List<GWControllerLaneType> lanes()
+  {
+    return List.copyOf(this.lanes);
+  }
+
+  @Override
+  public <T> Map<GWControllerLaneType, CompletableFuture<T>> broadcast(
+    final GWControllerFunctionType<T> function)
+  {
+    Objects.requireNonNull(function, "function");
+
+    final var results =
+      new LinkedHashMap<GWControllerLaneType, CompletableFuture<T>>();
+    for (final var lane : this.lanes) {
+      results.put(lane, lane.submit(function));
+    }
+    return Collections.unmodifiableMap(results);
+  }
+
+  @Override
+  public void close()
+    throws GWControllerException
+  {
+    this.closed.set(true);
+
+    GWControllerException failure = null;
+    for (final var lane : List.copyOf(this.lanes)) {
+      try {
+        lane.close();
+      } catch (final GWControllerException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
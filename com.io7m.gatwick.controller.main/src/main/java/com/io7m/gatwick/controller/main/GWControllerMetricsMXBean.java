@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main;
+
+/**
+ * The management interface exposed for each open controller. Instances are
+ * registered with the platform MBean server under the
+ * {@code com.io7m.gatwick} domain when a controller is opened, and
+ * unregistered when the controller is closed.
+ */
+
+public interface GWControllerMetricsMXBean
+{
+  /**
+   * @return The name of the underlying MIDI device
+   */
+
+  String getDeviceName();
+
+  /**
+   * @return The number of commands sent to the device
+   */
+
+  long getCommandsSent();
+
+  /**
+   * @return The number of commands that received a successful response
+   */
+
+  long getResponsesReceived();
+
+  /**
+   * @return The number of messages the device sent without being asked
+   */
+
+  long getUnsolicitedReceived();
+
+  /**
+   * @return The number of payload bytes written to the device
+   */
+
+  long getBytesSent();
+
+  /**
+   * @return The number of payload bytes read from the device
+   */
+
+  long getBytesReceived();
+
+  /**
+   * @return The number of payload bytes transferred per second, measured
+   * over the interval since the rate was last sampled
+   */
+
+  double getBytesPerSecond();
+
+  /**
+   * @return A histogram of command latencies. Element {@code 0} counts
+   * commands that completed in less than a millisecond, and element
+   * {@code i > 0} counts commands that took at least {@code 2^(i-1)} and
+   * less than {@code 2^i} milliseconds. The last element also counts any
+   * slower commands.
+   */
+
+  long[] getLatencyHistogram();
+
+  /**
+   * @return The number of commands that failed because the device did not
+   * respond in time, after any retries made by the device
+   */
+
+  long getTimeouts();
+
+  /**
+   * @return The number of commands that failed for any other reason
+   */
+
+  long getFailures();
+
+  /**
+   * @return The number of commands currently waiting for the device
+   */
+
+  long getCommandsInFlight();
+
+  /**
+   * @return The number of refreshes that found values fresh and did not
+   * read from the device
+   */
+
+  long getCacheHits();
+
+  /**
+   * @return The number of refreshes that found values stale and read from
+   * the device
+   */
+
+  long getCacheMisses();
+
+  /**
+   * @return The fraction of refreshes that did not read from the device
+   */
+
+  double getCacheHitRate();
+
+  /**
+   * @return The number of live subscriptions to I/O variables
+   */
+
+  long getLiveSubscriptions();
+}
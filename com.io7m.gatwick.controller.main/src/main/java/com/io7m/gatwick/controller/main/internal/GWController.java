@@ -18,17 +18,22 @@
 package com.io7m.gatwick.controller.main.internal;
 
 import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.controller.api.GWControllerTransactionType;
 import com.io7m.gatwick.controller.api.GWControllerType;
 import com.io7m.gatwick.controller.api.GWPatchType;
+import com.io7m.gatwick.controller.main.internal.generated.StructBlocks;
 import com.io7m.gatwick.controller.main.internal.generated.StructGT_1000;
 import com.io7m.gatwick.device.api.GWDeviceConfiguration;
 import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.device.api.GWDeviceFactoryType;
 import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import com.io7m.gatwick.iovar.GWIORawBlock;
 import com.io7m.jattribute.core.Attributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Objects;
 
 import static com.io7m.gatwick.controller.api.GWControllerStandardErrorCodes.DEVICE_ERROR;
@@ -42,16 +47,37 @@ public final class GWController implements GWControllerType
   private static final Logger LOG =
     LoggerFactory.getLogger(GWController.class);
 
-  private final GWDeviceType device;
+  private final GWControllerDevice device;
   private final Attributes attributes;
   private final GWPatch patchCurrent;
   private final StructGT_1000 memoryMap;
+  private final GWControllerMetrics metrics;
+  private volatile AutoCloseable metricsRegistration;
 
   private GWController(
     final GWDeviceType inDevice)
   {
+    final var metered =
+      new GWControllerMeteredDevice(
+        Objects.requireNonNull(inDevice, "device"));
+
+    this.metrics =
+      new GWControllerMetrics(
+        inDevice.description().midiDevice().midiDeviceName(),
+        metered
+      );
+    this.metricsRegistration = () -> {
+
+    };
+
     this.device =
-      Objects.requireNonNull(inDevice, "device");
+      new GWControllerDevice(
+        metered,
+        this::onDataChanged,
+        this::onDataWritten,
+        this::onDataObserved,
+        this::onProgramChanged
+      );
 
     this.attributes =
       Attributes.create(throwable -> {
@@ -71,6 +97,65 @@ public final class GWController implements GWControllerType
       );
   }
 
+  private void onDataChanged(
+    final int address,
+    final byte[] data)
+  {
+    /*
+     * Writes can alias: the chain is visible both through the patch chain
+     * variable and through the raw effect structure. Anything that might
+     * hold a copy of any written byte is invalidated and will be read
+     * again the next time it is asked to refresh.
+     */
+
+    this.memoryMap.invalidateRange(address, data.length);
+    this.patchCurrent.invalidateRange(address, data.length);
+
+    /*
+     * A write to the patch number selects a different patch. The patch
+     * memory then holds entirely different values, none of which will
+     * have been reported individually.
+     */
+
+    final var patchNumber = this.memoryMap.f_common.f_patch_number;
+    if (GWIOAddresses.overlaps(
+      patchNumber.address(), patchNumber.size(), address, data.length)) {
+      this.onPatchChanged();
+    }
+  }
+
+  private void onProgramChanged(
+    final int program)
+  {
+    LOG.debug("program changed: {}", Integer.valueOf(program));
+    this.onPatchChanged();
+  }
+
+  private void onPatchChanged()
+  {
+    /*
+     * Edits made to the previous patch cannot meaningfully be undone
+     * against the new one.
+     */
+
+    this.patchCurrent.invalidate();
+    this.patchCurrent.history().clear();
+  }
+
+  private void onDataWritten(
+    final int address,
+    final byte[] data)
+  {
+    this.patchCurrent.history().onDataWritten(address, data);
+  }
+
+  private void onDataObserved(
+    final int address,
+    final byte[] data)
+  {
+    this.patchCurrent.history().onDataObserved(address, data);
+  }
+
   /**
    * Open a controller.
    *
@@ -88,7 +173,10 @@ public final class GWController implements GWControllerType
     throws GWControllerException
   {
     try {
-      return new GWController(devices.openDevice(configuration));
+      final var controller =
+        new GWController(devices.openDevice(configuration));
+      controller.metricsRegistration = controller.metrics.register();
+      return controller;
     } catch (final GWDeviceException e) {
       throw new GWControllerException(DEVICE_ERROR, e.getMessage(), e);
     }
@@ -106,10 +194,33 @@ public final class GWController implements GWControllerType
     return this.device;
   }
 
+  @Override
+  public List<GWIORawBlock> systemBlocks()
+  {
+    return StructBlocks.blocks();
+  }
+
+  @Override
+  public GWControllerTransactionType beginTransaction()
+  {
+    return new GWControllerTransaction(this.device);
+  }
+
   @Override
   public void close()
     throws GWControllerException
   {
+    final var registration = this.metricsRegistration;
+    this.metricsRegistration = () -> {
+
+    };
+
+    try {
+      registration.close();
+    } catch (final Exception e) {
+      LOG.warn("unable to unregister controller metrics: ", e);
+    }
+
     try {
       this.device.close();
     } catch (final GWDeviceException e) {
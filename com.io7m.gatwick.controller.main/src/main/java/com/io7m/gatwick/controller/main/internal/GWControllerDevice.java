@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main.internal;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceCommandType;
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceResponseType;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.jattribute.core.AttributeReadableType;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * A device that notifies a listener whenever data in a range is changed,
+ * either by a write made through this device, or by the device itself.
+ * Listeners are additionally given the data of every successful write, and
+ * of every read or unprompted transmission from the device, and are told
+ * whenever the device reports that a different program has been selected.
+ */
+
+final class GWControllerDevice implements GWDeviceType
+{
+  private final GWDeviceType device;
+  private final GWControllerDeviceDataReceiverType onDataChanged;
+  private final GWControllerDeviceDataReceiverType onDataWritten;
+  private final GWControllerDeviceDataReceiverType onDataObserved;
+  private final IntConsumer onProgramChanged;
+
+  GWControllerDevice(
+    final GWDeviceType inDevice,
+    final GWControllerDeviceDataReceiverType inOnDataChanged,
+    final GWControllerDeviceDataReceiverType inOnDataWritten,
+    final GWControllerDeviceDataReceiverType inOnDataObserved,
+    final IntConsumer inOnProgramChanged)
+  {
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.onDataChanged =
+      Objects.requireNonNull(inOnDataChanged, "onDataChanged");
+    this.onDataWritten =
+      Objects.requireNonNull(inOnDataWritten, "onDataWritten");
+    this.onDataObserved =
+      Objects.requireNonNull(inOnDataObserved, "onDataObserved");
+    this.onProgramChanged =
+      Objects.requireNonNull(inOnProgramChanged, "onProgramChanged");
+
+    this.device.setUnsolicitedDataHandler(this::onUnsolicitedData);
+    this.device.setProgramChangeHandler(this.onProgramChanged);
+  }
+
+  private void onUnsolicitedData(
+    final GWDeviceResponseRequestData data)
+  {
+    this.onDataObserved.receive(data.address(), data.data());
+    this.onDataChanged.receive(data.address(), data.data());
+  }
+
+  @Override
+  public GWDeviceDescription description()
+  {
+    return this.device.description();
+  }
+
+  @Override
+  public AttributeReadableType<Duration> commandRoundTripTime()
+  {
+    return this.device.commandRoundTripTime();
+  }
+
+  @Override
+  public <R extends GWDeviceResponseType> R sendCommand(
+    final GWDeviceCommandType<R> command)
+    throws GWDeviceException, InterruptedException
+  {
+    final var response = this.device.sendCommand(command);
+    if (command instanceof GWDeviceCommandSetData set) {
+      this.onDataWritten.receive(set.address(), set.data());
+      this.onDataChanged.receive(set.address(), set.data());
+    } else if (response instanceof GWDeviceResponseRequestData data) {
+      this.onDataObserved.receive(data.address(), data.data());
+    }
+    return response;
+  }
+
+  @Override
+  public void setUnsolicitedDataHandler(
+    final Consumer<GWDeviceResponseRequestData> handler)
+  {
+    Objects.requireNonNull(handler, "handler");
+
+    this.device.setUnsolicitedDataHandler(data -> {
+      this.onUnsolicitedData(data);
+      handler.accept(data);
+    });
+  }
+
+  @Override
+  public void setProgramChangeHandler(
+    final IntConsumer handler)
+  {
+    Objects.requireNonNull(handler, "handler");
+
+    this.device.setProgramChangeHandler(program -> {
+      this.onProgramChanged.accept(program);
+      handler.accept(program);
+    });
+  }
+
+  @Override
+  public void close()
+    throws GWDeviceException
+  {
+    this.device.close();
+  }
+
+  @Override
+  public String toString()
+  {
+    return this.device.toString();
+  }
+}
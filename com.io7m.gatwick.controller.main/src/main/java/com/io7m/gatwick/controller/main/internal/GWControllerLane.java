@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main.internal;
+
+import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.controller.api.GWControllerFactoryType;
+import com.io7m.gatwick.controller.api.GWControllerFunctionType;
+import com.io7m.gatwick.controller.api.GWControllerLaneType;
+import com.io7m.gatwick.controller.api.GWControllerType;
+import com.io7m.gatwick.device.api.GWDeviceConfiguration;
+import com.io7m.gatwick.device.api.GWDeviceFactoryType;
+import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static com.io7m.gatwick.controller.api.GWControllerStandardErrorCodes.CONTROLLER_CLOSED;
+import static com.io7m.gatwick.controller.api.GWControllerStandardErrorCodes.DEVICE_ERROR;
+
+/**
+ * An I/O lane backed by a single-threaded executor.
+ */
+
+public final class GWControllerLane implements GWControllerLaneType
+{
+  private final GWDeviceMIDIDescription device;
+  private final ExecutorService executor;
+  private final AtomicBoolean closed;
+  private final Consumer<GWControllerLane> onClosed;
+  private GWControllerType controller;
+  private volatile Thread thread;
+
+  private GWControllerLane(
+    final GWDeviceMIDIDescription inDevice,
+    final Consumer<GWControllerLane> inOnClosed)
+  {
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.onClosed =
+      Objects.requireNonNull(inOnClosed, "onClosed");
+    this.closed =
+      new AtomicBoolean(false);
+    this.executor =
+      Executors.newSingleThreadExecutor(r -> {
+        final var thread = new Thread(r);
+        thread.setDaemon(true);
+        thread.setName(
+          "com.io7m.gatwick.controller.main.internal.GWControllerLane[%d]"
+            .formatted(Long.valueOf(thread.getId()))
+        );
+        this.thread = thread;
+        return thread;
+      });
+  }
+
+  /**
+   * Open a controller on a new lane. The controller is opened on the lane's
+   * own thread.
+   *
+   * @param controllers   The controller factory
+   * @param deviceFactory The device factory
+   * @param configuration The device configuration
+   * @param onClosed      A function called when the lane is closed
+   *
+   * @return A future representing the open lane
+   */
+
+  public static CompletableFuture<GWControllerLane> open(
+    final GWControllerFactoryType controllers,
+    final GWDeviceFactoryType deviceFactory,
+    final GWDeviceConfiguration configuration,
+    final Consumer<GWControllerLane> onClosed)
+  {
+    Objects.requireNonNull(controllers, "controllers");
+    Objects.requireNonNull(deviceFactory, "deviceFactory");
+    Objects.requireNonNull(configuration, "configuration");
+
+    final var lane =
+      new GWControllerLane(configuration.device(), onClosed);
+    final var future =
+      new CompletableFuture<GWControllerLane>();
+
+    lane.executor.execute(() -> {
+      try {
+        lane.controller =
+          controllers.openController(deviceFactory, configuration);
+        future.complete(lane);
+      } catch (final Throwable e) {
+        lane.closed.set(true);
+        lane.executor.shutdown();
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
+  @Override
+  public GWDeviceMIDIDescription device()
+  {
+    return this.device;
+  }
+
+  @Override
+  public boolean isClosed()
+  {
+    return this.closed.get();
+  }
+
+  @Override
+  public <T> CompletableFuture<T> submit(
+    final GWControllerFunctionType<T> function)
+  {
+    Objects.requireNonNull(function, "function");
+
+    final var future = new CompletableFuture<T>();
+    if (this.closed.get()) {
+      future.completeExceptionally(this.closedException());
+      return future;
+    }
+
+    try {
+      this.executor.execute(() -> {
+        try {
+          future.complete(function.execute(this.controller));
+        } catch (final Throwable e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      future.completeExceptionally(this.closedException());
+    }
+    return future;
+  }
+
+  private GWControllerException closedException()
+  {
+    return new GWControllerException(
+      CONTROLLER_CLOSED,
+      "The controller for device %s has been closed."
+        .formatted(this.device.midiDeviceName())
+    );
+  }
+
+  @Override
+  public void close()
+    throws GWControllerException
+  {
+    if (!this.closed.compareAndSet(false, true)) {
+      return;
+    }
+
+    final var future = new CompletableFuture<Void>();
+    this.executor.execute(() -> {
+      try {
+        this.controller.close();
+        future.complete(null);
+      } catch (final Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    this.executor.shutdown();
+    this.onClosed.accept(this);
+
+    /*
+     * A function running on the lane may close the lane. Waiting for the
+     * controller to close would then deadlock, because closing the
+     * controller is queued behind the function that is waiting for it.
+     */
+
+    if (Thread.currentThread() == this.thread) {
+      return;
+    }
+
+    try {
+      future.get();
+    } catch (final ExecutionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof GWControllerException ex) {
+        throw ex;
+      }
+      throw new GWControllerException(DEVICE_ERROR, cause.getMessage(), cause);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GWControllerException(DEVICE_ERROR, e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[GWControllerLane %s]".formatted(this.device.midiDeviceName());
+  }
+}
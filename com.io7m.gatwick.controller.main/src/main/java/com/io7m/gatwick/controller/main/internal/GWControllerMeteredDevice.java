@@ -0,0 +1,221 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main.internal;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceCommandType;
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceResponseType;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.jattribute.core.AttributeReadableType;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
+
+/**
+ * A device that counts the commands that pass through it. The counters are
+ * striped so that threads sending commands concurrently do not contend on
+ * them.
+ */
+
+final class GWControllerMeteredDevice implements GWDeviceType
+{
+  private static final int LATENCY_BUCKETS = 16;
+
+  private final GWDeviceType device;
+  private final LongAdder commandsSent;
+  private final LongAdder commandsInFlight;
+  private final LongAdder responsesReceived;
+  private final LongAdder unsolicitedReceived;
+  private final LongAdder bytesSent;
+  private final LongAdder bytesReceived;
+  private final LongAdder timeouts;
+  private final LongAdder failures;
+  private final LongAdder[] latencies;
+
+  GWControllerMeteredDevice(
+    final GWDeviceType inDevice)
+  {
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.commandsSent =
+      new LongAdder();
+    this.commandsInFlight =
+      new LongAdder();
+    this.responsesReceived =
+      new LongAdder();
+    this.unsolicitedReceived =
+      new LongAdder();
+    this.bytesSent =
+      new LongAdder();
+    this.bytesReceived =
+      new LongAdder();
+    this.timeouts =
+      new LongAdder();
+    this.failures =
+      new LongAdder();
+    this.latencies =
+      new LongAdder[LATENCY_BUCKETS];
+    for (int index = 0; index < LATENCY_BUCKETS; ++index) {
+      this.latencies[index] = new LongAdder();
+    }
+  }
+
+  private static int latencyBucket(
+    final long nanoseconds)
+  {
+    final var milliseconds = nanoseconds / 1_000_000L;
+    final var bucket = 64 - Long.numberOfLeadingZeros(milliseconds);
+    return Math.min(bucket, LATENCY_BUCKETS - 1);
+  }
+
+  long[] latencyHistogram()
+  {
+    final var result = new long[LATENCY_BUCKETS];
+    for (int index = 0; index < LATENCY_BUCKETS; ++index) {
+      result[index] = this.latencies[index].sum();
+    }
+    return result;
+  }
+
+  long commandsSent()
+  {
+    return this.commandsSent.sum();
+  }
+
+  long commandsInFlight()
+  {
+    return this.commandsInFlight.sum();
+  }
+
+  long responsesReceived()
+  {
+    return this.responsesReceived.sum();
+  }
+
+  long unsolicitedReceived()
+  {
+    return this.unsolicitedReceived.sum();
+  }
+
+  long bytesSent()
+  {
+    return this.bytesSent.sum();
+  }
+
+  long bytesReceived()
+  {
+    return this.bytesReceived.sum();
+  }
+
+  long timeouts()
+  {
+    return this.timeouts.sum();
+  }
+
+  long failures()
+  {
+    return this.failures.sum();
+  }
+
+  @Override
+  public GWDeviceDescription description()
+  {
+    return this.device.description();
+  }
+
+  @Override
+  public AttributeReadableType<Duration> commandRoundTripTime()
+  {
+    return this.device.commandRoundTripTime();
+  }
+
+  @Override
+  public <R extends GWDeviceResponseType> R sendCommand(
+    final GWDeviceCommandType<R> command)
+    throws GWDeviceException, InterruptedException
+  {
+    this.commandsSent.increment();
+    if (command instanceof GWDeviceCommandSetData set) {
+      this.bytesSent.add(set.data().length);
+    }
+
+    this.commandsInFlight.increment();
+    final var timeThen = System.nanoTime();
+    try {
+      final var response = this.device.sendCommand(command);
+      this.responsesReceived.increment();
+      if (command instanceof GWDeviceCommandRequestData
+          && response instanceof GWDeviceResponseRequestData data) {
+        this.bytesReceived.add(data.data().length);
+      }
+      return response;
+    } catch (final GWDeviceException e) {
+      if (Objects.equals(e.errorCode(), DEVICE_TIMED_OUT)) {
+        this.timeouts.increment();
+      } else {
+        this.failures.increment();
+      }
+      throw e;
+    } finally {
+      this.latencies[latencyBucket(System.nanoTime() - timeThen)].increment();
+      this.commandsInFlight.decrement();
+    }
+  }
+
+  @Override
+  public void setUnsolicitedDataHandler(
+    final Consumer<GWDeviceResponseRequestData> handler)
+  {
+    Objects.requireNonNull(handler, "handler");
+
+    this.device.setUnsolicitedDataHandler(data -> {
+      this.unsolicitedReceived.increment();
+      this.bytesReceived.add(data.data().length);
+      handler.accept(data);
+    });
+  }
+
+  @Override
+  public void setProgramChangeHandler(
+    final IntConsumer handler)
+  {
+    this.device.setProgramChangeHandler(handler);
+  }
+
+  @Override
+  public void close()
+    throws GWDeviceException
+  {
+    this.device.close();
+  }
+
+  @Override
+  public String toString()
+  {
+    return this.device.toString();
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main.internal;
+
+import com.io7m.gatwick.controller.main.GWControllerMetricsMXBean;
+import com.io7m.gatwick.iovar.GWIOStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The management view of an open controller. The counters themselves are
+ * maintained by the devices that make up the controller; this class only
+ * reads them when asked. Cache and subscription figures are taken from
+ * {@link GWIOStatistics} and therefore cover every controller in the process.
+ */
+
+final class GWControllerMetrics implements GWControllerMetricsMXBean
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWControllerMetrics.class);
+
+  private static final AtomicLong IDS =
+    new AtomicLong();
+
+  private static final long RATE_INTERVAL_NANOS =
+    1_000_000_000L;
+
+  private final String deviceName;
+  private final GWControllerMeteredDevice metered;
+  private final Object rateLock;
+  private long rateSampledAt;
+  private long rateSampledBytes;
+  private double rate;
+
+  GWControllerMetrics(
+    final String inDeviceName,
+    final GWControllerMeteredDevice inMetered)
+  {
+    this.deviceName =
+      Objects.requireNonNull(inDeviceName, "deviceName");
+    this.metered =
+      Objects.requireNonNull(inMetered, "metered");
+    this.rateLock =
+      new Object();
+    this.rateSampledAt =
+      System.nanoTime();
+  }
+
+  /**
+   * Register the metrics with the platform MBean server. Failing to register
+   * is not fatal; the controller simply remains unobservable.
+   *
+   * @return An action that unregisters the metrics
+   */
+
+  AutoCloseable register()
+  {
+    try {
+      final var server =
+        ManagementFactory.getPlatformMBeanServer();
+      final var name =
+        new ObjectName(
+          "com.io7m.gatwick:type=Controller,name=%s,id=%d".formatted(
+            ObjectName.quote(this.deviceName),
+            Long.valueOf(IDS.incrementAndGet())
+          )
+        );
+
+      server.registerMBean(this, name);
+      return () -> server.unregisterMBean(name);
+    } catch (final JMException e) {
+      LOG.warn("unable to register controller metrics: ", e);
+      return () -> {
+
+      };
+    }
+  }
+
+  @Override
+  public String getDeviceName()
+  {
+    return this.deviceName;
+  }
+
+  @Override
+  public long getCommandsSent()
+  {
+    return this.metered.commandsSent();
+  }
+
+  @Override
+  public long getResponsesReceived()
+  {
+    return this.metered.responsesReceived();
+  }
+
+  @Override
+  public long getUnsolicitedReceived()
+  {
+    return this.metered.unsolicitedReceived();
+  }
+
+  @Override
+  public long getBytesSent()
+  {
+    return this.metered.bytesSent();
+  }
+
+  @Override
+  public long getBytesReceived()
+  {
+    return this.metered.bytesReceived();
+  }
+
+  @Override
+  public double getBytesPerSecond()
+  {
+    /*
+     * The rate is recomputed at most once per interval, so that several
+     * monitoring clients polling at once do not each see a rate measured
+     * over a uselessly short period.
+     */
+
+    synchronized (this.rateLock) {
+      final var now = System.nanoTime();
+      final var elapsed = now - this.rateSampledAt;
+      if (elapsed >= RATE_INTERVAL_NANOS) {
+        final var bytes =
+          this.metered.bytesSent() + this.metered.bytesReceived();
+        this.rate =
+          (double) (bytes - this.rateSampledBytes) / ((double) elapsed / 1.0e9);
+        this.rateSampledAt = now;
+        this.rateSampledBytes = bytes;
+      }
+      return this.rate;
+    }
+  }
+
+  @Override
+  public long[] getLatencyHistogram()
+  {
+    return this.metered.latencyHistogram();
+  }
+
+  @Override
+  public long getTimeouts()
+  {
+    return this.metered.timeouts();
+  }
+
+  @Override
+  public long getFailures()
+  {
+    return this.metered.failures();
+  }
+
+  @Override
+  public long getCommandsInFlight()
+  {
+    return this.metered.commandsInFlight();
+  }
+
+  @Override
+  public long getCacheHits()
+  {
+    return GWIOStatistics.freshnessHits();
+  }
+
+  @Override
+  public long getCacheMisses()
+  {
+    return GWIOStatistics.freshnessMisses();
+  }
+
+  @Override
+  public double getCacheHitRate()
+  {
+    final var hits = GWIOStatistics.freshnessHits();
+    final var total = hits + GWIOStatistics.freshnessMisses();
+    if (total == 0L) {
+      return 0.0;
+    }
+    return (double) hits / (double) total;
+  }
+
+  @Override
+  public long getLiveSubscriptions()
+  {
+    return GWIOStatistics.subscriptionsLive();
+  }
+}
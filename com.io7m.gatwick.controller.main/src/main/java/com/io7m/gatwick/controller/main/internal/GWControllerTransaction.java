@@ -0,0 +1,280 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main.internal;
+
+import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.controller.api.GWControllerTransactionType;
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import com.io7m.gatwick.iovar.GWIOVariableType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.gatwick.controller.api.GWControllerStandardErrorCodes.DEVICE_ERROR;
+
+/**
+ * The default transaction implementation.
+ */
+
+public final class GWControllerTransaction
+  implements GWControllerTransactionType
+{
+  /**
+   * The maximum number of bytes sent in a single write. Adjacent variables
+   * are merged into a single write up to this size.
+   */
+
+  public static final int MAXIMUM_WRITE_SIZE = 128;
+
+  private final GWDeviceType device;
+  private final LinkedHashMap<GWIOVariableType<?>, Staged<?>> staged;
+  private boolean committed;
+
+  /**
+   * The default transaction implementation.
+   *
+   * @param inDevice The device to which writes are sent
+   */
+
+  public GWControllerTransaction(
+    final GWDeviceType inDevice)
+  {
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.staged =
+      new LinkedHashMap<>();
+  }
+
+  @Override
+  public <T> GWControllerTransactionType set(
+    final GWIOVariableType<T> variable,
+    final T value)
+  {
+    Objects.requireNonNull(variable, "variable");
+    Objects.requireNonNull(value, "value");
+
+    this.checkNotCommitted();
+
+    /*
+     * Serialize eagerly so that invalid values are rejected when they are
+     * staged rather than partway through a commit.
+     */
+
+    final var data = serialize(variable, value);
+
+    this.staged.put(
+      variable,
+      new Staged<>(
+        variable,
+        value,
+        GWIOAddresses.linearOf(variable.address()),
+        data
+      )
+    );
+    return this;
+  }
+
+  @Override
+  public int size()
+  {
+    return this.staged.size();
+  }
+
+  @Override
+  public void commit()
+    throws GWControllerException, InterruptedException
+  {
+    this.checkNotCommitted();
+    this.committed = true;
+
+    final var event = new GWControllerTransactionEvent();
+    event.begin();
+
+    final var entries = new ArrayList<>(this.staged.values());
+    entries.sort(Comparator.comparingInt(Staged::linear));
+
+    final var writes =
+      coalesce(entries);
+
+    /*
+     * The local value of a variable may never have been read from the
+     * device, so the contents to restore on failure are read from the
+     * device before anything is written. A failure here writes nothing.
+     */
+
+    final var originals =
+      new ArrayList<GWDeviceCommandSetData>(writes.size());
+
+    for (final var write : writes) {
+      try {
+        originals.add(this.readOriginal(write));
+      } catch (final GWDeviceException e) {
+        commitEvent(event, entries, writes, false);
+        throw new GWControllerException(DEVICE_ERROR, e.getMessage(), e);
+      }
+    }
+
+    for (int index = 0; index < writes.size(); ++index) {
+      try {
+        this.device.sendCommand(writes.get(index));
+      } catch (final GWDeviceException e) {
+        this.rollback(originals.subList(0, index), e);
+        commitEvent(event, entries, writes, true);
+        throw new GWControllerException(DEVICE_ERROR, e.getMessage(), e);
+      }
+    }
+
+    for (final var entry : entries) {
+      entry.publish();
+    }
+    commitEvent(event, entries, writes, false);
+  }
+
+  private static void commitEvent(
+    final GWControllerTransactionEvent event,
+    final List<Staged<?>> entries,
+    final List<GWDeviceCommandSetData> writes,
+    final boolean rolledBack)
+  {
+    event.end();
+    if (event.shouldCommit()) {
+      event.variables = entries.size();
+      event.writes = writes.size();
+      event.bytes = writes.stream().mapToLong(w -> w.data().length).sum();
+      event.rolledBack = rolledBack;
+      event.commit();
+    }
+  }
+
+  private GWDeviceCommandSetData readOriginal(
+    final GWDeviceCommandSetData write)
+    throws GWDeviceException, InterruptedException
+  {
+    /*
+     * The size field of a request is encoded in the same 7-bit form as
+     * addresses.
+     */
+
+    final var size = write.data().length;
+    final var response =
+      this.device.sendCommand(
+        new GWDeviceCommandRequestData(
+          write.address(),
+          GWIOAddresses.addressOf(size)
+        )
+      );
+
+    return new GWDeviceCommandSetData(
+      write.address(),
+      Arrays.copyOf(response.data(), size)
+    );
+  }
+
+  private void rollback(
+    final List<GWDeviceCommandSetData> originals,
+    final GWDeviceException failure)
+    throws InterruptedException
+  {
+    /*
+     * Restore only the ranges covered by writes that actually reached the
+     * device, using the contents they had before the commit started.
+     */
+
+    for (final var original : originals) {
+      try {
+        this.device.sendCommand(original);
+      } catch (final GWDeviceException e) {
+        failure.addSuppressed(e);
+      }
+    }
+  }
+
+  private static List<GWDeviceCommandSetData> coalesce(
+    final List<Staged<?>> entries)
+  {
+    final var writes = new ArrayList<GWDeviceCommandSetData>();
+
+    int index = 0;
+    while (index < entries.size()) {
+      final var first = entries.get(index);
+      int end = first.linear + first.data.length;
+      int last = index + 1;
+
+      while (last < entries.size()) {
+        final var next = entries.get(last);
+        final var nextEnd = next.linear + next.data.length;
+        if (next.linear != end || nextEnd - first.linear > MAXIMUM_WRITE_SIZE) {
+          break;
+        }
+        end = nextEnd;
+        ++last;
+      }
+
+      final var data = new byte[end - first.linear];
+      for (int k = index; k < last; ++k) {
+        final var entry = entries.get(k);
+        System.arraycopy(
+          entry.data, 0, data, entry.linear - first.linear, entry.data.length);
+      }
+
+      writes.add(new GWDeviceCommandSetData(
+        GWIOAddresses.addressOf(first.linear),
+        data
+      ));
+      index = last;
+    }
+    return List.copyOf(writes);
+  }
+
+  private static <T> byte[] serialize(
+    final GWIOVariableType<T> variable,
+    final T value)
+  {
+    final var data = new byte[variable.size()];
+    variable.serializeTo(ByteBuffer.wrap(data), value);
+    return data;
+  }
+
+  private void checkNotCommitted()
+  {
+    if (this.committed) {
+      throw new IllegalStateException("Transaction has already been committed.");
+    }
+  }
+
+  private record Staged<T>(
+    GWIOVariableType<T> variable,
+    T value,
+    int linear,
+    byte[] data)
+  {
+    void publish()
+    {
+      this.variable.setLocal(this.value);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event covering the commit of a transaction.
+ */
+
+@Name("com.io7m.gatwick.controller.TransactionCommit")
+@Label("Transaction Commit")
+@Category({"Gatwick", "Controller"})
+@Description("The commit of a multi-variable transaction.")
+@StackTrace(false)
+final class GWControllerTransactionEvent extends Event
+{
+  @Label("Variables")
+  @Description("The number of variables written by the transaction.")
+  int variables;
+
+  @Label("Writes")
+  @Description("The number of device writes the variables were coalesced into.")
+  int writes;
+
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+  @Label("Rolled Back")
+  boolean rolledBack;
+
+  GWControllerTransactionEvent()
+  {
+
+  }
+}
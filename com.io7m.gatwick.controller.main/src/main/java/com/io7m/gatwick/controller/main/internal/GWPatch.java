@@ -28,20 +28,45 @@ import com.io7m.gatwick.controller.api.GWPatchType;
 import com.io7m.gatwick.controller.main.internal.generated.StructPatch;
 import com.io7m.gatwick.controller.main.internal.generated.StructPatch2;
 import com.io7m.gatwick.controller.main.internal.generated.StructPatch3;
+import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import com.io7m.gatwick.iovar.GWIOFreshness;
+import com.io7m.gatwick.iovar.GWIOImageRange;
+import com.io7m.gatwick.iovar.GWIOPagedImage;
 import com.io7m.gatwick.iovar.GWIOVariable;
 import com.io7m.gatwick.iovar.GWIOVariableInformation;
 import com.io7m.gatwick.iovar.GWIOVariableType;
 import com.io7m.jattribute.core.Attributes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 final class GWPatch implements GWPatchType
 {
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWPatch.class);
+
+  private static final int CHAIN_SIZE = 49;
+
+  /*
+   * The patch is split across three regions of memory that each occupy
+   * 0x0001_0000 bytes of address space.
+   */
+
+  private static final int REGION_SIZE = 128 * 128;
+
   private final GWDeviceType device;
   private final GWIOVariableType<ByteBuffer> chainBase;
   private final GWIOVariableType<GWChain> chain;
+  private final GWIOFreshness chainFreshness;
+  private final GWPatchHistory history;
   private final GWPatchEffectBlockCMP cmp;
   private final GWPatchEffectBlockDistortion ds1;
   private final GWPatchEffectBlockDistortion ds2;
@@ -59,6 +84,7 @@ final class GWPatch implements GWPatchType
   private final StructPatch patchMemory;
   private final StructPatch2 patchMemory2;
   private final StructPatch3 patchMemory3;
+  private final List<GWIOVariableType<?>> variables;
 
   GWPatch(
     final GWDeviceType inDevice,
@@ -222,7 +248,7 @@ final class GWPatch implements GWPatchType
         attributes,
         GWChainSerializers.serializer(),
         GWChainSerializers.deserializer(),
-        49,
+        CHAIN_SIZE,
         new GWIOVariableInformation<>(
           "CHAIN",
           GWChain.class,
@@ -232,6 +258,129 @@ final class GWPatch implements GWPatchType
         ),
         this.chainBase.address()
       );
+
+    this.chainFreshness =
+      new GWIOFreshness();
+
+    final var allVariables = new ArrayList<GWIOVariableType<?>>();
+    allVariables.add(this.name());
+    allVariables.add(this.chainBase);
+    allVariables.add(this.chain);
+    Stream.of(
+      this.pfx, this.cmp, this.ns1, this.ns2, this.preamp1, this.preamp2,
+      this.div1, this.div2, this.div3, this.ds1, this.ds2,
+      this.fx1, this.fx2, this.fx3
+    ).forEach(block -> allVariables.addAll(block.variables()));
+    this.variables = List.copyOf(allVariables);
+
+    final var historyStart =
+      GWIOAddresses.linearOf(this.patchMemory.address());
+    final var historyEnd =
+      GWIOAddresses.linearOf(this.patchMemory3.address()) + REGION_SIZE;
+
+    this.history =
+      new GWPatchHistory(
+        this.device,
+        this.patchMemory.address(),
+        historyEnd - historyStart,
+        this::onHistoryApplied
+      );
+  }
+
+  /*
+   * An undo or redo wrote a range of the patch memory. Writes made by the
+   * history bypass the variables, so the local value of every variable that
+   * overlaps the range is set from the image that was written. Variables
+   * that cannot be decoded from the image have already been invalidated by
+   * the write and will be read again when next refreshed.
+   */
+
+  private void onHistoryApplied(
+    final GWIOImageRange range,
+    final GWIOPagedImage image)
+  {
+    final var rangeAddress = GWIOAddresses.addressOf(range.offset());
+    for (final var variable : this.variables) {
+      final var size = variable.size();
+      if (!GWIOAddresses.overlaps(
+        variable.address(), size, rangeAddress, range.size())) {
+        continue;
+      }
+
+      final var offset = GWIOAddresses.linearOf(variable.address());
+      if (!isKnown(image, offset, size)) {
+        continue;
+      }
+
+      try {
+        variable.setLocalSerialized(
+          image.read(new GWIOImageRange(offset, size)));
+      } catch (final RuntimeException e) {
+        LOG.debug(
+          "unable to decode {}: {}",
+          variable.information().label(),
+          e.getMessage()
+        );
+      }
+    }
+  }
+
+  private static boolean isKnown(
+    final GWIOPagedImage image,
+    final int offset,
+    final int size)
+  {
+    for (int index = 0; index < size; ++index) {
+      if (image.get(offset + index) == -1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public GWPatchHistory history()
+  {
+    return this.history;
+  }
+
+  @Override
+  public void readChainFromDeviceIfStale(
+    final Duration timeToLive)
+    throws InterruptedException, GWDeviceException
+  {
+    if (!this.chainFreshness.isFresh(timeToLive)) {
+      final long token = this.chainFreshness.beginSynchronization();
+      this.chain.readFromDevice();
+      this.chainFreshness.endSynchronization(token);
+    }
+  }
+
+  @Override
+  public void invalidate()
+  {
+    this.patchMemory.invalidate();
+    this.patchMemory2.invalidate();
+    this.patchMemory3.invalidate();
+    this.chainFreshness.invalidate();
+  }
+
+  /**
+   * Invalidate any part of the patch that contains any byte of the given
+   * range.
+   *
+   * @param address The device address of the first byte of the range
+   * @param size    The linear size of the range
+   */
+
+  void invalidateRange(
+    final int address,
+    final int size)
+  {
+    if (GWIOAddresses.overlaps(
+      this.chain.address(), CHAIN_SIZE, address, size)) {
+      this.chainFreshness.invalidate();
+    }
   }
 
   @Override
@@ -18,8 +18,11 @@
 package com.io7m.gatwick.controller.main.internal;
 
 import com.io7m.gatwick.controller.api.GWPatchEffectBlockType;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.iovar.GWIOCachedReadableType;
 import com.io7m.gatwick.iovar.GWIOVariableType;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
@@ -27,14 +30,60 @@ abstract class GWPatchEffectBlock
   implements GWPatchEffectBlockType
 {
   private final List<GWIOVariableType<?>> variables;
+  private final List<GWIOCachedReadableType> structures;
 
   protected GWPatchEffectBlock(
-    final List<GWIOVariableType<?>> inVariables)
+    final List<GWIOVariableType<?>> inVariables,
+    final List<GWIOCachedReadableType> inStructures)
   {
     this.variables =
       List.copyOf(
         Objects.requireNonNull(inVariables, "inVariables")
       );
+    this.structures =
+      List.copyOf(
+        Objects.requireNonNull(inStructures, "inStructures")
+      );
+  }
+
+  @Override
+  public final boolean isFresh(
+    final Duration timeToLive)
+  {
+    for (final var structure : this.structures) {
+      if (!structure.isFresh(timeToLive)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public final void readFromDeviceIfStale(
+    final Duration timeToLive)
+    throws InterruptedException, GWDeviceException
+  {
+    for (final var structure : this.structures) {
+      structure.readFromDeviceIfStale(timeToLive);
+    }
+  }
+
+  @Override
+  public final void invalidate()
+  {
+    for (final var structure : this.structures) {
+      structure.invalidate();
+    }
+  }
+
+  @Override
+  public final void invalidateRange(
+    final int address,
+    final int size)
+  {
+    for (final var structure : this.structures) {
+      structure.invalidateRange(address, size);
+    }
   }
 
   @Override
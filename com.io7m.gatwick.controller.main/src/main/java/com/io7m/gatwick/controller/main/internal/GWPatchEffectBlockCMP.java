@@ -36,17 +36,20 @@ final class GWPatchEffectBlockCMP
   GWPatchEffectBlockCMP(
     final StructPatchComp s)
   {
-    super(List.of(
-      s.f_sw,
-      s.f_type,
-      s.f_threshold,
-      s.f_sustain,
-      s.f_attack,
-      s.f_level,
-      s.f_tone,
-      s.f_ratio,
-      s.f_direct_mix
-    ));
+    super(
+      List.of(
+        s.f_sw,
+        s.f_type,
+        s.f_threshold,
+        s.f_sustain,
+        s.f_attack,
+        s.f_level,
+        s.f_tone,
+        s.f_ratio,
+        s.f_direct_mix
+      ),
+      List.of(s)
+    );
 
     this.cmp = s;
   }
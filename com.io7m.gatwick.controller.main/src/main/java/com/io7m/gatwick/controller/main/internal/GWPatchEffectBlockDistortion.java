@@ -35,17 +35,20 @@ final class GWPatchEffectBlockDistortion
   GWPatchEffectBlockDistortion(
     final StructPatchDist s)
   {
-    super(List.of(
-      s.f_sw,
-      s.f_type,
-      s.f_drive,
-      s.f_tone,
-      s.f_level,
-      s.f_bottom,
-      s.f_direct_mix,
-      s.f_solo_sw,
-      s.f_solo_level
-    ));
+    super(
+      List.of(
+        s.f_sw,
+        s.f_type,
+        s.f_drive,
+        s.f_tone,
+        s.f_level,
+        s.f_bottom,
+        s.f_direct_mix,
+        s.f_solo_sw,
+        s.f_solo_level
+      ),
+      List.of(s)
+    );
 
     this.dist = s;
   }
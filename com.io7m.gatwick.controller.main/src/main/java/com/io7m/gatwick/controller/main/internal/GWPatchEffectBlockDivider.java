@@ -49,7 +49,7 @@ final class GWPatchEffectBlockDivider
     final StructPatchEfct s,
     final int index)
   {
-    super(List.of());
+    super(List.of(), List.of(s));
 
     this.efct = s;
 
@@ -202,7 +202,8 @@ final class GWPatchEffectBlockFX
           inTwah,
           inVibrato
         )
-      )
+      ),
+      List.of(inFx)
     );
 
     this.fx = Objects.requireNonNull(inFx, "s");
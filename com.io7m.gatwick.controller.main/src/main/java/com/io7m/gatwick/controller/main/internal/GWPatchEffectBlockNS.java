@@ -34,12 +34,15 @@ final class GWPatchEffectBlockNS
   GWPatchEffectBlockNS(
     final StructPatchNS s)
   {
-    super(List.of(
-      s.f_sw,
-      s.f_threshold,
-      s.f_release,
-      s.f_detect
-    ));
+    super(
+      List.of(
+        s.f_sw,
+        s.f_threshold,
+        s.f_release,
+        s.f_detect
+      ),
+      List.of(s)
+    );
 
     this.ns = s;
   }
@@ -36,19 +36,22 @@ final class GWPatchEffectBlockPFX
   GWPatchEffectBlockPFX(
     final StructPatchPedalFX s)
   {
-    super(List.of(
-      s.f_sw,
-      s.f_effect_level,
-      s.f_direct_mix,
-      s.f_type,
-      s.f_wah_type,
-      s.f_wah_pedal_position,
-      s.f_pedal_min,
-      s.f_pedal_max,
-      s.f_pedal_bend_pedal_position,
-      s.f_pitch_min,
-      s.f_pitch_max
-    ));
+    super(
+      List.of(
+        s.f_sw,
+        s.f_effect_level,
+        s.f_direct_mix,
+        s.f_type,
+        s.f_wah_type,
+        s.f_wah_pedal_position,
+        s.f_pedal_min,
+        s.f_pedal_max,
+        s.f_pedal_bend_pedal_position,
+        s.f_pitch_min,
+        s.f_pitch_max
+      ),
+      List.of(s)
+    );
 
     this.pfx = s;
   }
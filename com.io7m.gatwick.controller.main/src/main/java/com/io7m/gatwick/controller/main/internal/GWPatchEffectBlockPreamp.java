@@ -36,22 +36,25 @@ final class GWPatchEffectBlockPreamp
   GWPatchEffectBlockPreamp(
     final StructPatchPreamp s)
   {
-    super(List.of(
-      s.f_sw,
-      s.f_type,
-      s.f_gain,
-      s.f_sag,
-      s.f_resonance,
-      s.f_level,
-      s.f_bass,
-      s.f_middle,
-      s.f_treble,
-      s.f_presence,
-      s.f_bright,
-      s.f_gain_sw,
-      s.f_solo_sw,
-      s.f_solo_level
-    ));
+    super(
+      List.of(
+        s.f_sw,
+        s.f_type,
+        s.f_gain,
+        s.f_sag,
+        s.f_resonance,
+        s.f_level,
+        s.f_bass,
+        s.f_middle,
+        s.f_treble,
+        s.f_presence,
+        s.f_bright,
+        s.f_gain_sw,
+        s.f_solo_sw,
+        s.f_solo_level
+      ),
+      List.of(s)
+    );
 
     this.preamp = s;
   }
@@ -0,0 +1,274 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.controller.main.internal;
+
+import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.controller.api.GWPatchHistoryType;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import com.io7m.gatwick.iovar.GWIOImageRange;
+import com.io7m.gatwick.iovar.GWIOPagedImage;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import static com.io7m.gatwick.controller.api.GWControllerStandardErrorCodes.DEVICE_ERROR;
+
+/**
+ * The edit history of a patch. The history observes every write made to the
+ * patch memory and keeps an image of the memory before and after each
+ * edit. Images share unchanged pages, so an edit costs memory proportional
+ * to the number of pages it changed. Whenever an undo or redo writes a range
+ * of the patch memory, the range and the image it was written from are
+ * passed to a listener so that local copies of values can be updated.
+ */
+
+final class GWPatchHistory implements GWPatchHistoryType
+{
+  /**
+   * The maximum number of edits retained. The oldest edits are discarded
+   * first.
+   */
+
+  static final int MAXIMUM_EDITS = 1000;
+
+  /**
+   * Writes to the same address separated by less than this duration are
+   * merged into a single edit.
+   */
+
+  static final Duration MERGE_WINDOW = Duration.ofMillis(750L);
+
+  private static final int MAXIMUM_WRITE_SIZE = 128;
+
+  private final GWDeviceType device;
+  private final int offset;
+  private final int size;
+  private final ArrayDeque<Edit> undo;
+  private final ArrayDeque<Edit> redo;
+  private final BiConsumer<GWIOImageRange, GWIOPagedImage> onApplied;
+  private GWIOPagedImage current;
+  private boolean applying;
+
+  /**
+   * Create a history.
+   *
+   * @param inDevice      The device
+   * @param inBaseAddress The device address of the start of the patch memory
+   * @param inSize        The linear size of the patch memory
+   * @param inOnApplied    A function called for each range written by an
+   *                      undo or redo
+   */
+
+  GWPatchHistory(
+    final GWDeviceType inDevice,
+    final int inBaseAddress,
+    final int inSize,
+    final BiConsumer<GWIOImageRange, GWIOPagedImage> inOnApplied)
+  {
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.offset =
+      GWIOAddresses.linearOf(inBaseAddress);
+    this.size =
+      inSize;
+    this.undo =
+      new ArrayDeque<>();
+    this.redo =
+      new ArrayDeque<>();
+    this.onApplied =
+      Objects.requireNonNull(inOnApplied, "onApplied");
+    this.current =
+      GWIOPagedImage.create(this.offset, this.size);
+  }
+
+  private boolean overlaps(
+    final int linear,
+    final int length)
+  {
+    return linear < this.offset + this.size && linear + length > this.offset;
+  }
+
+  /**
+   * Data was read from the device, or was sent by the device unprompted.
+   *
+   * @param address The device address
+   * @param data    The data
+   */
+
+  synchronized void onDataObserved(
+    final int address,
+    final byte[] data)
+  {
+    final var linear = GWIOAddresses.linearOf(address);
+    if (this.overlaps(linear, data.length)) {
+      this.current = this.current.write(linear, data);
+    }
+  }
+
+  /**
+   * Data was written to the device.
+   *
+   * @param address The device address
+   * @param data    The data
+   */
+
+  synchronized void onDataWritten(
+    final int address,
+    final byte[] data)
+  {
+    final var linear = GWIOAddresses.linearOf(address);
+    if (!this.overlaps(linear, data.length)) {
+      return;
+    }
+
+    final var before = this.current;
+    final var after = before.write(linear, data);
+    this.current = after;
+
+    if (this.applying) {
+      return;
+    }
+
+    this.redo.clear();
+
+    final var time = System.nanoTime();
+    final var top = this.undo.peekLast();
+    if (top != null
+        && top.address == address
+        && top.length == data.length
+        && time - top.time < MERGE_WINDOW.toNanos()) {
+      this.undo.removeLast();
+      this.undo.addLast(new Edit(address, data.length, top.before, after, time));
+      return;
+    }
+
+    this.undo.addLast(new Edit(address, data.length, before, after, time));
+    while (this.undo.size() > MAXIMUM_EDITS) {
+      this.undo.removeFirst();
+    }
+  }
+
+  @Override
+  public synchronized boolean canUndo()
+  {
+    return !this.undo.isEmpty();
+  }
+
+  @Override
+  public synchronized boolean canRedo()
+  {
+    return !this.redo.isEmpty();
+  }
+
+  @Override
+  public synchronized void undo()
+    throws GWControllerException, InterruptedException
+  {
+    final var edit = this.undo.pollLast();
+    if (edit == null) {
+      return;
+    }
+
+    try {
+      this.apply(edit.after, edit.before);
+    } catch (final GWControllerException | InterruptedException e) {
+      this.undo.addLast(edit);
+      throw e;
+    }
+    this.redo.addLast(edit);
+  }
+
+  @Override
+  public synchronized void redo()
+    throws GWControllerException, InterruptedException
+  {
+    final var edit = this.redo.pollLast();
+    if (edit == null) {
+      return;
+    }
+
+    try {
+      this.apply(edit.before, edit.after);
+    } catch (final GWControllerException | InterruptedException e) {
+      this.redo.addLast(edit);
+      throw e;
+    }
+    this.undo.addLast(edit);
+  }
+
+  @Override
+  public synchronized void clear()
+  {
+    this.undo.clear();
+    this.redo.clear();
+    this.current = GWIOPagedImage.create(this.offset, this.size);
+  }
+
+  /*
+   * Write the bytes of the target image that differ from the source image.
+   * Pages shared between the two images are never examined.
+   */
+
+  private void apply(
+    final GWIOPagedImage source,
+    final GWIOPagedImage target)
+    throws GWControllerException, InterruptedException
+  {
+    this.applying = true;
+    try {
+      for (final var range : GWIOPagedImage.differences(source, target)) {
+        var position = range.offset();
+        final var end = range.offset() + range.size();
+        while (position < end) {
+          final var chunk =
+            new GWIOImageRange(
+              position,
+              Math.min(MAXIMUM_WRITE_SIZE, end - position)
+            );
+          this.device.sendCommand(
+            new GWDeviceCommandSetData(
+              GWIOAddresses.addressOf(chunk.offset()),
+              target.read(chunk)
+            )
+          );
+          position += chunk.size();
+        }
+        this.onApplied.accept(range, target);
+      }
+    } catch (final GWDeviceException e) {
+      throw new GWControllerException(DEVICE_ERROR, e.getMessage(), e);
+    } finally {
+      this.applying = false;
+    }
+  }
+
+  private record Edit(
+    int address,
+    int length,
+    GWIOPagedImage before,
+    GWIOPagedImage after,
+    long time)
+  {
+
+  }
+}
@@ -31,6 +31,8 @@ module com.io7m.gatwick.controller.main
   requires com.io7m.gatwick.controller.api;
   requires org.slf4j;
   requires com.io7m.taskrecorder.core;
+  requires java.management;
+  requires jdk.jfr;
 
   uses GWDeviceFactoryType;
 
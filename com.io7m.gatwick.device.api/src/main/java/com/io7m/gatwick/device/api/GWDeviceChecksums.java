@@ -51,4 +51,29 @@ public final class GWDeviceChecksums
     sum %= 128;
     return (byte) (128 - sum);
   }
+
+  /**
+   * The standard Roland checksum function applied to an address followed by
+   * data, as it would appear in a data response from the device.
+   *
+   * @param address The address
+   * @param data    The data
+   *
+   * @return The checksum
+   */
+
+  public static int rolandChecksum(
+    final int address,
+    final byte[] data)
+  {
+    Objects.requireNonNull(data, "data");
+
+    final var bytes = new byte[4 + data.length];
+    bytes[0] = (byte) ((address >>> 24) & 0x7f);
+    bytes[1] = (byte) ((address >>> 16) & 0x7f);
+    bytes[2] = (byte) ((address >>> 8) & 0x7f);
+    bytes[3] = (byte) (address & 0x7f);
+    System.arraycopy(data, 0, bytes, 4, data.length);
+    return (int) rolandChecksum(bytes) & 0xff;
+  }
 }
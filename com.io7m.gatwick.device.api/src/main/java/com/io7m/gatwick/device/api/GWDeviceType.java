@@ -20,6 +20,9 @@ package com.io7m.gatwick.device.api;
 import com.io7m.jattribute.core.AttributeReadableType;
 
 import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * A device.
@@ -55,6 +58,38 @@ public interface GWDeviceType extends AutoCloseable
     GWDeviceCommandType<R> command)
     throws GWDeviceException, InterruptedException;
 
+  /**
+   * Set the function that will receive data that the device sent without
+   * having been asked for it. This typically happens when a parameter is
+   * changed using the physical controls on the device. The function may be
+   * called from any thread, and must not block. Devices that cannot observe
+   * unsolicited data simply ignore the handler.
+   *
+   * @param handler The handler
+   */
+
+  default void setUnsolicitedDataHandler(
+    final Consumer<GWDeviceResponseRequestData> handler)
+  {
+    Objects.requireNonNull(handler, "handler");
+  }
+
+  /**
+   * Set the function that will receive the program number of every program
+   * change message that the device sends. This typically happens when a
+   * different patch is selected using the physical controls on the device.
+   * The function may be called from any thread, and must not block. Devices
+   * that cannot observe program changes simply ignore the handler.
+   *
+   * @param handler The handler
+   */
+
+  default void setProgramChangeHandler(
+    final IntConsumer handler)
+  {
+    Objects.requireNonNull(handler, "handler");
+  }
+
   @Override
   void close()
     throws GWDeviceException;
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker;
+
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.device.broker.internal.GWBrokerServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+
+/**
+ * A device broker. The broker takes ownership of a device and shares it with
+ * any number of local clients, which open the device through
+ * {@link GWDevicesBroker}. Requests from all clients are funnelled into a
+ * single stream of device commands, reads of memory that the broker has
+ * recently seen are answered without involving the device, and every client
+ * is notified when another client (or the device itself) changes memory.
+ */
+
+public final class GWDeviceBroker implements AutoCloseable
+{
+  private final GWBrokerServer server;
+
+  private GWDeviceBroker(
+    final GWBrokerServer inServer)
+  {
+    this.server = Objects.requireNonNull(inServer, "server");
+  }
+
+  /**
+   * Start a broker for the given device. The broker closes the device when
+   * the broker is closed.
+   *
+   * @param device        The device
+   * @param configuration The broker configuration
+   *
+   * @return A running broker
+   *
+   * @throws IOException If the broker cannot bind to its address
+   */
+
+  public static GWDeviceBroker create(
+    final GWDeviceType device,
+    final GWDeviceBrokerConfiguration configuration)
+    throws IOException
+  {
+    Objects.requireNonNull(device, "device");
+    Objects.requireNonNull(configuration, "configuration");
+
+    return new GWDeviceBroker(
+      GWBrokerServer.create(
+        device,
+        configuration.address(),
+        configuration.shadowLifetime()
+      )
+    );
+  }
+
+  /**
+   * @return The address to which the broker is bound
+   */
+
+  public InetSocketAddress address()
+  {
+    return this.server.address();
+  }
+
+  /**
+   * @return A snapshot of the broker's statistics
+   */
+
+  public GWDeviceBrokerStatistics statistics()
+  {
+    return this.server.statistics();
+  }
+
+  @Override
+  public void close()
+    throws GWDeviceException
+  {
+    this.server.close();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The configuration of a device broker.
+ *
+ * @param address        The address to which the broker binds
+ * @param shadowLifetime The length of time for which memory read from, or
+ *                       written to, the device is used to answer reads
+ */
+
+public record GWDeviceBrokerConfiguration(
+  InetSocketAddress address,
+  Duration shadowLifetime)
+{
+  /**
+   * The name of the system property that overrides the default broker port.
+   */
+
+  public static final String PORT_PROPERTY =
+    "com.io7m.gatwick.broker.port";
+
+  /**
+   * The default broker port.
+   */
+
+  public static final int DEFAULT_PORT = 51212;
+
+  /**
+   * The configuration of a device broker.
+   *
+   * @param address        The address to which the broker binds
+   * @param shadowLifetime The length of time for which memory read from, or
+   *                       written to, the device is used to answer reads
+   */
+
+  public GWDeviceBrokerConfiguration
+  {
+    Objects.requireNonNull(address, "address");
+    Objects.requireNonNull(shadowLifetime, "shadowLifetime");
+  }
+
+  /**
+   * @return The default broker address on the loopback interface
+   */
+
+  public static InetSocketAddress defaultAddress()
+  {
+    return new InetSocketAddress(
+      InetAddress.getLoopbackAddress(),
+      Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT).intValue()
+    );
+  }
+
+  /**
+   * @return The default broker configuration
+   */
+
+  public static GWDeviceBrokerConfiguration defaults()
+  {
+    return new GWDeviceBrokerConfiguration(
+      defaultAddress(),
+      Duration.ofSeconds(1L)
+    );
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker;
+
+import com.io7m.gatwick.device.api.GWDeviceConfiguration;
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceFactoryProperty;
+import com.io7m.gatwick.device.api.GWDeviceFactoryType;
+import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.device.broker.internal.GWDeviceBrokerClient;
+import com.io7m.taskrecorder.core.TRTask;
+import com.io7m.taskrecorder.core.TRTaskRecorderType;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A provider of devices that are shared through a running
+ * {@link GWDeviceBroker}.
+ */
+
+public final class GWDevicesBroker
+  implements GWDeviceFactoryType
+{
+  /**
+   * The vendor name given to brokered devices.
+   */
+
+  public static final String BROKER_VENDOR = "gatwick-broker";
+
+  private static final Set<GWDeviceFactoryProperty> PROPERTIES =
+    Set.of(new GWDeviceFactoryProperty("broker"));
+
+  private static final Duration DETECT_TIMEOUT =
+    Duration.ofMillis(250L);
+
+  private final InetSocketAddress address;
+
+  /**
+   * A provider of brokered devices using the default broker address.
+   */
+
+  public GWDevicesBroker()
+  {
+    this(GWDeviceBrokerConfiguration.defaultAddress());
+  }
+
+  /**
+   * A provider of brokered devices.
+   *
+   * @param inAddress The broker address
+   */
+
+  public GWDevicesBroker(
+    final InetSocketAddress inAddress)
+  {
+    this.address = Objects.requireNonNull(inAddress, "address");
+  }
+
+  @Override
+  public Set<GWDeviceFactoryProperty> properties()
+  {
+    return PROPERTIES;
+  }
+
+  @Override
+  public GWDeviceType openDevice(
+    final GWDeviceConfiguration configuration)
+    throws GWDeviceException
+  {
+    return GWDeviceBrokerClient.open(this.address, configuration);
+  }
+
+  @Override
+  public TRTask<List<GWDeviceMIDIDescription>> detectDevices(
+    final TRTaskRecorderType<?> recorder)
+  {
+    try (var subRec =
+           recorder.<List<GWDeviceMIDIDescription>>beginSubtask(
+             "Detecting brokered devices...")) {
+      final var results = this.listMIDIDevices();
+      subRec.setTaskSucceeded("Detected devices.", results);
+      return subRec.toTask();
+    }
+  }
+
+  @Override
+  public List<GWDeviceMIDIDescription> listMIDIDevices()
+  {
+    try {
+      final var connected =
+        GWDeviceBrokerClient.connect(this.address, DETECT_TIMEOUT);
+      connected.socket().close();
+      return List.of(this.brokeredDescriptionOf(connected.description()));
+    } catch (final IOException e) {
+      return List.of();
+    }
+  }
+
+  private GWDeviceMIDIDescription brokeredDescriptionOf(
+    final GWDeviceDescription description)
+  {
+    final var midi = description.midiDevice();
+    return new GWDeviceMIDIDescription(
+      midi.midiDeviceName(),
+      "Brokered by %s:%d".formatted(
+        this.address.getHostString(),
+        Integer.valueOf(this.address.getPort())
+      ),
+      BROKER_VENDOR,
+      midi.midiDeviceVersion()
+    );
+  }
+}
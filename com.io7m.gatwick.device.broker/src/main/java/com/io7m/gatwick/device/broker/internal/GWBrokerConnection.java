@@ -0,0 +1,199 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A connection from a single client to the broker. Requests are read on the
+ * connection's own thread and passed to the server without waiting for their
+ * responses, so a client may have several requests in flight at once.
+ * Messages to the client are placed on a bounded queue and written by a
+ * separate writer thread, so that a slow client can never stall the device
+ * thread. A client that falls so far behind that its queue fills up is
+ * disconnected.
+ */
+
+public final class GWBrokerConnection implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWBrokerConnection.class);
+
+  /**
+   * The maximum number of messages that may be waiting to be written to the
+   * client.
+   */
+
+  public static final int OUTBOUND_CAPACITY = 1024;
+
+  private final GWBrokerServer server;
+  private final Socket socket;
+  private final Executor writerExecutor;
+  private final AtomicBoolean closed;
+  private final ArrayBlockingQueue<GWBrokerMessageType> outbound;
+  private DataOutputStream output;
+  private volatile Thread writer;
+
+  GWBrokerConnection(
+    final GWBrokerServer inServer,
+    final Socket inSocket,
+    final Executor inWriterExecutor)
+  {
+    this.server =
+      Objects.requireNonNull(inServer, "server");
+    this.socket =
+      Objects.requireNonNull(inSocket, "socket");
+    this.writerExecutor =
+      Objects.requireNonNull(inWriterExecutor, "writerExecutor");
+    this.closed =
+      new AtomicBoolean(false);
+    this.outbound =
+      new ArrayBlockingQueue<>(OUTBOUND_CAPACITY);
+  }
+
+  void run()
+  {
+    try {
+      final var input =
+        new DataInputStream(
+          new BufferedInputStream(this.socket.getInputStream()));
+
+      this.output =
+        new DataOutputStream(
+          new BufferedOutputStream(this.socket.getOutputStream()));
+
+      /*
+       * The hello is written directly; everything after it goes through
+       * the writer thread.
+       */
+
+      GWBrokerProtocol.readClientHello(input);
+      GWBrokerProtocol.writeServerHello(
+        this.output,
+        this.server.device().description()
+      );
+      this.writerExecutor.execute(this::writeLoop);
+
+      while (!this.closed.get()) {
+        final var request = GWBrokerProtocol.readMessage(input);
+        if (request instanceof GWBrokerMessageType.Read
+            || request instanceof GWBrokerMessageType.Write) {
+          this.server.submit(this, request).thenAccept(this::send);
+          continue;
+        }
+        throw new IOException(
+          "Clients may not send %s messages"
+            .formatted(request.getClass().getSimpleName())
+        );
+      }
+    } catch (final EOFException e) {
+      LOG.debug("disconnected: {}", this.socket.getRemoteSocketAddress());
+    } catch (final IOException e) {
+      if (!this.closed.get()) {
+        LOG.debug("connection: ", e);
+      }
+    } catch (final RejectedExecutionException e) {
+      LOG.debug("connection opened after shutdown");
+    } finally {
+      this.close();
+    }
+  }
+
+  /*
+   * Write queued messages to the client until the connection is closed.
+   * The output is flushed whenever the queue runs dry, so bursts of
+   * messages are written together.
+   */
+
+  private void writeLoop()
+  {
+    this.writer = Thread.currentThread();
+    try {
+      while (!this.closed.get()) {
+        final var message = this.outbound.take();
+        GWBrokerProtocol.writeMessage(this.output, message);
+        if (this.outbound.isEmpty()) {
+          this.output.flush();
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final IOException e) {
+      if (!this.closed.get()) {
+        LOG.debug("send: ", e);
+      }
+    } finally {
+      this.writer = null;
+      this.close();
+    }
+  }
+
+  /**
+   * Queue a message for the client. This never blocks. If the client's
+   * queue is full, the client is disconnected.
+   *
+   * @param message The message
+   */
+
+  void send(
+    final GWBrokerMessageType message)
+  {
+    if (this.closed.get()) {
+      return;
+    }
+
+    if (!this.outbound.offer(message)) {
+      LOG.warn(
+        "disconnecting {}: client is not keeping up with messages",
+        this.socket.getRemoteSocketAddress()
+      );
+      this.close();
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    if (this.closed.compareAndSet(false, true)) {
+      final var writerNow = this.writer;
+      if (writerNow != null) {
+        writerNow.interrupt();
+      }
+      try {
+        this.socket.close();
+      } catch (final IOException e) {
+        LOG.debug("close: ", e);
+      }
+      this.server.onConnectionClosed(this);
+    }
+  }
+}
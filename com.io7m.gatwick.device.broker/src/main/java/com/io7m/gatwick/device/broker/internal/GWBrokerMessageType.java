@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker.internal;
+
+import java.util.Objects;
+
+/**
+ * The messages exchanged between the broker and its clients.
+ */
+
+public sealed interface GWBrokerMessageType
+{
+  /**
+   * @return The request ID, or {@code 0} for notifications
+   */
+
+  int id();
+
+  /**
+   * A request to read device memory.
+   *
+   * @param id      The request ID
+   * @param address The device address
+   * @param size    The encoded size
+   */
+
+  record Read(
+    int id,
+    int address,
+    int size)
+    implements GWBrokerMessageType
+  {
+
+  }
+
+  /**
+   * A request to write device memory.
+   *
+   * @param id      The request ID
+   * @param address The device address
+   * @param data    The data
+   */
+
+  record Write(
+    int id,
+    int address,
+    byte[] data)
+    implements GWBrokerMessageType
+  {
+    /**
+     * A request to write device memory.
+     *
+     * @param id      The request ID
+     * @param address The device address
+     * @param data    The data
+     */
+
+    public Write
+    {
+      Objects.requireNonNull(data, "data");
+    }
+  }
+
+  /**
+   * The response to a read request.
+   *
+   * @param id       The request ID
+   * @param address  The device address
+   * @param data     The data
+   * @param checksum The checksum
+   */
+
+  record Data(
+    int id,
+    int address,
+    byte[] data,
+    int checksum)
+    implements GWBrokerMessageType
+  {
+    /**
+     * The response to a read request.
+     *
+     * @param id       The request ID
+     * @param address  The device address
+     * @param data     The data
+     * @param checksum The checksum
+     */
+
+    public Data
+    {
+      Objects.requireNonNull(data, "data");
+    }
+  }
+
+  /**
+   * The response to a write request.
+   *
+   * @param id The request ID
+   */
+
+  record OK(
+    int id)
+    implements GWBrokerMessageType
+  {
+
+  }
+
+  /**
+   * A notification that device memory has changed.
+   *
+   * @param address  The device address
+   * @param data     The data
+   * @param checksum The checksum
+   */
+
+  record Notify(
+    int address,
+    byte[] data,
+    int checksum)
+    implements GWBrokerMessageType
+  {
+    /**
+     * A notification that device memory has changed.
+     *
+     * @param address  The device address
+     * @param data     The data
+     * @param checksum The checksum
+     */
+
+    public Notify
+    {
+      Objects.requireNonNull(data, "data");
+    }
+
+    @Override
+    public int id()
+    {
+      return 0;
+    }
+  }
+
+  /**
+   * A notification that a different program was selected on the device.
+   *
+   * @param program The program number
+   */
+
+  record ProgramChange(
+    int program)
+    implements GWBrokerMessageType
+  {
+    @Override
+    public int id()
+    {
+      return 0;
+    }
+  }
+
+  /**
+   * The response to a request that failed.
+   *
+   * @param id        The request ID
+   * @param errorCode The device error code
+   * @param message   The error message
+   */
+
+  record Error(
+    int id,
+    String errorCode,
+    String message)
+    implements GWBrokerMessageType
+  {
+    /**
+     * The response to a request that failed.
+     *
+     * @param id        The request ID
+     * @param errorCode The device error code
+     * @param message   The error message
+     */
+
+    public Error
+    {
+      Objects.requireNonNull(errorCode, "errorCode");
+      Objects.requireNonNull(message, "message");
+    }
+  }
+}
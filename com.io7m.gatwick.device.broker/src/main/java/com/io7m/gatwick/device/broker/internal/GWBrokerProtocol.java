@@ -0,0 +1,349 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker.internal;
+
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * The binary broker protocol. After the handshake, every frame consists of a
+ * single type byte followed by a request ID and a type-specific payload. All
+ * integers are big-endian.
+ */
+
+public final class GWBrokerProtocol
+{
+  /**
+   * The protocol magic number ("GWBR").
+   */
+
+  public static final int MAGIC = 0x47574252;
+
+  /**
+   * The protocol version.
+   */
+
+  public static final int VERSION = 2;
+
+  /**
+   * The maximum size of the data carried by a single frame.
+   */
+
+  public static final int MAXIMUM_DATA_SIZE = 0x10000;
+
+  private static final int TYPE_READ = 1;
+  private static final int TYPE_WRITE = 2;
+  private static final int TYPE_DATA = 3;
+  private static final int TYPE_OK = 4;
+  private static final int TYPE_NOTIFY = 5;
+  private static final int TYPE_ERROR = 6;
+  private static final int TYPE_PROGRAM_CHANGE = 7;
+
+  private GWBrokerProtocol()
+  {
+
+  }
+
+  /**
+   * Write the client side of the handshake.
+   *
+   * @param output The output stream
+   *
+   * @throws IOException On errors
+   */
+
+  public static void writeClientHello(
+    final DataOutputStream output)
+    throws IOException
+  {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.flush();
+  }
+
+  /**
+   * Read the client side of the handshake.
+   *
+   * @param input The input stream
+   *
+   * @throws IOException On errors
+   */
+
+  public static void readClientHello(
+    final DataInputStream input)
+    throws IOException
+  {
+    checkHello(input);
+  }
+
+  /**
+   * Write the server side of the handshake.
+   *
+   * @param output      The output stream
+   * @param description The description of the device behind the broker
+   *
+   * @throws IOException On errors
+   */
+
+  public static void writeServerHello(
+    final DataOutputStream output,
+    final GWDeviceDescription description)
+    throws IOException
+  {
+    Objects.requireNonNull(description, "description");
+
+    final var midi = description.midiDevice();
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeUTF(midi.midiDeviceName());
+    output.writeUTF(midi.midiDeviceDescription());
+    output.writeUTF(midi.midiDeviceVendor());
+    output.writeUTF(midi.midiDeviceVersion());
+    output.writeInt(description.deviceManufacturer());
+    output.writeInt(description.deviceFamilyCode());
+    output.writeInt(description.deviceFamilyNumberCode());
+    output.writeInt(description.deviceSoftwareVersion());
+    output.flush();
+  }
+
+  /**
+   * Read the server side of the handshake.
+   *
+   * @param input The input stream
+   *
+   * @return The description of the device behind the broker
+   *
+   * @throws IOException On errors
+   */
+
+  public static GWDeviceDescription readServerHello(
+    final DataInputStream input)
+    throws IOException
+  {
+    checkHello(input);
+
+    final var midi =
+      new GWDeviceMIDIDescription(
+        input.readUTF(),
+        input.readUTF(),
+        input.readUTF(),
+        input.readUTF()
+      );
+
+    return new GWDeviceDescription(
+      midi,
+      input.readInt(),
+      input.readInt(),
+      input.readInt(),
+      input.readInt()
+    );
+  }
+
+  private static void checkHello(
+    final DataInputStream input)
+    throws IOException
+  {
+    final var magic = input.readInt();
+    if (magic != MAGIC) {
+      throw new IOException(
+        "Unrecognized protocol magic number 0x%08x (expected 0x%08x)"
+          .formatted(Integer.valueOf(magic), Integer.valueOf(MAGIC))
+      );
+    }
+
+    final var version = input.readInt();
+    if (version != VERSION) {
+      throw new IOException(
+        "Unsupported protocol version %d (expected %d)"
+          .formatted(Integer.valueOf(version), Integer.valueOf(VERSION))
+      );
+    }
+  }
+
+  /**
+   * Write a message. The stream is not flushed.
+   *
+   * @param output  The output stream
+   * @param message The message
+   *
+   * @throws IOException On errors
+   */
+
+  public static void writeMessage(
+    final DataOutputStream output,
+    final GWBrokerMessageType message)
+    throws IOException
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.requireNonNull(message, "message");
+
+    if (message instanceof GWBrokerMessageType.Read m) {
+      output.writeByte(TYPE_READ);
+      output.writeInt(m.id());
+      output.writeInt(m.address());
+      output.writeInt(m.size());
+      return;
+    }
+    if (message instanceof GWBrokerMessageType.Write m) {
+      output.writeByte(TYPE_WRITE);
+      output.writeInt(m.id());
+      output.writeInt(m.address());
+      writeData(output, m.data());
+      return;
+    }
+    if (message instanceof GWBrokerMessageType.Data m) {
+      output.writeByte(TYPE_DATA);
+      output.writeInt(m.id());
+      output.writeInt(m.address());
+      writeData(output, m.data());
+      output.writeByte(m.checksum());
+      return;
+    }
+    if (message instanceof GWBrokerMessageType.OK m) {
+      output.writeByte(TYPE_OK);
+      output.writeInt(m.id());
+      return;
+    }
+    if (message instanceof GWBrokerMessageType.Notify m) {
+      output.writeByte(TYPE_NOTIFY);
+      output.writeInt(m.id());
+      output.writeInt(m.address());
+      writeData(output, m.data());
+      output.writeByte(m.checksum());
+      return;
+    }
+    if (message instanceof GWBrokerMessageType.Error m) {
+      output.writeByte(TYPE_ERROR);
+      output.writeInt(m.id());
+      output.writeUTF(m.errorCode());
+      output.writeUTF(m.message());
+      return;
+    }
+    if (message instanceof GWBrokerMessageType.ProgramChange m) {
+      output.writeByte(TYPE_PROGRAM_CHANGE);
+      output.writeInt(m.id());
+      output.writeInt(m.program());
+      return;
+    }
+
+    throw new IllegalStateException(
+      "Unrecognized message: %s".formatted(message)
+    );
+  }
+
+  /**
+   * Read a message.
+   *
+   * @param input The input stream
+   *
+   * @return A message
+   *
+   * @throws IOException On errors
+   */
+
+  public static GWBrokerMessageType readMessage(
+    final DataInputStream input)
+    throws IOException
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var type = input.readUnsignedByte();
+    final var id = input.readInt();
+
+    return switch (type) {
+      case TYPE_READ -> {
+        yield new GWBrokerMessageType.Read(
+          id,
+          input.readInt(),
+          input.readInt()
+        );
+      }
+      case TYPE_WRITE -> {
+        yield new GWBrokerMessageType.Write(
+          id,
+          input.readInt(),
+          readData(input)
+        );
+      }
+      case TYPE_DATA -> {
+        yield new GWBrokerMessageType.Data(
+          id,
+          input.readInt(),
+          readData(input),
+          input.readUnsignedByte()
+        );
+      }
+      case TYPE_OK -> {
+        yield new GWBrokerMessageType.OK(id);
+      }
+      case TYPE_NOTIFY -> {
+        yield new GWBrokerMessageType.Notify(
+          input.readInt(),
+          readData(input),
+          input.readUnsignedByte()
+        );
+      }
+      case TYPE_ERROR -> {
+        yield new GWBrokerMessageType.Error(
+          id,
+          input.readUTF(),
+          input.readUTF()
+        );
+      }
+      case TYPE_PROGRAM_CHANGE -> {
+        yield new GWBrokerMessageType.ProgramChange(input.readInt());
+      }
+      default -> {
+        throw new IOException(
+          "Unrecognized message type %d".formatted(Integer.valueOf(type))
+        );
+      }
+    };
+  }
+
+  private static void writeData(
+    final DataOutputStream output,
+    final byte[] data)
+    throws IOException
+  {
+    output.writeInt(data.length);
+    output.write(data);
+  }
+
+  private static byte[] readData(
+    final DataInputStream input)
+    throws IOException
+  {
+    final var size = input.readInt();
+    if (size < 0 || size > MAXIMUM_DATA_SIZE) {
+      throw new IOException(
+        "Data size %d is out of range [0, %d]"
+          .formatted(Integer.valueOf(size), Integer.valueOf(MAXIMUM_DATA_SIZE))
+      );
+    }
+
+    final var data = new byte[size];
+    input.readFully(data);
+    return data;
+  }
+}
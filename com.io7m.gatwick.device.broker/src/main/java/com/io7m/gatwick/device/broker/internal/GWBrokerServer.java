@@ -0,0 +1,427 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker.internal;
+
+import com.io7m.gatwick.device.api.GWDeviceChecksums;
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.device.broker.GWDeviceBrokerStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_MIDI_SYSTEM_ERROR;
+import static com.io7m.gatwick.iovar.GWIOAddresses.linearOf;
+
+/**
+ * A broker server. The server owns a device and accepts connections from
+ * local clients. Requests from every client are executed, one at a time, on
+ * a single device thread. Reads that can be answered from the shadow copy of
+ * device memory never reach the device, and successful writes are announced
+ * to every other client. Program changes on the device discard the shadow
+ * copy and are announced to every client. The device thread never writes to a client socket
+ * itself; responses and announcements are queued on each connection.
+ */
+
+public final class GWBrokerServer implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWBrokerServer.class);
+
+  private final GWDeviceType device;
+  private final ServerSocket socket;
+  private final GWBrokerShadow shadow;
+  private final ExecutorService deviceExecutor;
+  private final ExecutorService connectionExecutor;
+  private final CopyOnWriteArrayList<GWBrokerConnection> connections;
+  private final AtomicBoolean closed;
+  private final AtomicLong deviceReads;
+  private final AtomicLong deviceWrites;
+  private final AtomicLong shadowHits;
+  private final AtomicLong notifications;
+
+  private GWBrokerServer(
+    final GWDeviceType inDevice,
+    final ServerSocket inSocket,
+    final Duration shadowLifetime)
+  {
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.socket =
+      Objects.requireNonNull(inSocket, "socket");
+    this.shadow =
+      new GWBrokerShadow(shadowLifetime);
+    this.connections =
+      new CopyOnWriteArrayList<>();
+    this.closed =
+      new AtomicBoolean(false);
+    this.deviceReads =
+      new AtomicLong();
+    this.deviceWrites =
+      new AtomicLong();
+    this.shadowHits =
+      new AtomicLong();
+    this.notifications =
+      new AtomicLong();
+
+    this.deviceExecutor =
+      Executors.newSingleThreadExecutor(r -> {
+        final var thread = new Thread(r);
+        thread.setDaemon(true);
+        thread.setName(
+          "com.io7m.gatwick.device.broker.internal.GWBrokerServer.device[%d]"
+            .formatted(Long.valueOf(thread.getId()))
+        );
+        return thread;
+      });
+
+    this.connectionExecutor =
+      Executors.newCachedThreadPool(r -> {
+        final var thread = new Thread(r);
+        thread.setDaemon(true);
+        thread.setName(
+          "com.io7m.gatwick.device.broker.internal.GWBrokerServer.connection[%d]"
+            .formatted(Long.valueOf(thread.getId()))
+        );
+        return thread;
+      });
+  }
+
+  /**
+   * Start a broker server.
+   *
+   * @param device         The device that will be owned by the server
+   * @param address        The address to which the server will bind
+   * @param shadowLifetime The length of time for which shadowed memory is
+   *                       trusted
+   *
+   * @return A running server
+   *
+   * @throws IOException On errors
+   */
+
+  public static GWBrokerServer create(
+    final GWDeviceType device,
+    final InetSocketAddress address,
+    final Duration shadowLifetime)
+    throws IOException
+  {
+    Objects.requireNonNull(device, "device");
+    Objects.requireNonNull(address, "address");
+    Objects.requireNonNull(shadowLifetime, "shadowLifetime");
+
+    final var socket = new ServerSocket();
+    try {
+      socket.setReuseAddress(true);
+      socket.bind(address);
+    } catch (final IOException e) {
+      socket.close();
+      throw e;
+    }
+
+    final var server = new GWBrokerServer(device, socket, shadowLifetime);
+    device.setUnsolicitedDataHandler(server::onUnsolicitedData);
+    device.setProgramChangeHandler(server::onProgramChange);
+    server.connectionExecutor.execute(server::acceptLoop);
+    return server;
+  }
+
+  /**
+   * @return The address to which the server is bound
+   */
+
+  public InetSocketAddress address()
+  {
+    return (InetSocketAddress) this.socket.getLocalSocketAddress();
+  }
+
+  /**
+   * @return A snapshot of the server's statistics
+   */
+
+  public GWDeviceBrokerStatistics statistics()
+  {
+    return new GWDeviceBrokerStatistics(
+      this.connections.size(),
+      this.deviceReads.get(),
+      this.deviceWrites.get(),
+      this.shadowHits.get(),
+      this.notifications.get()
+    );
+  }
+
+  private void acceptLoop()
+  {
+    while (!this.closed.get()) {
+      try {
+        final var client = this.socket.accept();
+        client.setTcpNoDelay(true);
+
+        final var connection =
+          new GWBrokerConnection(this, client, this.connectionExecutor);
+        LOG.debug("connected: {}", client.getRemoteSocketAddress());
+        this.connections.add(connection);
+        this.connectionExecutor.execute(connection::run);
+      } catch (final SocketException e) {
+        if (!this.closed.get()) {
+          LOG.error("accept: ", e);
+        }
+      } catch (final IOException e) {
+        LOG.error("accept: ", e);
+      } catch (final RejectedExecutionException e) {
+        return;
+      }
+    }
+  }
+
+  void onConnectionClosed(
+    final GWBrokerConnection connection)
+  {
+    this.connections.remove(connection);
+  }
+
+  GWDeviceType device()
+  {
+    return this.device;
+  }
+
+  /**
+   * Execute a request from the given connection on the device thread.
+   *
+   * @param origin  The connection that made the request
+   * @param request The request
+   *
+   * @return The response
+   */
+
+  CompletableFuture<GWBrokerMessageType> submit(
+    final GWBrokerConnection origin,
+    final GWBrokerMessageType request)
+  {
+    try {
+      return CompletableFuture.supplyAsync(
+        () -> this.execute(origin, request),
+        this.deviceExecutor
+      );
+    } catch (final RejectedExecutionException e) {
+      return CompletableFuture.completedFuture(
+        new GWBrokerMessageType.Error(
+          request.id(),
+          DEVICE_MIDI_SYSTEM_ERROR.id(),
+          "The broker is shutting down."
+        )
+      );
+    }
+  }
+
+  private GWBrokerMessageType execute(
+    final GWBrokerConnection origin,
+    final GWBrokerMessageType request)
+  {
+    try {
+      if (request instanceof GWBrokerMessageType.Read read) {
+        return this.executeRead(read);
+      }
+      if (request instanceof GWBrokerMessageType.Write write) {
+        return this.executeWrite(origin, write);
+      }
+      return new GWBrokerMessageType.Error(
+        request.id(),
+        DEVICE_MIDI_SYSTEM_ERROR.id(),
+        "Unexpected request %s".formatted(request.getClass().getSimpleName())
+      );
+    } catch (final GWDeviceException e) {
+      return new GWBrokerMessageType.Error(
+        request.id(),
+        e.errorCode().id(),
+        Objects.requireNonNullElse(e.getMessage(), e.getClass().getName())
+      );
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new GWBrokerMessageType.Error(
+        request.id(),
+        DEVICE_MIDI_SYSTEM_ERROR.id(),
+        "Interrupted."
+      );
+    } catch (final Exception e) {
+      LOG.error("execute: ", e);
+      return new GWBrokerMessageType.Error(
+        request.id(),
+        DEVICE_MIDI_SYSTEM_ERROR.id(),
+        Objects.requireNonNullElse(e.getMessage(), e.getClass().getName())
+      );
+    }
+  }
+
+  private GWBrokerMessageType executeRead(
+    final GWBrokerMessageType.Read read)
+    throws GWDeviceException, InterruptedException
+  {
+    final var linear = linearOf(read.address());
+    final var size = linearOf(read.size());
+    final var now = System.nanoTime();
+
+    final var shadowed = this.shadow.read(linear, size, now);
+    if (shadowed.isPresent()) {
+      this.shadowHits.incrementAndGet();
+      final var data = shadowed.get();
+      return new GWBrokerMessageType.Data(
+        read.id(),
+        read.address(),
+        data,
+        GWDeviceChecksums.rolandChecksum(read.address(), data)
+      );
+    }
+
+    this.deviceReads.incrementAndGet();
+    final var response =
+      this.device.sendCommand(
+        new GWDeviceCommandRequestData(read.address(), read.size()));
+
+    this.shadow.update(
+      linearOf(response.address()),
+      response.data(),
+      System.nanoTime()
+    );
+
+    return new GWBrokerMessageType.Data(
+      read.id(),
+      response.address(),
+      response.data(),
+      response.checksum()
+    );
+  }
+
+  private GWBrokerMessageType executeWrite(
+    final GWBrokerConnection origin,
+    final GWBrokerMessageType.Write write)
+    throws GWDeviceException, InterruptedException
+  {
+    this.deviceWrites.incrementAndGet();
+    this.device.sendCommand(
+      new GWDeviceCommandSetData(write.address(), write.data()));
+
+    this.shadow.update(
+      linearOf(write.address()),
+      write.data(),
+      System.nanoTime()
+    );
+
+    this.broadcast(
+      origin,
+      new GWBrokerMessageType.Notify(
+        write.address(),
+        write.data(),
+        GWDeviceChecksums.rolandChecksum(write.address(), write.data())
+      )
+    );
+    return new GWBrokerMessageType.OK(write.id());
+  }
+
+  private void onUnsolicitedData(
+    final GWDeviceResponseRequestData data)
+  {
+    try {
+      this.deviceExecutor.execute(() -> {
+        this.shadow.update(
+          linearOf(data.address()),
+          data.data(),
+          System.nanoTime()
+        );
+        this.broadcast(
+          null,
+          new GWBrokerMessageType.Notify(
+            data.address(),
+            data.data(),
+            data.checksum()
+          )
+        );
+      });
+    } catch (final RejectedExecutionException e) {
+      LOG.debug("unsolicited data received after shutdown");
+    }
+  }
+
+  private void onProgramChange(
+    final int program)
+  {
+    try {
+      this.deviceExecutor.execute(() -> {
+        /*
+         * Selecting a different program replaces the contents of the
+         * temporary patch memory wholesale, and the device does not send
+         * the new contents, so nothing in the shadow can be trusted.
+         */
+
+        this.shadow.clear();
+        this.broadcast(null, new GWBrokerMessageType.ProgramChange(program));
+      });
+    } catch (final RejectedExecutionException e) {
+      LOG.debug("program change received after shutdown");
+    }
+  }
+
+  private void broadcast(
+    final GWBrokerConnection origin,
+    final GWBrokerMessageType notification)
+  {
+    for (final var connection : this.connections) {
+      if (connection != origin) {
+        this.notifications.incrementAndGet();
+        connection.send(notification);
+      }
+    }
+  }
+
+  @Override
+  public void close()
+    throws GWDeviceException
+  {
+    if (this.closed.compareAndSet(false, true)) {
+      try {
+        this.socket.close();
+      } catch (final IOException e) {
+        LOG.debug("close: ", e);
+      }
+
+      for (final var connection : this.connections) {
+        connection.close();
+      }
+
+      this.connectionExecutor.shutdown();
+      this.deviceExecutor.shutdown();
+      this.device.close();
+    }
+  }
+}
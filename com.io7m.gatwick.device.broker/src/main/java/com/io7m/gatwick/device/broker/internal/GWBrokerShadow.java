@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker.internal;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A shadow copy of the parts of device memory that have recently been read
+ * from, or written to, the device. Memory is tracked in pages of
+ * {@link #PAGE_SIZE} bytes, with a separate flag for each byte indicating
+ * whether the byte is known, and a separate time at which each byte was last
+ * refreshed. A byte is forgotten once it has not been refreshed within the
+ * configured lifetime, because the device does not necessarily report every
+ * change made on the device itself. Refreshing some bytes of a page never
+ * extends the lifetime of the others.
+ *
+ * Shadows are not thread-safe; the broker confines each shadow to its device
+ * thread.
+ */
+
+public final class GWBrokerShadow
+{
+  /**
+   * The size of a page in bytes. Each page tracks which of its bytes are
+   * known in a single {@code long}.
+   */
+
+  public static final int PAGE_SIZE = 64;
+
+  private final HashMap<Integer, Page> pages;
+  private final long lifetimeNanos;
+
+  private static final class Page
+  {
+    private final byte[] data;
+    private final long[] times;
+    private long known;
+
+    Page()
+    {
+      this.data = new byte[PAGE_SIZE];
+      this.times = new long[PAGE_SIZE];
+    }
+
+    /*
+     * Forget any bytes in the given range that have outlived the lifetime.
+     */
+
+    void expire(
+      final int offset,
+      final int count,
+      final long now,
+      final long lifetimeNanos)
+    {
+      for (int index = offset; index < offset + count; ++index) {
+        if (now - this.times[index] > lifetimeNanos) {
+          this.known &= ~(1L << index);
+        }
+      }
+    }
+  }
+
+  /**
+   * A shadow copy of device memory.
+   *
+   * @param lifetime The length of time for which shadowed memory is trusted
+   */
+
+  public GWBrokerShadow(
+    final Duration lifetime)
+  {
+    Objects.requireNonNull(lifetime, "lifetime");
+    this.pages = new HashMap<>();
+    this.lifetimeNanos = lifetime.toNanos();
+  }
+
+  /**
+   * Read memory from the shadow.
+   *
+   * @param linear The linear offset of the first byte
+   * @param size   The number of bytes
+   * @param now    The current time in nanoseconds
+   *
+   * @return The data, if every requested byte is known and fresh
+   */
+
+  public Optional<byte[]> read(
+    final int linear,
+    final int size,
+    final long now)
+  {
+    final var result = new byte[size];
+    for (int index = 0; index < size; ) {
+      final var offset = linear + index;
+      final var pageIndex = offset / PAGE_SIZE;
+      final var pageOffset = offset % PAGE_SIZE;
+      final var count = Math.min(PAGE_SIZE - pageOffset, size - index);
+
+      final var page = this.pages.get(Integer.valueOf(pageIndex));
+      if (page == null) {
+        return Optional.empty();
+      }
+
+      page.expire(pageOffset, count, now, this.lifetimeNanos);
+      if (page.known == 0L) {
+        this.pages.remove(Integer.valueOf(pageIndex));
+        return Optional.empty();
+      }
+
+      final var mask = maskOf(pageOffset, count);
+      if ((page.known & mask) != mask) {
+        return Optional.empty();
+      }
+
+      System.arraycopy(page.data, pageOffset, result, index, count);
+      index += count;
+    }
+    return Optional.of(result);
+  }
+
+  /**
+   * Record memory that was read from, or written to, the device.
+   *
+   * @param linear The linear offset of the first byte
+   * @param data   The data
+   * @param now    The current time in nanoseconds
+   */
+
+  public void update(
+    final int linear,
+    final byte[] data,
+    final long now)
+  {
+    Objects.requireNonNull(data, "data");
+
+    for (int index = 0; index < data.length; ) {
+      final var offset = linear + index;
+      final var pageIndex = offset / PAGE_SIZE;
+      final var pageOffset = offset % PAGE_SIZE;
+      final var count = Math.min(PAGE_SIZE - pageOffset, data.length - index);
+
+      final var page =
+        this.pages.computeIfAbsent(Integer.valueOf(pageIndex), k -> new Page());
+
+      System.arraycopy(data, index, page.data, pageOffset, count);
+      Arrays.fill(page.times, pageOffset, pageOffset + count, now);
+      page.known |= maskOf(pageOffset, count);
+      index += count;
+    }
+  }
+
+  /**
+   * Forget all shadowed memory.
+   */
+
+  public void clear()
+  {
+    this.pages.clear();
+  }
+
+  /**
+   * @return The number of pages currently held
+   */
+
+  public int pageCount()
+  {
+    return this.pages.size();
+  }
+
+  private static long maskOf(
+    final int offset,
+    final int count)
+  {
+    final var bits = count == PAGE_SIZE ? -1L : (1L << count) - 1L;
+    return bits << offset;
+  }
+}
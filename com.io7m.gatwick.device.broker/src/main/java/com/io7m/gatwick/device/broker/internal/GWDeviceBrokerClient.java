@@ -0,0 +1,447 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.broker.internal;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceCommandType;
+import com.io7m.gatwick.device.api.GWDeviceConfiguration;
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceErrorCode;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceResponseOK;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceResponseType;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.jattribute.core.AttributeReadableType;
+import com.io7m.jattribute.core.AttributeType;
+import com.io7m.jattribute.core.Attributes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_MIDI_SYSTEM_ERROR;
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_NOT_FOUND;
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
+
+/**
+ * A device that is accessed through a broker. Commands may be sent from any
+ * number of threads; each command is tagged with a request ID, and responses
+ * are matched to commands on a dedicated reader thread.
+ */
+
+public final class GWDeviceBrokerClient implements GWDeviceType
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWDeviceBrokerClient.class);
+
+  private final Socket socket;
+  private final DataInputStream input;
+  private final DataOutputStream output;
+  private final GWDeviceDescription description;
+  private final GWDeviceConfiguration configuration;
+  private final AttributeType<Duration> commandRTT;
+  private final ConcurrentHashMap<Integer, CompletableFuture<GWBrokerMessageType>> pending;
+  private final AtomicInteger requestIds;
+  private final AtomicBoolean closed;
+  private volatile Consumer<GWDeviceResponseRequestData> unsolicitedHandler;
+  private volatile IntConsumer programChangeHandler;
+
+  private GWDeviceBrokerClient(
+    final Socket inSocket,
+    final DataInputStream inInput,
+    final DataOutputStream inOutput,
+    final GWDeviceDescription inDescription,
+    final GWDeviceConfiguration inConfiguration)
+  {
+    this.socket =
+      Objects.requireNonNull(inSocket, "socket");
+    this.input =
+      Objects.requireNonNull(inInput, "input");
+    this.output =
+      Objects.requireNonNull(inOutput, "output");
+    this.description =
+      Objects.requireNonNull(inDescription, "description");
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
+    this.commandRTT =
+      Attributes.create(throwable -> {
+        LOG.error("exception captured: ", throwable);
+      }).create(Duration.ZERO);
+    this.pending =
+      new ConcurrentHashMap<>();
+    this.requestIds =
+      new AtomicInteger(1);
+    this.closed =
+      new AtomicBoolean(false);
+    this.unsolicitedHandler =
+      data -> {
+
+      };
+    this.programChangeHandler =
+      program -> {
+
+      };
+  }
+
+  /**
+   * Connect to a broker and perform the protocol handshake.
+   *
+   * @param address The broker address
+   * @param timeout The maximum length of time to wait for the connection
+   *
+   * @return The connected socket and the description of the brokered device
+   *
+   * @throws IOException On errors
+   */
+
+  public static Connected connect(
+    final InetSocketAddress address,
+    final Duration timeout)
+    throws IOException
+  {
+    Objects.requireNonNull(address, "address");
+    Objects.requireNonNull(timeout, "timeout");
+
+    final var socket = new Socket();
+    try {
+      socket.setTcpNoDelay(true);
+      socket.connect(address, Math.toIntExact(timeout.toMillis()));
+      socket.setSoTimeout(Math.toIntExact(timeout.toMillis()));
+
+      final var input =
+        new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      final var output =
+        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+      GWBrokerProtocol.writeClientHello(output);
+      final var description = GWBrokerProtocol.readServerHello(input);
+      socket.setSoTimeout(0);
+      return new Connected(socket, input, output, description);
+    } catch (final IOException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  /**
+   * A connected, but not yet opened, broker connection.
+   *
+   * @param socket      The socket
+   * @param input       The input stream
+   * @param output      The output stream
+   * @param description The description of the brokered device
+   */
+
+  public record Connected(
+    Socket socket,
+    DataInputStream input,
+    DataOutputStream output,
+    GWDeviceDescription description)
+  {
+
+  }
+
+  /**
+   * Open a device through the broker at the given address.
+   *
+   * @param address       The broker address
+   * @param configuration The device configuration
+   *
+   * @return A device
+   *
+   * @throws GWDeviceException On errors
+   */
+
+  public static GWDeviceType open(
+    final InetSocketAddress address,
+    final GWDeviceConfiguration configuration)
+    throws GWDeviceException
+  {
+    Objects.requireNonNull(address, "address");
+    Objects.requireNonNull(configuration, "configuration");
+
+    final Connected connected;
+    try {
+      connected = connect(address, configuration.openTimeout());
+    } catch (final IOException e) {
+      throw new GWDeviceException(
+        DEVICE_NOT_FOUND,
+        "Unable to connect to a broker at %s".formatted(address),
+        e
+      );
+    }
+
+    final var client =
+      new GWDeviceBrokerClient(
+        connected.socket(),
+        connected.input(),
+        connected.output(),
+        connected.description(),
+        configuration
+      );
+
+    final var thread = new Thread(client::readLoop);
+    thread.setDaemon(true);
+    thread.setName(
+      "com.io7m.gatwick.device.broker.internal.GWDeviceBrokerClient[%d]"
+        .formatted(Long.valueOf(thread.getId()))
+    );
+    thread.start();
+    return client;
+  }
+
+  private void readLoop()
+  {
+    try {
+      while (!this.closed.get()) {
+        final var message = GWBrokerProtocol.readMessage(this.input);
+        if (message instanceof GWBrokerMessageType.Notify notify) {
+          this.onNotify(notify);
+          continue;
+        }
+        if (message instanceof GWBrokerMessageType.ProgramChange change) {
+          this.onProgramChange(change);
+          continue;
+        }
+
+        final var future = this.pending.remove(Integer.valueOf(message.id()));
+        if (future != null) {
+          future.complete(message);
+        } else {
+          LOG.debug("response for unknown request {}", message.id());
+        }
+      }
+    } catch (final IOException e) {
+      if (!this.closed.get()) {
+        LOG.error("lost connection to broker: ", e);
+        this.failPending(e);
+      }
+    }
+  }
+
+  private void onNotify(
+    final GWBrokerMessageType.Notify notify)
+  {
+    try {
+      this.unsolicitedHandler.accept(
+        new GWDeviceResponseRequestData(
+          notify.address(),
+          notify.data(),
+          notify.checksum()
+        )
+      );
+    } catch (final Exception e) {
+      LOG.error("unsolicited data handler: ", e);
+    }
+  }
+
+  private void onProgramChange(
+    final GWBrokerMessageType.ProgramChange change)
+  {
+    try {
+      this.programChangeHandler.accept(change.program());
+    } catch (final Exception e) {
+      LOG.error("program change handler: ", e);
+    }
+  }
+
+  private void failPending(
+    final Exception cause)
+  {
+    final var exception =
+      new GWDeviceException(
+        DEVICE_MIDI_SYSTEM_ERROR,
+        "Lost connection to the broker.",
+        cause
+      );
+
+    for (final var id : this.pending.keySet()) {
+      final var future = this.pending.remove(id);
+      if (future != null) {
+        future.completeExceptionally(exception);
+      }
+    }
+  }
+
+  @Override
+  public GWDeviceDescription description()
+  {
+    return this.description;
+  }
+
+  @Override
+  public AttributeReadableType<Duration> commandRoundTripTime()
+  {
+    return this.commandRTT;
+  }
+
+  @Override
+  public <R extends GWDeviceResponseType> R sendCommand(
+    final GWDeviceCommandType<R> command)
+    throws GWDeviceException, InterruptedException
+  {
+    Objects.requireNonNull(command, "command");
+
+    if (this.closed.get()) {
+      throw new GWDeviceException(
+        DEVICE_MIDI_SYSTEM_ERROR,
+        "The broker connection is closed."
+      );
+    }
+
+    final var id = this.requestIds.getAndIncrement();
+    final GWBrokerMessageType request;
+    if (command instanceof GWDeviceCommandSetData setData) {
+      request = new GWBrokerMessageType.Write(
+        id,
+        setData.address(),
+        setData.data()
+      );
+    } else if (command instanceof GWDeviceCommandRequestData requestData) {
+      request = new GWBrokerMessageType.Read(
+        id,
+        requestData.address(),
+        requestData.size()
+      );
+    } else {
+      throw new GWDeviceException(
+        DEVICE_MIDI_SYSTEM_ERROR,
+        "Unsupported command %s".formatted(command)
+      );
+    }
+
+    final var future = new CompletableFuture<GWBrokerMessageType>();
+    this.pending.put(Integer.valueOf(id), future);
+
+    final var timeThen = System.nanoTime();
+    try {
+      synchronized (this.output) {
+        GWBrokerProtocol.writeMessage(this.output, request);
+        this.output.flush();
+      }
+    } catch (final IOException e) {
+      this.pending.remove(Integer.valueOf(id));
+      throw new GWDeviceException(DEVICE_MIDI_SYSTEM_ERROR, e);
+    }
+
+    final GWBrokerMessageType response;
+    try {
+      response = future.get(
+        this.configuration.messageTimeout().toNanos(),
+        TimeUnit.NANOSECONDS
+      );
+    } catch (final TimeoutException e) {
+      this.pending.remove(Integer.valueOf(id));
+      throw new GWDeviceException(
+        DEVICE_TIMED_OUT,
+        "Timed out waiting for a response to %s".formatted(command),
+        e
+      );
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof GWDeviceException ex) {
+        throw ex;
+      }
+      throw new GWDeviceException(DEVICE_MIDI_SYSTEM_ERROR, e);
+    } finally {
+      this.commandRTT.set(Duration.ofNanos(System.nanoTime() - timeThen));
+    }
+
+    return command.responseClass().cast(responseOf(response));
+  }
+
+  private static GWDeviceResponseType responseOf(
+    final GWBrokerMessageType response)
+    throws GWDeviceException
+  {
+    if (response instanceof GWBrokerMessageType.Data data) {
+      return new GWDeviceResponseRequestData(
+        data.address(),
+        data.data(),
+        data.checksum()
+      );
+    }
+    if (response instanceof GWBrokerMessageType.OK) {
+      return GWDeviceResponseOK.ok();
+    }
+    if (response instanceof GWBrokerMessageType.Error error) {
+      throw new GWDeviceException(
+        new GWDeviceErrorCode(error.errorCode()),
+        error.message()
+      );
+    }
+    throw new GWDeviceException(
+      DEVICE_MIDI_SYSTEM_ERROR,
+      "Unexpected response %s".formatted(response)
+    );
+  }
+
+  @Override
+  public void setUnsolicitedDataHandler(
+    final Consumer<GWDeviceResponseRequestData> handler)
+  {
+    this.unsolicitedHandler = Objects.requireNonNull(handler, "handler");
+  }
+
+  @Override
+  public void setProgramChangeHandler(
+    final IntConsumer handler)
+  {
+    this.programChangeHandler = Objects.requireNonNull(handler, "handler");
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[GWDeviceBrokerClient %s]".formatted(
+      this.socket.getRemoteSocketAddress());
+  }
+
+  @Override
+  public void close()
+    throws GWDeviceException
+  {
+    if (this.closed.compareAndSet(false, true)) {
+      try {
+        this.socket.close();
+      } catch (final IOException e) {
+        throw new GWDeviceException(DEVICE_MIDI_SYSTEM_ERROR, e);
+      } finally {
+        this.failPending(new IOException("Closed."));
+      }
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.javamidi;
+
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Functions to read and write capture files.
+ *
+ * <p>A capture file begins with a magic number, a version, and a description
+ * of the captured device. Each message follows as a direction byte, the time
+ * since the previous message, the message length, and the message itself.
+ * Times and lengths are written as variable-length integers, so a typical
+ * message costs only a few bytes more than its own length. Times are
+ * relative to the first message, and so a capture read from a file always
+ * begins at time zero.</p>
+ */
+
+public final class GWDeviceCaptureFiles
+{
+  /**
+   * The magic number that begins every capture file ("GWCP").
+   */
+
+  public static final int MAGIC = 0x47574350;
+
+  /**
+   * The current capture file version.
+   */
+
+  public static final int VERSION = 1;
+
+  private static final int MAXIMUM_MESSAGE_SIZE = 0x10000;
+
+  private GWDeviceCaptureFiles()
+  {
+
+  }
+
+  /**
+   * Write a capture to a file.
+   *
+   * @param file    The output file
+   * @param capture The capture
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final Path file,
+    final GWDeviceCapture capture)
+    throws IOException
+  {
+    try (var stream = Files.newOutputStream(file)) {
+      write(stream, capture);
+    }
+  }
+
+  /**
+   * Write a capture to a stream.
+   *
+   * @param stream  The output stream
+   * @param capture The capture
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void write(
+    final OutputStream stream,
+    final GWDeviceCapture capture)
+    throws IOException
+  {
+    final var output =
+      new DataOutputStream(new BufferedOutputStream(stream));
+    final var device =
+      capture.device();
+    final var midi =
+      device.midiDevice();
+
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeUTF(midi.midiDeviceName());
+    output.writeUTF(midi.midiDeviceDescription());
+    output.writeUTF(midi.midiDeviceVendor());
+    output.writeUTF(midi.midiDeviceVersion());
+    output.writeInt(device.deviceManufacturer());
+    output.writeInt(device.deviceFamilyCode());
+    output.writeInt(device.deviceFamilyNumberCode());
+    output.writeInt(device.deviceSoftwareVersion());
+
+    final var records = capture.records();
+    writeVarLong(output, records.size());
+
+    var timePrevious = records.isEmpty() ? 0L : records.get(0).timeNanos();
+    for (final var record : records) {
+      final var delta = record.timeNanos() - timePrevious;
+      timePrevious = record.timeNanos();
+
+      output.writeByte(record.direction().ordinal());
+      writeVarLong(output, (delta << 1) ^ (delta >> 63));
+      writeVarLong(output, record.data().length);
+      output.write(record.data());
+    }
+    output.flush();
+  }
+
+  /**
+   * Read a capture from a file.
+   *
+   * @param file The input file
+   *
+   * @return The capture
+   *
+   * @throws IOException On I/O errors, or if the file is not a valid capture
+   */
+
+  public static GWDeviceCapture read(
+    final Path file)
+    throws IOException
+  {
+    try (var stream = Files.newInputStream(file)) {
+      return read(stream);
+    }
+  }
+
+  /**
+   * Read a capture from a stream. The times of the returned messages are
+   * relative to the first message.
+   *
+   * @param stream The input stream
+   *
+   * @return The capture
+   *
+   * @throws IOException On I/O errors, or if the stream is not a valid capture
+   */
+
+  public static GWDeviceCapture read(
+    final InputStream stream)
+    throws IOException
+  {
+    final var input =
+      new DataInputStream(new BufferedInputStream(stream));
+
+    final var magic = input.readInt();
+    if (magic != MAGIC) {
+      throw new IOException(
+        "Bad magic number: expected 0x%08x but received 0x%08x"
+          .formatted(Integer.valueOf(MAGIC), Integer.valueOf(magic))
+      );
+    }
+
+    final var version = input.readInt();
+    if (version != VERSION) {
+      throw new IOException(
+        "Unsupported capture version %d".formatted(Integer.valueOf(version))
+      );
+    }
+
+    final var midi =
+      new GWDeviceMIDIDescription(
+        input.readUTF(),
+        input.readUTF(),
+        input.readUTF(),
+        input.readUTF()
+      );
+
+    final var device =
+      new GWDeviceDescription(
+        midi,
+        input.readInt(),
+        input.readInt(),
+        input.readInt(),
+        input.readInt()
+      );
+
+    final var directions = GWDeviceCaptureDirection.values();
+    final var count = readVarLong(input);
+    final var records = new ArrayList<GWDeviceCaptureRecord>();
+
+    var time = 0L;
+    for (long index = 0L; index < count; ++index) {
+      final var directionIndex = input.readUnsignedByte();
+      if (directionIndex >= directions.length) {
+        throw new IOException(
+          "Unrecognized message direction %d"
+            .formatted(Integer.valueOf(directionIndex))
+        );
+      }
+
+      final var encoded = readVarLong(input);
+      time += (encoded >>> 1) ^ -(encoded & 1L);
+
+      final var size = readVarLong(input);
+      if (size > MAXIMUM_MESSAGE_SIZE) {
+        throw new IOException(
+          "Message size %d exceeds the maximum %d"
+            .formatted(Long.valueOf(size), Integer.valueOf(MAXIMUM_MESSAGE_SIZE))
+        );
+      }
+
+      final var data = new byte[(int) size];
+      input.readFully(data);
+      records.add(
+        new GWDeviceCaptureRecord(directions[directionIndex], time, data));
+    }
+
+    return new GWDeviceCapture(device, records);
+  }
+
+  private static void writeVarLong(
+    final DataOutputStream output,
+    final long value)
+    throws IOException
+  {
+    var remaining = value;
+    while ((remaining & ~0x7fL) != 0L) {
+      output.writeByte((int) ((remaining & 0x7fL) | 0x80L));
+      remaining >>>= 7;
+    }
+    output.writeByte((int) remaining);
+  }
+
+  private static long readVarLong(
+    final DataInputStream input)
+    throws IOException
+  {
+    var result = 0L;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final var b = input.readUnsignedByte();
+      result |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IOException("Malformed variable-length integer.");
+  }
+}
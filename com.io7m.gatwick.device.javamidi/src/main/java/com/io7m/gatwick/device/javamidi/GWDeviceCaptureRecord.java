@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.javamidi;
+
+import java.util.Objects;
+
+/**
+ * A captured SysEx message.
+ *
+ * @param direction The direction of the message
+ * @param timeNanos The time the message was sent or received, in nanoseconds
+ *                  relative to an arbitrary origin
+ * @param data      The complete message, including the leading {@code 0xf0}
+ *                  status byte
+ */
+
+public record GWDeviceCaptureRecord(
+  GWDeviceCaptureDirection direction,
+  long timeNanos,
+  byte[] data)
+{
+  /**
+   * A captured SysEx message.
+   *
+   * @param direction The direction of the message
+   * @param timeNanos The time the message was sent or received, in
+   *                  nanoseconds relative to an arbitrary origin
+   * @param data      The complete message, including the leading
+   *                  {@code 0xf0} status byte
+   */
+
+  public GWDeviceCaptureRecord
+  {
+    Objects.requireNonNull(direction, "direction");
+    Objects.requireNonNull(data, "data");
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.javamidi;
+
+import java.io.IOException;
+
+/**
+ * The management interface exposed for each open JavaMIDI device. Instances
+ * are registered with the platform MBean server under the
+ * {@code com.io7m.gatwick} domain when a device is opened, and unregistered
+ * when the device is closed.
+ */
+
+public interface GWDeviceJavaMIDIMetricsMXBean
+{
+  /**
+   * @return The name of the underlying MIDI device
+   */
+
+  String getDeviceName();
+
+  /**
+   * @return The number of SysEx messages sent to the device, including retries
+   */
+
+  long getMessagesSent();
+
+  /**
+   * @return The number of SysEx messages received from the device
+   */
+
+  long getMessagesReceived();
+
+  /**
+   * @return The number of received messages that were discarded because
+   * nobody claimed them before the receive queue filled up
+   */
+
+  long getMessagesDiscarded();
+
+  /**
+   * @return The number of times a command was sent again after timing out
+   */
+
+  long getRetries();
+
+  /**
+   * @return The number of times the device failed to respond in time
+   */
+
+  long getTimeouts();
+
+  /**
+   * @return The number of messages currently held in the capture buffer
+   */
+
+  int getCapturedMessages();
+
+  /**
+   * Write the contents of the capture buffer to a file.
+   *
+   * @param file The output file
+   *
+   * @throws IOException On I/O errors
+   * @see GWDeviceCaptureFiles
+   */
+
+  void writeCapture(String file)
+    throws IOException;
+}
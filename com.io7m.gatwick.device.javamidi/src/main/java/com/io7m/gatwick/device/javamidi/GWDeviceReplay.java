@@ -0,0 +1,333 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.javamidi;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceCommandType;
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceResponseOK;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceResponseType;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.device.javamidi.internal.GWDeviceMessages;
+import com.io7m.jattribute.core.AttributeReadableType;
+import com.io7m.jattribute.core.AttributeType;
+import com.io7m.jattribute.core.Attributes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_MIDI_SYSTEM_ERROR;
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
+import static com.io7m.gatwick.device.javamidi.GWDeviceCaptureDirection.INBOUND;
+import static com.io7m.gatwick.device.javamidi.GWDeviceCaptureDirection.OUTBOUND;
+
+/**
+ * A device that replays a capture. Each command sent to the device consumes
+ * the next command in the capture, and is answered with the response the
+ * original device gave, after the delay the original device took to give it
+ * if the timing is {@link GWDeviceReplayTiming#ORIGINAL}. Messages that the
+ * original device sent without being asked are passed to the unsolicited
+ * data handler at the point in the sequence at which they arrived.
+ *
+ * <p>Replay is purely sequential: the replay device does not check that the
+ * commands it is sent match the captured commands, beyond logging any that
+ * differ. Use {@link #commands()} to obtain the captured commands in order,
+ * for example to drive a benchmark with a recorded session.</p>
+ */
+
+public final class GWDeviceReplay implements GWDeviceType
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWDeviceReplay.class);
+
+  private final GWDeviceCapture capture;
+  private final GWDeviceReplayTiming timing;
+  private final List<GWDeviceCaptureRecord> records;
+  private final AttributeType<Duration> commandRTT;
+  private final Object lock;
+  private int index;
+  private volatile boolean closed;
+  private volatile Consumer<GWDeviceResponseRequestData> unsolicited;
+
+  private GWDeviceReplay(
+    final GWDeviceCapture inCapture,
+    final GWDeviceReplayTiming inTiming)
+  {
+    this.capture =
+      Objects.requireNonNull(inCapture, "capture");
+    this.timing =
+      Objects.requireNonNull(inTiming, "timing");
+    this.records =
+      inCapture.records();
+    this.lock =
+      new Object();
+    this.unsolicited =
+      data -> {
+
+      };
+
+    this.commandRTT =
+      Attributes.create(throwable -> {
+        LOG.error("error captured by attribute: ", throwable);
+      }).create(Duration.ZERO);
+  }
+
+  /**
+   * Create a device that replays the given capture.
+   *
+   * @param capture The capture
+   * @param timing  The replay timing
+   *
+   * @return A replay device
+   */
+
+  public static GWDeviceReplay create(
+    final GWDeviceCapture capture,
+    final GWDeviceReplayTiming timing)
+  {
+    return new GWDeviceReplay(capture, timing);
+  }
+
+  /**
+   * @return The commands in the capture, in the order they were sent, with
+   * retries of the same command omitted
+   *
+   * @throws GWDeviceException If the capture contains malformed commands
+   */
+
+  public List<GWDeviceCommandType<?>> commands()
+    throws GWDeviceException
+  {
+    final var results = new ArrayList<GWDeviceCommandType<?>>();
+    byte[] previous = null;
+    for (final var record : this.records) {
+      if (record.direction() == OUTBOUND) {
+        if (!Arrays.equals(previous, record.data())) {
+          results.add(GWDeviceMessages.parseCommand(record.data()));
+        }
+        previous = record.data();
+      } else {
+        previous = null;
+      }
+    }
+    return List.copyOf(results);
+  }
+
+  /**
+   * @return The number of captured messages that have not yet been replayed
+   */
+
+  public int remaining()
+  {
+    synchronized (this.lock) {
+      return this.records.size() - this.index;
+    }
+  }
+
+  @Override
+  public GWDeviceDescription description()
+  {
+    return this.capture.device();
+  }
+
+  @Override
+  public AttributeReadableType<Duration> commandRoundTripTime()
+  {
+    return this.commandRTT;
+  }
+
+  @Override
+  public <R extends GWDeviceResponseType> R sendCommand(
+    final GWDeviceCommandType<R> command)
+    throws GWDeviceException, InterruptedException
+  {
+    Objects.requireNonNull(command, "command");
+
+    if (this.closed) {
+      throw new GWDeviceException(DEVICE_MIDI_SYSTEM_ERROR, "Device is closed.");
+    }
+
+    synchronized (this.lock) {
+      final var timeThen = System.nanoTime();
+
+      this.replayUnsolicited();
+      if (this.index >= this.records.size()) {
+        throw new GWDeviceException(
+          DEVICE_TIMED_OUT, "The capture contains no further commands."
+        );
+      }
+
+      final var sent = this.records.get(this.index++);
+      this.checkMatches(sent, command);
+
+      final var expectResponse = command.responseClass();
+      if (Objects.equals(expectResponse, GWDeviceResponseOK.class)) {
+        return expectResponse.cast(GWDeviceResponseOK.ok());
+      }
+
+      /*
+       * The original device may have retried the command after timing out.
+       * Retries are part of the time the command took, and so are skipped
+       * but are still accounted for when waiting for the response.
+       */
+
+      while (this.index < this.records.size()) {
+        final var next = this.records.get(this.index);
+        final var retry =
+          next.direction() == OUTBOUND && Arrays.equals(next.data(), sent.data());
+        if (!retry) {
+          break;
+        }
+        ++this.index;
+      }
+
+      while (this.index < this.records.size()) {
+        final var received = this.records.get(this.index);
+        if (received.direction() != INBOUND) {
+          break;
+        }
+        ++this.index;
+
+        this.waitUntil(timeThen + (received.timeNanos() - sent.timeNanos()));
+
+        final var response = parseResponse(received);
+        if (command instanceof GWDeviceCommandRequestData request
+            && response.address() != request.address()) {
+          this.unsolicited.accept(response);
+          continue;
+        }
+
+        this.commandRTT.set(Duration.ofNanos(System.nanoTime() - timeThen));
+        return expectResponse.cast(response);
+      }
+
+      throw new GWDeviceException(
+        DEVICE_TIMED_OUT, "The capture contains no response to this command."
+      );
+    }
+  }
+
+  private void replayUnsolicited()
+  {
+    while (this.index < this.records.size()) {
+      final var record = this.records.get(this.index);
+      if (record.direction() != INBOUND) {
+        return;
+      }
+      ++this.index;
+
+      try {
+        this.unsolicited.accept(parseResponse(record));
+      } catch (final GWDeviceException e) {
+        LOG.debug("ignoring unparseable captured message: ", e);
+      }
+    }
+  }
+
+  private void checkMatches(
+    final GWDeviceCaptureRecord sent,
+    final GWDeviceCommandType<?> command)
+  {
+    if (!LOG.isDebugEnabled()) {
+      return;
+    }
+
+    try {
+      final var captured =
+        GWDeviceMessages.parseCommand(sent.data());
+      final boolean same;
+      if (captured instanceof GWDeviceCommandSetData c
+          && command instanceof GWDeviceCommandSetData d) {
+        same = c.address() == d.address() && Arrays.equals(c.data(), d.data());
+      } else {
+        same = Objects.equals(captured, command);
+      }
+
+      if (!same) {
+        LOG.debug("replayed command {} differs from captured command {}",
+                  command, captured);
+      }
+    } catch (final GWDeviceException e) {
+      LOG.debug("unparseable captured command: ", e);
+    }
+  }
+
+  private void waitUntil(
+    final long deadline)
+    throws InterruptedException
+  {
+    if (this.timing == GWDeviceReplayTiming.ORIGINAL) {
+      final var remaining = deadline - System.nanoTime();
+      if (remaining > 0L) {
+        TimeUnit.NANOSECONDS.sleep(remaining);
+      }
+    }
+  }
+
+  private static GWDeviceResponseRequestData parseResponse(
+    final GWDeviceCaptureRecord record)
+    throws GWDeviceException
+  {
+    /*
+     * Captured messages include the status byte, but the parser expects
+     * the message data that follows it.
+     */
+
+    final var data = record.data();
+    final var response =
+      GWDeviceMessages.parseResponse(
+        0x12,
+        Arrays.copyOfRange(data, 1, data.length)
+      );
+
+    return (GWDeviceResponseRequestData) response;
+  }
+
+  @Override
+  public void setUnsolicitedDataHandler(
+    final Consumer<GWDeviceResponseRequestData> handler)
+  {
+    this.unsolicited = Objects.requireNonNull(handler, "handler");
+  }
+
+  @Override
+  public void close()
+  {
+    this.closed = true;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[GWDeviceReplay %s 0x%08x]",
+      this.capture.device().midiDevice().midiDeviceName(),
+      Integer.valueOf(this.hashCode())
+    );
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.javamidi.internal;
+
+import com.io7m.gatwick.device.javamidi.GWDeviceCaptureDirection;
+import com.io7m.gatwick.device.javamidi.GWDeviceCaptureRecord;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-size ring buffer of captured SysEx messages. The buffer lives
+ * outside of the Java heap so that keeping it permanently enabled adds
+ * nothing to garbage collection work. When the buffer is full, the oldest
+ * messages are discarded to make room for new ones.
+ */
+
+public final class GWDeviceCaptureBuffer
+{
+  /**
+   * The system property that may be used to set the capture buffer size in
+   * bytes.
+   */
+
+  public static final String SIZE_PROPERTY =
+    "com.io7m.gatwick.capture.size";
+
+  /**
+   * The default capture buffer size in bytes.
+   */
+
+  public static final int DEFAULT_SIZE =
+    1 << 20;
+
+  private static final int MINIMUM_SIZE =
+    4096;
+
+  /*
+   * Each record is a direction byte, a timestamp, a length, and then the
+   * message itself.
+   */
+
+  private static final int RECORD_HEADER_SIZE =
+    1 + 8 + 4;
+
+  private final ByteBuffer buffer;
+  private final ByteBuffer header;
+  private final int capacity;
+  private long head;
+  private long tail;
+  private int count;
+
+  /**
+   * Create a capture buffer.
+   *
+   * @param inCapacity The buffer size in bytes
+   */
+
+  public GWDeviceCaptureBuffer(
+    final int inCapacity)
+  {
+    if (inCapacity < MINIMUM_SIZE) {
+      throw new IllegalArgumentException(
+        "Capture buffer size %d must be at least %d"
+          .formatted(Integer.valueOf(inCapacity), Integer.valueOf(MINIMUM_SIZE))
+      );
+    }
+
+    this.capacity = inCapacity;
+    this.buffer = ByteBuffer.allocateDirect(inCapacity);
+    this.header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+  }
+
+  /**
+   * Create a capture buffer with the size given by {@link #SIZE_PROPERTY}, or
+   * {@link #DEFAULT_SIZE} if the property is not set.
+   *
+   * @return A capture buffer
+   */
+
+  public static GWDeviceCaptureBuffer createDefault()
+  {
+    final var size =
+      Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE).intValue();
+    return new GWDeviceCaptureBuffer(Math.max(MINIMUM_SIZE, size));
+  }
+
+  /**
+   * Record a message. Messages too large to ever fit in the buffer are
+   * ignored.
+   *
+   * @param direction The direction of the message
+   * @param timeNanos The time the message was sent or received
+   * @param data      The complete message
+   */
+
+  public void record(
+    final GWDeviceCaptureDirection direction,
+    final long timeNanos,
+    final byte[] data)
+  {
+    final var size = RECORD_HEADER_SIZE + data.length;
+    if (size > this.capacity) {
+      return;
+    }
+
+    synchronized (this) {
+      while (this.tail + size - this.head > this.capacity) {
+        this.dropOldest();
+      }
+
+      this.header.put(0, (byte) direction.ordinal());
+      this.header.putLong(1, timeNanos);
+      this.header.putInt(9, data.length);
+      this.put(this.tail, this.header.array());
+      this.put(this.tail + RECORD_HEADER_SIZE, data);
+      this.tail += size;
+      ++this.count;
+    }
+  }
+
+  private void dropOldest()
+  {
+    this.get(this.head, this.header.array());
+    this.head += RECORD_HEADER_SIZE + this.header.getInt(9);
+    --this.count;
+  }
+
+  private void put(
+    final long position,
+    final byte[] data)
+  {
+    final var offset = (int) (position % this.capacity);
+    final var first = Math.min(data.length, this.capacity - offset);
+    this.buffer.put(offset, data, 0, first);
+    if (first < data.length) {
+      this.buffer.put(0, data, first, data.length - first);
+    }
+  }
+
+  private void get(
+    final long position,
+    final byte[] data)
+  {
+    final var offset = (int) (position % this.capacity);
+    final var first = Math.min(data.length, this.capacity - offset);
+    this.buffer.get(offset, data, 0, first);
+    if (first < data.length) {
+      this.buffer.get(0, data, first, data.length - first);
+    }
+  }
+
+  /**
+   * @return The number of messages currently held
+   */
+
+  public synchronized int size()
+  {
+    return this.count;
+  }
+
+  /**
+   * @return A copy of the messages currently held, oldest first
+   */
+
+  public synchronized List<GWDeviceCaptureRecord> snapshot()
+  {
+    final var directions = GWDeviceCaptureDirection.values();
+    final var results = new ArrayList<GWDeviceCaptureRecord>(this.count);
+    final var headerData = this.header.array();
+
+    var position = this.head;
+    while (position < this.tail) {
+      this.get(position, headerData);
+      final var direction = directions[this.header.get(0)];
+      final var time = this.header.getLong(1);
+      final var data = new byte[this.header.getInt(9)];
+      this.get(position + RECORD_HEADER_SIZE, data);
+      results.add(new GWDeviceCaptureRecord(direction, time, data));
+      position += RECORD_HEADER_SIZE + data.length;
+    }
+    return results;
+  }
+}
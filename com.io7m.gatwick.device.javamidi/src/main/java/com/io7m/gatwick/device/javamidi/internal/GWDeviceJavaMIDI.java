@@ -24,6 +24,7 @@ import com.io7m.gatwick.device.api.GWDeviceDescription;
 import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
 import com.io7m.gatwick.device.api.GWDeviceResponseOK;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
 import com.io7m.gatwick.device.api.GWDeviceResponseType;
 import com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes;
 import com.io7m.gatwick.device.api.GWDeviceType;
@@ -40,6 +41,7 @@ import javax.sound.midi.MidiDevice;
 import javax.sound.midi.MidiMessage;
 import javax.sound.midi.MidiUnavailableException;
 import javax.sound.midi.Receiver;
+import javax.sound.midi.ShortMessage;
 import javax.sound.midi.SysexMessage;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -47,15 +49,22 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.HexFormat;
 import java.util.Objects;
-import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_MIDI_MESSAGE_INVALID;
 import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_MIDI_SYSTEM_ERROR;
 import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
+import static com.io7m.gatwick.device.javamidi.GWDeviceCaptureDirection.INBOUND;
+import static com.io7m.gatwick.device.javamidi.GWDeviceCaptureDirection.OUTBOUND;
 
 /**
  * The JavaMIDI device implementation.
@@ -73,8 +82,13 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
   private final Receiver receiver;
   private final DeviceMessageReceiver messageReceiver;
   private final AttributeType<Duration> commandRTT;
+  private final GWDeviceJavaMIDIMetrics metrics;
+  private final GWDeviceCaptureBuffer capture;
+  private final AtomicReference<PendingRequest> pending;
   private Instant timeSendStarted;
   private Instant timeSendReceived;
+  private volatile Consumer<GWDeviceResponseRequestData> unsolicited;
+  private volatile IntConsumer programChange;
 
   /**
    * The JavaMIDI device implementation.
@@ -86,7 +100,9 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
     final byte inDeviceIdentifier,
     final CloseableCollectionType<GWDeviceException> inResources,
     final Receiver inReceiver,
-    final DeviceMessageReceiver inMessageReceiver)
+    final DeviceMessageReceiver inMessageReceiver,
+    final GWDeviceJavaMIDIMetrics inMetrics,
+    final GWDeviceCaptureBuffer inCapture)
   {
     this.description =
       Objects.requireNonNull(inDescription, "description");
@@ -100,10 +116,24 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
       Objects.requireNonNull(inReceiver, "receiver");
     this.messageReceiver =
       Objects.requireNonNull(inMessageReceiver, "messageReceiver");
+    this.metrics =
+      Objects.requireNonNull(inMetrics, "metrics");
+    this.capture =
+      Objects.requireNonNull(inCapture, "capture");
+    this.pending =
+      new AtomicReference<>();
     this.timeSendStarted =
       Instant.now();
     this.timeSendReceived =
       Instant.now();
+    this.unsolicited =
+      data -> {
+
+      };
+    this.programChange =
+      program -> {
+
+      };
 
     this.commandRTT =
       Attributes.create(throwable -> {
@@ -192,9 +222,6 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
         throw identityReceiver.failure;
       }
 
-      final var messageReceiver = new DeviceMessageReceiver(configuration);
-      transmitter.setReceiver(messageReceiver);
-
       final var deviceInfo =
         receiverDevice.getDeviceInfo();
 
@@ -215,14 +242,42 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
           identityReceiver.deviceSoftwareVersion
         );
 
-      return new GWDeviceJavaMIDI(
-        info,
-        configuration,
-        identityReceiver.deviceIdentifier,
-        resources,
-        receiver,
-        messageReceiver
-      );
+      final var capture =
+        GWDeviceCaptureBuffer.createDefault();
+      final var metrics =
+        new GWDeviceJavaMIDIMetrics(info, capture);
+
+      final var messageReceiver =
+        new DeviceMessageReceiver(metrics, capture);
+      transmitter.setReceiver(messageReceiver);
+
+      resources.add(metrics.register());
+      final var device =
+        new GWDeviceJavaMIDI(
+          info,
+          configuration,
+          identityReceiver.deviceIdentifier,
+          resources,
+          receiver,
+          messageReceiver,
+          metrics,
+          capture
+        );
+
+      final var dispatcher =
+        Executors.newSingleThreadExecutor(r -> {
+          final var thread = new Thread(r);
+          thread.setDaemon(true);
+          thread.setName(
+            "com.io7m.gatwick.device.javamidi.internal.GWDeviceJavaMIDI[%d]"
+              .formatted(Long.valueOf(thread.getId()))
+          );
+          return thread;
+        });
+
+      resources.add(dispatcher::shutdownNow);
+      dispatcher.execute(device::dispatch);
+      return device;
 
     } catch (final MidiUnavailableException | InvalidMidiDataException e) {
       resources.close();
@@ -233,27 +288,81 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
     }
   }
 
+  /**
+   * A request that is waiting for a response.
+   *
+   * @param address  The requested address
+   * @param response The response
+   */
+
+  private record PendingRequest(
+    int address,
+    CompletableFuture<GWDeviceResponseRequestData> response)
+  {
+
+  }
+
+  /**
+   * A message received from the device.
+   */
+
+  private sealed interface IncomingType
+  {
+
+  }
+
+  /**
+   * A sysex message.
+   *
+   * @param data The message data
+   */
+
+  private record IncomingSysEx(byte[] data)
+    implements IncomingType
+  {
+
+  }
+
+  /**
+   * A program change message.
+   *
+   * @param program The program number
+   */
+
+  private record IncomingProgramChange(int program)
+    implements IncomingType
+  {
+
+  }
+
+  /*
+   * The receiver of messages from the device. This is called on the MIDI
+   * input thread and must therefore never block: sysex and program change
+   * messages are simply handed off to a bounded queue and are interpreted on
+   * the dispatcher thread. Other message types are ignored. If the dispatcher
+   * falls behind, the oldest messages are discarded when the queue fills up.
+   */
+
   private static final class DeviceMessageReceiver implements Receiver
   {
     private static final Logger LOG =
       LoggerFactory.getLogger(DeviceMessageReceiver.class);
 
+    private static final int QUEUE_CAPACITY = 32;
+
     private final HexFormat format;
-    private final CyclicBarrier barrier;
-    private final GWDeviceConfiguration configuration;
-    private volatile int expectCode;
-    private volatile GWDeviceResponseType response;
-    private volatile GWDeviceException failure;
+    private final ArrayBlockingQueue<IncomingType> incoming;
+    private final GWDeviceJavaMIDIMetrics metrics;
+    private final GWDeviceCaptureBuffer capture;
 
     DeviceMessageReceiver(
-      final GWDeviceConfiguration inConfiguration)
+      final GWDeviceJavaMIDIMetrics inMetrics,
+      final GWDeviceCaptureBuffer inCapture)
     {
-      this.configuration =
-        Objects.requireNonNull(inConfiguration, "configuration");
-
       this.format = HexFormat.of();
-      this.barrier = new CyclicBarrier(2);
-      this.expectCode = 0b11111111_11111111_11111111_11111111;
+      this.incoming = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+      this.metrics = Objects.requireNonNull(inMetrics, "metrics");
+      this.capture = Objects.requireNonNull(inCapture, "capture");
     }
 
     @Override
@@ -263,55 +372,72 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
     {
       LOG.trace("received: {}", message);
 
-      this.response = null;
-      this.failure = null;
+      if (message instanceof ShortMessage shortMessage
+          && shortMessage.getCommand() == ShortMessage.PROGRAM_CHANGE) {
+        this.enqueue(new IncomingProgramChange(shortMessage.getData1()));
+        return;
+      }
+
+      if (!(message instanceof SysexMessage sysex)) {
+        LOG.trace("ignoring non-sysex message {}", message);
+        return;
+      }
 
-      try {
-        if (message instanceof SysexMessage sysex) {
-          if (LOG.isTraceEnabled()) {
-            LOG.trace(
-              "received sysex: 0x{}",
-              this.format.formatHex(sysex.getData())
-            );
-          }
+      final var timeReceived = System.nanoTime();
+      final var data = sysex.getData();
+      this.capture.record(INBOUND, timeReceived, sysex.getMessage());
+      this.metrics.onMessageReceived();
+      recordReceived(data);
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("received sysex: 0x{}", this.format.formatHex(data));
+      }
+      this.enqueue(new IncomingSysEx(data));
+    }
 
-          final var data = sysex.getData();
-          try {
-            this.response =
-              GWDeviceMessages.parseResponse(this.expectCode, data);
-          } catch (final GWDeviceException e) {
-            this.failure = e;
-          }
-        } else {
-          throw new GWDeviceException(
-            DEVICE_MIDI_MESSAGE_INVALID,
-            String.format(
-              "Unrecognized message type %s",
-              message.getClass().getName())
-          );
+    private void enqueue(
+      final IncomingType message)
+    {
+      while (!this.incoming.offer(message)) {
+        final var discarded = this.incoming.poll();
+        if (discarded != null) {
+          this.metrics.onMessageDiscarded();
+          LOG.debug("discarding unclaimed message");
         }
-      } catch (final GWDeviceException e) {
-        this.failure = e;
-      } catch (final Exception e) {
-        this.failure = new GWDeviceException(DEVICE_MIDI_SYSTEM_ERROR, e);
       }
+    }
 
-      try {
-        final var timeout =
-          this.configuration.messageTimeout()
-            .toMillis() * 2L;
-
-        this.barrier.await(timeout, TimeUnit.MILLISECONDS);
-      } catch (final Exception e) {
-        final var existing = this.failure;
-        if (existing != null) {
-          existing.addSuppressed(e);
-        } else {
-          this.failure = new GWDeviceException(DEVICE_MIDI_SYSTEM_ERROR, e);
+    private static void recordReceived(
+      final byte[] data)
+    {
+      final var event = new GWDeviceSysExReceiveEvent();
+      if (event.shouldCommit()) {
+        event.size = data.length;
+        if (data.length >= 11) {
+          event.commandCode = (int) data[6] & 0xff;
+          event.address =
+            ((int) data[7] & 0xff) << 24
+            | ((int) data[8] & 0xff) << 16
+            | ((int) data[9] & 0xff) << 8
+            | ((int) data[10] & 0xff);
         }
+        event.commit();
       }
     }
 
+    /**
+     * Wait for the next message.
+     *
+     * @return The message
+     *
+     * @throws InterruptedException On interruption
+     */
+
+    IncomingType take()
+      throws InterruptedException
+    {
+      return this.incoming.take();
+    }
+
     @Override
     public void close()
     {
@@ -446,13 +572,20 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
 
     final var attemptMax = 3;
     for (int attempt = 1; attempt <= attemptMax; ++attempt) {
+      final var event = new GWDeviceSysExSendEvent();
+      event.begin();
       try {
-        return this.sendOneMessage(command, attempt, attemptMax);
+        final var response = this.sendOneMessage(command, attempt, attemptMax);
+        commitSendEvent(event, command, attempt, "ok");
+        return response;
       } catch (final GWDeviceException e) {
+        commitSendEvent(event, command, attempt, e.errorCode().id());
         if (Objects.equals(e.errorCode(), DEVICE_TIMED_OUT)) {
+          this.metrics.onTimeout();
           if (attempt == attemptMax) {
             throw e;
           }
+          this.metrics.onRetry();
           LOG.trace("pausing for retry");
           Thread.sleep(50L);
           continue;
@@ -466,6 +599,28 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
     );
   }
 
+  private static void commitSendEvent(
+    final GWDeviceSysExSendEvent event,
+    final GWDeviceCommandType<?> command,
+    final int attempt,
+    final String outcome)
+  {
+    event.end();
+    if (event.shouldCommit()) {
+      event.commandCode = command.commandCode();
+      event.attempt = attempt;
+      event.outcome = outcome;
+      if (command instanceof GWDeviceCommandSetData set) {
+        event.address = set.address();
+        event.size = set.data().length;
+      } else if (command instanceof GWDeviceCommandRequestData request) {
+        event.address = request.address();
+        event.size = request.size();
+      }
+      event.commit();
+    }
+  }
+
   private <R extends GWDeviceResponseType> R sendOneMessage(
     final GWDeviceCommandType<R> command,
     final int attempt,
@@ -483,85 +638,158 @@ public final class GWDeviceJavaMIDI implements GWDeviceType
       );
     }
 
-    this.messageReceiver.barrier.reset();
-    this.messageReceiver.expectCode = expectCodeFor(command);
-
-    try {
-      this.receiver.send(
-        GWDeviceMessages.serializeCommand(
-          (int) this.deviceIdentifier & 0xff,
-          this.description.deviceManufacturer(),
-          command
-        ),
-        -1L
-      );
-    } catch (final InvalidMidiDataException e) {
-      throw new GWDeviceException(
-        DEVICE_MIDI_MESSAGE_INVALID,
-        e.getMessage(),
-        e
-      );
-    }
-
     /*
-     * If the type of the command implies that there won't be a response,
-     * then simply return immediately.
+     * If the type of the command implies that there will be a response, then
+     * register the request with the dispatcher before the command is sent so
+     * that the response cannot be mistaken for unsolicited data.
      */
 
     final var expectResponse = command.responseClass();
-    if (Objects.equals(expectResponse, GWDeviceResponseOK.class)) {
-      return expectResponse.cast(GWDeviceResponseOK.ok());
+    PendingRequest request = null;
+    if (command instanceof GWDeviceCommandRequestData requestData) {
+      request = new PendingRequest(
+        requestData.address(),
+        new CompletableFuture<>()
+      );
+      this.pending.set(request);
     }
 
-    /*
-     * Otherwise, wait for a response.
-     */
+    try {
+      try {
+        final var message =
+          GWDeviceMessages.serializeCommand(
+            (int) this.deviceIdentifier & 0xff,
+            this.description.deviceManufacturer(),
+            command
+          );
 
-    final var milliseconds =
-      this.configuration.messageTimeout()
-        .toMillis();
+        final var timeSent = System.nanoTime();
+        this.receiver.send(message, -1L);
+        this.capture.record(OUTBOUND, timeSent, message.getMessage());
+        this.metrics.onMessageSent();
+      } catch (final InvalidMidiDataException e) {
+        throw new GWDeviceException(
+          DEVICE_MIDI_MESSAGE_INVALID,
+          e.getMessage(),
+          e
+        );
+      }
 
-    try {
-      this.messageReceiver.barrier.await(milliseconds, TimeUnit.MILLISECONDS);
-    } catch (final BrokenBarrierException | TimeoutException e) {
-      throw new GWDeviceException(
-        DEVICE_TIMED_OUT, "Timed out waiting for message response."
-      );
-    }
+      if (request == null) {
+        return expectResponse.cast(GWDeviceResponseOK.ok());
+      }
 
-    this.timeSendReceived = Instant.now();
-    this.commandRTT.set(Duration.between(this.timeSendStarted, this.timeSendReceived));
+      final GWDeviceResponseRequestData response;
+      try {
+        response = request.response().get(
+          this.configuration.messageTimeout().toNanos(),
+          TimeUnit.NANOSECONDS
+        );
+      } catch (final TimeoutException e) {
+        throw new GWDeviceException(
+          DEVICE_TIMED_OUT, "Timed out waiting for message response."
+        );
+      } catch (final ExecutionException e) {
+        throw new IllegalStateException(e);
+      }
 
-    final var response = this.messageReceiver.response;
-    if (response == null) {
-      throw this.messageReceiver.failure;
+      this.timeSendReceived = Instant.now();
+      this.commandRTT.set(
+        Duration.between(this.timeSendStarted, this.timeSendReceived));
+      return expectResponse.cast(response);
+    } finally {
+      if (request != null) {
+        this.pending.compareAndSet(request, null);
+      }
     }
+  }
+
+  /*
+   * Interpret messages received from the device until the dispatcher is
+   * shut down.
+   */
+
+  private void dispatch()
+  {
+    while (true) {
+      final IncomingType message;
+      try {
+        message = this.messageReceiver.take();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
 
-    return expectResponse.cast(response);
+      try {
+        if (message instanceof IncomingSysEx sysex) {
+          this.onMessage(sysex.data());
+        } else if (message instanceof IncomingProgramChange change) {
+          this.programChange.accept(change.program());
+        }
+      } catch (final Exception e) {
+        LOG.error("message dispatch: ", e);
+      }
+    }
   }
 
-  private static int expectCodeFor(
-    final GWDeviceCommandType<?> command)
+  private void onMessage(
+    final byte[] message)
   {
     /*
-     * An RQ1 (0x11) command provokes a DT1 (0x12) response.
+     * Only DT1 messages are of any interest. Anything else (including
+     * messages from other manufacturers' devices) is ignored.
      */
 
-    if (command instanceof GWDeviceCommandRequestData) {
-      return 0x12;
+    final GWDeviceResponseType response;
+    try {
+      response = GWDeviceMessages.parseResponse(0x12, message);
+    } catch (final GWDeviceException e) {
+      LOG.debug("ignoring unrecognized message: {}", e.getMessage());
+      return;
+    }
+
+    if (!(response instanceof GWDeviceResponseRequestData data)) {
+      return;
     }
 
     /*
-     * An DT1 (0x12) command provokes no response.
+     * A DT1 message for the address of the waiting request is the response
+     * to that request. Anything else is either unsolicited, or is a late
+     * reply to an earlier request. Either way, it's passed to the unsolicited
+     * data handler so that anything caching device memory can discard stale
+     * values.
      */
 
-    if (command instanceof GWDeviceCommandSetData) {
-      return -1;
+    final var request = this.pending.get();
+    if (request != null
+        && request.address() == data.address()
+        && this.pending.compareAndSet(request, null)) {
+      request.response().complete(data);
+      return;
     }
 
-    throw new IllegalStateException(
-      "Unrecognized command: %s".formatted(command)
-    );
+    if (request != null) {
+      LOG.debug(
+        "unclaimed response for address 0x{} (expected 0x{})",
+        Integer.toUnsignedString(data.address(), 16),
+        Integer.toUnsignedString(request.address(), 16)
+      );
+    }
+    this.unsolicited.accept(data);
+  }
+
+  @Override
+  public void setUnsolicitedDataHandler(
+    final Consumer<GWDeviceResponseRequestData> handler)
+  {
+    this.unsolicited = Objects.requireNonNull(handler, "handler");
+  }
+
+  @Override
+  public void setProgramChangeHandler(
+    final IntConsumer handler)
+  {
+    this.programChange = Objects.requireNonNull(handler, "handler");
   }
 
   @Override
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.javamidi.internal;
+
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.javamidi.GWDeviceCapture;
+import com.io7m.gatwick.device.javamidi.GWDeviceCaptureFiles;
+import com.io7m.gatwick.device.javamidi.GWDeviceJavaMIDIMetricsMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters maintained for an open device. The counters are updated from
+ * the MIDI input thread and from whichever threads are sending commands, and
+ * are therefore striped so that updates do not contend with each other.
+ */
+
+final class GWDeviceJavaMIDIMetrics implements GWDeviceJavaMIDIMetricsMXBean
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWDeviceJavaMIDIMetrics.class);
+
+  private static final AtomicLong IDS =
+    new AtomicLong();
+
+  private final GWDeviceDescription description;
+  private final GWDeviceCaptureBuffer capture;
+  private final String deviceName;
+  private final LongAdder messagesSent;
+  private final LongAdder messagesReceived;
+  private final LongAdder messagesDiscarded;
+  private final LongAdder retries;
+  private final LongAdder timeouts;
+
+  GWDeviceJavaMIDIMetrics(
+    final GWDeviceDescription inDescription,
+    final GWDeviceCaptureBuffer inCapture)
+  {
+    this.description =
+      Objects.requireNonNull(inDescription, "description");
+    this.capture =
+      Objects.requireNonNull(inCapture, "capture");
+    this.deviceName =
+      inDescription.midiDevice().midiDeviceName();
+    this.messagesSent =
+      new LongAdder();
+    this.messagesReceived =
+      new LongAdder();
+    this.messagesDiscarded =
+      new LongAdder();
+    this.retries =
+      new LongAdder();
+    this.timeouts =
+      new LongAdder();
+  }
+
+  /**
+   * Register the metrics with the platform MBean server. Failing to register
+   * is not fatal; the device simply remains unobservable.
+   *
+   * @return An action that unregisters the metrics
+   */
+
+  AutoCloseable register()
+  {
+    try {
+      final var server =
+        ManagementFactory.getPlatformMBeanServer();
+      final var name =
+        new ObjectName(
+          "com.io7m.gatwick:type=Device,name=%s,id=%d".formatted(
+            ObjectName.quote(this.deviceName),
+            Long.valueOf(IDS.incrementAndGet())
+          )
+        );
+
+      server.registerMBean(this, name);
+      return () -> server.unregisterMBean(name);
+    } catch (final JMException e) {
+      LOG.warn("unable to register device metrics: ", e);
+      return () -> {
+
+      };
+    }
+  }
+
+  void onMessageSent()
+  {
+    this.messagesSent.increment();
+  }
+
+  void onMessageReceived()
+  {
+    this.messagesReceived.increment();
+  }
+
+  void onMessageDiscarded()
+  {
+    this.messagesDiscarded.increment();
+  }
+
+  void onRetry()
+  {
+    this.retries.increment();
+  }
+
+  void onTimeout()
+  {
+    this.timeouts.increment();
+  }
+
+  @Override
+  public String getDeviceName()
+  {
+    return this.deviceName;
+  }
+
+  @Override
+  public long getMessagesSent()
+  {
+    return this.messagesSent.sum();
+  }
+
+  @Override
+  public long getMessagesReceived()
+  {
+    return this.messagesReceived.sum();
+  }
+
+  @Override
+  public long getMessagesDiscarded()
+  {
+    return this.messagesDiscarded.sum();
+  }
+
+  @Override
+  public long getRetries()
+  {
+    return this.retries.sum();
+  }
+
+  @Override
+  public long getTimeouts()
+  {
+    return this.timeouts.sum();
+  }
+
+  @Override
+  public int getCapturedMessages()
+  {
+    return this.capture.size();
+  }
+
+  @Override
+  public void writeCapture(
+    final String file)
+    throws IOException
+  {
+    GWDeviceCaptureFiles.write(
+      Paths.get(file),
+      new GWDeviceCapture(this.description, this.capture.snapshot())
+    );
+  }
+}
@@ -163,6 +163,70 @@ public final class GWDeviceMessages
     );
   }
 
+  /**
+   * Parse a complete command message (including the leading status byte)
+   * of the kind produced by {@link #serializeCommand(int, int, GWDeviceCommandType)}.
+   *
+   * @param message The message
+   *
+   * @return A parsed command
+   *
+   * @throws GWDeviceException On errors
+   */
+
+  public static GWDeviceCommandType<?> parseCommand(
+    final byte[] message)
+    throws GWDeviceException
+  {
+    // Status, manufacturer, device, model ID, command, address, checksum, EOM
+    final var sizeNotData = 1 + 1 + 1 + 4 + 1 + 4 + 1 + 1;
+    if (message.length < sizeNotData) {
+      throw new GWDeviceException(
+        DEVICE_MIDI_MESSAGE_INVALID,
+        String.format(
+          "A message of length %d is too short to be a valid command message.",
+          Integer.valueOf(message.length))
+      );
+    }
+
+    final var buffer =
+      ByteBuffer.wrap(message)
+        .order(BIG_ENDIAN);
+    final var commandId =
+      (int) message[7] & 0xff;
+    final var address =
+      buffer.getInt(8);
+
+    return switch (commandId) {
+      case COMMAND_DATA_SET -> {
+        yield new GWDeviceCommandSetData(
+          address,
+          Arrays.copyOfRange(message, 12, message.length - 2)
+        );
+      }
+      case COMMAND_DATA_REQUEST -> {
+        if (message.length != sizeNotData + 4) {
+          throw new GWDeviceException(
+            DEVICE_MIDI_MESSAGE_INVALID,
+            String.format(
+              "A request message must be of length %d (received %d).",
+              Integer.valueOf(sizeNotData + 4),
+              Integer.valueOf(message.length))
+          );
+        }
+        yield new GWDeviceCommandRequestData(address, buffer.getInt(12));
+      }
+      default -> {
+        throw new GWDeviceException(
+          DEVICE_WRONG_MESSAGE_TYPE,
+          String.format(
+            "Unrecognized message type 0x%02x",
+            Integer.valueOf(commandId))
+        );
+      }
+    };
+  }
+
   /**
    * Serialize a command.
    *
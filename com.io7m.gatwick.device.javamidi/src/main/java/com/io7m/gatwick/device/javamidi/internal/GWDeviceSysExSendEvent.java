@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.device.javamidi.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event covering a single attempt to send a SysEx command
+ * to the device, including the wait for the response. The duration of the
+ * event is the latency of the attempt.
+ */
+
+@Name("com.io7m.gatwick.device.javamidi.SysExSend")
+@Label("SysEx Send")
+@Category({"Gatwick", "Device"})
+@Description("An attempt to send a command to the device and receive a response.")
+@StackTrace(false)
+final class GWDeviceSysExSendEvent extends Event
+{
+  @Label("Command Code")
+  int commandCode;
+
+  @Label("Address")
+  int address;
+
+  @Label("Size")
+  @Description("The number of bytes written, or the encoded size requested.")
+  int size;
+
+  @Label("Attempt")
+  int attempt;
+
+  @Label("Outcome")
+  String outcome;
+
+  GWDeviceSysExSendEvent()
+  {
+
+  }
+}
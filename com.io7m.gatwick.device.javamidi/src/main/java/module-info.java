@@ -32,6 +32,8 @@ module com.io7m.gatwick.device.javamidi
   requires com.io7m.jmulticlose.core;
   requires com.io7m.taskrecorder.core;
   requires java.desktop;
+  requires java.management;
+  requires jdk.jfr;
   requires org.slf4j;
 
   provides GWDeviceFactoryType
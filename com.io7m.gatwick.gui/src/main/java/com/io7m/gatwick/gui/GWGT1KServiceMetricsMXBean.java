@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui;
+
+/**
+ * The management interface exposed by the GT-1000 service. The service
+ * executes all device operations on a single executor; these figures
+ * describe how much work is waiting for it.
+ */
+
+public interface GWGT1KServiceMetricsMXBean
+{
+  /**
+   * @return The number of tasks submitted to the device executor that have
+   * not yet started
+   */
+
+  long getExecutorQueueDepth();
+
+  /**
+   * @return The number of background tasks waiting to be scheduled
+   */
+
+  int getBackgroundQueueDepth();
+
+  /**
+   * @return The number of tasks the device executor has completed
+   */
+
+  long getTasksExecuted();
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal;
+
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+import com.io7m.repetoir.core.RPServiceType;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.layout.Pane;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of screens that have been loaded ahead of time. Screens are
+ * typically preloaded during boot, while the splash screen is visible, so
+ * that the first transition to a screen does not need to wait for the FXML
+ * to be parsed and for the controller and its panels to be constructed.
+ */
+
+public final class GWScreenCache implements RPServiceType
+{
+  private final RPServiceDirectoryType services;
+  private final ConcurrentHashMap<String, Pane> screens;
+
+  private GWScreenCache(
+    final RPServiceDirectoryType inServices)
+  {
+    this.services =
+      Objects.requireNonNull(inServices, "services");
+    this.screens =
+      new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Create a new screen cache.
+   *
+   * @param services The service directory
+   *
+   * @return A screen cache
+   */
+
+  public static GWScreenCache create(
+    final RPServiceDirectoryType services)
+  {
+    return new GWScreenCache(services);
+  }
+
+  /**
+   * @param name The screen name, such as {@code preset.fxml}
+   *
+   * @return The URL of the FXML for the given screen
+   */
+
+  public static URL screenURL(
+    final String name)
+  {
+    final var xml =
+      GWScreenCache.class.getResource(
+        "/com/io7m/gatwick/gui/internal/" + name);
+    return Objects.requireNonNull(xml, "xml");
+  }
+
+  /**
+   * Preload the given screen. The FXML is read on the calling thread, and
+   * the screen is then constructed on the FX application thread.
+   *
+   * @param name The screen name, such as {@code preset.fxml}
+   *
+   * @return The operation in progress
+   */
+
+  public CompletableFuture<Pane> preload(
+    final String name)
+  {
+    Objects.requireNonNull(name, "name");
+
+    final var future = new CompletableFuture<Pane>();
+    try {
+      final var xml = screenURL(name);
+      final byte[] data;
+      try (var stream = xml.openStream()) {
+        data = stream.readAllBytes();
+      }
+
+      Platform.runLater(() -> {
+        try {
+          final var strings =
+            this.services.requireService(GWStrings.class);
+          final var controllers =
+            this.services.requireService(GWScreenControllerFactory.class);
+
+          final var loader = new FXMLLoader(xml, strings.resources());
+          loader.setControllerFactory(controllers);
+
+          final Pane pane = loader.load(new ByteArrayInputStream(data));
+          this.screens.put(name, pane);
+          future.complete(pane);
+        } catch (final Throwable e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (final IOException e) {
+      future.completeExceptionally(new UncheckedIOException(e));
+    }
+    return future;
+  }
+
+  /**
+   * Take the preloaded screen with the given name, if one exists. A
+   * preloaded screen can be taken only once; subsequent calls return
+   * nothing.
+   *
+   * @param name The screen name, such as {@code preset.fxml}
+   *
+   * @return The preloaded screen, if any
+   */
+
+  public Optional<Pane> take(
+    final String name)
+  {
+    return Optional.ofNullable(this.screens.remove(name));
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format("[GWScreenCache 0x%08x]", this.hashCode());
+  }
+
+  @Override
+  public String description()
+  {
+    return "Screen cache service.";
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.debug;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.gui.internal.gt.GWGT1KServiceType;
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning.TASK_LONG;
+import static com.io7m.gatwick.iovar.GWIOAddresses.addressOf;
+
+/**
+ * Measure the link to the device by issuing requests of increasing size and
+ * reporting the latency and throughput at each size. Small requests are
+ * dominated by the round-trip time, and large requests by the bandwidth of
+ * the link, so the sweep shows which of the two is at fault on a slow unit.
+ */
+
+final class GWDCBenchLink extends GWDCAbstract
+{
+  private static final int DEFAULT_COUNT = 10;
+  private static final int MAXIMUM_SIZE = 128;
+
+  /*
+   * The program change map is large enough to satisfy a request of any
+   * size in the sweep.
+   */
+
+  private static final int ADDRESS = 0x0010_0000;
+
+  GWDCBenchLink(
+    final RPServiceDirectoryType inServices,
+    final String inName,
+    final List<String> inArguments)
+  {
+    super(inServices, inName, inArguments);
+  }
+
+  @Override
+  public void execute(
+    final GWDebugClientType client)
+    throws Exception
+  {
+    final var args = this.arguments();
+    final int count;
+    switch (args.size()) {
+      case 0 -> count = DEFAULT_COUNT;
+      case 1 -> count = Integer.decode(args.get(0)).intValue();
+      default -> {
+        client.writeLine("error: usage: %s [COUNT]".formatted(this.name()));
+        return;
+      }
+    }
+
+    if (count <= 0) {
+      client.writeLine("error: count must be positive");
+      return;
+    }
+
+    final var gt =
+      this.services().requireService(GWGT1KServiceType.class);
+
+    try {
+      gt.executeOnDevice(TASK_LONG, controller -> {
+        final var device = controller.device();
+
+        for (int size = 1; size <= MAXIMUM_SIZE; size *= 2) {
+          final var command =
+            new GWDeviceCommandRequestData(ADDRESS, addressOf(size));
+
+          var minimum = Long.MAX_VALUE;
+          var maximum = 0L;
+          var total = 0L;
+
+          for (int index = 0; index < count; ++index) {
+            final var timeThen = System.nanoTime();
+            device.sendCommand(command);
+            final var time = System.nanoTime() - timeThen;
+
+            minimum = Math.min(minimum, time);
+            maximum = Math.max(maximum, time);
+            total += time;
+          }
+
+          final var bytesPerSecond =
+            ((long) size * count * 1_000_000_000L) / Math.max(1L, total);
+
+          client.writeLine(
+            ("bench-link: size %d min-us %d mean-us %d max-us %d "
+             + "bytes-per-second %d").formatted(
+                Integer.valueOf(size),
+                Long.valueOf(minimum / 1_000L),
+                Long.valueOf(total / count / 1_000L),
+                Long.valueOf(maximum / 1_000L),
+                Long.valueOf(bytesPerSecond)
+              )
+          );
+        }
+      }).get();
+    } catch (final ExecutionException e) {
+      client.writeLine("error: %s".formatted(e.getCause().getMessage()));
+    }
+  }
+}
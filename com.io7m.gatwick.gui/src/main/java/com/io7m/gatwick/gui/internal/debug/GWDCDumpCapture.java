@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.debug;
+
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Write the SysEx capture buffer of every open device to a capture file.
+ */
+
+final class GWDCDumpCapture extends GWDCAbstract
+{
+  GWDCDumpCapture(
+    final RPServiceDirectoryType inServices,
+    final String inName,
+    final List<String> inArguments)
+  {
+    super(inServices, inName, inArguments);
+  }
+
+  @Override
+  public void execute(
+    final GWDebugClientType client)
+    throws Exception
+  {
+    final var args = this.arguments();
+    if (args.size() != 1) {
+      client.writeLine("error: usage: %s output.gwcp".formatted(this.name()));
+      return;
+    }
+
+    final var server =
+      ManagementFactory.getPlatformMBeanServer();
+    final var query =
+      new ObjectName("com.io7m.gatwick:type=Device,*");
+    final var names =
+      new TreeSet<>(server.queryNames(query, null));
+
+    if (names.isEmpty()) {
+      client.writeLine("error: no devices are open");
+      return;
+    }
+
+    var index = 0;
+    for (final var name : names) {
+      final var output =
+        names.size() == 1 ? args.get(0) : "%s.%d".formatted(args.get(0), index);
+
+      server.invoke(
+        name,
+        "writeCapture",
+        new Object[]{output},
+        new String[]{String.class.getName()}
+      );
+
+      client.writeLine(
+        "info: wrote capture of %s to %s".formatted(name, output));
+      ++index;
+    }
+  }
+}
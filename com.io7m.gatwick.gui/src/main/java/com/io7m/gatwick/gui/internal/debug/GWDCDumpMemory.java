@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.debug;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.gui.internal.gt.GWGT1KServiceType;
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning.TASK_LONG;
+import static com.io7m.gatwick.iovar.GWIOAddresses.addressOf;
+import static com.io7m.gatwick.iovar.GWIOAddresses.linearOf;
+
+/**
+ * Read a range of device memory and send it to the client as raw bytes,
+ * preceded by a single line giving the address and size. The range is read
+ * in the largest blocks the device will accept.
+ */
+
+final class GWDCDumpMemory extends GWDCAbstract
+{
+  private static final int MAXIMUM_TRANSFER_SIZE = 128;
+  private static final int MAXIMUM_SIZE = 0x10_0000;
+
+  GWDCDumpMemory(
+    final RPServiceDirectoryType inServices,
+    final String inName,
+    final List<String> inArguments)
+  {
+    super(inServices, inName, inArguments);
+  }
+
+  @Override
+  public void execute(
+    final GWDebugClientType client)
+    throws Exception
+  {
+    final var args = this.arguments();
+    if (args.size() != 2) {
+      client.writeLine("error: usage: %s ADDRESS SIZE".formatted(this.name()));
+      return;
+    }
+
+    final var address =
+      Integer.decode(args.get(0)).intValue();
+    final var size =
+      Integer.decode(args.get(1)).intValue();
+
+    if (size <= 0 || size > MAXIMUM_SIZE) {
+      client.writeLine(
+        "error: size must be in the range [1, %d]"
+          .formatted(Integer.valueOf(MAXIMUM_SIZE))
+      );
+      return;
+    }
+
+    final var data =
+      new byte[size];
+    final var gt =
+      this.services().requireService(GWGT1KServiceType.class);
+
+    try {
+      gt.executeOnDevice(TASK_LONG, controller -> {
+        readInto(controller.device(), address, data);
+      }).get();
+    } catch (final ExecutionException e) {
+      client.writeLine("error: %s".formatted(e.getCause().getMessage()));
+      return;
+    }
+
+    client.writeLine(
+      "data: 0x%08x %d"
+        .formatted(Integer.valueOf(address), Integer.valueOf(size))
+    );
+    client.writeBinary(data);
+  }
+
+  private static void readInto(
+    final GWDeviceType device,
+    final int address,
+    final byte[] data)
+    throws GWDeviceException, InterruptedException
+  {
+    /*
+     * Sizes and offsets are linear, but the device expects both addresses
+     * and sizes in the encoded 7-bit form.
+     */
+
+    final var base = linearOf(address);
+    var offset = 0;
+    while (offset < data.length) {
+      final var size =
+        Math.min(MAXIMUM_TRANSFER_SIZE, data.length - offset);
+      final var response =
+        device.sendCommand(
+          new GWDeviceCommandRequestData(
+            addressOf(base + offset),
+            addressOf(size)
+          )
+        );
+
+      final var received = response.data();
+      System.arraycopy(
+        received, 0, data, offset, Math.min(size, received.length));
+      offset += size;
+    }
+  }
+}
@@ -21,7 +21,6 @@ import com.io7m.gatwick.gui.internal.gt.GWGT1KServiceType;
 import com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
 
-import java.io.BufferedWriter;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
@@ -42,14 +41,12 @@ final class GWDCDumpSignalChain extends GWDCAbstract
 
   @Override
   public void execute(
-    final BufferedWriter writer)
+    final GWDebugClientType client)
     throws Exception
   {
     final var args = this.arguments();
     if (args.size() < 1) {
-      writer.write("error: usage: %s output.txt".formatted(this.name()));
-      writer.newLine();
-      writer.flush();
+      client.writeLine("error: usage: %s output.txt".formatted(this.name()));
       return;
     }
 
@@ -74,9 +71,7 @@ final class GWDCDumpSignalChain extends GWDCAbstract
         CREATE
       );
 
-      writer.write("info: wrote to %s".formatted(output));
-      writer.newLine();
-      writer.flush();
+      client.writeLine("info: wrote to %s".formatted(output));
     });
   }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.debug;
+
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Print the counters and latency histograms of every registered controller,
+ * device, and service.
+ */
+
+final class GWDCStats extends GWDCAbstract
+{
+  GWDCStats(
+    final RPServiceDirectoryType inServices,
+    final String inName,
+    final List<String> inArguments)
+  {
+    super(inServices, inName, inArguments);
+  }
+
+  private static String latencyBucketName(
+    final int index,
+    final int count)
+  {
+    if (index == count - 1) {
+      return ">=%dms".formatted(Integer.valueOf(1 << (index - 1)));
+    }
+    return "<%dms".formatted(Integer.valueOf(1 << index));
+  }
+
+  @Override
+  public void execute(
+    final GWDebugClientType client)
+    throws Exception
+  {
+    final var server =
+      ManagementFactory.getPlatformMBeanServer();
+    final var names =
+      new TreeSet<>(
+        server.queryNames(new ObjectName("com.io7m.gatwick:*"), null)
+      );
+
+    if (names.isEmpty()) {
+      client.writeLine("info: no statistics are available");
+      return;
+    }
+
+    for (final var name : names) {
+      client.writeLine("stats: %s".formatted(name));
+
+      for (final var attribute : server.getMBeanInfo(name).getAttributes()) {
+        final var attributeName =
+          attribute.getName();
+        final var value =
+          server.getAttribute(name, attributeName);
+
+        if (value instanceof long[] histogram) {
+          for (int index = 0; index < histogram.length; ++index) {
+            client.writeLine("  %s %s %d".formatted(
+              attributeName,
+              latencyBucketName(index, histogram.length),
+              Long.valueOf(histogram[index])
+            ));
+          }
+        } else {
+          client.writeLine("  %s %s".formatted(attributeName, value));
+        }
+      }
+    }
+  }
+}
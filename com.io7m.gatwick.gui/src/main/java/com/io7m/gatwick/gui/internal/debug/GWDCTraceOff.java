@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.debug;
+
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+
+import java.util.List;
+
+/**
+ * Stop streaming SysEx traffic to the client.
+ */
+
+final class GWDCTraceOff extends GWDCAbstract
+{
+  GWDCTraceOff(
+    final RPServiceDirectoryType inServices,
+    final String inName,
+    final List<String> inArguments)
+  {
+    super(inServices, inName, inArguments);
+  }
+
+  @Override
+  public void execute(
+    final GWDebugClientType client)
+    throws Exception
+  {
+    if (client.traceStop()) {
+      client.writeLine("info: tracing stopped");
+    } else {
+      client.writeLine("info: tracing was not running");
+    }
+  }
+}
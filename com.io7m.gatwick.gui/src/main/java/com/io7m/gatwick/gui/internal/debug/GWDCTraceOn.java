@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.debug;
+
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stream the SysEx traffic exchanged with the device to the client. The
+ * traffic is observed through the flight recorder events emitted by the
+ * device implementation, and so arrives in batches as the recorder flushes
+ * (roughly once per second).
+ */
+
+final class GWDCTraceOn extends GWDCAbstract
+{
+  private static final String EVENT_SEND =
+    "com.io7m.gatwick.device.javamidi.SysExSend";
+  private static final String EVENT_RECEIVE =
+    "com.io7m.gatwick.device.javamidi.SysExReceive";
+
+  GWDCTraceOn(
+    final RPServiceDirectoryType inServices,
+    final String inName,
+    final List<String> inArguments)
+  {
+    super(inServices, inName, inArguments);
+  }
+
+  @Override
+  public void execute(
+    final GWDebugClientType client)
+    throws Exception
+  {
+    final var stream = new RecordingStream();
+    stream.enable(EVENT_SEND);
+    stream.enable(EVENT_RECEIVE);
+
+    stream.onEvent(EVENT_SEND, event -> {
+      final var line =
+        "trace: send %s attempt %d outcome %s time-us %d".formatted(
+          describe(event),
+          Integer.valueOf(event.getInt("attempt")),
+          event.getString("outcome"),
+          Long.valueOf(event.getDuration().toNanos() / 1_000L)
+        );
+      traceLine(client, stream, line);
+    });
+
+    stream.onEvent(EVENT_RECEIVE, event -> {
+      final var line =
+        "trace: receive %s".formatted(describe(event));
+      traceLine(client, stream, line);
+    });
+
+    client.traceStart(stream);
+    stream.startAsync();
+    client.writeLine("info: tracing started");
+  }
+
+  private static String describe(
+    final RecordedEvent event)
+  {
+    return "command 0x%02x address 0x%08x size %d".formatted(
+      Integer.valueOf(event.getInt("commandCode")),
+      Integer.valueOf(event.getInt("address")),
+      Integer.valueOf(event.getInt("size"))
+    );
+  }
+
+  private static void traceLine(
+    final GWDebugClientType client,
+    final RecordingStream stream,
+    final String line)
+  {
+    try {
+      client.writeLine(line);
+    } catch (final IOException e) {
+      stream.close();
+    }
+  }
+}
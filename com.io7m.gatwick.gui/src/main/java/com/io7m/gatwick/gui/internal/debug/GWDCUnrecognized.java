@@ -19,7 +19,6 @@ package com.io7m.gatwick.gui.internal.debug;
 
 import com.io7m.repetoir.core.RPServiceDirectoryType;
 
-import java.io.BufferedWriter;
 import java.util.List;
 
 final class GWDCUnrecognized extends GWDCAbstract
@@ -34,11 +33,9 @@ final class GWDCUnrecognized extends GWDCAbstract
 
   @Override
   public void execute(
-    final BufferedWriter writer)
+    final GWDebugClientType client)
     throws Exception
   {
-    writer.write("Unrecognized command: " + this.name());
-    writer.newLine();
-    writer.flush();
+    client.writeLine("Unrecognized command: " + this.name());
   }
 }
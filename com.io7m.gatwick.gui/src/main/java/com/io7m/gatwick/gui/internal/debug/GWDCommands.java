@@ -41,7 +41,13 @@ final class GWDCommands
 
     this.commands =
       ofEntries(
-        entry("dump-chain", GWDCDumpSignalChain::new)
+        entry("bench-link", GWDCBenchLink::new),
+        entry("dump-capture", GWDCDumpCapture::new),
+        entry("dump-chain", GWDCDumpSignalChain::new),
+        entry("dump-memory", GWDCDumpMemory::new),
+        entry("stats", GWDCStats::new),
+        entry("trace-off", GWDCTraceOff::new),
+        entry("trace-on", GWDCTraceOn::new)
       );
   }
 
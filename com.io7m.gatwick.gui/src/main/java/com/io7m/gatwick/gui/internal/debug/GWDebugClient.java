@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.debug;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A client connected to the debug server. Text and binary output share a
+ * single stream, and writes are serialized so that lines produced by a
+ * running trace are never interleaved with the output of a command.
+ */
+
+final class GWDebugClient implements GWDebugClientType, AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWDebugClient.class);
+
+  private final Socket socket;
+  private final OutputStream output;
+  private final Object outputLock;
+  private final AtomicReference<AutoCloseable> trace;
+
+  GWDebugClient(
+    final Socket inSocket)
+    throws IOException
+  {
+    this.socket =
+      Objects.requireNonNull(inSocket, "socket");
+    this.output =
+      new BufferedOutputStream(inSocket.getOutputStream());
+    this.outputLock =
+      new Object();
+    this.trace =
+      new AtomicReference<>();
+  }
+
+  Socket socket()
+  {
+    return this.socket;
+  }
+
+  @Override
+  public void writeLine(
+    final String line)
+    throws IOException
+  {
+    Objects.requireNonNull(line, "line");
+
+    final var data = (line + "\n").getBytes(UTF_8);
+    synchronized (this.outputLock) {
+      this.output.write(data);
+      this.output.flush();
+    }
+  }
+
+  @Override
+  public void writeBinary(
+    final byte[] data)
+    throws IOException
+  {
+    Objects.requireNonNull(data, "data");
+
+    synchronized (this.outputLock) {
+      this.output.write(data);
+      this.output.flush();
+    }
+  }
+
+  @Override
+  public void traceStart(
+    final AutoCloseable newTrace)
+  {
+    Objects.requireNonNull(newTrace, "trace");
+    closeTrace(this.trace.getAndSet(newTrace));
+  }
+
+  @Override
+  public boolean traceStop()
+  {
+    final var existing = this.trace.getAndSet(null);
+    closeTrace(existing);
+    return existing != null;
+  }
+
+  private static void closeTrace(
+    final AutoCloseable existing)
+  {
+    if (existing != null) {
+      try {
+        existing.close();
+      } catch (final Exception e) {
+        LOG.debug("failed to close trace: ", e);
+      }
+    }
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    this.traceStop();
+    this.socket.close();
+  }
+}
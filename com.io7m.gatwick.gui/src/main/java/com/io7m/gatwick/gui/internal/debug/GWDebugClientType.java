@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.debug;
+
+import java.io.IOException;
+
+/**
+ * A client connected to the debug server. Output methods may be called from
+ * any thread.
+ */
+
+public interface GWDebugClientType
+{
+  /**
+   * Write a line of text to the client.
+   *
+   * @param line The line
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void writeLine(String line)
+    throws IOException;
+
+  /**
+   * Write raw bytes to the client.
+   *
+   * @param data The data
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void writeBinary(byte[] data)
+    throws IOException;
+
+  /**
+   * Start tracing, replacing (and closing) any trace that is already running.
+   * The trace is closed when the client disconnects.
+   *
+   * @param trace The trace
+   */
+
+  void traceStart(AutoCloseable trace);
+
+  /**
+   * Stop any running trace.
+   *
+   * @return {@code true} if a trace was running
+   */
+
+  boolean traceStop();
+}
@@ -17,8 +17,6 @@
 
 package com.io7m.gatwick.gui.internal.debug;
 
-import java.io.BufferedWriter;
-
 /**
  * A debug command.
  */
@@ -26,13 +24,13 @@ import java.io.BufferedWriter;
 public interface GWDebugCommandType
 {
   /**
-   * Execute the command, writing the result to {@code writer}.
+   * Execute the command, writing the result to {@code client}.
    *
-   * @param writer The writer
+   * @param client The client
    *
    * @throws Exception On errors
    */
 
-  void execute(BufferedWriter writer)
+  void execute(GWDebugClientType client)
     throws Exception;
 }
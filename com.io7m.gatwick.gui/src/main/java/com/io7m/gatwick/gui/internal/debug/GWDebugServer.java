@@ -27,15 +27,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -43,7 +43,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * The debug server.
+ * The debug server. The server and each connected client run on their own
+ * virtual thread, so a client that is streaming a trace or waiting on a slow
+ * device costs nothing but a little memory.
  */
 
 public final class GWDebugServer implements AutoCloseable
@@ -55,6 +57,7 @@ public final class GWDebugServer implements AutoCloseable
   private final AtomicBoolean close;
   private final ExecutorService executor;
   private final GWDCommands commands;
+  private final Set<GWDebugClient> clients;
 
   /**
    * Create a debug server.
@@ -77,16 +80,17 @@ public final class GWDebugServer implements AutoCloseable
     final var close =
       new AtomicBoolean(false);
 
+    final var threads =
+      Thread.ofVirtual().factory();
+
     final var executor =
-      Executors.newCachedThreadPool(r -> {
-        final var th = new Thread(r);
-        th.setDaemon(true);
+      Executors.newThreadPerTaskExecutor(r -> {
+        final var th = threads.newThread(r);
         th.setName("com.io7m.gatwick.gui.internal.debug.GWDebugServer[%d]"
-                     .formatted(th.getId()));
+                     .formatted(th.threadId()));
         return th;
       });
 
-    resources.add(() -> close.set(true));
     resources.add(executor::shutdown);
 
     final var commands =
@@ -95,6 +99,7 @@ public final class GWDebugServer implements AutoCloseable
     final var server =
       new GWDebugServer(resources, close, executor, commands);
 
+    resources.add(server::closeClients);
     executor.execute(() -> server.runDebugServer(debug));
     return server;
   }
@@ -113,6 +118,8 @@ public final class GWDebugServer implements AutoCloseable
       Objects.requireNonNull(inExecutor, "executor");
     this.commands =
       Objects.requireNonNull(inCommands, "commands");
+    this.clients =
+      ConcurrentHashMap.newKeySet();
   }
 
   private void runDebugServer(
@@ -132,11 +139,15 @@ public final class GWDebugServer implements AutoCloseable
           this.executor.execute(() -> this.runDebugClient(clientSocket));
         }
       } catch (final IOException e) {
+        if (!this.continueRunning()) {
+          return;
+        }
         LOG.error("failed to open socket: ", e);
         try {
           Thread.sleep(2_000L);
         } catch (final InterruptedException ex) {
           Thread.currentThread().interrupt();
+          return;
         }
       }
     }
@@ -145,57 +156,65 @@ public final class GWDebugServer implements AutoCloseable
   private void runDebugClient(
     final Socket socket)
   {
-    try {
-      try (var clientResources = CloseableCollection.create()) {
-        final var inputReader =
-          clientResources.add(new InputStreamReader(
-            socket.getInputStream(),
-            UTF_8)
-          );
-
-        final var bufferedReader =
-          clientResources.add(new BufferedReader(inputReader));
-        final var outputWriter =
-          clientResources.add(new OutputStreamWriter(
-            socket.getOutputStream(),
-            UTF_8));
-        final var bufferedWriter =
-          clientResources.add(new BufferedWriter(outputWriter));
+    try (var client = new GWDebugClient(socket)) {
+      this.clients.add(client);
+      try {
+        this.runDebugClientCommands(client);
+      } finally {
+        this.clients.remove(client);
+      }
+    } catch (final IOException e) {
+      if (this.continueRunning()) {
+        LOG.error("client exception: ", e);
+      }
+    }
+  }
 
-        while (this.continueRunning()) {
-          final var line =
-            bufferedReader.readLine();
-
-          if (line == null) {
-            LOG.debug("[{}] disconnected", socket.getInetAddress());
-            return;
-          }
-
-          final var token =
-            new StringTokenizer(line, ' ', '"');
-          final var parts =
-            new ArrayList<>(token.getTokenList());
-
-          if (parts.isEmpty()) {
-            continue;
-          }
-
-          final var name =
-            parts.remove(0);
-
-          try {
-            this.commands.createCommand(name, parts)
-              .execute(bufferedWriter);
-          } catch (final Exception e) {
-            LOG.error("client exception: ", e);
-          }
-        }
+  private void runDebugClientCommands(
+    final GWDebugClient client)
+    throws IOException
+  {
+    final var socket =
+      client.socket();
+    final var reader =
+      new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+
+    while (this.continueRunning()) {
+      final var line = reader.readLine();
+      if (line == null) {
+        LOG.debug("[{}] disconnected", socket.getInetAddress());
+        return;
       }
-    } catch (final Exception e) {
-      LOG.error("client exception: ", e);
-    } finally {
+
+      final var token =
+        new StringTokenizer(line, ' ', '"');
+      final var parts =
+        new ArrayList<>(token.getTokenList());
+
+      if (parts.isEmpty()) {
+        continue;
+      }
+
+      final var name =
+        parts.remove(0);
+
+      try {
+        this.commands.createCommand(name, parts)
+          .execute(client);
+      } catch (final IOException e) {
+        throw e;
+      } catch (final Exception e) {
+        LOG.error("client exception: ", e);
+        client.writeLine("error: %s".formatted(e.getMessage()));
+      }
+    }
+  }
+
+  private void closeClients()
+  {
+    for (final var client : this.clients) {
       try {
-        socket.close();
+        client.close();
       } catch (final IOException e) {
         LOG.error("failed to close socket: ", e);
       }
@@ -211,6 +230,12 @@ public final class GWDebugServer implements AutoCloseable
   public void close()
     throws Exception
   {
+    /*
+     * The flag is set before anything is closed so that the server and
+     * client threads recognize the resulting socket errors as a shutdown.
+     */
+
+    this.close.set(true);
     this.resources.close();
   }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.exec;
+
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A coalescer of UI updates. Updates may be submitted from any thread, and
+ * are applied on the FX application thread in a single pass. Each update is
+ * associated with a key (typically the control being updated); if several
+ * updates are submitted for the same key before a pass runs, only the most
+ * recent one is applied.
+ */
+
+public final class GWFXUpdateCoalescer
+{
+  private final ConcurrentHashMap<Object, Runnable> pending;
+  private final AtomicBoolean scheduled;
+  private final AtomicInteger submitted;
+  private volatile long timeScheduled;
+
+  /**
+   * A coalescer of UI updates.
+   */
+
+  public GWFXUpdateCoalescer()
+  {
+    this.pending = new ConcurrentHashMap<>();
+    this.scheduled = new AtomicBoolean(false);
+    this.submitted = new AtomicInteger(0);
+  }
+
+  /**
+   * Submit an update. The update replaces any update for the same key that
+   * has not yet been applied.
+   *
+   * @param key    The key
+   * @param update The update
+   */
+
+  public void submit(
+    final Object key,
+    final Runnable update)
+  {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(update, "update");
+
+    this.pending.put(key, update);
+    this.submitted.incrementAndGet();
+
+    if (this.scheduled.compareAndSet(false, true)) {
+      this.timeScheduled = System.nanoTime();
+      Platform.runLater(this::runPass);
+    }
+  }
+
+  private void runPass()
+  {
+    final var timeStarted = System.nanoTime();
+    final var event = new GWFXUpdatePassEvent();
+    event.begin();
+
+    /*
+     * Clear the scheduled flag before draining, so that any update submitted
+     * while the pass is running is guaranteed to be picked up either by this
+     * pass or by a new one.
+     */
+
+    this.scheduled.set(false);
+    final var submittedNow = this.submitted.getAndSet(0);
+
+    var applied = 0;
+    for (final Map.Entry<Object, Runnable> entry : this.pending.entrySet()) {
+      final var update = entry.getValue();
+      if (this.pending.remove(entry.getKey(), update)) {
+        update.run();
+        ++applied;
+      }
+    }
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.updates = applied;
+      event.superseded = Math.max(0, submittedNow - applied);
+      event.queueWait = timeStarted - this.timeScheduled;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.exec;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A flight recorder event covering a single pass of a
+ * {@link GWFXUpdateCoalescer} on the FX application thread.
+ */
+
+@Name("com.io7m.gatwick.gui.UpdatePass")
+@Label("UI Update Pass")
+@Category({"Gatwick", "GUI"})
+@Description("A pass applying coalesced updates on the FX application thread.")
+@StackTrace(false)
+final class GWFXUpdatePassEvent extends Event
+{
+  @Label("Updates")
+  @Description("The number of updates applied.")
+  int updates;
+
+  @Label("Superseded")
+  @Description("The number of updates replaced by later updates.")
+  int superseded;
+
+  @Label("Queue Wait")
+  @Description("The time between the pass being scheduled and running.")
+  @Timespan(Timespan.NANOSECONDS)
+  long queueWait;
+
+  GWFXUpdatePassEvent()
+  {
+
+  }
+}
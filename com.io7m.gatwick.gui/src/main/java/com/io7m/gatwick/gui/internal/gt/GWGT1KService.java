@@ -40,14 +40,18 @@ import javafx.beans.property.SimpleObjectProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 
 import static com.io7m.gatwick.gui.internal.gt.GWGT1KServiceStatusType.Disconnected.DISCONNECTED;
@@ -61,11 +65,24 @@ public final class GWGT1KService implements GWGT1KServiceType
   private static final Logger LOG =
     LoggerFactory.getLogger(GWGT1KService.class);
 
+  /*
+   * Values are invalidated whenever they are written, whenever the device
+   * reports a change, and whenever a different patch is selected, so the
+   * time to live only bounds how long a change that was somehow missed can
+   * go unnoticed.
+   */
+
+  private static final Duration READ_TIME_TO_LIVE =
+    Duration.ofSeconds(30L);
+
   private final CloseableCollectionType<ClosingResourceFailedException> resources;
   private final ExecutorService executor;
   private final GWStrings strings;
   private final SimpleObjectProperty<GWGT1KServiceStatusType> status;
   private volatile GWControllerType controller;
+  private final ConcurrentLinkedQueue<BackgroundTask> background;
+  private final AtomicBoolean backgroundScheduled;
+  private final GWGT1KServiceMetrics metrics;
 
   private GWGT1KService(
     final CloseableCollectionType<ClosingResourceFailedException> inResources,
@@ -80,6 +97,12 @@ public final class GWGT1KService implements GWGT1KServiceType
       Objects.requireNonNull(inStrings, "strings");
     this.status =
       new SimpleObjectProperty<>(DISCONNECTED);
+    this.background =
+      new ConcurrentLinkedQueue<>();
+    this.backgroundScheduled =
+      new AtomicBoolean(false);
+    this.metrics =
+      new GWGT1KServiceMetrics(this.background::size);
   }
 
   /**
@@ -111,7 +134,10 @@ public final class GWGT1KService implements GWGT1KServiceType
       CloseableCollection.create();
 
     resources.add(executor::shutdown);
-    return new GWGT1KService(resources, executor, strings);
+
+    final var service = new GWGT1KService(resources, executor, strings);
+    resources.add(service.metrics.register());
+    return service;
   }
 
   private static GWControllerFactoryType findControllers()
@@ -142,6 +168,7 @@ public final class GWGT1KService implements GWGT1KServiceType
   public void close()
     throws Exception
   {
+    this.cancelBackgroundTasks();
     this.resources.close();
   }
 
@@ -162,7 +189,7 @@ public final class GWGT1KService implements GWGT1KServiceType
     final var future =
       new CompletableFuture<TRTask<?>>();
 
-    this.executor.execute(() -> {
+    this.execute("open", () -> {
       final var task =
         TRTaskRecorder.create(LOG, this.strings.format("task.openDevice"));
 
@@ -170,6 +197,8 @@ public final class GWGT1KService implements GWGT1KServiceType
         final var controllers =
           findControllers();
 
+        this.cancelBackgroundTasks();
+
         final var lastController = this.controller;
         if (lastController != null) {
           lastController.close();
@@ -203,7 +232,7 @@ public final class GWGT1KService implements GWGT1KServiceType
     final var future =
       new CompletableFuture<TRTask<List<GWControllerDetectedDevice>>>();
 
-    this.executor.execute(() -> {
+    this.execute("detect", () -> {
       final var task =
         TRTaskRecorder.<List<GWDeviceMIDIDescription>>create(
           LOG, this.strings.format("task.listDevices"));
@@ -229,7 +258,7 @@ public final class GWGT1KService implements GWGT1KServiceType
     Objects.requireNonNull(runnable, "runnable");
 
     final var future = new CompletableFuture<>();
-    this.executor.execute(() -> {
+    this.execute(longRunning.name(), () -> {
       try {
         final var ctrl = this.controller;
         if (ctrl == null) {
@@ -258,6 +287,121 @@ public final class GWGT1KService implements GWGT1KServiceType
     return future;
   }
 
+  @Override
+  public CompletableFuture<?> executeOnDeviceInBackground(
+    final GWGT1KRunnableType runnable)
+  {
+    Objects.requireNonNull(runnable, "runnable");
+
+    final var future = new CompletableFuture<>();
+    this.background.add(new BackgroundTask(runnable, future));
+    this.scheduleBackgroundTask();
+    return future;
+  }
+
+  /*
+   * Execute a task on the device executor, recording the time that the task
+   * spent in the queue and the time it took to execute, and keeping track of
+   * the number of tasks waiting in the queue.
+   */
+
+  private void execute(
+    final String name,
+    final Runnable runnable)
+  {
+    final var timeQueued = System.nanoTime();
+    this.metrics.onTaskQueued();
+    try {
+      this.executor.execute(() -> this.executeQueued(name, runnable, timeQueued));
+    } catch (final RejectedExecutionException e) {
+      this.metrics.onTaskStarted();
+      throw e;
+    }
+  }
+
+  private void executeQueued(
+    final String name,
+    final Runnable runnable,
+    final long timeQueued)
+  {
+    this.metrics.onTaskStarted();
+
+    final var timeStarted = System.nanoTime();
+    final var event = new GWGT1KTaskEvent();
+    event.begin();
+    try {
+      runnable.run();
+    } finally {
+      this.metrics.onTaskFinished();
+      event.end();
+      if (event.shouldCommit()) {
+        event.task = name;
+        event.queueWait = timeStarted - timeQueued;
+        event.commit();
+      }
+    }
+  }
+
+  private void scheduleBackgroundTask()
+  {
+    if (this.backgroundScheduled.compareAndSet(false, true)) {
+      this.execute("background", this::runBackgroundTask);
+    }
+  }
+
+  /*
+   * Background tasks are executed one at a time. After each task, the next
+   * background task is placed at the back of the executor queue, so that any
+   * foreground tasks submitted in the meantime are executed first.
+   */
+
+  private void runBackgroundTask()
+  {
+    this.backgroundScheduled.set(false);
+
+    var task = this.background.poll();
+    while (task != null && task.future().isDone()) {
+      task = this.background.poll();
+    }
+
+    if (task != null) {
+      try {
+        final var ctrl = this.controller;
+        if (ctrl == null) {
+          task.future().cancel(false);
+        } else {
+          task.runnable().execute(ctrl);
+          task.future().complete(null);
+        }
+      } catch (final Throwable e) {
+        LOG.debug("executeOnDeviceInBackground: ", e);
+        task.future().completeExceptionally(e);
+      }
+    }
+
+    if (!this.background.isEmpty()) {
+      this.scheduleBackgroundTask();
+    }
+  }
+
+  private void cancelBackgroundTasks()
+  {
+    while (true) {
+      final var task = this.background.poll();
+      if (task == null) {
+        return;
+      }
+      task.future().cancel(false);
+    }
+  }
+
+  private record BackgroundTask(
+    GWGT1KRunnableType runnable,
+    CompletableFuture<Object> future)
+  {
+
+  }
+
   @Override
   public boolean isOpen()
   {
@@ -268,8 +412,10 @@ public final class GWGT1KService implements GWGT1KServiceType
   public CompletableFuture<?> closeDevice()
   {
     final var future = new CompletableFuture<>();
-    this.executor.execute(() -> {
+    this.execute("close", () -> {
       try {
+        this.cancelBackgroundTasks();
+
         final var ctrl = this.controller;
         if (ctrl != null) {
           ctrl.close();
@@ -286,4 +432,10 @@ public final class GWGT1KService implements GWGT1KServiceType
 
     return future;
   }
+
+  @Override
+  public Duration readTimeToLive()
+  {
+    return READ_TIME_TO_LIVE;
+  }
 }
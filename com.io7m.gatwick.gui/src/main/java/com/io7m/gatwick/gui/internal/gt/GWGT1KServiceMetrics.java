@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.gt;
+
+import com.io7m.gatwick.gui.GWGT1KServiceMetricsMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * The counters maintained by the GT-1000 service.
+ */
+
+final class GWGT1KServiceMetrics implements GWGT1KServiceMetricsMXBean
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWGT1KServiceMetrics.class);
+
+  private final LongAdder queued;
+  private final LongAdder executed;
+  private final IntSupplier backgroundDepth;
+
+  GWGT1KServiceMetrics(
+    final IntSupplier inBackgroundDepth)
+  {
+    this.backgroundDepth =
+      Objects.requireNonNull(inBackgroundDepth, "backgroundDepth");
+    this.queued =
+      new LongAdder();
+    this.executed =
+      new LongAdder();
+  }
+
+  /**
+   * Register the metrics with the platform MBean server. Failing to register
+   * is not fatal; the service simply remains unobservable.
+   *
+   * @return An action that unregisters the metrics
+   */
+
+  AutoCloseable register()
+  {
+    try {
+      final var server =
+        ManagementFactory.getPlatformMBeanServer();
+      final var name =
+        new ObjectName(
+          "com.io7m.gatwick:type=Service,name=GT1K,id=%s"
+            .formatted(Integer.toHexString(this.hashCode()))
+        );
+
+      server.registerMBean(this, name);
+      return () -> server.unregisterMBean(name);
+    } catch (final JMException e) {
+      LOG.warn("unable to register service metrics: ", e);
+      return () -> {
+
+      };
+    }
+  }
+
+  void onTaskQueued()
+  {
+    this.queued.increment();
+  }
+
+  void onTaskStarted()
+  {
+    this.queued.decrement();
+  }
+
+  void onTaskFinished()
+  {
+    this.executed.increment();
+  }
+
+  @Override
+  public long getExecutorQueueDepth()
+  {
+    return this.queued.sum();
+  }
+
+  @Override
+  public int getBackgroundQueueDepth()
+  {
+    return this.backgroundDepth.getAsInt();
+  }
+
+  @Override
+  public long getTasksExecuted()
+  {
+    return this.executed.sum();
+  }
+}
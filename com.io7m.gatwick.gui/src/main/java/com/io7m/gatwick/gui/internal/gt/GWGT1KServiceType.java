@@ -24,6 +24,7 @@ import com.io7m.repetoir.core.RPServiceType;
 import com.io7m.taskrecorder.core.TRTask;
 import javafx.beans.property.ReadOnlyProperty;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
@@ -77,6 +78,23 @@ public interface GWGT1KServiceType extends RPServiceType, AutoCloseable
     GWGTK1LongRunning longRunning,
     GWGT1KRunnableType runnable);
 
+  /**
+   * Execute a function on the device thread at a low priority. Background
+   * functions are executed one at a time, and only after any functions that
+   * were submitted with {@link #executeOnDevice(GWGTK1LongRunning, GWGT1KRunnableType)}
+   * before them. Background functions do not affect the device status.
+   * Cancelling the returned future prevents the function from executing if
+   * it has not already started. All pending background functions are
+   * cancelled when the device is closed.
+   *
+   * @param runnable The function
+   *
+   * @return The operation in progress
+   */
+
+  CompletableFuture<?> executeOnDeviceInBackground(
+    GWGT1KRunnableType runnable);
+
   /**
    * @return {@code true} if a device is open
    */
@@ -90,4 +108,11 @@ public interface GWGT1KServiceType extends RPServiceType, AutoCloseable
    */
 
   CompletableFuture<?> closeDevice();
+
+  /**
+   * @return The length of time for which values read from the device are
+   * considered to be fresh
+   */
+
+  Duration readTimeToLive();
 }
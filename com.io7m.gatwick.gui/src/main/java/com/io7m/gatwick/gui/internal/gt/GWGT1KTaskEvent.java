@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.gt;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A flight recorder event covering the execution of a task on the device
+ * executor. The duration of the event is the execution time of the task;
+ * the time the task spent waiting in the executor queue is recorded
+ * separately.
+ */
+
+@Name("com.io7m.gatwick.gui.DeviceTask")
+@Label("Device Task")
+@Category({"Gatwick", "GUI"})
+@Description("A task executed on the device executor.")
+@StackTrace(false)
+final class GWGT1KTaskEvent extends Event
+{
+  @Label("Task")
+  String task;
+
+  @Label("Queue Wait")
+  @Description("The time the task spent waiting to be executed.")
+  @Timespan(Timespan.NANOSECONDS)
+  long queueWait;
+
+  GWGT1KTaskEvent()
+  {
+
+  }
+}
@@ -19,6 +19,7 @@ package com.io7m.gatwick.gui.internal.icons;
 
 import javafx.scene.image.Image;
 
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -32,31 +33,50 @@ import java.util.Optional;
 public abstract class GWIconEnumerationSetAbstract<S extends Enum<S>>
   implements GWIconEnumerationSetType<S>
 {
-  private final Map<S, String> icons;
+  private final EnumMap<S, Optional<Image>> icons;
   private final Class<S> clazz;
-  private final String fallback;
+  private final Optional<Image> fallback;
 
   protected GWIconEnumerationSetAbstract(
     final Class<S> inClazz,
     final Map<S, String> inNames,
     final String inFallback)
   {
+    Objects.requireNonNull(inNames, "icons");
+    Objects.requireNonNull(inFallback, "inFallback");
+
     this.clazz =
       Objects.requireNonNull(inClazz, "clazz");
-    this.icons =
-      Objects.requireNonNull(inNames, "icons");
+
+    /*
+     * Resolve every icon up front. Icon sets are instantiated during boot,
+     * so this starts all the images loading in the background, and means
+     * that looking up an icon (which list cells do every time they are
+     * rendered) never allocates.
+     */
+
     this.fallback =
-      Objects.requireNonNull(inFallback, "inFallback");
+      Optional.of(GWIconImages.image(inFallback));
+    this.icons =
+      new EnumMap<>(inClazz);
+
+    for (final var entry : inNames.entrySet()) {
+      this.icons.put(
+        entry.getKey(),
+        Optional.of(GWIconImages.image(entry.getValue()))
+      );
+    }
   }
 
   @Override
   public final Optional<Image> iconFor(
     final S value)
   {
-    final var name = this.icons.get(value);
-    return Optional.of(
-      iconByName(Objects.requireNonNullElse(name, this.fallback))
-    );
+    final var icon = this.icons.get(value);
+    if (icon == null) {
+      return this.fallback;
+    }
+    return icon;
   }
 
   @Override
@@ -64,15 +84,4 @@ public abstract class GWIconEnumerationSetAbstract<S extends Enum<S>>
   {
     return this.clazz;
   }
-
-  private static Image iconByName(
-    final String name)
-  {
-    return new Image(
-      GWIconService.class.getResource(
-          "/com/io7m/gatwick/gui/internal/%s".formatted(name))
-        .toString(),
-      true
-    );
-  }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.icons;
+
+import javafx.scene.image.Image;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A shared cache of icon images, keyed by resource name. Images are
+ * immutable and can be displayed by any number of image views at once, so
+ * each icon is loaded and decoded exactly once for the lifetime of the
+ * application.
+ */
+
+final class GWIconImages
+{
+  private static final ConcurrentHashMap<String, Image> IMAGES =
+    new ConcurrentHashMap<>();
+
+  private GWIconImages()
+  {
+
+  }
+
+  /**
+   * Retrieve an image, loading it if it has not already been loaded. Images
+   * are loaded in the background; the returned image may not yet have
+   * finished loading.
+   *
+   * @param name The resource name
+   *
+   * @return The image
+   */
+
+  static Image image(
+    final String name)
+  {
+    Objects.requireNonNull(name, "name");
+    return IMAGES.computeIfAbsent(name, GWIconImages::load);
+  }
+
+  private static Image load(
+    final String name)
+  {
+    return new Image(
+      GWIconImages.class.getResource(
+          "/com/io7m/gatwick/gui/internal/%s".formatted(name))
+        .toString(),
+      true
+    );
+  }
+}
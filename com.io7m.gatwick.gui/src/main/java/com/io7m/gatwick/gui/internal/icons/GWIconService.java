@@ -38,19 +38,17 @@ public final class GWIconService implements GWIconServiceType
 
   public static GWIconServiceType create()
   {
-    return new GWIconService();
+    final var service = new GWIconService();
+    service.task16();
+    service.error16();
+    return service;
   }
 
   @Override
   public Image icon(
     final String name)
   {
-    return new Image(
-      GWIconService.class.getResource(
-          "/com/io7m/gatwick/gui/internal/%s".formatted(name))
-        .toString(),
-      true
-    );
+    return GWIconImages.image(name);
   }
 
   @Override
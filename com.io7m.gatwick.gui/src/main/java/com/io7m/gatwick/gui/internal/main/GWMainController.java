@@ -19,6 +19,7 @@ package com.io7m.gatwick.gui.internal.main;
 
 import com.io7m.gatwick.gui.internal.GWBootCompleted;
 import com.io7m.gatwick.gui.internal.GWPerpetualSubscriber;
+import com.io7m.gatwick.gui.internal.GWScreenCache;
 import com.io7m.gatwick.gui.internal.GWScreenControllerFactory;
 import com.io7m.gatwick.gui.internal.GWScreenControllerType;
 import com.io7m.gatwick.gui.internal.GWStrings;
@@ -288,11 +289,17 @@ public final class GWMainController implements GWScreenControllerType
   private Pane openScreen(
     final String name)
   {
+    final var preloaded =
+      this.services.optionalService(GWScreenCache.class)
+        .flatMap(cache -> cache.take(name));
+
+    if (preloaded.isPresent()) {
+      return preloaded.get();
+    }
+
     try {
       final var xml =
-        GWMainController.class.getResource(
-          "/com/io7m/gatwick/gui/internal/" + name);
-      Objects.requireNonNull(xml, "xml");
+        GWScreenCache.screenURL(name);
 
       final var loader =
         new FXMLLoader(xml, this.strings.resources());
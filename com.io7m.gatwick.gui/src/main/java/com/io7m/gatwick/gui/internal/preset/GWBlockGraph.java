@@ -18,14 +18,21 @@ package com.io7m.gatwick.gui.internal.preset;
 
 import com.io7m.gatwick.controller.api.GWChain;
 import com.io7m.gatwick.controller.api.GWChainElementValue;
+import com.io7m.gatwick.controller.api.GWChainLayout;
+import com.io7m.gatwick.controller.api.GWChainLayoutNodeSize;
+import com.io7m.gatwick.controller.api.GWChainLayouts;
 import javafx.beans.property.Property;
 import javafx.beans.property.ReadOnlyProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
 import javafx.scene.shape.Line;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A block graph.
@@ -33,10 +40,21 @@ import java.util.LinkedList;
 
 public final class GWBlockGraph extends Pane
 {
+  private static final Color LINE_COLOR =
+    Color.WHITE;
+
+  private static final int LAYOUT_CACHE_SIZE =
+    16;
+
   private final SimpleObjectProperty<GWChain> chain;
   private final EnumMap<GWChainElementValue, GWNodeShape> nodeShapes;
-  private final LinkedList<Line> lines;
   private final SimpleObjectProperty<GWNodeShape> selected;
+  private final ArrayList<Line> lines;
+  private final LayoutCache layouts;
+  private final double[] arrangedWidths;
+  private final double[] arrangedHeights;
+  private EnumMap<GWChainElementValue, GWChainLayoutNodeSize> nodeSizes;
+  private GWChain arrangedChain;
 
   /**
    * A block graph.
@@ -60,10 +78,16 @@ public final class GWBlockGraph extends Pane
       new SimpleObjectProperty<>(initialChain);
     this.nodeShapes =
       new EnumMap<>(GWChainElementValue.class);
-    this.lines =
-      new LinkedList<Line>();
     this.selected =
       new SimpleObjectProperty<GWNodeShape>();
+    this.lines =
+      new ArrayList<>();
+    this.layouts =
+      new LayoutCache();
+    this.arrangedWidths =
+      new double[GWChainElementValue.values().length];
+    this.arrangedHeights =
+      new double[this.arrangedWidths.length];
 
     final var children = this.getChildren();
     for (final var name : GWChainElementValue.values()) {
@@ -186,28 +210,113 @@ public final class GWBlockGraph extends Pane
     return this.selected;
   }
 
+  /*
+   * The arrangement of the graph depends only on the chain and the sizes of
+   * the node shapes; it is independent of the size of the pane. Resizing the
+   * pane therefore only results in a new arrangement if the node shapes have
+   * changed size (such as when they are first laid out). Layouts are
+   * computed by the JavaFX-independent layout engine, cached per chain, and
+   * then applied to the scene graph in one step.
+   */
+
   private void arrange()
   {
-    final var chainNow =
-      this.chain.get();
-    final var graph =
-      chainNow.graph();
+    final var chainNow = this.chain.get();
+    final var sizesChanged = this.nodeSizesChanged();
+    if (chainNow == this.arrangedChain && !sizesChanged) {
+      return;
+    }
+
+    if (sizesChanged || this.nodeSizes == null) {
+      this.saveNodeSizes();
+      this.layouts.clear();
+    }
 
-    final var nodeArranger = new GWNodeArranger(graph, this.nodeShapes);
-    nodeArranger.arrange();
+    this.arrangedChain = chainNow;
 
-    final var lineArranger =
-      new GWLineArranger(graph, this.nodeShapes);
+    final var layout =
+      this.layouts.computeIfAbsent(
+        chainNow.elements(),
+        k -> GWChainLayouts.layout(chainNow.graph(), this.nodeSizes)
+      );
 
-    final var children = this.getChildren();
-    children.removeAll(this.lines);
-    this.lines.clear();
+    this.applyLayout(layout);
+  }
+
+  private void applyLayout(
+    final GWChainLayout layout)
+  {
+    final var graph = layout.graph();
+    final var size = graph.size();
+    for (int index = 0; index < size; ++index) {
+      final var element = graph.nodeAt(index).element();
+      final var shape = this.nodeShapes.get(element);
+      shape.setLayoutX(layout.nodeX(element));
+      shape.setLayoutY(layout.nodeY(element));
+    }
 
-    final var newLines = lineArranger.arrange();
-    this.lines.addAll(newLines);
-    for (final var line : newLines) {
+    /*
+     * Lines are reused and updated in place. New lines are only created
+     * when a layout needs more lines than any previous layout, and surplus
+     * lines are hidden.
+     */
+
+    final var children = this.getChildren();
+    final var lineCount = layout.lineCount();
+    while (this.lines.size() < lineCount) {
+      final var line = new Line();
+      line.setFill(LINE_COLOR);
+      line.setStroke(LINE_COLOR);
+      line.setStrokeWidth(2.0);
+      this.lines.add(line);
       children.add(0, line);
     }
+
+    for (int index = 0; index < this.lines.size(); ++index) {
+      final var line = this.lines.get(index);
+      if (index < lineCount) {
+        line.setStartX(layout.lineStartX(index));
+        line.setStartY(layout.lineStartY(index));
+        line.setEndX(layout.lineEndX(index));
+        line.setEndY(layout.lineEndY(index));
+        line.setVisible(true);
+      } else {
+        line.setVisible(false);
+      }
+    }
+  }
+
+  private boolean nodeSizesChanged()
+  {
+    for (final var entry : this.nodeShapes.entrySet()) {
+      final var ordinal = entry.getKey().ordinal();
+      final var shape = entry.getValue();
+      if (shape.getWidth() != this.arrangedWidths[ordinal]
+          || shape.getHeight() != this.arrangedHeights[ordinal]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void saveNodeSizes()
+  {
+    this.nodeSizes = new EnumMap<>(GWChainElementValue.class);
+
+    for (final var entry : this.nodeShapes.entrySet()) {
+      final var ordinal = entry.getKey().ordinal();
+      final var shape = entry.getValue();
+      this.arrangedWidths[ordinal] = shape.getWidth();
+      this.arrangedHeights[ordinal] = shape.getHeight();
+      this.nodeSizes.put(
+        entry.getKey(),
+        new GWChainLayoutNodeSize(
+          shape.getWidth(),
+          shape.centerX() - shape.getLayoutX(),
+          shape.centerY() - shape.getLayoutY()
+        )
+      );
+    }
   }
 
   /**
@@ -224,4 +333,20 @@ public final class GWBlockGraph extends Pane
   {
     return true;
   }
+
+  private static final class LayoutCache
+    extends LinkedHashMap<List<GWChainElementValue>, GWChainLayout>
+  {
+    LayoutCache()
+    {
+      super(LAYOUT_CACHE_SIZE, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(
+      final Map.Entry<List<GWChainElementValue>, GWChainLayout> eldest)
+    {
+      return this.size() > LAYOUT_CACHE_SIZE;
+    }
+  }
 }
@@ -22,11 +22,14 @@ import com.io7m.digal.core.DialBoundedLongConverter;
 import com.io7m.digal.core.DialControl;
 import com.io7m.digal.core.DialControlLabelled;
 import com.io7m.gatwick.controller.api.GWControllerType;
+import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.gui.internal.GWStrings;
+import com.io7m.gatwick.gui.internal.exec.GWFXUpdateCoalescer;
 import com.io7m.gatwick.gui.internal.icons.GWIconEnumerationSetType;
 import com.io7m.gatwick.gui.internal.icons.GWIconSetServiceType;
 import com.io7m.gatwick.iovar.GWIOEnumerationInfo;
 import com.io7m.gatwick.iovar.GWIOEnumerationInfoType;
+import com.io7m.gatwick.iovar.GWIOIntVariableType;
 import com.io7m.gatwick.iovar.GWIORate118Note;
 import com.io7m.gatwick.iovar.GWIORate118Type;
 import com.io7m.gatwick.iovar.GWIORate119Note;
@@ -39,7 +42,6 @@ import com.io7m.gatwick.iovar.GWIOVariableType;
 import com.io7m.jmulticlose.core.CloseableCollection;
 import com.io7m.jmulticlose.core.CloseableCollectionType;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
-import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -52,15 +54,18 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.util.StringConverter;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import static com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning.TASK_LONG;
 import static com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning.TASK_SHORT;
 
 /**
@@ -74,6 +79,7 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
 {
   private final GWStrings strings;
   private final GWIconSetServiceType iconSets;
+  private final GWFXUpdateCoalescer fxUpdates;
   private CloseableCollectionType<RuntimeException> subscriptions;
 
   /**
@@ -93,6 +99,8 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
       services.requireService(GWStrings.class);
     this.iconSets =
       services.requireService(GWIconSetServiceType.class);
+    this.fxUpdates =
+      new GWFXUpdateCoalescer();
   }
 
   private static CloseableCollectionType<RuntimeException> createSubscriptionCollection()
@@ -254,7 +262,7 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
 
     this.subscriptions.add(
       typeVariable.subscribe((oldValue, newValue) -> {
-        Platform.runLater(() -> {
+        this.fxUpdates.submit(menu, () -> {
           menu.getSelectionModel().select(newValue);
         });
       })
@@ -412,7 +420,7 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
 
     this.subscriptions.add(
       variable.subscribe((oldValue, newValue) -> {
-        Platform.runLater(() -> {
+        this.fxUpdates.submit(tooltip, () -> {
           final String label =
             control.valueFormatter()
               .get()
@@ -456,7 +464,7 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
 
     this.subscriptions.add(
       variable.subscribe((oldValue, newValue) -> {
-        Platform.runLater(() -> {
+        this.fxUpdates.submit(tooltip, () -> {
           final String label =
             control.valueFormatter()
               .get()
@@ -497,7 +505,7 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
 
     this.subscriptions.add(
       variable.subscribe((oldValue, newValue) -> {
-        Platform.runLater(() -> {
+        this.fxUpdates.submit(tooltip, () -> {
           final String label =
             control.valueFormatter()
               .get()
@@ -545,7 +553,7 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
 
     this.subscriptions.add(
       variable.subscribe((oldValue, newValue) -> {
-        Platform.runLater(() -> {
+        this.fxUpdates.submit(tooltip, () -> {
           tooltip.setText(String.format("%s: %s", info.label(), newValue));
         });
       })
@@ -576,9 +584,22 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
     dial.setConvertedValue(
       info.valueInitial().doubleValue());
 
+    if (variable instanceof GWIOIntVariableType<Integer> intVariable) {
+      this.subscriptions.add(
+        intVariable.subscribeInt((oldValue, newValue) -> {
+          this.fxUpdates.submit(tooltip, () -> {
+            tooltip.setText(
+              String.format("%s: %d", info.label(), Integer.valueOf(newValue)));
+          });
+        })
+      );
+      this.configureIntDialChangeListener(control, intVariable);
+      return;
+    }
+
     this.subscriptions.add(
       variable.subscribe((oldValue, newValue) -> {
-        Platform.runLater(() -> {
+        this.fxUpdates.submit(tooltip, () -> {
           tooltip.setText(String.format("%s: %s", info.label(), newValue));
         });
       })
@@ -629,9 +650,31 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
       return enumInfo.label(value);
     });
 
+    dial.setTickCount(enumInfo.caseCount() - 1);
+    dial.setConvertedValue(enumInfo.toInt(max));
+    dial.setConvertedValue(enumInfo.toInt(init));
+
+    if (variable instanceof GWIOIntVariableType<U> intVariable) {
+      this.subscriptions.add(
+        intVariable.subscribeInt((oldValue, newValue) -> {
+          this.fxUpdates.submit(tooltip, () -> {
+            tooltip.setText(
+              String.format(
+                "%s: %s",
+                vEnum.label(),
+                enumInfo.label(enumInfo.fromInt(newValue))
+              )
+            );
+          });
+        })
+      );
+      this.configureIntDialChangeListener(control, intVariable);
+      return;
+    }
+
     this.subscriptions.add(
       variable.subscribe((oldValue, newValue) -> {
-        Platform.runLater(() -> {
+        this.fxUpdates.submit(tooltip, () -> {
           tooltip.setText(
             String.format(
               "%s: %s",
@@ -643,10 +686,6 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
       })
     );
 
-    dial.setTickCount(enumInfo.caseCount() - 1);
-    dial.setConvertedValue(enumInfo.toInt(max));
-    dial.setConvertedValue(enumInfo.toInt(init));
-
     this.configureDialChangeListener(
       control,
       variable,
@@ -655,7 +694,51 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
     );
   }
 
-  protected abstract void readFromDevice();
+  /**
+   * Read the values shown by this panel from the device, if the values are
+   * not already fresh. This method is called on the device thread.
+   *
+   * @param ctrl       The device
+   * @param timeToLive The time to live for values read from the device
+   *
+   * @throws InterruptedException If the operation is interrupted
+   * @throws GWDeviceException    If the device fails
+   */
+
+  protected abstract void readFromDeviceIfStale(
+    GWControllerType ctrl,
+    Duration timeToLive)
+    throws InterruptedException, GWDeviceException;
+
+  /**
+   * Read the values shown by this panel from the device, if the values are
+   * not already fresh.
+   */
+
+  protected final void readFromDevice()
+  {
+    final var service = this.gtService();
+    final var timeToLive = service.readTimeToLive();
+    service.executeOnDevice(TASK_LONG, ctrl -> {
+      this.readFromDeviceIfStale(ctrl, timeToLive);
+    });
+  }
+
+  /**
+   * Read the values shown by this panel from the device in the background,
+   * if the values are not already fresh.
+   *
+   * @return The operation in progress
+   */
+
+  final CompletableFuture<?> prefetchFromDevice()
+  {
+    final var service = this.gtService();
+    final var timeToLive = service.readTimeToLive();
+    return service.executeOnDeviceInBackground(ctrl -> {
+      this.readFromDeviceIfStale(ctrl, timeToLive);
+    });
+  }
 
   private <T> void configureDialChangeListener(
     final DialControlLabelled control,
@@ -673,7 +756,7 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
 
     this.subscriptions.add(
       variable.subscribe((oldValue, newValue) -> {
-        Platform.runLater(() -> {
+        this.fxUpdates.submit(dial, () -> {
           final var dialValue = convertToDial.apply(newValue);
           dial.setConvertedValueQuietly(dialValue.doubleValue());
         });
@@ -701,4 +784,39 @@ public abstract class GWEffectBlockPanel<S extends Enum<S>>
     });
   }
 
+  /*
+   * The same as configureDialChangeListener, but for variables that hold
+   * integers. Dial values are passed through as integers directly, avoiding
+   * any boxing or conversion of values on the way to and from the device.
+   */
+
+  private void configureIntDialChangeListener(
+    final DialControlLabelled control,
+    final GWIOIntVariableType<?> variable)
+  {
+    final var dial = control.dial();
+
+    this.subscriptions.add(
+      variable.subscribeInt((oldValue, newValue) -> {
+        this.fxUpdates.submit(dial, () -> {
+          dial.setConvertedValueQuietly(newValue);
+        });
+      })
+    );
+
+    final ChangeListener<Number> changeListener =
+      (observable, oldValue, newValue) -> {
+        final var value =
+          newValue.intValue();
+        final var service =
+          this.gtService();
+        service.executeOnDevice(TASK_SHORT, ctrl -> variable.setInt(value));
+      };
+
+    dial.convertedValue().addListener(changeListener);
+
+    this.subscriptions.add(() -> {
+      dial.convertedValue().removeListener(changeListener);
+    });
+  }
 }
@@ -21,6 +21,7 @@ import com.io7m.gatwick.controller.api.GWControllerType;
 import com.io7m.gatwick.controller.api.GWOnOffValue;
 import com.io7m.gatwick.controller.api.GWPatchEffectBlockFXType;
 import com.io7m.gatwick.controller.api.GWPatchFXTypeValue;
+import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.gui.internal.GWStrings;
 import com.io7m.gatwick.gui.internal.icons.GWIconServiceType;
 import com.io7m.gatwick.iovar.GWIOVariableContainerType;
@@ -28,13 +29,12 @@ import com.io7m.gatwick.iovar.GWIOVariableType;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
 
 import java.net.URL;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.stream.Stream;
 
-import static com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning.TASK_LONG;
-
 /**
  * A panel for the FX block.
  */
@@ -128,49 +128,48 @@ public abstract class GWEffectBlockPanelFX
   }
 
   @Override
-  protected final void readFromDevice()
+  protected final void readFromDeviceIfStale(
+    final GWControllerType ctrl,
+    final Duration timeToLive)
+    throws InterruptedException, GWDeviceException
   {
-    final var service = this.gtService();
-    service.executeOnDevice(TASK_LONG, ctrl -> {
-      final var p = this.fx(ctrl);
-      final var type = p.type();
-      type.readFromDevice();
-      switch (type.get()) {
-        case AC_GUITAR_SIM -> p.agSim().readFromDevice();
-        case AC_RESONANCE -> p.acReso().readFromDevice();
-        case AUTO_WAH -> p.autoWah().readFromDevice();
-        case CHORUS -> p.chorus().readFromDevice();
-        case CLASSIC_NEGATIVE_VIBE -> p.classicVibe().readFromDevice();
-        case COMPRESSOR -> p.compressor().readFromDevice();
-        case DEFRETTER -> p.defretter().readFromDevice();
-        case FEEDBACKER -> p.feedbacker().readFromDevice();
-        case FLANGER -> p.flanger().readFromDevice();
-        case HARMONIST -> p.harmonizer().readFromDevice();
-        case HUMANIZER -> p.humanizer().readFromDevice();
-        case OCTAVE -> p.octave().readFromDevice();
-        case OVERTONE -> p.overtone().readFromDevice();
-        case PAN -> p.pan().readFromDevice();
-        case PHASER -> p.phaser().readFromDevice();
-        case PITCH_SHIFTER -> p.pitchShifter().readFromDevice();
-        case RING_MOD -> p.ringModulator().readFromDevice();
-        case ROTARY -> p.rotary().readFromDevice();
-        case SITAR_SIM -> p.sitar().readFromDevice();
-        case SLICER -> p.slicer().readFromDevice();
-        case SLOW_GEAR -> p.slowGear().readFromDevice();
-        case SOUND_HOLD -> p.soundHold().readFromDevice();
-        case S_NEGATIVE_BEND -> p.sBend().readFromDevice();
-        case TOUCH_WAH -> p.touchWah().readFromDevice();
-        case TREMOLO -> p.tremolo().readFromDevice();
-        case VIBRATO -> p.vibrato().readFromDevice();
-        case CHORUS_BASS -> p.chorusBass().readFromDevice();
-        case DEFRETTER_BASS -> p.defretter().readFromDevice();
-        case FLANGER_BASS -> p.flangerBass().readFromDevice();
-        case OCTAVE_BASS -> p.octaveBass().readFromDevice();
-        case SLOW_GEAR_BASS -> p.slowGearBass().readFromDevice();
-        case TOUCH_WAH_BASS -> p.touchWahBass().readFromDevice();
-        case DISTORTION -> p.distortion().readFromDevice();
-      }
-    });
+    final var p = this.fx(ctrl);
+    p.readFromDeviceIfStale(timeToLive);
+    switch (p.type().get()) {
+      case AC_GUITAR_SIM -> p.agSim().readFromDeviceIfStale(timeToLive);
+      case AC_RESONANCE -> p.acReso().readFromDeviceIfStale(timeToLive);
+      case AUTO_WAH -> p.autoWah().readFromDeviceIfStale(timeToLive);
+      case CHORUS -> p.chorus().readFromDeviceIfStale(timeToLive);
+      case CLASSIC_NEGATIVE_VIBE -> p.classicVibe().readFromDeviceIfStale(timeToLive);
+      case COMPRESSOR -> p.compressor().readFromDeviceIfStale(timeToLive);
+      case DEFRETTER -> p.defretter().readFromDeviceIfStale(timeToLive);
+      case FEEDBACKER -> p.feedbacker().readFromDeviceIfStale(timeToLive);
+      case FLANGER -> p.flanger().readFromDeviceIfStale(timeToLive);
+      case HARMONIST -> p.harmonizer().readFromDeviceIfStale(timeToLive);
+      case HUMANIZER -> p.humanizer().readFromDeviceIfStale(timeToLive);
+      case OCTAVE -> p.octave().readFromDeviceIfStale(timeToLive);
+      case OVERTONE -> p.overtone().readFromDeviceIfStale(timeToLive);
+      case PAN -> p.pan().readFromDeviceIfStale(timeToLive);
+      case PHASER -> p.phaser().readFromDeviceIfStale(timeToLive);
+      case PITCH_SHIFTER -> p.pitchShifter().readFromDeviceIfStale(timeToLive);
+      case RING_MOD -> p.ringModulator().readFromDeviceIfStale(timeToLive);
+      case ROTARY -> p.rotary().readFromDeviceIfStale(timeToLive);
+      case SITAR_SIM -> p.sitar().readFromDeviceIfStale(timeToLive);
+      case SLICER -> p.slicer().readFromDeviceIfStale(timeToLive);
+      case SLOW_GEAR -> p.slowGear().readFromDeviceIfStale(timeToLive);
+      case SOUND_HOLD -> p.soundHold().readFromDeviceIfStale(timeToLive);
+      case S_NEGATIVE_BEND -> p.sBend().readFromDeviceIfStale(timeToLive);
+      case TOUCH_WAH -> p.touchWah().readFromDeviceIfStale(timeToLive);
+      case TREMOLO -> p.tremolo().readFromDeviceIfStale(timeToLive);
+      case VIBRATO -> p.vibrato().readFromDeviceIfStale(timeToLive);
+      case CHORUS_BASS -> p.chorusBass().readFromDeviceIfStale(timeToLive);
+      case DEFRETTER_BASS -> p.defretter().readFromDeviceIfStale(timeToLive);
+      case FLANGER_BASS -> p.flangerBass().readFromDeviceIfStale(timeToLive);
+      case OCTAVE_BASS -> p.octaveBass().readFromDeviceIfStale(timeToLive);
+      case SLOW_GEAR_BASS -> p.slowGearBass().readFromDeviceIfStale(timeToLive);
+      case TOUCH_WAH_BASS -> p.touchWahBass().readFromDeviceIfStale(timeToLive);
+      case DISTORTION -> p.distortion().readFromDeviceIfStale(timeToLive);
+    }
   }
 
   @Override
@@ -19,16 +19,16 @@ package com.io7m.gatwick.gui.internal.preset;
 
 import com.io7m.gatwick.controller.api.GWControllerType;
 import com.io7m.gatwick.controller.api.GWOnOffValue;
+import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.iovar.GWIOVariableType;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
 
 import java.net.URL;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
-import static com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning.TASK_LONG;
-
 /**
  * A panel for the NS2 block.
  */
@@ -67,14 +67,14 @@ public final class GWEffectBlockPanelNS2
   }
 
   @Override
-  protected void readFromDevice()
+  protected void readFromDeviceIfStale(
+    final GWControllerType ctrl,
+    final Duration timeToLive)
+    throws InterruptedException, GWDeviceException
   {
-    final var service = this.gtService();
-    service.executeOnDevice(TASK_LONG, ctrl -> {
-      ctrl.patchCurrent()
-        .ns2()
-        .readFromDevice();
-    });
+    ctrl.patchCurrent()
+      .ns2()
+      .readFromDeviceIfStale(timeToLive);
   }
 
   @Override
@@ -20,18 +20,18 @@ package com.io7m.gatwick.gui.internal.preset;
 import com.io7m.gatwick.controller.api.GWControllerType;
 import com.io7m.gatwick.controller.api.GWPatchEffectBlockPreampType;
 import com.io7m.gatwick.controller.api.GWPatchPreampTypeValue;
+import com.io7m.gatwick.device.api.GWDeviceException;
 import com.io7m.gatwick.gui.internal.GWStrings;
 import com.io7m.gatwick.gui.internal.icons.GWIconServiceType;
 import com.io7m.gatwick.iovar.GWIOVariableType;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
 
 import java.net.URL;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
-import static com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning.TASK_LONG;
-
 /**
  * A panel for the preamp block.
  */
@@ -143,13 +143,13 @@ public abstract class GWEffectBlockPanelPreamp
   }
 
   @Override
-  protected final void readFromDevice()
+  protected final void readFromDeviceIfStale(
+    final GWControllerType ctrl,
+    final Duration timeToLive)
+    throws InterruptedException, GWDeviceException
   {
-    final var service = this.gtService();
-    service.executeOnDevice(TASK_LONG, ctrl -> {
-      this.preamp(ctrl)
-        .readFromDevice();
-    });
+    this.preamp(ctrl)
+      .readFromDeviceIfStale(timeToLive);
   }
 
   @Override
@@ -34,9 +34,13 @@ import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.Pane;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 import static com.io7m.gatwick.controller.api.GWChainElementValue.PEDAL_FX;
 import static com.io7m.gatwick.gui.internal.gt.GWGTK1LongRunning.TASK_LONG;
@@ -50,6 +54,7 @@ public final class GWPresetController implements GWScreenControllerType
   private final RPServiceDirectoryType services;
   private final GWGT1KServiceType gt;
   private final EnumMap<GWChainElementValue, GWEffectBlockPanel<?>> panels;
+  private final List<CompletableFuture<?>> prefetches;
 
   @FXML private Pane deviceIsClosedContainer;
   @FXML private Pane deviceIsOpenContainer;
@@ -61,6 +66,7 @@ public final class GWPresetController implements GWScreenControllerType
   @FXML private ImageView presetHeaderIcon;
 
   private GWBlockGraph blockGraph;
+  private List<GWChainElementValue> prefetchedChain;
 
   /**
    * A controller for a single preset.
@@ -75,6 +81,10 @@ public final class GWPresetController implements GWScreenControllerType
       Objects.requireNonNull(inServices, "services");
     this.panels =
       new EnumMap<>(GWChainElementValue.class);
+    this.prefetches =
+      new ArrayList<>();
+    this.prefetchedChain =
+      List.of();
 
     for (final var name : GWChainElementValue.values()) {
       this.panels.put(name, switch (name) {
@@ -159,6 +169,7 @@ public final class GWPresetController implements GWScreenControllerType
 
   private void onDeviceBecameUnavailable()
   {
+    this.cancelPrefetch();
     this.deviceIsClosedContainer.setVisible(true);
     this.deviceIsOpenContainer.setVisible(false);
   }
@@ -172,23 +183,75 @@ public final class GWPresetController implements GWScreenControllerType
   }
 
   /**
-   * Fetch the most recent signal chain on the device.
+   * Fetch the most recent signal chain on the device, if the chain that was
+   * most recently fetched is no longer fresh.
    */
 
   private void fetchAndUpdateGraph()
   {
+    final var timeToLive = this.gt.readTimeToLive();
     this.gt.executeOnDevice(TASK_LONG, controller -> {
+      final var patch =
+        controller.patchCurrent();
       final var chainVar =
-        controller.patchCurrent().chain();
+        patch.chain();
 
-      chainVar.readFromDevice();
+      patch.readChainFromDeviceIfStale(timeToLive);
 
       Platform.runLater(() -> {
-        this.blockGraph.chain().setValue(chainVar.get());
+        final var chain = chainVar.get();
+        this.blockGraph.chain().setValue(chain);
+        this.schedulePrefetch(chain);
       });
     });
   }
 
+  /**
+   * Schedule background reads of every panel, so that selecting a block
+   * doesn't have to wait for the device. The currently selected block is
+   * read first, followed by the rest of the blocks in chain order. Nothing
+   * is scheduled if the chain hasn't changed since the last time the panels
+   * were prefetched.
+   *
+   * @param chain The chain
+   */
+
+  private void schedulePrefetch(
+    final GWChain chain)
+  {
+    final var elements = chain.elements();
+    if (Objects.equals(elements, this.prefetchedChain)) {
+      return;
+    }
+
+    this.cancelPrefetch();
+    this.prefetchedChain = elements;
+
+    final var order = new LinkedHashSet<GWChainElementValue>();
+    final var selected = this.blockGraph.selectedNode().getValue();
+    if (selected != null) {
+      order.add(selected.name());
+    }
+    order.addAll(elements);
+    order.addAll(this.panels.keySet());
+
+    for (final var name : order) {
+      final var panel = this.panels.get(name);
+      if (panel != null) {
+        this.prefetches.add(panel.prefetchFromDevice());
+      }
+    }
+  }
+
+  private void cancelPrefetch()
+  {
+    for (final var future : this.prefetches) {
+      future.cancel(false);
+    }
+    this.prefetches.clear();
+    this.prefetchedChain = List.of();
+  }
+
   @Override
   public void initialize(
     final URL url,
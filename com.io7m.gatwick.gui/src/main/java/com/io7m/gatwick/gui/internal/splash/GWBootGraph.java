@@ -0,0 +1,199 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.gui.internal.splash;
+
+import com.io7m.repetoir.core.RPServiceDirectoryWritableType;
+import com.io7m.repetoir.core.RPServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * A graph of services to be started at boot. Each service declares the
+ * services on which it depends, and is started as soon as all of those
+ * services have been registered. Services that do not depend on each other
+ * are started in parallel.
+ */
+
+public final class GWBootGraph
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(GWBootGraph.class);
+
+  private final RPServiceDirectoryWritableType services;
+  private final Map<Class<?>, Node<?>> nodes;
+  private final List<Node<?>> nodesOrdered;
+
+  /**
+   * A graph of services to be started at boot.
+   *
+   * @param inServices The service directory into which services are registered
+   */
+
+  public GWBootGraph(
+    final RPServiceDirectoryWritableType inServices)
+  {
+    this.services =
+      Objects.requireNonNull(inServices, "services");
+    this.nodes =
+      new HashMap<>();
+    this.nodesOrdered =
+      new ArrayList<>();
+  }
+
+  /**
+   * Add a service to the graph. Each dependency must either have been
+   * added to the graph already, or must already be registered in the service
+   * directory. As a consequence, the graph cannot contain cycles.
+   *
+   * @param type         The service type
+   * @param dependencies The service types on which the service depends
+   * @param creator      A function that creates the service
+   * @param <T>          The type of service
+   */
+
+  public <T extends RPServiceType> void add(
+    final Class<T> type,
+    final List<Class<? extends RPServiceType>> dependencies,
+    final Callable<T> creator)
+  {
+    Objects.requireNonNull(type, "type");
+    Objects.requireNonNull(dependencies, "dependencies");
+    Objects.requireNonNull(creator, "creator");
+
+    if (this.nodes.containsKey(type)) {
+      throw new IllegalArgumentException(
+        "Service %s has already been added".formatted(type.getName())
+      );
+    }
+
+    for (final var dependency : dependencies) {
+      final var satisfied =
+        this.nodes.containsKey(dependency)
+        || this.services.optionalService(dependency).isPresent();
+
+      if (!satisfied) {
+        throw new IllegalArgumentException(
+          "Service %s depends on %s, which is neither added nor registered"
+            .formatted(type.getName(), dependency.getName())
+        );
+      }
+    }
+
+    final var node = new Node<>(type, List.copyOf(dependencies), creator);
+    this.nodes.put(type, node);
+    this.nodesOrdered.add(node);
+  }
+
+  /**
+   * Start all services in the graph. The returned future completes when every
+   * service has either been registered or has failed; it completes
+   * exceptionally if any service failed. A service whose dependency failed
+   * is not started.
+   *
+   * @param onProgress A function called with the number of services that
+   *                   have finished, and the total number of services
+   *
+   * @return The boot in progress
+   */
+
+  public CompletableFuture<Void> start(
+    final BiConsumer<Integer, Integer> onProgress)
+  {
+    Objects.requireNonNull(onProgress, "onProgress");
+
+    final var threads =
+      Thread.ofVirtual().factory();
+
+    final var executor =
+      Executors.newThreadPerTaskExecutor(r -> {
+        final var th = threads.newThread(r);
+        th.setName("com.io7m.gatwick.gui.internal.splash.GWBootGraph[%d]"
+                     .formatted(th.threadId()));
+        return th;
+      });
+
+    final var total =
+      Integer.valueOf(this.nodesOrdered.size());
+    final var finished =
+      new AtomicInteger();
+    final var futures =
+      new HashMap<Class<?>, CompletableFuture<?>>();
+
+    for (final var node : this.nodesOrdered) {
+      final var waitFor =
+        node.dependencies.stream()
+          .map(futures::get)
+          .filter(Objects::nonNull)
+          .toArray(CompletableFuture<?>[]::new);
+
+      final var future =
+        CompletableFuture.allOf(waitFor)
+          .thenRunAsync(() -> this.startNode(node), executor)
+          .whenComplete((ignored, exception) -> {
+            if (exception != null) {
+              LOG.error("failed to start {}: ", node.type.getName(), exception);
+            }
+            onProgress.accept(
+              Integer.valueOf(finished.incrementAndGet()), total);
+          });
+
+      futures.put(node.type, future);
+    }
+
+    return CompletableFuture.allOf(
+        futures.values().toArray(CompletableFuture<?>[]::new))
+      .whenComplete((ignored, exception) -> executor.shutdown());
+  }
+
+  private <T extends RPServiceType> void startNode(
+    final Node<T> node)
+  {
+    LOG.debug("starting {}", node.type.getName());
+
+    final var timeThen = System.nanoTime();
+    try {
+      this.services.register(node.type, node.creator.call());
+    } catch (final Exception e) {
+      throw new CompletionException(e);
+    }
+
+    LOG.debug("started {} in {}ms",
+              node.type.getName(),
+              Long.valueOf((System.nanoTime() - timeThen) / 1_000_000L));
+  }
+
+  private record Node<T extends RPServiceType>(
+    Class<T> type,
+    List<Class<? extends RPServiceType>> dependencies,
+    Callable<T> creator)
+  {
+
+  }
+}
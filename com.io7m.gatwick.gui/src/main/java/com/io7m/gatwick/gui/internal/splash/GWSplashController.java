@@ -18,10 +18,14 @@
 package com.io7m.gatwick.gui.internal.splash;
 
 import com.io7m.gatwick.gui.internal.GWBootCompleted;
+import com.io7m.gatwick.gui.internal.GWScreenCache;
 import com.io7m.gatwick.gui.internal.GWScreenControllerType;
+import com.io7m.gatwick.gui.internal.GWStrings;
 import com.io7m.gatwick.gui.internal.config.GWConfigurationServiceType;
 import com.io7m.gatwick.gui.internal.debug.GWDebugService;
 import com.io7m.gatwick.gui.internal.exec.GWBackgroundExecutorType;
+import com.io7m.gatwick.gui.internal.gt.GWGT1KServiceType;
+import com.io7m.gatwick.gui.internal.icons.GWIconServiceType;
 import com.io7m.gatwick.gui.internal.icons.GWIconSetService;
 import com.io7m.gatwick.gui.internal.icons.GWIconSetServiceType;
 import com.io7m.gatwick.preferences.GWPreferencesService;
@@ -31,6 +35,7 @@ import com.io7m.jattribute.core.Attributes;
 import com.io7m.repetoir.core.RPServiceDirectoryWritableType;
 import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
@@ -40,8 +45,10 @@ import javafx.util.Duration;
 
 import java.net.URL;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static javafx.animation.Interpolator.LINEAR;
@@ -103,36 +110,75 @@ public final class GWSplashController implements GWScreenControllerType
     neon.setCycleCount(Animation.INDEFINITE);
     neon.playFromStart();
 
+    this.splashProgress.setProgress(0.0);
+
     this.executor.executor()
       .execute(() -> {
         try {
-          this.loadServices();
-        } finally {
+          this.loadServices()
+            .whenComplete((ignored, exception) -> {
+              this.publishBootCompletedService();
+            });
+        } catch (final RuntimeException e) {
           this.publishBootCompletedService();
+          throw e;
         }
       });
   }
 
-  private void loadServices()
+  private CompletableFuture<Void> loadServices()
   {
-    this.services.register(
+    final var graph = new GWBootGraph(this.services);
+
+    graph.add(
       GWPreferencesServiceType.class,
-      GWPreferencesService.create(
+      List.of(),
+      () -> GWPreferencesService.create(
         this.directories,
         java.time.Duration.of(10L, ChronoUnit.SECONDS),
         this.attributes
       )
     );
 
-    this.services.register(
+    graph.add(
       GWDebugService.class,
-      GWDebugService.create(this.services)
+      List.of(GWPreferencesServiceType.class),
+      () -> GWDebugService.create(this.services)
     );
 
-    this.services.register(
+    graph.add(
       GWIconSetServiceType.class,
-      GWIconSetService.create()
+      List.of(),
+      GWIconSetService::create
+    );
+
+    /*
+     * The preset screen constructs every effect block panel, and is the
+     * first screen shown once booting completes. Build it now, while the
+     * splash screen is visible, rather than after.
+     */
+
+    graph.add(
+      GWScreenCache.class,
+      List.of(
+        GWStrings.class,
+        GWIconServiceType.class,
+        GWIconSetServiceType.class,
+        GWGT1KServiceType.class
+      ),
+      () -> {
+        final var cache = GWScreenCache.create(this.services);
+        cache.preload("preset.fxml").get();
+        return cache;
+      }
     );
+
+    return graph.start((finished, total) -> {
+      Platform.runLater(() -> {
+        this.splashProgress.setProgress(
+          finished.doubleValue() / total.doubleValue());
+      });
+    });
   }
 
   private void publishBootCompletedService()
@@ -40,6 +40,8 @@ open module com.io7m.gatwick.gui
   requires javafx.base;
   requires javafx.controls;
   requires javafx.fxml;
+  requires java.management;
+  requires jdk.jfr;
   requires org.apache.commons.text;
   requires org.slf4j;
 
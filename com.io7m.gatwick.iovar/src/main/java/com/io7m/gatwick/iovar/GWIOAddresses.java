@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+/**
+ * Functions over device addresses.
+ */
+
+public final class GWIOAddresses
+{
+  private GWIOAddresses()
+  {
+
+  }
+
+  /**
+   * Convert a device address to a linear offset. Device addresses consist of
+   * four bytes of which only the lower seven bits are used; the linear offset
+   * removes the unused bits so that the distance between two addresses can be
+   * computed by subtraction.
+   *
+   * @param address The device address
+   *
+   * @return The linear offset
+   */
+
+  public static int linearOf(
+    final int address)
+  {
+    return ((address >>> 24) & 0x7f) << 21
+           | ((address >>> 16) & 0x7f) << 14
+           | ((address >>> 8) & 0x7f) << 7
+           | (address & 0x7f);
+  }
+
+  /**
+   * Convert a linear offset to a device address. This is the inverse of
+   * {@link #linearOf(int)}.
+   *
+   * @param linear The linear offset
+   *
+   * @return The device address
+   */
+
+  public static int addressOf(
+    final int linear)
+  {
+    return ((linear >>> 21) & 0x7f) << 24
+           | ((linear >>> 14) & 0x7f) << 16
+           | ((linear >>> 7) & 0x7f) << 8
+           | (linear & 0x7f);
+  }
+
+  /**
+   * @param baseAddress The base device address of a region
+   * @param size        The linear size of the region
+   * @param address     The device address
+   *
+   * @return {@code true} if {@code address} is within the region
+   */
+
+  public static boolean contains(
+    final int baseAddress,
+    final int size,
+    final int address)
+  {
+    final var delta = linearOf(address) - linearOf(baseAddress);
+    return delta >= 0 && delta < size;
+  }
+
+  /**
+   * @param baseAddress  The base device address of a region
+   * @param size         The linear size of the region
+   * @param rangeAddress The device address of the first byte of a range
+   * @param rangeSize    The linear size of the range
+   *
+   * @return {@code true} if any byte of the range is within the region
+   */
+
+  public static boolean overlaps(
+    final int baseAddress,
+    final int size,
+    final int rangeAddress,
+    final int rangeSize)
+  {
+    final var regionStart = linearOf(baseAddress);
+    final var rangeStart = linearOf(rangeAddress);
+    return rangeStart < regionStart + size
+           && regionStart < rangeStart + rangeSize;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import com.io7m.gatwick.device.api.GWDeviceException;
+
+import java.time.Duration;
+
+/**
+ * The type of objects that can receive values from a device, and that track
+ * whether the values they hold are up-to-date.
+ */
+
+public interface GWIOCachedReadableType extends GWIOReadableType
+{
+  /**
+   * @param timeToLive The time to live
+   *
+   * @return {@code true} if the values were read within the given time to live,
+   * and have not been invalidated since; for a structure, this includes the
+   * values of every nested structure
+   */
+
+  boolean isFresh(Duration timeToLive);
+
+  /**
+   * Read the values from the underlying device if they are not fresh.
+   *
+   * @param timeToLive The time to live
+   *
+   * @throws InterruptedException If the operation is interrupted
+   * @throws GWDeviceException    If the device fails
+   * @see #isFresh(Duration)
+   */
+
+  default void readFromDeviceIfStale(
+    final Duration timeToLive)
+    throws InterruptedException, GWDeviceException
+  {
+    if (this.isFresh(timeToLive)) {
+      GWIOStatistics.recordFreshnessHit();
+      return;
+    }
+
+    GWIOStatistics.recordFreshnessMiss();
+    this.readFromDevice();
+  }
+
+  /**
+   * Invalidate the values, forcing the next call to
+   * {@link #readFromDeviceIfStale(Duration)} to read from the device.
+   */
+
+  void invalidate();
+
+  /**
+   * Invalidate any values that contain the given device address.
+   *
+   * @param address The device address
+   */
+
+  default void invalidateAddress(
+    final int address)
+  {
+    this.invalidateRange(address, 1);
+  }
+
+  /**
+   * Invalidate any values that contain any byte of the given range.
+   *
+   * @param address The device address of the first byte of the range
+   * @param size    The linear size of the range
+   */
+
+  void invalidateRange(
+    int address,
+    int size);
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Primitive, offset-based encoding functions. These functions read and write
+ * values at absolute offsets within a buffer and do not allocate (other than
+ * the values they return). Generated structure codecs are expressed entirely
+ * in terms of these functions.
+ */
+
+public final class GWIOCodecs
+{
+  private GWIOCodecs()
+  {
+
+  }
+
+  /**
+   * Read a value in the range [0,127] stored in a single byte.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   *
+   * @return The value
+   */
+
+  public static int uint8Read(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    return (int) buffer.get(offset) & 0xff;
+  }
+
+  /**
+   * Write a value in the range [0,127] to a single byte.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param x      The value
+   */
+
+  public static void uint8Write(
+    final ByteBuffer buffer,
+    final int offset,
+    final int x)
+  {
+    buffer.put(offset, (byte) (x & 0xff));
+  }
+
+  /**
+   * Read a value in the range [0,255] stored as two nibbles, most
+   * significant nibble first.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   *
+   * @return The value
+   */
+
+  public static int uint8As16Read(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    final var xmsb = (int) buffer.get(offset) & 0b1111;
+    final var xlsb = (int) buffer.get(offset + 1) & 0b1111;
+    return (xmsb << 4) | xlsb;
+  }
+
+  /**
+   * Write a value in the range [0,255] as two nibbles, most significant
+   * nibble first.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param x      The value
+   */
+
+  public static void uint8As16Write(
+    final ByteBuffer buffer,
+    final int offset,
+    final int x)
+  {
+    buffer.put(offset, (byte) ((x >> 4) & 0b1111));
+    buffer.put(offset + 1, (byte) (x & 0b1111));
+  }
+
+  /**
+   * Read a 16-bit value stored as four nibbles, most significant nibble
+   * first.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   *
+   * @return The value
+   */
+
+  public static int uint16As32Read(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    final var x0 = (int) buffer.get(offset) & 0b1111;
+    final var x1 = (int) buffer.get(offset + 1) & 0b1111;
+    final var x2 = (int) buffer.get(offset + 2) & 0b1111;
+    final var x3 = (int) buffer.get(offset + 3) & 0b1111;
+    return (x0 << 12) | (x1 << 8) | (x2 << 4) | x3;
+  }
+
+  /**
+   * Write a 16-bit value as four nibbles, most significant nibble first.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param x      The value
+   */
+
+  public static void uint16As32Write(
+    final ByteBuffer buffer,
+    final int offset,
+    final int x)
+  {
+    buffer.put(offset, (byte) ((x >> 12) & 0b1111));
+    buffer.put(offset + 1, (byte) ((x >> 8) & 0b1111));
+    buffer.put(offset + 2, (byte) ((x >> 4) & 0b1111));
+    buffer.put(offset + 3, (byte) (x & 0b1111));
+  }
+
+  /**
+   * Read a Rate118 value.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   *
+   * @return The value
+   */
+
+  public static GWIORate118Type rate118Read(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    final var i = (int) buffer.get(offset);
+    if (i <= 100) {
+      return new GWIORate118Milliseconds(i);
+    }
+    return GWIORate118Note.ofInt(i);
+  }
+
+  /**
+   * Write a Rate118 value.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param value  The value
+   */
+
+  public static void rate118Write(
+    final ByteBuffer buffer,
+    final int offset,
+    final GWIORate118Type value)
+  {
+    final var x = switch (value) {
+      case final GWIORate118Milliseconds milliseconds -> milliseconds.value();
+      case final GWIORate118Note note -> GWIORate118Note.info().toInt(note);
+    };
+    uint8Write(buffer, offset, x);
+  }
+
+  /**
+   * Read a Rate318 value.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   *
+   * @return The value
+   */
+
+  public static GWIORate318Type rate318Read(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    final var i = uint16As32Read(buffer, offset);
+    if (i <= 300) {
+      return new GWIORate318Milliseconds(i);
+    }
+    return GWIORate318Note.ofInt(i);
+  }
+
+  /**
+   * Write a Rate318 value.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param value  The value
+   */
+
+  public static void rate318Write(
+    final ByteBuffer buffer,
+    final int offset,
+    final GWIORate318Type value)
+  {
+    final var x = switch (value) {
+      case final GWIORate318Milliseconds milliseconds -> milliseconds.value();
+      case final GWIORate318Note note -> GWIORate318Note.info().toInt(note);
+    };
+    uint16As32Write(buffer, offset, x);
+  }
+
+  /**
+   * Read a Rate119 value.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   *
+   * @return The value
+   */
+
+  public static GWIORate119Type rate119Read(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    final var i = uint8Read(buffer, offset);
+    if (i == 0) {
+      return GWIORate119Off.OFF;
+    }
+    if (i <= 101) {
+      return new GWIORate119Milliseconds(i);
+    }
+    return GWIORate119Note.ofInt(i);
+  }
+
+  /**
+   * Write a Rate119 value.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param value  The value
+   */
+
+  public static void rate119Write(
+    final ByteBuffer buffer,
+    final int offset,
+    final GWIORate119Type value)
+  {
+    final var x = switch (value) {
+      case final GWIORate119Off off -> 0;
+      case final GWIORate119Milliseconds milliseconds -> milliseconds.value() + 1;
+      case final GWIORate119Note note -> GWIORate119Note.info().toInt(note);
+    };
+    uint8Write(buffer, offset, x);
+  }
+
+  /**
+   * Read an ASCII string.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param length The string length
+   *
+   * @return The value
+   */
+
+  public static String stringRead(
+    final ByteBuffer buffer,
+    final int offset,
+    final int length)
+  {
+    final var data = new byte[length];
+    buffer.get(offset, data);
+    return new String(data, US_ASCII);
+  }
+
+  /**
+   * Write an ASCII string. At most {@code length} bytes are written.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param length The string length
+   * @param value  The value
+   */
+
+  public static void stringWrite(
+    final ByteBuffer buffer,
+    final int offset,
+    final int length,
+    final String value)
+  {
+    final var data = value.getBytes(US_ASCII);
+    buffer.put(offset, data, 0, Math.min(length, data.length));
+  }
+
+  /**
+   * Read raw bytes.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param length The number of bytes
+   *
+   * @return The value
+   */
+
+  public static ByteBuffer rawRead(
+    final ByteBuffer buffer,
+    final int offset,
+    final int length)
+  {
+    final var data = new byte[length];
+    buffer.get(offset, data);
+    return ByteBuffer.wrap(data);
+  }
+
+  /**
+   * Write raw bytes. At most {@code length} bytes are written.
+   *
+   * @param buffer The buffer
+   * @param offset The absolute offset
+   * @param length The number of bytes
+   * @param value  The value
+   */
+
+  public static void rawWrite(
+    final ByteBuffer buffer,
+    final int offset,
+    final int length,
+    final ByteBuffer value)
+  {
+    final var count = Math.min(length, value.limit());
+    for (int index = 0; index < count; ++index) {
+      buffer.put(offset + index, value.get(index));
+    }
+  }
+}
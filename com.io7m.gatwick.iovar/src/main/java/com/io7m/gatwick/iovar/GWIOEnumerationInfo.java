@@ -19,19 +19,61 @@ package com.io7m.gatwick.iovar;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Objects;
+import java.util.ServiceLoader;
 
 /**
- * Functions to retrieve information about enums reflectively.
+ * Functions to retrieve information about enums. Information is obtained from
+ * any available {@link GWIOEnumerationRegistryType} services, falling back to
+ * calling a static {@code info} method reflectively. Results are cached per
+ * class.
  */
 
 public final class GWIOEnumerationInfo
 {
+  private static final ClassValue<GWIOEnumerationInfoType<?>> INFO =
+    new ClassValue<>()
+    {
+      @Override
+      protected GWIOEnumerationInfoType<?> computeValue(
+        final Class<?> type)
+      {
+        return lookup(type);
+      }
+    };
+
   private GWIOEnumerationInfo()
   {
 
   }
 
+  private static final class Registries
+  {
+    private static final List<GWIOEnumerationRegistryType> REGISTRIES =
+      ServiceLoader.load(GWIOEnumerationRegistryType.class)
+        .stream()
+        .map(ServiceLoader.Provider::get)
+        .toList();
+
+    private Registries()
+    {
+
+    }
+  }
+
+  private static GWIOEnumerationInfoType<?> lookup(
+    final Class<?> type)
+  {
+    for (final var registry : Registries.REGISTRIES) {
+      final var infoOpt = registry.findInfo(type);
+      if (infoOpt.isPresent()) {
+        return infoOpt.get();
+      }
+    }
+    return findInfoReflectively(type);
+  }
+
   /**
    * Retrieve info for the given enum.
    *
@@ -50,7 +92,12 @@ public final class GWIOEnumerationInfo
     throws IllegalStateException
   {
     Objects.requireNonNull(valueClass, "valueClass");
+    return (GWIOEnumerationInfoType<T>) INFO.get(valueClass);
+  }
 
+  private static GWIOEnumerationInfoType<?> findInfoReflectively(
+    final Class<?> valueClass)
+  {
     final Method infoMethod;
     try {
       infoMethod = valueClass.getMethod("info");
@@ -58,9 +105,9 @@ public final class GWIOEnumerationInfo
       throw new IllegalStateException(e);
     }
 
-    final GWIOEnumerationInfoType<T> enumInfo;
+    final GWIOEnumerationInfoType<?> enumInfo;
     try {
-      enumInfo = (GWIOEnumerationInfoType<T>) infoMethod.invoke(null);
+      enumInfo = (GWIOEnumerationInfoType<?>) infoMethod.invoke(null);
     } catch (final IllegalAccessException | InvocationTargetException e) {
       throw new IllegalStateException(e);
     }
@@ -26,6 +26,7 @@ import java.util.List;
  */
 
 public interface GWIOEnumerationInfoType<T extends Enum<T> & Comparable<T>>
+  extends GWIOIntConversionType<T>
 {
   /**
    * @return The enumeration class
@@ -39,6 +40,7 @@ public interface GWIOEnumerationInfoType<T extends Enum<T> & Comparable<T>>
    * @return The enumeration case of the given integer
    */
 
+  @Override
   T fromInt(int x);
 
   /**
@@ -47,6 +49,7 @@ public interface GWIOEnumerationInfoType<T extends Enum<T> & Comparable<T>>
    * @return The integer index of this enumeration constant
    */
 
+  @Override
   int toInt(T x);
 
   /**
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import java.util.Optional;
+
+/**
+ * A registry of enumeration information. Registries are typically generated
+ * alongside the enumerations they describe, and are made available via
+ * {@link java.util.ServiceLoader}.
+ */
+
+public interface GWIOEnumerationRegistryType
+{
+  /**
+   * Find information for the given enumeration class.
+   *
+   * @param enumClass The enumeration class
+   *
+   * @return The information, if this registry knows about the class
+   */
+
+  Optional<GWIOEnumerationInfoType<?>> findInfo(Class<?> enumClass);
+}
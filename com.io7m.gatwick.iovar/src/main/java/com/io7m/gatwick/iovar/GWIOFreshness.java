@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A record of when a piece of data was last synchronized with a device.
+ * Data is considered to be fresh if it has been synchronized, it has not been
+ * invalidated since, and the synchronization happened within a given time to
+ * live.
+ */
+
+public final class GWIOFreshness
+{
+  private final AtomicLong generation;
+  private volatile long synchronizedGeneration;
+  private volatile long synchronizedAt;
+
+  /**
+   * Create freshness information for data that has never been synchronized.
+   */
+
+  public GWIOFreshness()
+  {
+    this.generation = new AtomicLong(0L);
+    this.synchronizedGeneration = -1L;
+    this.synchronizedAt = 0L;
+  }
+
+  /**
+   * Indicate that a synchronization is about to begin.
+   *
+   * @return A token that must be passed to {@link #endSynchronization(long)}
+   */
+
+  public long beginSynchronization()
+  {
+    return this.generation.get();
+  }
+
+  /**
+   * Indicate that a synchronization has completed. If the data was
+   * invalidated while the synchronization was in progress, the data is not
+   * considered to be fresh.
+   *
+   * @param token The token returned by {@link #beginSynchronization()}
+   */
+
+  public void endSynchronization(
+    final long token)
+  {
+    this.synchronizedAt = System.nanoTime();
+    this.synchronizedGeneration = token;
+  }
+
+  /**
+   * Invalidate the data.
+   */
+
+  public void invalidate()
+  {
+    this.generation.incrementAndGet();
+  }
+
+  /**
+   * @param timeToLive The time to live
+   *
+   * @return {@code true} if the data is fresh
+   */
+
+  public boolean isFresh(
+    final Duration timeToLive)
+  {
+    Objects.requireNonNull(timeToLive, "timeToLive");
+
+    if (this.synchronizedGeneration != this.generation.get()) {
+      return false;
+    }
+
+    final var age = System.nanoTime() - this.synchronizedAt;
+    return age <= timeToLive.toNanos();
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The type of structures that can be decoded from, and encoded to, an image
+ * of the structure's memory. An image is a contiguous sequence of bytes, as
+ * returned by the device for a bulk request starting at the address of the
+ * structure. Only the parameters declared directly by a structure are present
+ * in its image; nested structures have images of their own.
+ */
+
+public interface GWIOImageCodecType
+{
+  /**
+   * @return The size in bytes of the structure's image, not including the
+   * images of nested structures
+   */
+
+  int imageSize();
+
+  /**
+   * Decode all parameters from the given image and set them locally. No
+   * messages are sent to the underlying device.
+   *
+   * @param buffer The buffer containing the image
+   * @param offset The absolute offset of the image within the buffer
+   */
+
+  void decodeFrom(
+    ByteBuffer buffer,
+    int offset);
+
+  /**
+   * Encode the current values of all parameters into the given image.
+   *
+   * @param buffer The buffer that will contain the image
+   * @param offset The absolute offset of the image within the buffer
+   */
+
+  void encodeTo(
+    ByteBuffer buffer,
+    int offset);
+}
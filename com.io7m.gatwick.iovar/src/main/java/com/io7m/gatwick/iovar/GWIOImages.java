@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Functions to transfer structure images to and from the device.
+ */
+
+public final class GWIOImages
+{
+  /**
+   * The largest number of bytes requested from the device in one command.
+   */
+
+  public static final int MAXIMUM_TRANSFER_SIZE = 128;
+
+  private GWIOImages()
+  {
+
+  }
+
+  /**
+   * Read an image from the device. The image is requested with a single
+   * command unless it is larger than {@link #MAXIMUM_TRANSFER_SIZE}, in
+   * which case it is requested in consecutive chunks of at most that size.
+   *
+   * @param device  The device
+   * @param address The device address of the first byte of the image
+   * @param size    The linear size of the image
+   *
+   * @return A buffer containing the image, starting at offset zero
+   *
+   * @throws GWDeviceException    On errors
+   * @throws InterruptedException On interruption
+   */
+
+  public static ByteBuffer read(
+    final GWDeviceType device,
+    final int address,
+    final int size)
+    throws GWDeviceException, InterruptedException
+  {
+    Objects.requireNonNull(device, "device");
+
+    final var image = new byte[size];
+    final var start = GWIOAddresses.linearOf(address);
+
+    for (int offset = 0; offset < size; offset += MAXIMUM_TRANSFER_SIZE) {
+      final var chunkSize = Math.min(MAXIMUM_TRANSFER_SIZE, size - offset);
+
+      /*
+       * The size field of a request is encoded in the same 7-bit form as
+       * addresses.
+       */
+
+      final var response =
+        device.sendCommand(
+          new GWDeviceCommandRequestData(
+            GWIOAddresses.addressOf(start + offset),
+            GWIOAddresses.addressOf(chunkSize)
+          )
+        );
+
+      final var data = response.data();
+      System.arraycopy(
+        data, 0, image, offset, Math.min(chunkSize, data.length));
+    }
+
+    return ByteBuffer.wrap(image);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+/**
+ * A bidirectional conversion between values and their integer encodings.
+ *
+ * @param <T> The type of values
+ */
+
+public interface GWIOIntConversionType<T>
+{
+  /**
+   * @param x The integer value
+   *
+   * @return The value of the given integer
+   */
+
+  T fromInt(int x);
+
+  /**
+   * @param x The value
+   *
+   * @return The integer encoding of the value
+   */
+
+  int toInt(T x);
+
+  /**
+   * Check that the given integer is a valid encoding of a value.
+   *
+   * @param x The integer value
+   *
+   * @throws IllegalArgumentException If the integer is not a valid encoding
+   */
+
+  default void checkInt(
+    final int x)
+    throws IllegalArgumentException
+  {
+    this.fromInt(x);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+/**
+ * Standard integer conversions.
+ */
+
+public final class GWIOIntConversions
+{
+  private static final GWIOIntConversionType<Integer> INTEGERS =
+    new IntegerConversion();
+
+  private GWIOIntConversions()
+  {
+
+  }
+
+  /**
+   * @return The identity conversion for integers
+   */
+
+  public static GWIOIntConversionType<Integer> integers()
+  {
+    return INTEGERS;
+  }
+
+  private static final class IntegerConversion
+    implements GWIOIntConversionType<Integer>
+  {
+    IntegerConversion()
+    {
+
+    }
+
+    @Override
+    public Integer fromInt(
+      final int x)
+    {
+      return Integer.valueOf(x);
+    }
+
+    @Override
+    public int toInt(
+      final Integer x)
+    {
+      return x.intValue();
+    }
+
+    @Override
+    public void checkInt(
+      final int x)
+    {
+
+    }
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.jattribute.core.AttributeReadableType;
+import com.io7m.jattribute.core.AttributeReceiverType;
+import com.io7m.jattribute.core.AttributeSubscriptionType;
+import com.io7m.jattribute.core.AttributeType;
+import com.io7m.jattribute.core.Attributes;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * An I/O variable implementation that holds values as integers.
+ *
+ * @param <T> The type of values
+ */
+
+public final class GWIOIntVariable<T> implements GWIOIntVariableType<T>
+{
+  private final Attributes attributes;
+  private final CopyOnWriteArrayList<GWIOIntReceiverType> receivers;
+  private final byte[] bufferData;
+  private final ByteBuffer buffer;
+  private final GWDeviceType device;
+  private final GWIOIntConversionType<T> conversion;
+  private final GWIOIntSerializeType serializer;
+  private final GWIOIntDeserializeType deserializer;
+  private final GWDeviceCommandSetData cmdWrite;
+  private final GWDeviceCommandRequestData cmdRead;
+  private final int address;
+  private final GWIOVariableInformation<T> info;
+  private volatile int value;
+  private volatile AttributeType<T> attribute;
+
+  private GWIOIntVariable(
+    final GWDeviceType inDevice,
+    final Attributes inAttributes,
+    final GWIOIntConversionType<T> inConversion,
+    final GWIOIntSerializeType inSerializer,
+    final GWIOIntDeserializeType inDeserializer,
+    final int inSize,
+    final GWIOVariableInformation<T> inInfo,
+    final int inAddress)
+  {
+    this.device =
+      Objects.requireNonNull(inDevice, "inDevice");
+    this.attributes =
+      Objects.requireNonNull(inAttributes, "inAttributes");
+    this.conversion =
+      Objects.requireNonNull(inConversion, "inConversion");
+    this.serializer =
+      Objects.requireNonNull(inSerializer, "inSerializer");
+    this.deserializer =
+      Objects.requireNonNull(inDeserializer, "inDeserializer");
+    this.info =
+      Objects.requireNonNull(inInfo, "inInfo");
+    this.receivers =
+      new CopyOnWriteArrayList<>();
+
+    this.value = this.conversion.toInt(inInfo.valueInitial());
+    this.address = inAddress;
+    this.bufferData = new byte[inSize];
+    this.buffer = ByteBuffer.wrap(this.bufferData);
+
+    this.cmdWrite =
+      new GWDeviceCommandSetData(this.address, this.bufferData);
+    this.cmdRead =
+      new GWDeviceCommandRequestData(this.address, this.bufferData.length);
+  }
+
+  /**
+   * Create a new integer I/O variable.
+   *
+   * @param inDevice       The underlying device
+   * @param inAttributes   An attribute source
+   * @param inConversion   The conversion between values and integers
+   * @param inSerializer   A value serializer
+   * @param inDeserializer A value deserializer
+   * @param inSize         The serialized size of values
+   * @param inInfo         The variable information
+   * @param inAddress      The variable address
+   * @param <T>            The type of value
+   *
+   * @return A new variable
+   */
+
+  public static <T> GWIOIntVariableType<T> create(
+    final GWDeviceType inDevice,
+    final Attributes inAttributes,
+    final GWIOIntConversionType<T> inConversion,
+    final GWIOIntSerializeType inSerializer,
+    final GWIOIntDeserializeType inDeserializer,
+    final int inSize,
+    final GWIOVariableInformation<T> inInfo,
+    final int inAddress)
+  {
+    return new GWIOIntVariable<>(
+      inDevice,
+      inAttributes,
+      inConversion,
+      inSerializer,
+      inDeserializer,
+      inSize,
+      inInfo,
+      inAddress
+    );
+  }
+
+  @Override
+  public int address()
+  {
+    return this.address;
+  }
+
+  @Override
+  public GWIOIntConversionType<T> conversion()
+  {
+    return this.conversion;
+  }
+
+  @Override
+  public int getInt()
+  {
+    return this.value;
+  }
+
+  @Override
+  public void setInt(
+    final int x)
+    throws InterruptedException, GWDeviceException
+  {
+    this.conversion.checkInt(x);
+
+    final var event = new GWIOVariableWriteEvent();
+    event.begin();
+    this.buffer.rewind();
+    this.serializer.serializeTo(this.buffer, x);
+
+    this.device.sendCommand(this.cmdWrite);
+    this.publish(x);
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.variable = this.info.label();
+      event.address = this.address;
+      event.size = this.bufferData.length;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void setIntLocal(
+    final int x)
+  {
+    this.conversion.checkInt(x);
+    this.publish(x);
+  }
+
+  private void publish(
+    final int x)
+  {
+    final var oldValue = this.value;
+    this.value = x;
+
+    for (final var receiver : this.receivers) {
+      try {
+        receiver.receive(oldValue, x);
+      } catch (final RuntimeException e) {
+        final var thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      }
+    }
+
+    /*
+     * Values are only boxed if someone has asked for the generic attribute.
+     */
+
+    final var attributeNow = this.attribute;
+    if (attributeNow != null) {
+      attributeNow.set(this.conversion.fromInt(x));
+    }
+  }
+
+  @Override
+  public AttributeSubscriptionType subscribeInt(
+    final GWIOIntReceiverType receiver)
+  {
+    Objects.requireNonNull(receiver, "receiver");
+
+    this.receivers.add(receiver);
+    final var current = this.value;
+    receiver.receive(current, current);
+    return GWIOStatistics.countSubscription(
+      () -> this.receivers.remove(receiver));
+  }
+
+  @Override
+  public int size()
+  {
+    return this.bufferData.length;
+  }
+
+  @Override
+  public void serializeTo(
+    final ByteBuffer output,
+    final T x)
+  {
+    final var i = this.conversion.toInt(x);
+    this.conversion.checkInt(i);
+    this.serializer.serializeTo(output, i);
+  }
+
+  @Override
+  public void set(
+    final T x)
+    throws InterruptedException, GWDeviceException
+  {
+    this.setInt(this.conversion.toInt(x));
+  }
+
+  @Override
+  public void setLocal(
+    final T x)
+  {
+    this.setIntLocal(this.conversion.toInt(x));
+  }
+
+  @Override
+  public void setLocalSerialized(
+    final byte[] data)
+  {
+    if (data.length != this.bufferData.length) {
+      throw new IllegalArgumentException(
+        "Data size %d must be %d".formatted(
+          Integer.valueOf(data.length),
+          Integer.valueOf(this.bufferData.length))
+      );
+    }
+
+    this.setIntLocal(this.deserializer.deserializeFrom(ByteBuffer.wrap(data)));
+  }
+
+  @Override
+  public void readFromDevice()
+    throws InterruptedException, GWDeviceException
+  {
+    final var response =
+      this.device.sendCommand(this.cmdRead);
+
+    this.buffer.rewind();
+    this.buffer.put(0, response.data());
+    this.setIntLocal(this.deserializer.deserializeFrom(this.buffer));
+  }
+
+  @Override
+  public T get()
+  {
+    return this.conversion.fromInt(this.value);
+  }
+
+  private AttributeType<T> attribute()
+  {
+    var attributeNow = this.attribute;
+    if (attributeNow == null) {
+      synchronized (this) {
+        attributeNow = this.attribute;
+        if (attributeNow == null) {
+          attributeNow = this.attributes.fromFunction(this::get);
+          this.attribute = attributeNow;
+        }
+      }
+    }
+    return attributeNow;
+  }
+
+  @Override
+  public <B> AttributeReadableType<B> mapR(
+    final Function<T, B> f)
+  {
+    return this.attribute().mapR(f);
+  }
+
+  @Override
+  public AttributeSubscriptionType subscribe(
+    final AttributeReceiverType<T> receiver)
+  {
+    return GWIOStatistics.countSubscription(
+      this.attribute().subscribe(receiver));
+  }
+
+  @Override
+  public GWIOVariableInformation<T> information()
+  {
+    return this.info;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.jattribute.core.AttributeSubscriptionType;
+
+/**
+ * The type of variables whose values are encoded as integers. The integer
+ * operations do not box values; the generic operations inherited from
+ * {@link GWIOVariableType} convert values using {@link #conversion()}.
+ *
+ * @param <T> The type of values
+ */
+
+public interface GWIOIntVariableType<T> extends GWIOVariableType<T>
+{
+  /**
+   * @return The conversion between values and integers
+   */
+
+  GWIOIntConversionType<T> conversion();
+
+  /**
+   * @return The current value as an integer
+   */
+
+  int getInt();
+
+  /**
+   * Set the value. This will send a message to the underlying device to set the
+   * value.
+   *
+   * @param x The new value as an integer
+   *
+   * @throws InterruptedException If the operation is interrupted
+   * @throws GWDeviceException    If the device fails
+   */
+
+  void setInt(int x)
+    throws InterruptedException, GWDeviceException;
+
+  /**
+   * Set the value locally without sending anything to the underlying device.
+   *
+   * @param x The new value as an integer
+   *
+   * @see #setLocal(Object)
+   */
+
+  void setIntLocal(int x);
+
+  /**
+   * Subscribe to integer value changes. The receiver is called immediately
+   * with the current value.
+   *
+   * @param receiver The receiver
+   *
+   * @return The subscription
+   */
+
+  AttributeSubscriptionType subscribeInt(
+    GWIOIntReceiverType receiver);
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>An immutable, partially-known image of a linear range of device
+ * memory.</p>
+ *
+ * <p>The image is divided into fixed-size pages, grouped into segments.
+ * Writing to an image produces a new image that shares every page and
+ * segment that the write did not touch, so keeping many versions of a large
+ * image costs memory proportional to the amount of data that actually
+ * changed between versions.</p>
+ *
+ * <p>Bytes that have never been written are <i>unknown</i>.</p>
+ */
+
+public final class GWIOPagedImage
+{
+  /**
+   * The size of a page in bytes.
+   */
+
+  public static final int PAGE_SIZE = 64;
+
+  private static final int PAGES_PER_SEGMENT = 64;
+  private static final int SEGMENT_SIZE = PAGE_SIZE * PAGES_PER_SEGMENT;
+
+  private final int offset;
+  private final int size;
+  private final Page[][] segments;
+
+  private GWIOPagedImage(
+    final int inOffset,
+    final int inSize,
+    final Page[][] inSegments)
+  {
+    this.offset = inOffset;
+    this.size = inSize;
+    this.segments = inSegments;
+  }
+
+  /**
+   * Create an image in which all bytes are unknown.
+   *
+   * @param offset The linear offset of the first byte of the image
+   * @param size   The size of the image in bytes
+   *
+   * @return An image
+   */
+
+  public static GWIOPagedImage create(
+    final int offset,
+    final int size)
+  {
+    if (offset < 0) {
+      throw new IllegalArgumentException(
+        "Offset %d must be non-negative".formatted(Integer.valueOf(offset))
+      );
+    }
+    if (size <= 0) {
+      throw new IllegalArgumentException(
+        "Size %d must be positive".formatted(Integer.valueOf(size))
+      );
+    }
+
+    final var segmentCount = (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+    return new GWIOPagedImage(offset, size, new Page[segmentCount][]);
+  }
+
+  /**
+   * @return The linear offset of the first byte of the image
+   */
+
+  public int offset()
+  {
+    return this.offset;
+  }
+
+  /**
+   * @return The size of the image in bytes
+   */
+
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * @param linear The linear offset
+   *
+   * @return {@code true} if the given offset lies within the image
+   */
+
+  public boolean contains(
+    final int linear)
+  {
+    final var delta = linear - this.offset;
+    return delta >= 0 && delta < this.size;
+  }
+
+  /**
+   * @param linear The linear offset
+   *
+   * @return The byte at the given offset, or {@code -1} if the byte is
+   * unknown or lies outside the image
+   */
+
+  public int get(
+    final int linear)
+  {
+    if (!this.contains(linear)) {
+      return -1;
+    }
+
+    final var delta = linear - this.offset;
+    final var segment = this.segments[delta / SEGMENT_SIZE];
+    if (segment == null) {
+      return -1;
+    }
+    final var page = segment[(delta % SEGMENT_SIZE) / PAGE_SIZE];
+    if (page == null) {
+      return -1;
+    }
+    return page.get(delta % PAGE_SIZE);
+  }
+
+  /**
+   * Copy bytes out of the image. Unknown bytes are copied as zero.
+   *
+   * @param range The range
+   *
+   * @return The bytes in the range
+   */
+
+  public byte[] read(
+    final GWIOImageRange range)
+  {
+    Objects.requireNonNull(range, "range");
+
+    final var output = new byte[range.size()];
+    for (int index = 0; index < output.length; ++index) {
+      output[index] = (byte) Math.max(0, this.get(range.offset() + index));
+    }
+    return output;
+  }
+
+  /**
+   * Write bytes to the image. Bytes that fall outside the image are ignored.
+   * This image is not modified.
+   *
+   * @param linear The linear offset of the first byte
+   * @param data   The data
+   *
+   * @return A new image containing the written bytes
+   */
+
+  public GWIOPagedImage write(
+    final int linear,
+    final byte[] data)
+  {
+    Objects.requireNonNull(data, "data");
+
+    final var start = Math.max(linear, this.offset);
+    final var end = Math.min(linear + data.length, this.offset + this.size);
+    if (start >= end) {
+      return this;
+    }
+
+    final var newSegments = this.segments.clone();
+    Page[] lastSegment = null;
+    int lastSegmentIndex = -1;
+
+    int position = start;
+    while (position < end) {
+      final var delta = position - this.offset;
+      final var segmentIndex = delta / SEGMENT_SIZE;
+      final var pageIndex = (delta % SEGMENT_SIZE) / PAGE_SIZE;
+      final var pageOffset = delta % PAGE_SIZE;
+      final var count = Math.min(PAGE_SIZE - pageOffset, end - position);
+
+      if (segmentIndex != lastSegmentIndex) {
+        final var existing = newSegments[segmentIndex];
+        lastSegment = existing == null
+          ? new Page[PAGES_PER_SEGMENT]
+          : existing.clone();
+        newSegments[segmentIndex] = lastSegment;
+        lastSegmentIndex = segmentIndex;
+      }
+
+      lastSegment[pageIndex] = Page.write(
+        lastSegment[pageIndex],
+        pageOffset,
+        data,
+        position - linear,
+        count
+      );
+      position += count;
+    }
+
+    return new GWIOPagedImage(this.offset, this.size, newSegments);
+  }
+
+  /**
+   * Find the ranges of bytes that are known in both images and that differ.
+   * Pages that are shared between the images are skipped without being
+   * examined. Adjacent differing bytes are merged into a single range.
+   *
+   * @param source The source image
+   * @param target The target image
+   *
+   * @return The differing ranges in ascending order
+   */
+
+  public static List<GWIOImageRange> differences(
+    final GWIOPagedImage source,
+    final GWIOPagedImage target)
+  {
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(target, "target");
+
+    if (source.offset != target.offset || source.size != target.size) {
+      throw new IllegalArgumentException(
+        "Images must cover the same range of memory"
+      );
+    }
+
+    final var ranges = new ArrayList<GWIOImageRange>();
+    int runStart = -1;
+
+    for (int s = 0; s < source.segments.length; ++s) {
+      final var segmentS = source.segments[s];
+      final var segmentT = target.segments[s];
+      if (segmentS == segmentT || segmentS == null || segmentT == null) {
+        runStart = closeRun(ranges, runStart, source.offset + s * SEGMENT_SIZE);
+        continue;
+      }
+
+      for (int p = 0; p < PAGES_PER_SEGMENT; ++p) {
+        final var pageBase = source.offset + s * SEGMENT_SIZE + p * PAGE_SIZE;
+        final var pageS = segmentS[p];
+        final var pageT = segmentT[p];
+        if (pageS == pageT || pageS == null || pageT == null) {
+          runStart = closeRun(ranges, runStart, pageBase);
+          continue;
+        }
+
+        for (int b = 0; b < PAGE_SIZE; ++b) {
+          final var valueS = pageS.get(b);
+          final var valueT = pageT.get(b);
+          if (valueS != -1 && valueT != -1 && valueS != valueT) {
+            if (runStart == -1) {
+              runStart = pageBase + b;
+            }
+          } else {
+            runStart = closeRun(ranges, runStart, pageBase + b);
+          }
+        }
+      }
+    }
+
+    closeRun(ranges, runStart, source.offset + source.size);
+    return List.copyOf(ranges);
+  }
+
+  private static int closeRun(
+    final List<GWIOImageRange> ranges,
+    final int runStart,
+    final int runEnd)
+  {
+    if (runStart != -1) {
+      ranges.add(new GWIOImageRange(runStart, runEnd - runStart));
+    }
+    return -1;
+  }
+
+  private record Page(
+    byte[] data,
+    long known)
+  {
+    int get(
+      final int index)
+    {
+      if ((this.known & (1L << index)) == 0L) {
+        return -1;
+      }
+      return this.data[index] & 0xff;
+    }
+
+    static Page write(
+      final Page existing,
+      final int pageOffset,
+      final byte[] source,
+      final int sourceOffset,
+      final int count)
+    {
+      final byte[] data;
+      long known;
+      if (existing == null) {
+        data = new byte[PAGE_SIZE];
+        known = 0L;
+      } else {
+        data = Arrays.copyOf(existing.data, PAGE_SIZE);
+        known = existing.known;
+      }
+
+      System.arraycopy(source, sourceOffset, data, pageOffset, count);
+      for (int index = pageOffset; index < pageOffset + count; ++index) {
+        known |= 1L << index;
+      }
+      return new Page(data, known);
+    }
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import java.util.Objects;
+
+/**
+ * The description of a single parameter within a structure.
+ */
+
+public sealed interface GWIOParameterDescriptorType
+{
+  /**
+   * @return The parameter name
+   */
+
+  String name();
+
+  /**
+   * @return The device address offset of the parameter relative to the
+   * start of the enclosing structure
+   */
+
+  int offset();
+
+  /**
+   * @return The offset of the parameter within an image of the enclosing
+   * structure
+   */
+
+  default int imageOffset()
+  {
+    return GWIOAddresses.linearOf(this.offset());
+  }
+
+  /**
+   * @param maxValue The maximum physical value
+   *
+   * @return The serialized size of an integer with the given maximum value
+   */
+
+  static int integerSizeForMaxValue(
+    final int maxValue)
+  {
+    if (maxValue >= 255) {
+      return 4;
+    }
+    if (maxValue >= 127) {
+      return 2;
+    }
+    return 1;
+  }
+
+  /**
+   * A string parameter.
+   *
+   * @param name   The parameter name
+   * @param offset The parameter offset
+   * @param length The string length
+   */
+
+  record ParameterString(
+    String name,
+    int offset,
+    int length)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * A string parameter.
+     */
+
+    public ParameterString
+    {
+      Objects.requireNonNull(name, "name");
+    }
+  }
+
+  /**
+   * An integer parameter whose values are stored directly.
+   *
+   * @param name         The parameter name
+   * @param offset       The parameter offset
+   * @param valueDefault The default value
+   * @param valueMin     The minimum value
+   * @param valueMax     The maximum value
+   */
+
+  record ParameterIntegerDirect(
+    String name,
+    int offset,
+    int valueDefault,
+    int valueMin,
+    int valueMax)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * An integer parameter whose values are stored directly.
+     */
+
+    public ParameterIntegerDirect
+    {
+      Objects.requireNonNull(name, "name");
+    }
+  }
+
+  /**
+   * An integer parameter whose values are mapped to a physical range.
+   *
+   * @param name         The parameter name
+   * @param offset       The parameter offset
+   * @param valueDefault The default value
+   * @param valueMin     The minimum value
+   * @param valueMax     The maximum value
+   * @param physicalMin  The minimum physical value
+   * @param physicalMax  The maximum physical value
+   */
+
+  record ParameterIntegerMapped(
+    String name,
+    int offset,
+    int valueDefault,
+    int valueMin,
+    int valueMax,
+    int physicalMin,
+    int physicalMax)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * An integer parameter whose values are mapped to a physical range.
+     */
+
+    public ParameterIntegerMapped
+    {
+      Objects.requireNonNull(name, "name");
+    }
+  }
+
+  /**
+   * A fractional parameter whose values are mapped to a physical range.
+   *
+   * @param name         The parameter name
+   * @param offset       The parameter offset
+   * @param valueDefault The default value
+   * @param valueMin     The minimum value
+   * @param valueMax     The maximum value
+   * @param physicalMin  The minimum physical value
+   * @param physicalMax  The maximum physical value
+   */
+
+  record ParameterFractional(
+    String name,
+    int offset,
+    double valueDefault,
+    double valueMin,
+    double valueMax,
+    int physicalMin,
+    int physicalMax)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * A fractional parameter whose values are mapped to a physical range.
+     */
+
+    public ParameterFractional
+    {
+      Objects.requireNonNull(name, "name");
+
+      if ((int) valueMax == (int) valueMin || physicalMax == physicalMin) {
+        throw new IllegalArgumentException(
+          "Fractional parameter has an empty range.");
+      }
+    }
+  }
+
+  /**
+   * A rate parameter with 118 values.
+   *
+   * @param name   The parameter name
+   * @param offset The parameter offset
+   */
+
+  record ParameterRate118(
+    String name,
+    int offset)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * A rate parameter with 118 values.
+     */
+
+    public ParameterRate118
+    {
+      Objects.requireNonNull(name, "name");
+    }
+  }
+
+  /**
+   * A rate parameter with 118 values and an "off" value.
+   *
+   * @param name   The parameter name
+   * @param offset The parameter offset
+   */
+
+  record ParameterRate119(
+    String name,
+    int offset)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * A rate parameter with 118 values and an "off" value.
+     */
+
+    public ParameterRate119
+    {
+      Objects.requireNonNull(name, "name");
+    }
+  }
+
+  /**
+   * A rate parameter with 318 values.
+   *
+   * @param name   The parameter name
+   * @param offset The parameter offset
+   */
+
+  record ParameterRate318(
+    String name,
+    int offset)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * A rate parameter with 318 values.
+     */
+
+    public ParameterRate318
+    {
+      Objects.requireNonNull(name, "name");
+    }
+  }
+
+  /**
+   * A parameter holding an uninterpreted signal chain.
+   *
+   * @param name   The parameter name
+   * @param offset The parameter offset
+   * @param size   The size of the chain in bytes
+   */
+
+  record ParameterChain(
+    String name,
+    int offset,
+    int size)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * A parameter holding an uninterpreted signal chain.
+     */
+
+    public ParameterChain
+    {
+      Objects.requireNonNull(name, "name");
+    }
+  }
+
+  /**
+   * An enumerated parameter.
+   *
+   * @param name        The parameter name
+   * @param offset      The parameter offset
+   * @param enumeration The enumeration type
+   */
+
+  record ParameterEnumerated(
+    String name,
+    int offset,
+    Class<? extends Enum<?>> enumeration)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * An enumerated parameter.
+     */
+
+    public ParameterEnumerated
+    {
+      Objects.requireNonNull(name, "name");
+      Objects.requireNonNull(enumeration, "enumeration");
+    }
+  }
+
+  /**
+   * A reference to a nested structure.
+   *
+   * @param name      The parameter name
+   * @param offset    The parameter offset
+   * @param structure The nested structure
+   */
+
+  record ParameterStructure(
+    String name,
+    int offset,
+    GWIOStructureDescriptor structure)
+    implements GWIOParameterDescriptorType
+  {
+    /**
+     * A reference to a nested structure.
+     */
+
+    public ParameterStructure
+    {
+      Objects.requireNonNull(name, "name");
+      Objects.requireNonNull(structure, "structure");
+    }
+  }
+}
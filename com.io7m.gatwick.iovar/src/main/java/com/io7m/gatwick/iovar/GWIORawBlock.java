@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import java.util.Objects;
+
+/**
+ * A block of device memory that is transferred as a whole, without any
+ * interpretation of its contents.
+ *
+ * @param name    The block name
+ * @param address The device address of the first byte
+ * @param size    The number of bytes
+ */
+
+public record GWIORawBlock(
+  String name,
+  int address,
+  int size)
+{
+  /**
+   * A block of device memory that is transferred as a whole, without any
+   * interpretation of its contents.
+   *
+   * @param name    The block name
+   * @param address The device address of the first byte
+   * @param size    The number of bytes
+   */
+
+  public GWIORawBlock
+  {
+    Objects.requireNonNull(name, "name");
+    if (size <= 0) {
+      throw new IllegalArgumentException(
+        "Size %d must be positive".formatted(Integer.valueOf(size))
+      );
+    }
+  }
+
+  /**
+   * Create a block from a size given in the encoded form used by the device
+   * documentation (and the structure definitions).
+   *
+   * @param name        The block name
+   * @param address     The device address of the first byte
+   * @param encodedSize The encoded size
+   *
+   * @return A block
+   */
+
+  public static GWIORawBlock ofEncodedSize(
+    final String name,
+    final int address,
+    final int encodedSize)
+  {
+    return new GWIORawBlock(
+      name,
+      address,
+      GWIOAddresses.linearOf(encodedSize)
+    );
+  }
+}
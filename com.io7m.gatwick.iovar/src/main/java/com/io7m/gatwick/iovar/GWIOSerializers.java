@@ -65,7 +65,7 @@ public final class GWIOSerializers
   public static GWIOVariableSerializeType<Integer> uint8Serializer()
   {
     return (buffer, value) -> {
-      buffer.put(0, (byte) (value.intValue() & 0xff));
+      GWIOCodecs.uint8Write(buffer, 0, value.intValue());
     };
   }
 
@@ -77,7 +77,7 @@ public final class GWIOSerializers
 
   public static GWIOVariableDeserializeType<Integer> uint8Deserializer()
   {
-    return buffer -> Integer.valueOf((int) buffer.get(0) & 0xff);
+    return buffer -> Integer.valueOf(GWIOCodecs.uint8Read(buffer, 0));
   }
 
   /**
@@ -89,11 +89,7 @@ public final class GWIOSerializers
   public static GWIOVariableSerializeType<Integer> uint8As16Serializer()
   {
     return (buffer, value) -> {
-      final var x = value.intValue();
-      final var xmsb = (x >> 4) & 0b1111;
-      final var xlsb = (x & 0b1111);
-      buffer.put(0, (byte) xmsb);
-      buffer.put(1, (byte) xlsb);
+      GWIOCodecs.uint8As16Write(buffer, 0, value.intValue());
     };
   }
 
@@ -105,11 +101,7 @@ public final class GWIOSerializers
 
   public static GWIOVariableDeserializeType<Integer> uint8As16Deserializer()
   {
-    return buffer -> {
-      final var xmsb = (int) buffer.get(0) & 0b1111;
-      final var xlsb = (int) buffer.get(1) & 0b1111;
-      return Integer.valueOf((xmsb << 4) | xlsb);
-    };
+    return buffer -> Integer.valueOf(GWIOCodecs.uint8As16Read(buffer, 0));
   }
 
   /**
@@ -121,15 +113,7 @@ public final class GWIOSerializers
   public static GWIOVariableSerializeType<Integer> uint16As32Serializer()
   {
     return (buffer, value) -> {
-      final var x = value.intValue();
-      final var x0 = (x >> 12) & 0b1111;
-      final var x1 = (x >> 8) & 0b1111;
-      final var x2 = (x >> 4) & 0b1111;
-      final var x3 = x & 0b1111;
-      buffer.put(0, (byte) x0);
-      buffer.put(1, (byte) x1);
-      buffer.put(2, (byte) x2);
-      buffer.put(3, (byte) x3);
+      GWIOCodecs.uint16As32Write(buffer, 0, value.intValue());
     };
   }
 
@@ -141,20 +125,73 @@ public final class GWIOSerializers
 
   public static GWIOVariableDeserializeType<Integer> uint16As32Deserializer()
   {
-    return buffer -> {
-      final var x0 = (int) buffer.get(0) & 0b1111;
-      final var x1 = (int) buffer.get(1) & 0b1111;
-      final var x2 = (int) buffer.get(2) & 0b1111;
-      final var x3 = (int) buffer.get(3) & 0b1111;
-
-      var r = 0;
-      r |= (x0 << 12);
-      r |= (x1 << 8);
-      r |= (x2 << 4);
-      r |= x3;
-
-      return Integer.valueOf(r);
-    };
+    return buffer -> Integer.valueOf(GWIOCodecs.uint16As32Read(buffer, 0));
+  }
+
+  /**
+   * An integer serializer for values in the range [0,127]
+   *
+   * @return A serializer
+   */
+
+  public static GWIOIntSerializeType uint8IntSerializer()
+  {
+    return (buffer, value) -> GWIOCodecs.uint8Write(buffer, 0, value);
+  }
+
+  /**
+   * An integer deserializer for values in the range [0,127]
+   *
+   * @return A deserializer
+   */
+
+  public static GWIOIntDeserializeType uint8IntDeserializer()
+  {
+    return buffer -> GWIOCodecs.uint8Read(buffer, 0);
+  }
+
+  /**
+   * An integer serializer for values greater than 127 but less than 255.
+   *
+   * @return A serializer
+   */
+
+  public static GWIOIntSerializeType uint8As16IntSerializer()
+  {
+    return (buffer, value) -> GWIOCodecs.uint8As16Write(buffer, 0, value);
+  }
+
+  /**
+   * An integer deserializer for values greater than 127 but less than 255.
+   *
+   * @return A deserializer
+   */
+
+  public static GWIOIntDeserializeType uint8As16IntDeserializer()
+  {
+    return buffer -> GWIOCodecs.uint8As16Read(buffer, 0);
+  }
+
+  /**
+   * An integer serializer for values greater than 255.
+   *
+   * @return A serializer
+   */
+
+  public static GWIOIntSerializeType uint16As32IntSerializer()
+  {
+    return (buffer, value) -> GWIOCodecs.uint16As32Write(buffer, 0, value);
+  }
+
+  /**
+   * An integer deserializer for values greater than 255.
+   *
+   * @return A deserializer
+   */
+
+  public static GWIOIntDeserializeType uint16As32IntDeserializer()
+  {
+    return buffer -> GWIOCodecs.uint16As32Read(buffer, 0);
   }
 
   /**
@@ -163,15 +200,7 @@ public final class GWIOSerializers
 
   public static GWIOVariableSerializeType<GWIORate118Type> rate118Serializer()
   {
-    return (buffer, value) -> {
-      if (value instanceof GWIORate118Milliseconds milliseconds) {
-        buffer.put(0, (byte) (milliseconds.value() & 0xff));
-      } else if (value instanceof GWIORate118Note note) {
-        buffer.put(0, (byte) (GWIORate118Note.info().toInt(note) & 0xff));
-      } else {
-        throw new IllegalStateException();
-      }
-    };
+    return (buffer, value) -> GWIOCodecs.rate118Write(buffer, 0, value);
   }
 
   /**
@@ -180,13 +209,7 @@ public final class GWIOSerializers
 
   public static GWIOVariableDeserializeType<GWIORate118Type> rate118Deserializer()
   {
-    return buffer -> {
-      final var i = (int) buffer.get(0);
-      if (i <= 100) {
-        return new GWIORate118Milliseconds(i);
-      }
-      return GWIORate118Note.ofInt(i);
-    };
+    return buffer -> GWIOCodecs.rate118Read(buffer, 0);
   }
 
   /**
@@ -195,20 +218,7 @@ public final class GWIOSerializers
 
   public static GWIOVariableSerializeType<GWIORate318Type> rate318Serializer()
   {
-    return (buffer, value) -> {
-      if (value instanceof GWIORate318Milliseconds milliseconds) {
-        uint16As32Serializer().serializeTo(
-          buffer,
-          Integer.valueOf(milliseconds.value()));
-      } else if (value instanceof GWIORate318Note note) {
-        uint16As32Serializer().serializeTo(
-          buffer,
-          Integer.valueOf(GWIORate318Note.info().toInt(note))
-        );
-      } else {
-        throw new IllegalStateException();
-      }
-    };
+    return (buffer, value) -> GWIOCodecs.rate318Write(buffer, 0, value);
   }
 
   /**
@@ -217,17 +227,7 @@ public final class GWIOSerializers
 
   public static GWIOVariableDeserializeType<GWIORate318Type> rate318Deserializer()
   {
-    return buffer -> {
-      final var i =
-        uint16As32Deserializer()
-          .deserializeFrom(buffer)
-          .intValue();
-
-      if (i <= 300) {
-        return new GWIORate318Milliseconds(i);
-      }
-      return GWIORate318Note.ofInt(i);
-    };
+    return buffer -> GWIOCodecs.rate318Read(buffer, 0);
   }
 
   /**
@@ -236,22 +236,7 @@ public final class GWIOSerializers
 
   public static GWIOVariableSerializeType<GWIORate119Type> rate119Serializer()
   {
-    return (buffer, value) -> {
-      if (value instanceof GWIORate119Off off) {
-        uint8Serializer().serializeTo(buffer, Integer.valueOf(0));
-      } else if (value instanceof GWIORate119Milliseconds milliseconds) {
-        uint8Serializer().serializeTo(
-          buffer,
-          Integer.valueOf(milliseconds.value() + 1));
-      } else if (value instanceof GWIORate119Note note) {
-        uint8Serializer().serializeTo(
-          buffer,
-          Integer.valueOf(GWIORate119Note.info().toInt(note))
-        );
-      } else {
-        throw new IllegalStateException();
-      }
-    };
+    return (buffer, value) -> GWIOCodecs.rate119Write(buffer, 0, value);
   }
 
   /**
@@ -260,16 +245,7 @@ public final class GWIOSerializers
 
   public static GWIOVariableDeserializeType<GWIORate119Type> rate119Deserializer()
   {
-    return buffer -> {
-      final var i = uint8Deserializer().deserializeFrom(buffer).intValue();
-      if (i == 0) {
-        return GWIORate119Off.OFF;
-      }
-      if (i >= 1 && i <= 101) {
-        return new GWIORate119Milliseconds(i);
-      }
-      return GWIORate119Note.ofInt(i);
-    };
+    return buffer -> GWIOCodecs.rate119Read(buffer, 0);
   }
 
   /**
@@ -294,26 +270,12 @@ public final class GWIOSerializers
   {
     Objects.requireNonNull(base, "base");
 
-    final var diffA =
-      logicalMaximum - logicalMinimum;
-    final var diffB =
-      physicalMaximum - physicalMinimum;
-
-    if (diffA != diffB) {
-      throw new IllegalArgumentException(
-        String.format(
-          "Logical maximum %d - minimum %d (%d) != Physical maximum %d - minimum %d (%d)",
-          Integer.valueOf(logicalMaximum),
-          Integer.valueOf(logicalMinimum),
-          Integer.valueOf(diffA),
-          Integer.valueOf(physicalMaximum),
-          Integer.valueOf(physicalMinimum),
-          Integer.valueOf(diffB)
-        )
-      );
-    }
-
-    final var mapDelta = logicalMinimum - physicalMinimum;
+    final var mapDelta = checkMappedRanges(
+      logicalMinimum,
+      logicalMaximum,
+      physicalMinimum,
+      physicalMaximum
+    );
     return (buffer, value) -> {
       final var physical = value.intValue() - mapDelta;
       base.serializeTo(buffer, Integer.valueOf(physical));
@@ -342,6 +304,86 @@ public final class GWIOSerializers
   {
     Objects.requireNonNull(base, "base");
 
+    final var mapDelta = checkMappedRanges(
+      logicalMinimum,
+      logicalMaximum,
+      physicalMinimum,
+      physicalMaximum
+    );
+    return buffer -> {
+      final var physical = base.deserializeFrom(buffer);
+      return Integer.valueOf(physical.intValue() + mapDelta);
+    };
+  }
+
+  /**
+   * An integer serializer that maps a logical range to a physical range. The
+   * two ranges must be the same size.
+   *
+   * @param base            The base serializer
+   * @param logicalMinimum  The logical lower bound
+   * @param logicalMaximum  The logical upper bound
+   * @param physicalMinimum The physical lower bound
+   * @param physicalMaximum The physical upper bound
+   *
+   * @return A serializer
+   */
+
+  public static GWIOIntSerializeType integerMappedIntSerializer(
+    final GWIOIntSerializeType base,
+    final int logicalMinimum,
+    final int logicalMaximum,
+    final int physicalMinimum,
+    final int physicalMaximum)
+  {
+    Objects.requireNonNull(base, "base");
+
+    final var mapDelta = checkMappedRanges(
+      logicalMinimum,
+      logicalMaximum,
+      physicalMinimum,
+      physicalMaximum
+    );
+    return (buffer, value) -> base.serializeTo(buffer, value - mapDelta);
+  }
+
+  /**
+   * An integer deserializer that maps a logical range to a physical range. The
+   * two ranges must be the same size.
+   *
+   * @param base            The base deserializer
+   * @param logicalMinimum  The logical lower bound
+   * @param logicalMaximum  The logical upper bound
+   * @param physicalMinimum The physical lower bound
+   * @param physicalMaximum The physical upper bound
+   *
+   * @return A deserializer
+   */
+
+  public static GWIOIntDeserializeType integerMappedIntDeserializer(
+    final GWIOIntDeserializeType base,
+    final int logicalMinimum,
+    final int logicalMaximum,
+    final int physicalMinimum,
+    final int physicalMaximum)
+  {
+    Objects.requireNonNull(base, "base");
+
+    final var mapDelta = checkMappedRanges(
+      logicalMinimum,
+      logicalMaximum,
+      physicalMinimum,
+      physicalMaximum
+    );
+    return buffer -> base.deserializeFrom(buffer) + mapDelta;
+  }
+
+  private static int checkMappedRanges(
+    final int logicalMinimum,
+    final int logicalMaximum,
+    final int physicalMinimum,
+    final int physicalMaximum)
+  {
     final var diffA =
       logicalMaximum - logicalMinimum;
     final var diffB =
@@ -360,12 +402,7 @@ public final class GWIOSerializers
         )
       );
     }
-
-    final var mapDelta = logicalMinimum - physicalMinimum;
-    return buffer -> {
-      final var physical = base.deserializeFrom(buffer);
-      return Integer.valueOf(physical.intValue() + mapDelta);
-    };
+    return logicalMinimum - physicalMinimum;
   }
 
   /**
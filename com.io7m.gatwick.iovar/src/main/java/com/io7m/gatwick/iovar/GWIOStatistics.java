@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import com.io7m.jattribute.core.AttributeSubscriptionType;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters describing how I/O variables are being used. The
+ * counters are striped so that updating them from many threads at once does
+ * not introduce contention on the paths that read and write variables.
+ */
+
+public final class GWIOStatistics
+{
+  private static final LongAdder FRESH_HITS =
+    new LongAdder();
+  private static final LongAdder FRESH_MISSES =
+    new LongAdder();
+  private static final LongAdder SUBSCRIPTIONS =
+    new LongAdder();
+
+  private GWIOStatistics()
+  {
+
+  }
+
+  /**
+   * @return The number of times {@link GWIOCachedReadableType#readFromDeviceIfStale(java.time.Duration)}
+   * found values to be fresh and did not need to read from the device
+   */
+
+  public static long freshnessHits()
+  {
+    return FRESH_HITS.sum();
+  }
+
+  /**
+   * @return The number of times {@link GWIOCachedReadableType#readFromDeviceIfStale(java.time.Duration)}
+   * found values to be stale and read from the device
+   */
+
+  public static long freshnessMisses()
+  {
+    return FRESH_MISSES.sum();
+  }
+
+  /**
+   * @return The number of variable subscriptions that have not been closed
+   */
+
+  public static long subscriptionsLive()
+  {
+    return SUBSCRIPTIONS.sum();
+  }
+
+  static void recordFreshnessHit()
+  {
+    FRESH_HITS.increment();
+  }
+
+  static void recordFreshnessMiss()
+  {
+    FRESH_MISSES.increment();
+  }
+
+  static AttributeSubscriptionType countSubscription(
+    final AttributeSubscriptionType subscription)
+  {
+    Objects.requireNonNull(subscription, "subscription");
+
+    SUBSCRIPTIONS.increment();
+    final var closed = new AtomicBoolean(false);
+    return () -> {
+      if (closed.compareAndSet(false, true)) {
+        SUBSCRIPTIONS.decrement();
+      }
+      subscription.close();
+    };
+  }
+}
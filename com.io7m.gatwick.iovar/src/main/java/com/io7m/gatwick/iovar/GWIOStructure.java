@@ -0,0 +1,748 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterChain;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterEnumerated;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterFractional;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterIntegerDirect;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterIntegerMapped;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate118;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate119;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate318;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterString;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterStructure;
+import com.io7m.jattribute.core.Attributes;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.gatwick.iovar.GWIOParameterDescriptorType.integerSizeForMaxValue;
+
+/**
+ * A structure interpreted from a {@link GWIOStructureDescriptor}. This is the
+ * runtime counterpart of the structure classes produced by the code
+ * generator, and behaves identically to them: the same variables are
+ * created at the same addresses, and are read, invalidated, decoded, and
+ * encoded in the same way.
+ */
+
+public final class GWIOStructure
+  implements GWIOVariableContainerType,
+  GWIOCachedReadableType,
+  GWIOAddressableType,
+  GWIOImageCodecType
+{
+  private final GWDeviceType device;
+  private final GWIOStructureDescriptor descriptor;
+  private final int baseAddress;
+  private final GWIOFreshness freshness;
+  private final Object[] members;
+  private final List<GWIOVariableType<?>> variables;
+  private final List<GWIOStructure> structures;
+
+  private GWIOStructure(
+    final GWDeviceType device,
+    final Attributes attributes,
+    final GWIOStructureDescriptor inDescriptor,
+    final int inBaseAddress)
+  {
+    this.device =
+      Objects.requireNonNull(device, "device");
+    this.descriptor =
+      Objects.requireNonNull(inDescriptor, "descriptor");
+    this.baseAddress =
+      inBaseAddress;
+    this.freshness =
+      new GWIOFreshness();
+
+    final var parameters = inDescriptor.parameters();
+    this.members = new Object[parameters.size()];
+
+    final var variableList =
+      new ArrayList<GWIOVariableType<?>>(parameters.size());
+    final var structureList =
+      new ArrayList<GWIOStructure>();
+
+    for (int index = 0; index < parameters.size(); ++index) {
+      final var parameter = parameters.get(index);
+      final var address = inBaseAddress + parameter.offset();
+
+      if (parameter instanceof ParameterStructure p) {
+        final var structure =
+          new GWIOStructure(device, attributes, p.structure(), address);
+        this.members[index] = structure;
+        structureList.add(structure);
+      } else {
+        final var variable =
+          createVariable(device, attributes, parameter, address);
+        this.members[index] = variable;
+        variableList.add(variable);
+      }
+    }
+
+    this.variables = List.copyOf(variableList);
+    this.structures = List.copyOf(structureList);
+  }
+
+  /**
+   * Create a structure.
+   *
+   * @param device      The device
+   * @param attributes  An attribute source
+   * @param descriptor  The structure description
+   * @param baseAddress The base address of the structure
+   *
+   * @return A structure
+   */
+
+  public static GWIOStructure create(
+    final GWDeviceType device,
+    final Attributes attributes,
+    final GWIOStructureDescriptor descriptor,
+    final int baseAddress)
+  {
+    Objects.requireNonNull(device, "device");
+    Objects.requireNonNull(attributes, "attributes");
+    return new GWIOStructure(device, attributes, descriptor, baseAddress);
+  }
+
+  /**
+   * @return The structure description
+   */
+
+  public GWIOStructureDescriptor descriptor()
+  {
+    return this.descriptor;
+  }
+
+  /**
+   * @param name The parameter name
+   *
+   * @return The variable for the parameter with the given name
+   *
+   * @throws IllegalArgumentException If no such variable exists
+   */
+
+  public GWIOVariableType<?> variable(
+    final String name)
+    throws IllegalArgumentException
+  {
+    final var member = this.member(name);
+    if (member instanceof GWIOVariableType<?> variable) {
+      return variable;
+    }
+    throw new IllegalArgumentException(
+      "Parameter %s of structure %s is not a variable"
+        .formatted(name, this.descriptor.name())
+    );
+  }
+
+  /**
+   * @param name The parameter name
+   * @param type The type of values
+   * @param <T>  The type of values
+   *
+   * @return The variable for the parameter with the given name
+   *
+   * @throws IllegalArgumentException If no such variable exists, or the
+   *                                  variable has a different type
+   */
+
+  @SuppressWarnings("unchecked")
+  public <T> GWIOVariableType<T> variable(
+    final String name,
+    final Class<T> type)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(type, "type");
+
+    final var variable = this.variable(name);
+    final var valueClass = variable.information().valueClass();
+    if (!Objects.equals(valueClass, type)) {
+      throw new IllegalArgumentException(
+        "Parameter %s of structure %s has type %s, not %s"
+          .formatted(
+            name,
+            this.descriptor.name(),
+            valueClass.getName(),
+            type.getName())
+      );
+    }
+    return (GWIOVariableType<T>) variable;
+  }
+
+  /**
+   * @param name The parameter name
+   * @param type The type of values
+   * @param <T>  The type of values
+   *
+   * @return The integer variable for the parameter with the given name
+   *
+   * @throws IllegalArgumentException If no such variable exists, the
+   *                                  variable is not an integer variable, or
+   *                                  the variable has a different type
+   */
+
+  public <T> GWIOIntVariableType<T> intVariable(
+    final String name,
+    final Class<T> type)
+    throws IllegalArgumentException
+  {
+    final var variable = this.variable(name, type);
+    if (variable instanceof GWIOIntVariableType<T> intVariable) {
+      return intVariable;
+    }
+    throw new IllegalArgumentException(
+      "Parameter %s of structure %s is not an integer variable"
+        .formatted(name, this.descriptor.name())
+    );
+  }
+
+  /**
+   * @param name The parameter name
+   *
+   * @return The nested structure with the given name
+   *
+   * @throws IllegalArgumentException If no such structure exists
+   */
+
+  public GWIOStructure structure(
+    final String name)
+    throws IllegalArgumentException
+  {
+    final var member = this.member(name);
+    if (member instanceof GWIOStructure structure) {
+      return structure;
+    }
+    throw new IllegalArgumentException(
+      "Parameter %s of structure %s is not a structure"
+        .formatted(name, this.descriptor.name())
+    );
+  }
+
+  private Object member(
+    final String name)
+  {
+    Objects.requireNonNull(name, "name");
+
+    final var index =
+      this.descriptor.indexOf(name)
+        .orElseThrow(() -> {
+          return new IllegalArgumentException(
+            "Structure %s has no parameter named %s"
+              .formatted(this.descriptor.name(), name)
+          );
+        });
+
+    return this.members[index.intValue()];
+  }
+
+  @Override
+  public int address()
+  {
+    return this.baseAddress;
+  }
+
+  @Override
+  public List<GWIOVariableType<?>> variables()
+  {
+    return this.variables;
+  }
+
+  @Override
+  public void readFromDevice()
+    throws InterruptedException, GWDeviceException
+  {
+    final var event = new GWIOStructureReadEvent();
+    event.begin();
+
+    final var token = this.freshness.beginSynchronization();
+
+    /*
+     * The directly-declared parameters are read with a single image read;
+     * the referenced structures then read their own images.
+     */
+
+    final var imageSize = this.descriptor.imageSize();
+    if (imageSize > 0) {
+      this.decodeFrom(
+        GWIOImages.read(this.device, this.baseAddress, imageSize), 0);
+    }
+
+    for (final var structure : this.structures) {
+      structure.readFromDevice();
+    }
+
+    this.freshness.endSynchronization(token);
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.structure = this.descriptor.name();
+      event.address = this.baseAddress;
+      event.size = imageSize;
+      event.commit();
+    }
+  }
+
+  @Override
+  public boolean isFresh(
+    final Duration timeToLive)
+  {
+    if (!this.freshness.isFresh(timeToLive)) {
+      return false;
+    }
+    for (final var structure : this.structures) {
+      if (!structure.isFresh(timeToLive)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void invalidate()
+  {
+    this.freshness.invalidate();
+    for (final var structure : this.structures) {
+      structure.invalidate();
+    }
+  }
+
+  @Override
+  public void invalidateRange(
+    final int address,
+    final int size)
+  {
+    if (GWIOAddresses.overlaps(
+      this.baseAddress, this.descriptor.imageSize(), address, size)) {
+      this.freshness.invalidate();
+    }
+    for (final var structure : this.structures) {
+      structure.invalidateRange(address, size);
+    }
+  }
+
+  @Override
+  public int imageSize()
+  {
+    return this.descriptor.imageSize();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void decodeFrom(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    final var parameters = this.descriptor.parameters();
+    for (int index = 0; index < parameters.size(); ++index) {
+      final var parameter = parameters.get(index);
+      final var member = this.members[index];
+      final var at = offset + parameter.imageOffset();
+
+      if (parameter instanceof ParameterString p) {
+        ((GWIOVariableType<String>) member)
+          .setLocal(GWIOCodecs.stringRead(buffer, at, p.length()));
+      } else if (parameter instanceof ParameterIntegerDirect p) {
+        ((GWIOIntVariableType<?>) member)
+          .setIntLocal(intRead(buffer, at, p.valueMax()));
+      } else if (parameter instanceof ParameterIntegerMapped p) {
+        final var delta = p.valueMin() - p.physicalMin();
+        ((GWIOIntVariableType<?>) member)
+          .setIntLocal(intRead(buffer, at, p.physicalMax()) + delta);
+      } else if (parameter instanceof ParameterFractional p) {
+        ((GWIOVariableType<Double>) member)
+          .setLocal(Double.valueOf(
+            fractionalScaleDecode(p)
+            * (double) intRead(buffer, at, p.physicalMax())));
+      } else if (parameter instanceof ParameterRate118) {
+        ((GWIOVariableType<GWIORate118Type>) member)
+          .setLocal(GWIOCodecs.rate118Read(buffer, at));
+      } else if (parameter instanceof ParameterRate119) {
+        ((GWIOVariableType<GWIORate119Type>) member)
+          .setLocal(GWIOCodecs.rate119Read(buffer, at));
+      } else if (parameter instanceof ParameterRate318) {
+        ((GWIOVariableType<GWIORate318Type>) member)
+          .setLocal(GWIOCodecs.rate318Read(buffer, at));
+      } else if (parameter instanceof ParameterChain p) {
+        ((GWIOVariableType<ByteBuffer>) member)
+          .setLocal(GWIOCodecs.rawRead(buffer, at, p.size()));
+      } else if (parameter instanceof ParameterEnumerated) {
+        ((GWIOIntVariableType<?>) member)
+          .setIntLocal(GWIOCodecs.uint8Read(buffer, at));
+      }
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void encodeTo(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    final var parameters = this.descriptor.parameters();
+    for (int index = 0; index < parameters.size(); ++index) {
+      final var parameter = parameters.get(index);
+      final var member = this.members[index];
+      final var at = offset + parameter.imageOffset();
+
+      if (parameter instanceof ParameterString p) {
+        GWIOCodecs.stringWrite(
+          buffer, at, p.length(), ((GWIOVariableType<String>) member).get());
+      } else if (parameter instanceof ParameterIntegerDirect p) {
+        intWrite(
+          buffer, at, p.valueMax(), ((GWIOIntVariableType<?>) member).getInt());
+      } else if (parameter instanceof ParameterIntegerMapped p) {
+        final var delta = p.valueMin() - p.physicalMin();
+        intWrite(
+          buffer,
+          at,
+          p.physicalMax(),
+          ((GWIOIntVariableType<?>) member).getInt() - delta);
+      } else if (parameter instanceof ParameterFractional p) {
+        final var value =
+          ((GWIOVariableType<Double>) member).get().doubleValue();
+        intWrite(
+          buffer,
+          at,
+          p.physicalMax(),
+          (int) value * fractionalScaleEncode(p));
+      } else if (parameter instanceof ParameterRate118) {
+        GWIOCodecs.rate118Write(
+          buffer, at, ((GWIOVariableType<GWIORate118Type>) member).get());
+      } else if (parameter instanceof ParameterRate119) {
+        GWIOCodecs.rate119Write(
+          buffer, at, ((GWIOVariableType<GWIORate119Type>) member).get());
+      } else if (parameter instanceof ParameterRate318) {
+        GWIOCodecs.rate318Write(
+          buffer, at, ((GWIOVariableType<GWIORate318Type>) member).get());
+      } else if (parameter instanceof ParameterChain p) {
+        GWIOCodecs.rawWrite(
+          buffer, at, p.size(), ((GWIOVariableType<ByteBuffer>) member).get());
+      } else if (parameter instanceof ParameterEnumerated) {
+        GWIOCodecs.uint8Write(
+          buffer, at, ((GWIOIntVariableType<?>) member).getInt());
+      }
+    }
+  }
+
+  /*
+   * The scale factors must match those calculated in
+   * GWIOSerializers.fractionalSerializer/fractionalDeserializer.
+   */
+
+  private static double fractionalScaleDecode(
+    final ParameterFractional p)
+  {
+    return (p.valueMax() - p.valueMin())
+           / ((double) p.physicalMax() - (double) p.physicalMin());
+  }
+
+  private static int fractionalScaleEncode(
+    final ParameterFractional p)
+  {
+    return (p.physicalMax() - p.physicalMin())
+           / ((int) p.valueMax() - (int) p.valueMin());
+  }
+
+  private static int intRead(
+    final ByteBuffer buffer,
+    final int at,
+    final int maxValue)
+  {
+    return switch (integerSizeForMaxValue(maxValue)) {
+      case 1 -> GWIOCodecs.uint8Read(buffer, at);
+      case 2 -> GWIOCodecs.uint8As16Read(buffer, at);
+      default -> GWIOCodecs.uint16As32Read(buffer, at);
+    };
+  }
+
+  private static void intWrite(
+    final ByteBuffer buffer,
+    final int at,
+    final int maxValue,
+    final int value)
+  {
+    switch (integerSizeForMaxValue(maxValue)) {
+      case 1 -> GWIOCodecs.uint8Write(buffer, at, value);
+      case 2 -> GWIOCodecs.uint8As16Write(buffer, at, value);
+      default -> GWIOCodecs.uint16As32Write(buffer, at, value);
+    }
+  }
+
+  private static GWIOVariableType<?> createVariable(
+    final GWDeviceType device,
+    final Attributes attributes,
+    final GWIOParameterDescriptorType parameter,
+    final int address)
+  {
+    if (parameter instanceof ParameterString p) {
+      return GWIOVariable.create(
+        device,
+        attributes,
+        GWIOSerializers.stringSerializer(),
+        GWIOSerializers.stringDeserializer(),
+        p.length(),
+        new GWIOVariableInformation<>(
+          p.name(), String.class, "", "", "~".repeat(p.length())),
+        address
+      );
+    }
+
+    if (parameter instanceof ParameterIntegerDirect p) {
+      final var size = integerSizeForMaxValue(p.valueMax());
+      return GWIOIntVariable.create(
+        device,
+        attributes,
+        GWIOIntConversions.integers(),
+        intSerializer(size),
+        intDeserializer(size),
+        size,
+        new GWIOVariableInformation<>(
+          p.name(),
+          Integer.class,
+          Integer.valueOf(p.valueDefault()),
+          Integer.valueOf(p.valueMin()),
+          Integer.valueOf(p.valueMax())),
+        address
+      );
+    }
+
+    if (parameter instanceof ParameterIntegerMapped p) {
+      final var size = integerSizeForMaxValue(p.physicalMax());
+      return GWIOIntVariable.create(
+        device,
+        attributes,
+        GWIOIntConversions.integers(),
+        GWIOSerializers.integerMappedIntSerializer(
+          intSerializer(size),
+          p.valueMin(),
+          p.valueMax(),
+          p.physicalMin(),
+          p.physicalMax()),
+        GWIOSerializers.integerMappedIntDeserializer(
+          intDeserializer(size),
+          p.valueMin(),
+          p.valueMax(),
+          p.physicalMin(),
+          p.physicalMax()),
+        size,
+        new GWIOVariableInformation<>(
+          p.name(),
+          Integer.class,
+          Integer.valueOf(p.valueDefault()),
+          Integer.valueOf(p.valueMin()),
+          Integer.valueOf(p.valueMax())),
+        address
+      );
+    }
+
+    if (parameter instanceof ParameterFractional p) {
+      final var size = integerSizeForMaxValue(p.physicalMax());
+      return GWIOVariable.create(
+        device,
+        attributes,
+        GWIOSerializers.fractionalSerializer(
+          serializer(size),
+          p.valueMin(),
+          p.valueMax(),
+          p.physicalMin(),
+          p.physicalMax()),
+        GWIOSerializers.fractionalDeserializer(
+          deserializer(size),
+          p.valueMin(),
+          p.valueMax(),
+          p.physicalMin(),
+          p.physicalMax()),
+        size,
+        new GWIOVariableInformation<>(
+          p.name(),
+          Double.class,
+          Double.valueOf(p.valueDefault()),
+          Double.valueOf(p.valueMin()),
+          Double.valueOf(p.valueMax())),
+        address
+      );
+    }
+
+    if (parameter instanceof ParameterRate118 p) {
+      return GWIOVariable.create(
+        device,
+        attributes,
+        GWIOSerializers.rate118Serializer(),
+        GWIOSerializers.rate118Deserializer(),
+        1,
+        new GWIOVariableInformation<>(
+          p.name(),
+          GWIORate118Type.class,
+          GWIORate118Note.RATE_8TH_NOTE,
+          new GWIORate118Milliseconds(0),
+          GWIORate118Note.last()),
+        address
+      );
+    }
+
+    if (parameter instanceof ParameterRate119 p) {
+      return GWIOVariable.create(
+        device,
+        attributes,
+        GWIOSerializers.rate119Serializer(),
+        GWIOSerializers.rate119Deserializer(),
+        1,
+        new GWIOVariableInformation<>(
+          p.name(),
+          GWIORate119Type.class,
+          GWIORate119Off.OFF,
+          GWIORate119Off.OFF,
+          GWIORate119Note.last()),
+        address
+      );
+    }
+
+    if (parameter instanceof ParameterRate318 p) {
+      return GWIOVariable.create(
+        device,
+        attributes,
+        GWIOSerializers.rate318Serializer(),
+        GWIOSerializers.rate318Deserializer(),
+        4,
+        new GWIOVariableInformation<>(
+          p.name(),
+          GWIORate318Type.class,
+          GWIORate318Note.RATE_8TH_NOTE,
+          new GWIORate318Milliseconds(0),
+          GWIORate318Note.last()),
+        address
+      );
+    }
+
+    if (parameter instanceof ParameterChain p) {
+      return GWIOVariable.create(
+        device,
+        attributes,
+        GWIOSerializers.rawSerializer(),
+        GWIOSerializers.rawDeserializer(),
+        p.size(),
+        new GWIOVariableInformation<>(
+          p.name(),
+          ByteBuffer.class,
+          ByteBuffer.allocate(p.size()),
+          ByteBuffer.allocate(p.size()),
+          ByteBuffer.allocate(p.size())),
+        address
+      );
+    }
+
+    if (parameter instanceof ParameterEnumerated p) {
+      return createEnumerated(device, attributes, p, address);
+    }
+
+    throw new IllegalStateException(
+      "Unrecognized parameter type: %s".formatted(parameter)
+    );
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static GWIOVariableType<?> createEnumerated(
+    final GWDeviceType device,
+    final Attributes attributes,
+    final ParameterEnumerated parameter,
+    final int address)
+  {
+    final var info =
+      GWIOEnumerationInfo.findInfo((Class) parameter.enumeration());
+    return createEnumeratedTyped(
+      device, attributes, parameter.name(), info, address);
+  }
+
+  private static <T extends Enum<T>> GWIOVariableType<T> createEnumeratedTyped(
+    final GWDeviceType device,
+    final Attributes attributes,
+    final String name,
+    final GWIOEnumerationInfoType<T> info,
+    final int address)
+  {
+    return GWIOIntVariable.create(
+      device,
+      attributes,
+      info,
+      GWIOSerializers.uint8IntSerializer(),
+      GWIOSerializers.uint8IntDeserializer(),
+      info.serializeSize(),
+      new GWIOVariableInformation<>(
+        name, info.enumerationClass(), info.first(), info.first(), info.last()),
+      address
+    );
+  }
+
+  private static GWIOIntSerializeType intSerializer(
+    final int size)
+  {
+    return switch (size) {
+      case 1 -> GWIOSerializers.uint8IntSerializer();
+      case 2 -> GWIOSerializers.uint8As16IntSerializer();
+      default -> GWIOSerializers.uint16As32IntSerializer();
+    };
+  }
+
+  private static GWIOIntDeserializeType intDeserializer(
+    final int size)
+  {
+    return switch (size) {
+      case 1 -> GWIOSerializers.uint8IntDeserializer();
+      case 2 -> GWIOSerializers.uint8As16IntDeserializer();
+      default -> GWIOSerializers.uint16As32IntDeserializer();
+    };
+  }
+
+  private static GWIOVariableSerializeType<Integer> serializer(
+    final int size)
+  {
+    return switch (size) {
+      case 1 -> GWIOSerializers.uint8Serializer();
+      case 2 -> GWIOSerializers.uint8As16Serializer();
+      default -> GWIOSerializers.uint16As32Serializer();
+    };
+  }
+
+  private static GWIOVariableDeserializeType<Integer> deserializer(
+    final int size)
+  {
+    return switch (size) {
+      case 1 -> GWIOSerializers.uint8Deserializer();
+      case 2 -> GWIOSerializers.uint8As16Deserializer();
+      default -> GWIOSerializers.uint16As32Deserializer();
+    };
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[GWIOStructure %s 0x%08x]",
+      this.descriptor.name(),
+      Integer.valueOf(this.baseAddress)
+    );
+  }
+}
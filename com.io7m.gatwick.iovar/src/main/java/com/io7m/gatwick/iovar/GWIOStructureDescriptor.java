@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterChain;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterEnumerated;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterFractional;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterIntegerDirect;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterIntegerMapped;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate118;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate119;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate318;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterString;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterStructure;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.gatwick.iovar.GWIOParameterDescriptorType.integerSizeForMaxValue;
+
+/**
+ * The description of a structure. A description contains everything needed
+ * by {@link GWIOStructure} to create, read, decode, and encode a structure,
+ * and so a single runtime class can stand in for any number of generated
+ * structure classes.
+ */
+
+public final class GWIOStructureDescriptor
+{
+  private final String name;
+  private final List<GWIOParameterDescriptorType> parameters;
+  private final Map<String, Integer> parametersByName;
+  private final int imageSize;
+
+  private GWIOStructureDescriptor(
+    final String inName,
+    final List<GWIOParameterDescriptorType> inParameters)
+  {
+    this.name =
+      Objects.requireNonNull(inName, "name");
+    this.parameters =
+      List.copyOf(inParameters);
+    this.parametersByName =
+      new HashMap<>(this.parameters.size());
+
+    var size = 0;
+    for (int index = 0; index < this.parameters.size(); ++index) {
+      final var parameter = this.parameters.get(index);
+      final var existing =
+        this.parametersByName.put(parameter.name(), Integer.valueOf(index));
+      if (existing != null) {
+        throw new IllegalArgumentException(
+          "Structure %s contains more than one parameter named %s"
+            .formatted(inName, parameter.name())
+        );
+      }
+
+      if (!(parameter instanceof ParameterStructure)) {
+        size = Math.max(size, parameter.imageOffset() + sizeOf(parameter));
+      }
+    }
+    this.imageSize = size;
+  }
+
+  /**
+   * Create a structure description.
+   *
+   * @param name       The structure name
+   * @param parameters The structure parameters, in the order in which they
+   *                   will be read from the device
+   *
+   * @return A structure description
+   */
+
+  public static GWIOStructureDescriptor of(
+    final String name,
+    final List<GWIOParameterDescriptorType> parameters)
+  {
+    return new GWIOStructureDescriptor(name, parameters);
+  }
+
+  /**
+   * @param parameter The parameter
+   *
+   * @return The size of the parameter's image in bytes
+   */
+
+  public static int sizeOf(
+    final GWIOParameterDescriptorType parameter)
+  {
+    if (parameter instanceof ParameterString p) {
+      return p.length();
+    }
+    if (parameter instanceof ParameterIntegerDirect p) {
+      return integerSizeForMaxValue(p.valueMax());
+    }
+    if (parameter instanceof ParameterIntegerMapped p) {
+      return integerSizeForMaxValue(p.physicalMax());
+    }
+    if (parameter instanceof ParameterFractional p) {
+      return integerSizeForMaxValue(p.physicalMax());
+    }
+    if (parameter instanceof ParameterRate118) {
+      return 1;
+    }
+    if (parameter instanceof ParameterRate119) {
+      return 1;
+    }
+    if (parameter instanceof ParameterRate318) {
+      return 4;
+    }
+    if (parameter instanceof ParameterChain p) {
+      return p.size();
+    }
+    if (parameter instanceof ParameterEnumerated) {
+      return 1;
+    }
+    if (parameter instanceof ParameterStructure p) {
+      return p.structure().imageSize();
+    }
+    throw new IllegalStateException(
+      "Unrecognized parameter type: %s".formatted(parameter)
+    );
+  }
+
+  /**
+   * @return The structure name
+   */
+
+  public String name()
+  {
+    return this.name;
+  }
+
+  /**
+   * @return The structure parameters, in the order in which they are read
+   * from the device
+   */
+
+  public List<GWIOParameterDescriptorType> parameters()
+  {
+    return this.parameters;
+  }
+
+  /**
+   * @param parameterName The parameter name
+   *
+   * @return The index of the parameter with the given name
+   */
+
+  public Optional<Integer> indexOf(
+    final String parameterName)
+  {
+    return Optional.ofNullable(this.parametersByName.get(parameterName));
+  }
+
+  /**
+   * @return The size of an image of the directly-declared parameters of the
+   * structure, in bytes
+   */
+
+  public int imageSize()
+  {
+    return this.imageSize;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[GWIOStructureDescriptor %s (%d parameters)]",
+      this.name,
+      Integer.valueOf(this.parameters.size())
+    );
+  }
+}
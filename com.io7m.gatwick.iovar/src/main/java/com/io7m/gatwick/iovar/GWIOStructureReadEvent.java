@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event covering the reading of an entire structure from
+ * a device. Reads of nested structures appear as nested events.
+ */
+
+@Name("com.io7m.gatwick.iovar.StructureRead")
+@Label("Structure Read")
+@Category({"Gatwick", "I/O"})
+@Description("The reading of a structure from the device.")
+@StackTrace(false)
+public final class GWIOStructureReadEvent extends Event
+{
+  /**
+   * The name of the structure.
+   */
+
+  @Label("Structure")
+  public String structure;
+
+  /**
+   * The device address of the structure.
+   */
+
+  @Label("Address")
+  @Description("The device address of the structure.")
+  public int address;
+
+  /**
+   * The size of the structure image in bytes.
+   */
+
+  @Label("Size")
+  @Description("The size of the structure image in bytes.")
+  public int size;
+
+  /**
+   * A flight recorder event covering the reading of a structure.
+   */
+
+  public GWIOStructureReadEvent()
+  {
+
+  }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.iovar;
+
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterChain;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterEnumerated;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterFractional;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterIntegerDirect;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterIntegerMapped;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate118;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate119;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterRate318;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterString;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterStructure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A set of structure descriptions held as compact text tables, parsed on
+ * first use.
+ *
+ * <p>Each table describes one structure, with one parameter per line. The
+ * fields of each line are separated by tab characters. The first field is
+ * the parameter kind, the second is the parameter name, and the third is
+ * the parameter offset in hexadecimal. The remaining fields depend on the
+ * kind:</p>
+ *
+ * <ul>
+ *   <li>{@code S}: string length</li>
+ *   <li>{@code I}: default, minimum, maximum</li>
+ *   <li>{@code M}: default, minimum, maximum, physical minimum,
+ *   physical maximum</li>
+ *   <li>{@code F}: default, minimum, maximum, physical minimum,
+ *   physical maximum</li>
+ *   <li>{@code R118}, {@code R119}, {@code R318}: none</li>
+ *   <li>{@code C}: chain size</li>
+ *   <li>{@code E}: index of the enumeration class</li>
+ *   <li>{@code T}: name of the referenced structure</li>
+ * </ul>
+ */
+
+public final class GWIOStructureTables
+{
+  private final Map<String, String> tables;
+  private final List<Class<? extends Enum<?>>> enumerations;
+  private final ConcurrentHashMap<String, GWIOStructureDescriptor> parsed;
+
+  private GWIOStructureTables(
+    final Map<String, String> inTables,
+    final List<Class<? extends Enum<?>>> inEnumerations)
+  {
+    this.tables =
+      Map.copyOf(inTables);
+    this.enumerations =
+      List.copyOf(inEnumerations);
+    this.parsed =
+      new ConcurrentHashMap<>(this.tables.size());
+  }
+
+  /**
+   * Create a set of structure tables.
+   *
+   * @param names        The structure names
+   * @param tables       The structure tables, in the same order as the names
+   * @param enumerations The enumeration classes referenced by index
+   *
+   * @return A set of structure tables
+   */
+
+  public static GWIOStructureTables create(
+    final String[] names,
+    final String[] tables,
+    final List<Class<? extends Enum<?>>> enumerations)
+  {
+    Objects.requireNonNull(names, "names");
+    Objects.requireNonNull(tables, "tables");
+    Objects.requireNonNull(enumerations, "enumerations");
+
+    if (names.length != tables.length) {
+      throw new IllegalArgumentException(
+        "Received %d names but %d tables"
+          .formatted(
+            Integer.valueOf(names.length),
+            Integer.valueOf(tables.length))
+      );
+    }
+
+    final var byName = new HashMap<String, String>(names.length);
+    for (int index = 0; index < names.length; ++index) {
+      byName.put(names[index], tables[index]);
+    }
+    return new GWIOStructureTables(byName, enumerations);
+  }
+
+  /**
+   * @return The names of all structures
+   */
+
+  public Set<String> names()
+  {
+    return this.tables.keySet();
+  }
+
+  /**
+   * Retrieve the description of the structure with the given name, parsing
+   * its table if this has not already been done.
+   *
+   * @param name The structure name
+   *
+   * @return The structure description
+   *
+   * @throws IllegalArgumentException If no such structure exists, or its
+   *                                  table is malformed
+   */
+
+  public GWIOStructureDescriptor descriptor(
+    final String name)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(name, "name");
+
+    final var existing = this.parsed.get(name);
+    if (existing != null) {
+      return existing;
+    }
+
+    final var table = this.tables.get(name);
+    if (table == null) {
+      throw new IllegalArgumentException(
+        "No such structure: %s".formatted(name)
+      );
+    }
+
+    /*
+     * Parsing is idempotent, and so two threads racing to parse the same
+     * table do no harm. The map is not updated within a computeIfAbsent call
+     * because parsing recursively parses referenced structures.
+     */
+
+    final var descriptor =
+      parse(name, table, this::descriptor, this.enumerations);
+    final var raced =
+      this.parsed.putIfAbsent(name, descriptor);
+    return raced != null ? raced : descriptor;
+  }
+
+  /**
+   * Parse a single structure table.
+   *
+   * @param name         The structure name
+   * @param table        The table
+   * @param structures   A function that returns referenced structures
+   * @param enumerations The enumeration classes referenced by index
+   *
+   * @return The structure description
+   *
+   * @throws IllegalArgumentException If the table is malformed
+   */
+
+  public static GWIOStructureDescriptor parse(
+    final String name,
+    final String table,
+    final Function<String, GWIOStructureDescriptor> structures,
+    final List<Class<? extends Enum<?>>> enumerations)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(table, "table");
+    Objects.requireNonNull(structures, "structures");
+    Objects.requireNonNull(enumerations, "enumerations");
+
+    final var parameters = new ArrayList<GWIOParameterDescriptorType>();
+    final var lines = table.split("\n");
+    for (int index = 0; index < lines.length; ++index) {
+      final var line = lines[index];
+      if (line.isEmpty()) {
+        continue;
+      }
+
+      try {
+        parameters.add(parseLine(line, structures, enumerations));
+      } catch (final RuntimeException e) {
+        throw new IllegalArgumentException(
+          "%s: line %d: %s"
+            .formatted(name, Integer.valueOf(index + 1), e.getMessage()),
+          e
+        );
+      }
+    }
+
+    return GWIOStructureDescriptor.of(name, parameters);
+  }
+
+  private static GWIOParameterDescriptorType parseLine(
+    final String line,
+    final Function<String, GWIOStructureDescriptor> structures,
+    final List<Class<? extends Enum<?>>> enumerations)
+  {
+    final var f = line.split("\t");
+    if (f.length < 3) {
+      throw new IllegalArgumentException(
+        "Expected at least 3 fields, but received %d"
+          .formatted(Integer.valueOf(f.length))
+      );
+    }
+
+    final var name = f[1];
+    final var offset = Integer.parseUnsignedInt(f[2], 16);
+
+    return switch (f[0]) {
+      case "S" -> {
+        checkFields(f, 4);
+        yield new ParameterString(name, offset, i(f[3]));
+      }
+      case "I" -> {
+        checkFields(f, 6);
+        yield new ParameterIntegerDirect(
+          name, offset, i(f[3]), i(f[4]), i(f[5]));
+      }
+      case "M" -> {
+        checkFields(f, 8);
+        yield new ParameterIntegerMapped(
+          name, offset, i(f[3]), i(f[4]), i(f[5]), i(f[6]), i(f[7]));
+      }
+      case "F" -> {
+        checkFields(f, 8);
+        yield new ParameterFractional(
+          name, offset, d(f[3]), d(f[4]), d(f[5]), i(f[6]), i(f[7]));
+      }
+      case "R118" -> {
+        checkFields(f, 3);
+        yield new ParameterRate118(name, offset);
+      }
+      case "R119" -> {
+        checkFields(f, 3);
+        yield new ParameterRate119(name, offset);
+      }
+      case "R318" -> {
+        checkFields(f, 3);
+        yield new ParameterRate318(name, offset);
+      }
+      case "C" -> {
+        checkFields(f, 4);
+        yield new ParameterChain(name, offset, i(f[3]));
+      }
+      case "E" -> {
+        checkFields(f, 4);
+        yield new ParameterEnumerated(name, offset, enumerations.get(i(f[3])));
+      }
+      case "T" -> {
+        checkFields(f, 4);
+        yield new ParameterStructure(name, offset, structures.apply(f[3]));
+      }
+      default -> throw new IllegalArgumentException(
+        "Unrecognized parameter kind: %s".formatted(f[0])
+      );
+    };
+  }
+
+  private static void checkFields(
+    final String[] fields,
+    final int expected)
+  {
+    if (fields.length != expected) {
+      throw new IllegalArgumentException(
+        "Parameter kind %s requires %d fields, but received %d"
+          .formatted(
+            fields[0],
+            Integer.valueOf(expected),
+            Integer.valueOf(fields.length))
+      );
+    }
+  }
+
+  private static int i(
+    final String text)
+  {
+    return Integer.parseInt(text);
+  }
+
+  private static double d(
+    final String text)
+  {
+    return Double.parseDouble(text);
+  }
+}
@@ -126,11 +126,58 @@ public final class GWIOVariable<T> implements GWIOVariableType<T>
   public void set(final T x)
     throws InterruptedException, GWDeviceException
   {
+    final var event = new GWIOVariableWriteEvent();
+    event.begin();
     this.buffer.rewind();
     this.serializer.serializeTo(this.buffer, x);
 
     this.device.sendCommand(this.cmdWrite);
     this.attribute.set(x);
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.variable = this.info.label();
+      event.address = this.address;
+      event.size = this.bufferData.length;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void setLocal(final T x)
+  {
+    this.attribute.set(x);
+  }
+
+  @Override
+  public void setLocalSerialized(
+    final byte[] data)
+  {
+    if (data.length != this.bufferData.length) {
+      throw new IllegalArgumentException(
+        "Data size %d must be %d".formatted(
+          Integer.valueOf(data.length),
+          Integer.valueOf(this.bufferData.length))
+      );
+    }
+
+    final var newValue =
+      this.deserializer.deserializeFrom(ByteBuffer.wrap(data));
+    this.attribute.set(newValue);
+  }
+
+  @Override
+  public int size()
+  {
+    return this.bufferData.length;
+  }
+
+  @Override
+  public void serializeTo(
+    final ByteBuffer output,
+    final T x)
+  {
+    this.serializer.serializeTo(output, x);
   }
 
   @Override
@@ -164,7 +211,8 @@ public final class GWIOVariable<T> implements GWIOVariableType<T>
   public AttributeSubscriptionType subscribe(
     final AttributeReceiverType<T> receiver)
   {
-    return this.attribute.subscribe(receiver);
+    return GWIOStatistics.countSubscription(
+      this.attribute.subscribe(receiver));
   }
 
   @Override
@@ -18,6 +18,8 @@ package com.io7m.gatwick.iovar;
 
 import com.io7m.jattribute.core.AttributeReadableType;
 
+import java.nio.ByteBuffer;
+
 /**
  * The type of I/O variables.
  *
@@ -35,4 +37,45 @@ public interface GWIOVariableType<T>
    */
 
   GWIOVariableInformation<T> information();
+
+  /**
+   * Set the value locally without sending anything to the underlying device.
+   * This is used when values have been obtained from the device by some other
+   * means, such as a bulk read of a whole structure.
+   *
+   * @param x The new value
+   */
+
+  void setLocal(T x);
+
+  /**
+   * Deserialize the given data exactly as if it had been read from the
+   * underlying device, and set the resulting value locally without sending
+   * anything to the device. This is used when the serialized form of a value
+   * is known because it was written to the device by some other means.
+   *
+   * @param data Exactly {@link #size()} bytes of serialized data
+   */
+
+  void setLocalSerialized(byte[] data);
+
+  /**
+   * @return The size in bytes of serialized values
+   */
+
+  int size();
+
+  /**
+   * Serialize the given value in the form that the underlying device expects,
+   * without sending anything to the device or changing the local value.
+   * Exactly {@link #size()} bytes are written at the buffer's current
+   * position.
+   *
+   * @param buffer The output buffer
+   * @param x      The value
+   */
+
+  void serializeTo(
+    ByteBuffer buffer,
+    T x);
 }
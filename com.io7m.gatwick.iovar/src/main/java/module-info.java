@@ -14,6 +14,8 @@
  * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
  */
 
+import com.io7m.gatwick.iovar.GWIOEnumerationRegistryType;
+
 /**
  * GT-1000 controller (I/O variables)
  */
@@ -25,6 +27,9 @@ module com.io7m.gatwick.iovar
 
   requires transitive com.io7m.gatwick.device.api;
   requires transitive com.io7m.jattribute.core;
+  requires jdk.jfr;
+
+  uses GWIOEnumerationRegistryType;
 
   exports com.io7m.gatwick.iovar;
 }
@@ -24,17 +24,23 @@ import com.io7m.jattribute.core.Attributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.WatchService;
 import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.function.Function;
 
 import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
@@ -42,10 +48,20 @@ import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.nio.file.StandardOpenOption.WRITE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * The preferences service.
+ *
+ * <p>The service watches the configuration directory for changes to the
+ * preferences file, and re-reads the file shortly after the last change in
+ * a burst of changes. If the file system cannot deliver change
+ * notifications, the service falls back to periodically checking the
+ * modification time of the file.</p>
  */
 
 public final class GWPreferencesService implements GWPreferencesServiceType
@@ -58,6 +74,9 @@ public final class GWPreferencesService implements GWPreferencesServiceType
   private final AttributeType<GWPreferences> prefsAttribute;
   private final Duration checkPreferencesEvery;
   private volatile FileTime timeThen;
+  private volatile WatchService watcher;
+  private ScheduledFuture<?> reloadPending;
+  private byte[] contentThen;
 
   private GWPreferencesService(
     final ScheduledExecutorService inExecutors,
@@ -75,11 +94,21 @@ public final class GWPreferencesService implements GWPreferencesServiceType
       Objects.requireNonNull(inCheckPreferencesEvery, "checkPreferencesEvery");
   }
 
+  /**
+   * The time to wait after a change to the preferences file before reading
+   * it, so that a burst of changes results in a single read.
+   */
+
+  private static final Duration RELOAD_DELAY =
+    Duration.ofMillis(250L);
+
   /**
    * Create a new preferences service.
    *
    * @param directories           The application directories
-   * @param checkPreferencesEvery Re-read the preferences file this frequently
+   * @param checkPreferencesEvery Check the preferences file this frequently
+   *                              if the file system cannot deliver change
+   *                              notifications
    * @param attributes            The attribute creator
    *
    * @return A new preferences service
@@ -161,14 +190,105 @@ public final class GWPreferencesService implements GWPreferencesServiceType
       this.timeThen = FileTime.from(Instant.now());
     }
 
-    this.executors.schedule(
-      () -> this.readPreferencesFile(prefsFile),
-      this.checkPreferencesEvery.toMillis(),
+    try {
+      this.startWatching(prefsFile);
+    } catch (final IOException | UnsupportedOperationException e) {
+      LOG.debug("unable to watch preferences, falling back to polling: ", e);
+      this.startPolling(prefsFile);
+    }
+  }
+
+  private void startWatching(
+    final Path prefsFile)
+    throws IOException
+  {
+    final var directory = prefsFile.getParent();
+    Files.createDirectories(directory);
+
+    final var newWatcher =
+      directory.getFileSystem().newWatchService();
+
+    try {
+      directory.register(
+        newWatcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+    } catch (final IOException | UnsupportedOperationException e) {
+      newWatcher.close();
+      throw e;
+    }
+
+    this.watcher = newWatcher;
+
+    final var thread = new Thread(() -> this.watch(newWatcher, prefsFile));
+    thread.setDaemon(true);
+    thread.setName(
+      "com.io7m.gatwick.preferences.GWPreferencesService.Watcher[%d]"
+        .formatted(thread.getId()));
+    thread.start();
+  }
+
+  private void startPolling(
+    final Path prefsFile)
+  {
+    final var period =
+      this.checkPreferencesEvery.toMillis();
+
+    this.executors.scheduleWithFixedDelay(
+      () -> this.checkPreferencesFile(prefsFile),
+      period,
+      period,
       MILLISECONDS
     );
   }
 
-  private void readPreferencesFile(
+  private void watch(
+    final WatchService service,
+    final Path prefsFile)
+  {
+    final var name = prefsFile.getFileName();
+
+    try {
+      while (true) {
+        final var key = service.take();
+        var changed = false;
+        for (final var event : key.pollEvents()) {
+          changed |= event.kind() == OVERFLOW
+                     || Objects.equals(event.context(), name);
+        }
+        if (changed) {
+          this.scheduleReload(prefsFile);
+        }
+        if (!key.reset()) {
+          LOG.debug("configuration directory is no longer accessible");
+          return;
+        }
+      }
+    } catch (final ClosedWatchServiceException e) {
+      // The service has been closed
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private synchronized void scheduleReload(
+    final Path prefsFile)
+  {
+    if (this.reloadPending != null) {
+      this.reloadPending.cancel(false);
+    }
+
+    try {
+      this.reloadPending =
+        this.executors.schedule(
+          () -> this.readPreferencesFile(prefsFile),
+          RELOAD_DELAY.toMillis(),
+          MILLISECONDS
+        );
+    } catch (final RejectedExecutionException e) {
+      // The service has been closed
+    }
+  }
+
+  private void checkPreferencesFile(
     final Path prefsFile)
   {
     try {
@@ -176,8 +296,8 @@ public final class GWPreferencesService implements GWPreferencesServiceType
         Files.getLastModifiedTime(prefsFile);
 
       if (timeNow.compareTo(this.timeThen) > 0) {
-        this.prefsAttribute.set(loadPreferences(this.directories));
         this.timeThen = timeNow;
+        this.readPreferencesFile(prefsFile);
       }
     } catch (final NoSuchFileException e) {
       // Not a problem
@@ -186,6 +306,32 @@ public final class GWPreferencesService implements GWPreferencesServiceType
     }
   }
 
+  private void readPreferencesFile(
+    final Path prefsFile)
+  {
+    try {
+      final var content = Files.readAllBytes(prefsFile);
+      if (Arrays.equals(content, this.contentThen)) {
+        return;
+      }
+      this.contentThen = content;
+
+      final var preferences =
+        GWPreferencesIO.parse(
+          prefsFile.toUri(),
+          new ByteArrayInputStream(content)
+        );
+
+      if (!Objects.equals(preferences, this.prefsAttribute.get())) {
+        this.prefsAttribute.set(preferences);
+      }
+    } catch (final NoSuchFileException e) {
+      // Not a problem
+    } catch (final IOException e) {
+      LOG.debug("failed to load preferences: ", e);
+    }
+  }
+
   @Override
   public String description()
   {
@@ -252,6 +398,15 @@ public final class GWPreferencesService implements GWPreferencesServiceType
   public void close()
   {
     this.executors.shutdown();
+
+    final var service = this.watcher;
+    if (service != null) {
+      try {
+        service.close();
+      } catch (final IOException e) {
+        LOG.debug("failed to close watch service: ", e);
+      }
+    }
   }
 
   @Override
@@ -0,0 +1,254 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.cmdline;
+
+import com.io7m.gatwick.cmdline.GWExitCodes;
+import com.io7m.gatwick.cmdline.internal.GWBackupFile;
+import com.io7m.gatwick.cmdline.internal.GWCommandException;
+import com.io7m.gatwick.cmdline.internal.GWCommandLine;
+import com.io7m.gatwick.cmdline.internal.GWMemoryRange;
+import com.io7m.gatwick.cmdline.internal.GWMemoryTransfers;
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.when;
+
+public final class GWCommandLineTest
+{
+  private static int run(
+    final String... args)
+  {
+    final var bytes = new ByteArrayOutputStream();
+    final var stream = new PrintStream(bytes, true, UTF_8);
+    return GWCommandLine.run(args, stream, stream);
+  }
+
+  @Test
+  public void testHelp()
+  {
+    assertEquals(GWExitCodes.SUCCESS, run("--help"));
+  }
+
+  @Test
+  public void testUsageErrors()
+  {
+    assertEquals(GWExitCodes.USAGE, run());
+    assertEquals(GWExitCodes.USAGE, run("--nonexistent"));
+    assertEquals(GWExitCodes.USAGE, run("nonexistent"));
+    assertEquals(GWExitCodes.USAGE, run("--device"));
+    assertEquals(GWExitCodes.USAGE, run("--fake", "dump-range", "0x80", "1"));
+    assertEquals(GWExitCodes.USAGE, run("--fake", "set", "0x0", "0x80"));
+  }
+
+  @Test
+  public void testRangeParse()
+    throws GWCommandException
+  {
+    assertEquals(
+      new GWMemoryRange(0x1000_0000, 0x31),
+      GWMemoryRange.parse("0x1000_0000:0x31")
+    );
+    assertThrows(GWCommandException.class, () -> {
+      GWMemoryRange.parse("0x1000_0000");
+    });
+    assertThrows(GWCommandException.class, () -> {
+      GWMemoryRange.parse("0x1000_0000:0");
+    });
+  }
+
+  @Test
+  public void testRangeSplit()
+  {
+    assertEquals(
+      List.of(
+        new GWMemoryRange(0x1000_007f, 128),
+        new GWMemoryRange(0x1000_017f, 2)
+      ),
+      new GWMemoryRange(0x1000_007f, 130).split(128)
+    );
+  }
+
+  @Test
+  public void testBackupRoundTrip()
+    throws IOException
+  {
+    final var bytes = new ByteArrayOutputStream();
+    try (var output = new DataOutputStream(bytes)) {
+      GWBackupFile.writeHeader(output);
+      GWBackupFile.writeEntry(output, 0x1000_0000, new byte[]{1, 2, 3});
+      GWBackupFile.writeEntry(output, 0x1000_0100, new byte[]{4});
+    }
+
+    try (var input = new DataInputStream(
+      new ByteArrayInputStream(bytes.toByteArray()))) {
+      GWBackupFile.readHeader(input);
+
+      final var e0 = GWBackupFile.readEntry(input).orElseThrow();
+      assertEquals(0x1000_0000, e0.address());
+      assertArrayEquals(new byte[]{1, 2, 3}, e0.data());
+
+      final var e1 = GWBackupFile.readEntry(input).orElseThrow();
+      assertEquals(0x1000_0100, e1.address());
+      assertArrayEquals(new byte[]{4}, e1.data());
+
+      assertTrue(GWBackupFile.readEntry(input).isEmpty());
+    }
+  }
+
+  @Test
+  public void testBackupBadMagic()
+  {
+    assertThrows(IOException.class, () -> {
+      try (var input = new DataInputStream(
+        new ByteArrayInputStream(new byte[]{0, 0, 0, 0, 0, 0, 0, 1}))) {
+        GWBackupFile.readHeader(input);
+      }
+    });
+  }
+
+  private static GWDeviceType deviceFillingWithAddresses()
+    throws Exception
+  {
+    final var device = Mockito.mock(GWDeviceType.class);
+    when(device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandRequestData command = invocation.getArgument(0);
+        final var data = new byte[GWIOAddresses.linearOf(command.size())];
+        Arrays.fill(data, (byte) (command.address() >>> 8));
+        return new GWDeviceResponseRequestData(command.address(), data, 0);
+      });
+    return device;
+  }
+
+  /**
+   * Reading several ranges delivers every block, in order.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  @Timeout(value = 5L, unit = TimeUnit.SECONDS)
+  public void testReadRanges()
+    throws Exception
+  {
+    final var device = deviceFillingWithAddresses();
+    final var addresses = new ArrayList<Integer>();
+
+    GWMemoryTransfers.read(
+      device,
+      List.of(
+        new GWMemoryRange(0x0000_1000, 0x38),
+        new GWMemoryRange(0x0010_0000, 0x200)
+      ),
+      (address, data) -> {
+        addresses.add(Integer.valueOf(address));
+        for (final var b : data) {
+          assertEquals((byte) (address >>> 8), b);
+        }
+      }
+    );
+
+    assertEquals(
+      List.of(
+        Integer.valueOf(0x0000_1000),
+        Integer.valueOf(0x0010_0000),
+        Integer.valueOf(0x0010_0100),
+        Integer.valueOf(0x0010_0200),
+        Integer.valueOf(0x0010_0300)
+      ),
+      addresses
+    );
+  }
+
+  /**
+   * Device errors are raised on the calling thread.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  @Timeout(value = 5L, unit = TimeUnit.SECONDS)
+  public void testReadRangesDeviceFails()
+    throws Exception
+  {
+    final var device = Mockito.mock(GWDeviceType.class);
+    when(device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenThrow(new GWDeviceException(DEVICE_TIMED_OUT, "Timed out."));
+
+    final var ex =
+      assertThrows(GWDeviceException.class, () -> {
+        GWMemoryTransfers.read(
+          device,
+          List.of(new GWMemoryRange(0x0000_1000, 0x38)),
+          (address, data) -> {
+
+          }
+        );
+      });
+    assertEquals(DEVICE_TIMED_OUT, ex.errorCode());
+  }
+
+  /**
+   * A failing receiver stops the transfer, even though blocks are still
+   * being read ahead of it.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  @Timeout(value = 5L, unit = TimeUnit.SECONDS)
+  public void testReadRangesReceiverFails()
+    throws Exception
+  {
+    final var device = deviceFillingWithAddresses();
+
+    assertThrows(IOException.class, () -> {
+      GWMemoryTransfers.read(
+        device,
+        List.of(new GWMemoryRange(0x0010_0000, 0x4000)),
+        (address, data) -> {
+          throw new IOException("Failed!");
+        }
+      );
+    });
+  }
+}
@@ -18,6 +18,7 @@ package com.io7m.gatwick.tests.codegen;
 
 import com.io7m.gatwick.codegen.GWDefinitionCompiler;
 import com.io7m.gatwick.codegen.GWDefinitionCompilerConfiguration;
+import com.io7m.gatwick.codegen.GWStructureMode;
 import com.io7m.gatwick.codegen.jaxb.Definitions;
 import com.io7m.gatwick.tests.GWZip;
 import com.sun.source.util.JavacTask;
@@ -63,6 +64,21 @@ public final class Compilation
     final Path outputDirectory,
     final Path moduleDirectory)
     throws Exception
+  {
+    return compile(
+      definitions,
+      outputDirectory,
+      moduleDirectory,
+      GWStructureMode.CLASSES
+    );
+  }
+
+  public static ClassLoader compile(
+    final Definitions definitions,
+    final Path outputDirectory,
+    final Path moduleDirectory,
+    final GWStructureMode structureMode)
+    throws Exception
   {
     final var compilation =
       new Compilation(outputDirectory, moduleDirectory);
@@ -72,6 +88,7 @@ public final class Compilation
         outputDirectory,
         true,
         "com.io7m.gatwick.generated.structs",
+        structureMode,
         true,
         "com.io7m.gatwick.controller.api",
         "com.io7m.gatwick.controller.api",
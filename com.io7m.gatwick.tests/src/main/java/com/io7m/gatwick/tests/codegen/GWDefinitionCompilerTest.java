@@ -17,14 +17,34 @@
 
 package com.io7m.gatwick.tests.codegen;
 
+import com.io7m.gatwick.codegen.GWDefinitionCompiler;
+import com.io7m.gatwick.codegen.GWDefinitionCompilerConfiguration;
 import com.io7m.gatwick.codegen.GWDefinitionParser;
+import com.io7m.gatwick.codegen.GWStructureMode;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOImageCodecType;
+import com.io7m.gatwick.iovar.GWIOParameterDescriptorType.ParameterStructure;
+import com.io7m.gatwick.iovar.GWIORawBlock;
+import com.io7m.gatwick.iovar.GWIOStructureDescriptor;
+import com.io7m.gatwick.iovar.GWIOVariableContainerType;
 import com.io7m.gatwick.tests.GWTestDirectories;
+import com.io7m.jattribute.core.Attributes;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public final class GWDefinitionCompilerTest
 {
@@ -64,4 +84,159 @@ public final class GWDefinitionCompilerTest
     final var classloader =
       Compilation.compile(definitions, this.directory, this.module);
   }
+
+  /**
+   * Structures can be generated as tables, every table can be interpreted,
+   * and every structure facade can be created over the interpreted tables.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testResourcesTables()
+    throws Exception
+  {
+    final var definitions =
+      GWDefinitionParser.parse();
+    final var classloader =
+      Compilation.compile(
+        definitions,
+        this.directory,
+        this.module,
+        GWStructureMode.TABLES
+      );
+
+    final var tables =
+      classloader.loadClass("com.io7m.gatwick.generated.structs.StructTables");
+    final var names =
+      (Set<?>) tables.getMethod("names").invoke(null);
+    final var descriptorMethod =
+      tables.getMethod("descriptor", String.class);
+
+    final var device =
+      Mockito.mock(GWDeviceType.class);
+    final var attributes =
+      Attributes.create(e -> {
+        throw new IllegalStateException(e);
+      });
+
+    assertFalse(names.isEmpty());
+    for (final var name : names) {
+      final var descriptor =
+        (GWIOStructureDescriptor) descriptorMethod.invoke(null, name);
+      assertEquals(name, descriptor.name());
+      assertFalse(descriptor.parameters().isEmpty());
+
+      final var facadeClass =
+        classloader.loadClass(
+          "com.io7m.gatwick.generated.structs.Struct%s"
+            .formatted(descriptor.name().replace("-", "_"))
+        );
+      final var facade =
+        facadeClass.getConstructor(
+            GWDeviceType.class,
+            Attributes.class,
+            int.class)
+          .newInstance(device, attributes, Integer.valueOf(0));
+
+      assertEquals(
+        descriptor.imageSize(),
+        ((GWIOImageCodecType) facade).imageSize()
+      );
+      assertEquals(
+        descriptor.parameters()
+          .stream()
+          .filter(p -> !(p instanceof ParameterStructure))
+          .count(),
+        ((GWIOVariableContainerType) facade).variables().size()
+      );
+    }
+
+    Mockito.verifyNoInteractions(device);
+  }
+
+  /**
+   * The raw block table exposes the expected size and base address of every
+   * block referenced by the root structure.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testResourcesBlocks()
+    throws Exception
+  {
+    final var definitions =
+      GWDefinitionParser.parse();
+    final var classloader =
+      Compilation.compile(definitions, this.directory, this.module);
+
+    final var blocksClass =
+      classloader.loadClass("com.io7m.gatwick.generated.structs.StructBlocks");
+    final var blocks =
+      (List<?>) blocksClass.getMethod("blocks").invoke(null);
+    final var sizes =
+      (Map<?, ?>) blocksClass.getMethod("sizes").invoke(null);
+
+    assertEquals(
+      List.of(
+        new GWIORawBlock("common", 0x0000_0000, 0x31),
+        new GWIORawBlock("control", 0x0000_1000, 0x38),
+        new GWIORawBlock("midi", 0x0000_3000, 0x1b),
+        new GWIORawBlock("inout", 0x0000_4000, 0x43),
+        new GWIORawBlock("efct", 0x0000_5000, 0x07),
+        new GWIORawBlock("pitch", 0x0000_6000, 0x07),
+        new GWIORawBlock("bank1", 0x0010_0000, 512),
+        new GWIORawBlock("bank2", 0x0010_0400, 512),
+        new GWIORawBlock("bank3", 0x0010_0800, 512),
+        new GWIORawBlock("bank4", 0x0010_0c00, 512)
+      ),
+      blocks
+    );
+
+    assertEquals(Integer.valueOf(0x38), sizes.get("SystemControl"));
+    assertEquals(Integer.valueOf(512), sizes.get("PcmapPc"));
+    assertTrue(sizes.containsKey("PatchCommon"));
+    assertFalse(sizes.containsKey("StompBoxCommon"));
+  }
+
+  /**
+   * Running the compiler again over unchanged definitions does not rewrite
+   * any files.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testUnchangedFilesNotRewritten()
+    throws Exception
+  {
+    final var configuration =
+      new GWDefinitionCompilerConfiguration(
+        this.directory,
+        true,
+        "com.io7m.gatwick.generated.structs",
+        GWStructureMode.CLASSES,
+        true,
+        "com.io7m.gatwick.controller.api",
+        "com.io7m.gatwick.controller.api",
+        GWDefinitionParser.parse()
+      );
+
+    final var files0 =
+      GWDefinitionCompiler.create(configuration).execute();
+
+    final var past = FileTime.fromMillis(0L);
+    for (final var file : files0) {
+      Files.setLastModifiedTime(file, past);
+    }
+
+    final var files1 =
+      GWDefinitionCompiler.create(configuration).execute();
+
+    assertEquals(files0, files1);
+    for (final var file : files1) {
+      assertEquals(past, Files.getLastModifiedTime(file));
+    }
+  }
 }
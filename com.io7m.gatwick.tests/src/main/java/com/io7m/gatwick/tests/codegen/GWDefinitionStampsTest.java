@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.codegen;
+
+import com.io7m.gatwick.codegen.GWDefinitionStamps;
+import com.io7m.gatwick.tests.GWTestDirectories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class GWDefinitionStampsTest
+{
+  private Path directory;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory =
+      GWTestDirectories.createTempDirectory();
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws IOException
+  {
+    GWTestDirectories.deleteDirectory(this.directory);
+  }
+
+  /**
+   * Fingerprints depend on the arguments.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testFingerprint()
+    throws Exception
+  {
+    final var f0 =
+      GWDefinitionStamps.fingerprint(List.of("a", "b")).orElseThrow();
+    final var f1 =
+      GWDefinitionStamps.fingerprint(List.of("a", "b")).orElseThrow();
+    final var f2 =
+      GWDefinitionStamps.fingerprint(List.of("ab")).orElseThrow();
+
+    assertEquals(f0, f1);
+    assertNotEquals(f0, f2);
+  }
+
+  /**
+   * A stamp is only up-to-date if the fingerprint matches and all generated
+   * files are present.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testUpToDate()
+    throws Exception
+  {
+    final var file0 = this.directory.resolve("x").resolve("A.java");
+    final var file1 = this.directory.resolve("B.java");
+    Files.createDirectories(file0.getParent());
+    Files.writeString(file0, "A");
+    Files.writeString(file1, "B");
+
+    assertFalse(GWDefinitionStamps.isUpToDate(this.directory, "f"));
+
+    GWDefinitionStamps.write(this.directory, "f", List.of(file0, file1));
+    assertTrue(GWDefinitionStamps.isUpToDate(this.directory, "f"));
+    assertFalse(GWDefinitionStamps.isUpToDate(this.directory, "g"));
+
+    Files.delete(file0);
+    assertFalse(GWDefinitionStamps.isUpToDate(this.directory, "f"));
+
+    Files.writeString(file0, "A");
+    assertTrue(GWDefinitionStamps.isUpToDate(this.directory, "f"));
+
+    GWDefinitionStamps.delete(this.directory);
+    assertFalse(GWDefinitionStamps.isUpToDate(this.directory, "f"));
+  }
+}
@@ -19,11 +19,13 @@ package com.io7m.gatwick.tests.controller;
 
 import com.io7m.gatwick.controller.api.GWChain;
 import com.io7m.gatwick.controller.api.GWChainGraph;
+import com.io7m.gatwick.controller.api.GWChainGraphNodeType.GWChainGraphBranchType;
 import com.io7m.gatwick.controller.api.GWChainGraphType;
 import com.io7m.gatwick.controller.api.GWChainGraphValidityException;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Optional;
 
 import static com.io7m.gatwick.controller.api.GWChainElementValue.BRANCH_SPLIT1;
 import static com.io7m.gatwick.controller.api.GWChainElementValue.BRANCH_SPLIT2;
@@ -34,6 +36,8 @@ import static com.io7m.gatwick.controller.api.GWChainElementValue.DIVIDER_3;
 import static com.io7m.gatwick.controller.api.GWChainElementValue.MIXER_1;
 import static com.io7m.gatwick.controller.api.GWChainElementValue.MIXER_2;
 import static com.io7m.gatwick.controller.api.GWChainElementValue.MIXER_3;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class GWChainGraphTest
@@ -48,6 +52,52 @@ public final class GWChainGraphTest
     dumpGraph(t);
   }
 
+  @Test
+  public void testDefaultGraphIndices()
+  {
+    final var g =
+      GWChain.defaultChain().elements();
+    final var t =
+      GWChainGraph.create(g);
+
+    assertEquals(g.size(), t.size());
+    assertSame(t.elements(), t.elements());
+    assertSame(t.first(), t.nodeAt(0));
+
+    for (int index = 0; index < t.size(); ++index) {
+      final var node = t.nodeAt(index);
+      assertSame(node, t.elements().get(index));
+      assertEquals(index, node.index());
+      assertEquals(g.get(index), node.element());
+      assertEquals(index, t.indexOf(node.element()));
+      assertEquals(node.depth(), t.depthAt(index));
+
+      if (index + 1 < t.size()) {
+        assertSame(t.nodeAt(index + 1), node.next().orElseThrow());
+      } else {
+        assertEquals(Optional.empty(), node.next());
+      }
+
+      if (node instanceof GWChainGraphBranchType branch) {
+        assertEquals(
+          branch.splitIndex() - index - 1,
+          branch.leftLength());
+        assertEquals(
+          branch.joinIndex() - branch.splitIndex() - 1,
+          branch.rightLength());
+        assertSame(
+          t.nodeAt(branch.splitIndex() - 1),
+          branch.endOfLeftBranch());
+        assertSame(
+          t.nodeAt(branch.joinIndex()),
+          branch.endOfRightBranch());
+        assertSame(
+          t.nodeAt(branch.splitIndex()),
+          branch.right());
+      }
+    }
+  }
+
   private static void dumpGraph(
     final GWChainGraphType t)
   {
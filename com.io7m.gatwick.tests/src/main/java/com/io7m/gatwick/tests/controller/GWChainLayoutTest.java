@@ -0,0 +1,361 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.controller;
+
+import com.io7m.gatwick.controller.api.GWChain;
+import com.io7m.gatwick.controller.api.GWChainElementValue;
+import com.io7m.gatwick.controller.api.GWChainLayout;
+import com.io7m.gatwick.controller.api.GWChainLayoutNodeSize;
+import com.io7m.gatwick.controller.api.GWChainLayouts;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.io7m.gatwick.controller.api.GWChainElementValue.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class GWChainLayoutTest
+{
+  /*
+   * The expected positions below were produced by the node and line
+   * arrangers that GWChainLayouts replaced, using the sizes given by
+   * variedSizes().
+   */
+
+  private static final List<ExpectedNode> EXPECTED_NODES_BRANCHES = List.of(
+    node(PEDAL_FX, 0.0, 0.0),
+    node(COMPRESSOR, 24.0, 0.0),
+    node(EQUALIZER_3, 64.0, 0.0),
+    node(FX_1, 112.0, 0.0),
+    node(DIVIDER_1, 136.0, 0.0),
+    node(DISTORTION_1, 168.0, 0.0),
+    node(SEND_SLASH_RETURN_1, 192.0, 0.0),
+    node(NOISE_SUPPRESSOR_1, 240.0, 0.0),
+    node(AIRD_PREAMP_1, 280.0, 0.0),
+    node(NOISE_SUPPRESSOR_2, 312.0, 0.0),
+    node(EQUALIZER_1, 352.0, 0.0),
+    node(BRANCH_SPLIT1, 168.0, 48.0),
+    node(DISTORTION_2, 168.0, 48.0),
+    node(SEND_SLASH_RETURN_2, 192.0, 48.0),
+    node(AIRD_PREAMP_2, 240.0, 48.0),
+    node(EQUALIZER_2, 272.0, 48.0),
+    node(MIXER_1, 400.0, 0.0),
+    node(REVERB, 448.0, 0.0),
+    node(FX_2, 488.0, 0.0),
+    node(FX_3, 512.0, 0.0),
+    node(EQUALIZER_4, 536.0, 0.0),
+    node(FOOT_VOLUME, 584.0, 0.0),
+    node(DELAY_1, 632.0, 0.0),
+    node(DELAY_2, 680.0, 0.0),
+    node(DELAY_3, 728.0, 0.0),
+    node(DELAY_4, 776.0, 0.0),
+    node(MASTER_DELAY, 824.0, 0.0),
+    node(FX_4, 848.0, 0.0),
+    node(DIVIDER_2, 872.0, 0.0),
+    node(LOOPER, 904.0, 0.0),
+    node(BRANCH_SPLIT2, 904.0, 48.0),
+    node(MIXER_2, 944.0, 0.0),
+    node(DIVIDER_3, 992.0, 0.0),
+    node(BRANCH_SPLIT3, 1024.0, 48.0),
+    node(CHORUS, 1024.0, 48.0),
+    node(MIXER_3, 1064.0, 0.0),
+    node(BYPASS_MAIN_R, 1112.0, 0.0),
+    node(MAIN_SP_SIMULATOR_L, 1144.0, 0.0),
+    node(MAIN_SP_SIMULATOR_R, 1192.0, 0.0),
+    node(BYPASS_MAIN_L, 1240.0, 0.0),
+    node(MAIN_OUT_L, 1272.0, 0.0),
+    node(MAIN_OUT_R, 1312.0, 0.0),
+    node(BYPASS_SUB_R, 1352.0, 0.0),
+    node(SUB_SP_SIMULATOR_L, 1376.0, 0.0),
+    node(SUB_SP_SIMULATOR_R, 1416.0, 0.0),
+    node(BYPASS_SUB_L, 1456.0, 0.0),
+    node(SUB_OUT_L, 1480.0, 0.0),
+    node(SUB_OUT_R, 1512.0, 0.0),
+    node(RESERVED_44, 1544.0, 0.0)
+  );
+
+  private static final double[][] EXPECTED_LINES_BRANCHES = {
+    {12.5, 12.5, 44.5, 12.5},
+    {44.5, 12.5, 88.5, 12.5},
+    {88.5, 12.5, 124.5, 12.5},
+    {124.5, 12.5, 152.5, 12.5},
+    {152.5, 12.5, 180.5, 12.5},
+    {152.5, 12.5, 152.5, 60.5},
+    {152.5, 60.5, 184.5, 60.5},
+    {180.5, 12.5, 216.5, 12.5},
+    {216.5, 12.5, 260.5, 12.5},
+    {260.5, 12.5, 296.5, 12.5},
+    {296.5, 12.5, 332.5, 12.5},
+    {332.5, 12.5, 376.5, 12.5},
+    {376.5, 12.5, 468.5, 12.5},
+    {180.5, 60.5, 216.5, 60.5},
+    {216.5, 60.5, 256.5, 60.5},
+    {256.5, 60.5, 296.5, 60.5},
+    {296.5, 60.5, 424.5, 60.5},
+    {424.5, 60.5, 424.5, 12.5},
+    {424.5, 12.5, 468.5, 12.5},
+    {468.5, 12.5, 500.5, 12.5},
+    {500.5, 12.5, 524.5, 12.5},
+    {524.5, 12.5, 560.5, 12.5},
+    {560.5, 12.5, 608.5, 12.5},
+    {608.5, 12.5, 656.5, 12.5},
+    {656.5, 12.5, 704.5, 12.5},
+    {704.5, 12.5, 752.5, 12.5},
+    {752.5, 12.5, 800.5, 12.5},
+    {800.5, 12.5, 836.5, 12.5},
+    {836.5, 12.5, 860.5, 12.5},
+    {860.5, 12.5, 888.5, 12.5},
+    {888.5, 12.5, 924.5, 12.5},
+    {888.5, 12.5, 888.5, 60.5},
+    {888.5, 60.5, 920.5, 60.5},
+    {920.5, 60.5, 968.5, 60.5},
+    {968.5, 60.5, 968.5, 12.5},
+    {924.5, 12.5, 1008.5, 12.5},
+    {968.5, 12.5, 1008.5, 12.5},
+    {1008.5, 12.5, 1088.5, 12.5},
+    {1008.5, 12.5, 1008.5, 60.5},
+    {1008.5, 60.5, 1040.5, 60.5},
+    {1044.5, 60.5, 1088.5, 60.5},
+    {1088.5, 60.5, 1088.5, 12.5},
+    {1088.5, 12.5, 1128.5, 12.5},
+    {1128.5, 12.5, 1168.5, 12.5},
+    {1168.5, 12.5, 1216.5, 12.5},
+    {1216.5, 12.5, 1256.5, 12.5},
+    {1256.5, 12.5, 1292.5, 12.5},
+    {1292.5, 12.5, 1332.5, 12.5},
+    {1332.5, 12.5, 1364.5, 12.5},
+    {1364.5, 12.5, 1396.5, 12.5},
+    {1396.5, 12.5, 1436.5, 12.5},
+    {1436.5, 12.5, 1468.5, 12.5},
+    {1468.5, 12.5, 1496.5, 12.5},
+    {1496.5, 12.5, 1528.5, 12.5},
+    {1528.5, 12.5, 1568.5, 12.5}
+  };
+
+  private static final List<ExpectedNode> EXPECTED_NODES_EMPTY = List.of(
+    node(DIVIDER_2, 952.0, 0.0),
+    node(BRANCH_SPLIT2, 984.0, 48.0),
+    node(MIXER_2, 984.0, 0.0),
+    node(DIVIDER_3, 1032.0, 0.0),
+    node(BRANCH_SPLIT3, 1064.0, 48.0),
+    node(MIXER_3, 1064.0, 0.0)
+  );
+
+  private static final double[][] EXPECTED_LINES_EMPTY = {
+    {932.5, 12.5, 968.5, 12.5},
+    {968.5, 12.5, 1008.5, 12.5},
+    {1008.5, 12.5, 1048.5, 12.5},
+    {1048.5, 12.5, 1088.5, 12.5}
+  };
+
+  /*
+   * The index of the first line in EXPECTED_LINES_EMPTY within the layout
+   * of the default chain.
+   */
+
+  private static final int EXPECTED_LINES_EMPTY_START = 31;
+
+  private record ExpectedNode(
+    GWChainElementValue element,
+    double x,
+    double y)
+  {
+
+  }
+
+  private static ExpectedNode node(
+    final GWChainElementValue element,
+    final double x,
+    final double y)
+  {
+    return new ExpectedNode(element, x, y);
+  }
+
+  private static Map<GWChainElementValue, GWChainLayoutNodeSize> variedSizes()
+  {
+    final var sizes =
+      new EnumMap<GWChainElementValue, GWChainLayoutNodeSize>(
+        GWChainElementValue.class);
+    for (final var element : GWChainElementValue.values()) {
+      final var width = 24.0 + 8.0 * (element.name().length() % 4);
+      sizes.put(
+        element,
+        new GWChainLayoutNodeSize(width, width / 2.0 + 0.25, 12.75)
+      );
+    }
+    return sizes;
+  }
+
+  private static void checkNodes(
+    final GWChainLayout layout,
+    final List<ExpectedNode> expected)
+  {
+    for (final var node : expected) {
+      assertEquals(node.x(), layout.nodeX(node.element()), node.toString());
+      assertEquals(node.y(), layout.nodeY(node.element()), node.toString());
+    }
+  }
+
+  private static void checkLine(
+    final GWChainLayout layout,
+    final int index,
+    final double[] expected)
+  {
+    final var name = "Line %d".formatted(Integer.valueOf(index));
+    assertEquals(expected[0], layout.lineStartX(index), name);
+    assertEquals(expected[1], layout.lineStartY(index), name);
+    assertEquals(expected[2], layout.lineEndX(index), name);
+    assertEquals(expected[3], layout.lineEndY(index), name);
+  }
+
+  private static Map<GWChainElementValue, GWChainLayoutNodeSize> uniformSizes()
+  {
+    final var sizes =
+      new EnumMap<GWChainElementValue, GWChainLayoutNodeSize>(
+        GWChainElementValue.class);
+    for (final var element : GWChainElementValue.values()) {
+      sizes.put(element, new GWChainLayoutNodeSize(32.0, 16.0, 16.0));
+    }
+    return sizes;
+  }
+
+  @Test
+  public void testDefaultLayoutNodes()
+  {
+    final var graph =
+      GWChain.defaultChain().graph();
+    final var layout =
+      GWChainLayouts.layout(graph, uniformSizes());
+
+    for (int index = 0; index < graph.size(); ++index) {
+      final var element = graph.nodeAt(index).element();
+      assertEquals(
+        graph.depthAt(index) * GWChainLayouts.DEPTH_HEIGHT,
+        layout.nodeY(element)
+      );
+      assertTrue(layout.nodeX(element) >= 0.0);
+    }
+
+    final var first = graph.nodeAt(0).element();
+    assertEquals(0.0, layout.nodeX(first));
+  }
+
+  @Test
+  public void testDefaultLayoutLines()
+  {
+    final var layout =
+      GWChainLayouts.layout(GWChain.defaultChain().graph(), uniformSizes());
+
+    assertTrue(layout.lineCount() > 0);
+
+    for (int index = 0; index < layout.lineCount(); ++index) {
+      final var x0 = layout.lineStartX(index);
+      final var y0 = layout.lineStartY(index);
+      final var x1 = layout.lineEndX(index);
+      final var y1 = layout.lineEndY(index);
+
+      assertTrue(x0 == x1 || y0 == y1, "Lines are axis-aligned");
+      assertEquals(0.5, x0 - Math.floor(x0));
+      assertEquals(0.5, y0 - Math.floor(y0));
+      assertEquals(0.5, x1 - Math.floor(x1));
+      assertEquals(0.5, y1 - Math.floor(y1));
+    }
+
+    assertThrows(IndexOutOfBoundsException.class, () -> {
+      layout.lineStartX(layout.lineCount());
+    });
+  }
+
+  @Test
+  public void testDeterministic()
+  {
+    final var graph =
+      GWChain.defaultChain().graph();
+    final var layout0 =
+      GWChainLayouts.layout(graph, uniformSizes());
+    final var layout1 =
+      GWChainLayouts.layout(graph, uniformSizes());
+
+    assertEquals(layout0.lineCount(), layout1.lineCount());
+    for (int index = 0; index < layout0.lineCount(); ++index) {
+      assertEquals(layout0.lineStartX(index), layout1.lineStartX(index));
+      assertEquals(layout0.lineStartY(index), layout1.lineStartY(index));
+      assertEquals(layout0.lineEndX(index), layout1.lineEndX(index));
+      assertEquals(layout0.lineEndY(index), layout1.lineEndY(index));
+    }
+  }
+
+  @Test
+  public void testMissingSize()
+  {
+    assertThrows(NullPointerException.class, () -> {
+      GWChainLayouts.layout(GWChain.defaultChain().graph(), Map.of());
+    });
+  }
+
+  @Test
+  public void testLayoutBranchesExact()
+  {
+    /*
+     * The first divider has two non-empty branches, the second has an
+     * empty right branch, and the third has an empty left branch.
+     */
+
+    final var chain =
+      GWChain.defaultChain()
+        .moveBefore(LOOPER, BRANCH_SPLIT2)
+        .moveBefore(CHORUS, MIXER_3);
+    final var graph =
+      chain.graph();
+    final var layout =
+      GWChainLayouts.layout(graph, variedSizes());
+
+    assertEquals(graph.size(), EXPECTED_NODES_BRANCHES.size());
+    checkNodes(layout, EXPECTED_NODES_BRANCHES);
+
+    assertEquals(EXPECTED_LINES_BRANCHES.length, layout.lineCount());
+    for (int index = 0; index < EXPECTED_LINES_BRANCHES.length; ++index) {
+      checkLine(layout, index, EXPECTED_LINES_BRANCHES[index]);
+    }
+  }
+
+  @Test
+  public void testLayoutBranchesEmptyExact()
+  {
+    /*
+     * The second and third dividers of the default chain have two empty
+     * branches.
+     */
+
+    final var layout =
+      GWChainLayouts.layout(GWChain.defaultChain().graph(), variedSizes());
+
+    checkNodes(layout, EXPECTED_NODES_EMPTY);
+    for (int index = 0; index < EXPECTED_LINES_EMPTY.length; ++index) {
+      checkLine(
+        layout,
+        EXPECTED_LINES_EMPTY_START + index,
+        EXPECTED_LINES_EMPTY[index]
+      );
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.controller;
+
+import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.controller.api.GWControllerFactoryType;
+import com.io7m.gatwick.controller.api.GWControllerType;
+import com.io7m.gatwick.controller.main.GWControllerManager;
+import com.io7m.gatwick.device.api.GWDeviceConfiguration;
+import com.io7m.gatwick.device.api.GWDeviceFactoryType;
+import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.io7m.gatwick.controller.api.GWControllerStandardErrorCodes.CONTROLLER_CLOSED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Timeout(value = 5L, unit = TimeUnit.SECONDS)
+public final class GWControllerManagerTest
+{
+  private GWControllerFactoryType controllers;
+  private GWDeviceFactoryType devices;
+  private GWControllerManager manager;
+
+  private static GWDeviceConfiguration configuration(
+    final String name)
+  {
+    return new GWDeviceConfiguration(
+      new GWDeviceMIDIDescription(name, "", "", ""),
+      Duration.ofSeconds(1L),
+      Duration.ofSeconds(1L),
+      1,
+      Duration.ofMillis(1L)
+    );
+  }
+
+  @BeforeEach
+  public void setup()
+    throws GWControllerException
+  {
+    this.controllers =
+      Mockito.mock(GWControllerFactoryType.class);
+    this.devices =
+      Mockito.mock(GWDeviceFactoryType.class);
+
+    when(this.controllers.openController(any(), any()))
+      .thenAnswer(invocation -> Mockito.mock(GWControllerType.class));
+
+    this.manager =
+      new GWControllerManager(this.controllers);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws GWControllerException
+  {
+    this.manager.close();
+  }
+
+  /**
+   * A blocked lane does not prevent other lanes from making progress.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testLanesIndependent()
+    throws Exception
+  {
+    final var lane0 =
+      this.manager.open(this.devices, configuration("a")).get();
+    final var lane1 =
+      this.manager.open(this.devices, configuration("b")).get();
+
+    final var release = new CountDownLatch(1);
+    final var blocked = lane0.submit(c -> {
+      release.await();
+      return Integer.valueOf(0);
+    });
+
+    assertEquals(Integer.valueOf(1), lane1.submit(c -> Integer.valueOf(1)).get());
+    release.countDown();
+    assertEquals(Integer.valueOf(0), blocked.get());
+  }
+
+  /**
+   * Broadcasts reach every lane, and failures are reported per lane.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBroadcast()
+    throws Exception
+  {
+    final var lane0 =
+      this.manager.open(this.devices, configuration("a")).get();
+    final var lane1 =
+      this.manager.open(this.devices, configuration("b")).get();
+
+    final var results = this.manager.broadcast(c -> {
+      if (c == null) {
+        throw new IllegalStateException();
+      }
+      return "ok";
+    });
+
+    assertEquals(2, results.size());
+    assertEquals("ok", results.get(lane0).get());
+    assertEquals("ok", results.get(lane1).get());
+  }
+
+  /**
+   * Closed lanes are removed and reject work.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testClosedLane()
+    throws Exception
+  {
+    final var lane =
+      this.manager.open(this.devices, configuration("a")).get();
+
+    lane.close();
+    assertTrue(lane.isClosed());
+    assertEquals(0, this.manager.lanes().size());
+
+    final var ex = assertThrows(ExecutionException.class, () -> {
+      lane.submit(c -> Integer.valueOf(0)).get();
+    });
+    assertInstanceOf(GWControllerException.class, ex.getCause());
+  }
+
+  /**
+   * A lane can be closed by a function running on that lane.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCloseFromLane()
+    throws Exception
+  {
+    final var controller = Mockito.mock(GWControllerType.class);
+    when(this.controllers.openController(any(), any()))
+      .thenReturn(controller);
+
+    final var lane =
+      this.manager.open(this.devices, configuration("a")).get();
+
+    final var result = lane.submit(c -> {
+      lane.close();
+      return Integer.valueOf(1);
+    });
+
+    assertEquals(Integer.valueOf(1), result.get());
+    assertTrue(lane.isClosed());
+    assertEquals(0, this.manager.lanes().size());
+    verify(controller, timeout(1000L)).close();
+  }
+
+  /**
+   * A lane that finishes opening after the manager is closed is closed, and
+   * is never added to the manager.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testLateLaneClosed()
+    throws Exception
+  {
+    final var opening = new CountDownLatch(1);
+    final var release = new CountDownLatch(1);
+    final var controller = new AtomicReference<GWControllerType>();
+
+    when(this.controllers.openController(any(), any()))
+      .thenAnswer(invocation -> {
+        opening.countDown();
+        release.await();
+        final var c = Mockito.mock(GWControllerType.class);
+        controller.set(c);
+        return c;
+      });
+
+    final var future =
+      this.manager.open(this.devices, configuration("a"));
+
+    opening.await();
+    this.manager.close();
+    release.countDown();
+
+    final var ex = assertThrows(ExecutionException.class, future::get);
+    final var cause =
+      assertInstanceOf(GWControllerException.class, ex.getCause());
+    assertEquals(CONTROLLER_CLOSED, cause.errorCode());
+    assertEquals(0, this.manager.lanes().size());
+    verify(controller.get(), timeout(1000L)).close();
+  }
+
+  /**
+   * Lanes cannot be opened on a closed manager.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testOpenAfterClose()
+    throws Exception
+  {
+    this.manager.close();
+
+    final var ex = assertThrows(ExecutionException.class, () -> {
+      this.manager.open(this.devices, configuration("a")).get();
+    });
+    final var cause =
+      assertInstanceOf(GWControllerException.class, ex.getCause());
+    assertEquals(CONTROLLER_CLOSED, cause.errorCode());
+  }
+}
@@ -29,11 +29,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.mockito.Mockito;
 
+import javax.management.ObjectName;
 import javax.sound.midi.MidiDevice;
 import javax.sound.midi.Receiver;
 import javax.sound.midi.SysexMessage;
 import javax.sound.midi.Transmitter;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -41,6 +44,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
@@ -103,6 +108,42 @@ public final class GWControllerTest
     }
   }
 
+  /**
+   * Opening a controller registers metrics, and closing it unregisters them.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testOpenRegistersMetrics()
+    throws Exception
+  {
+    final var server =
+      ManagementFactory.getPlatformMBeanServer();
+    final var query =
+      new ObjectName("com.io7m.gatwick:type=Controller,*");
+    final var before =
+      server.queryNames(query, null);
+
+    final HashSet<ObjectName> registered;
+    try (var controller = this.openControllerCorrectly()) {
+      registered = new HashSet<>(server.queryNames(query, null));
+      registered.removeAll(before);
+      assertEquals(1, registered.size());
+
+      final var name = registered.iterator().next();
+      assertEquals("GT-1000", server.getAttribute(name, "DeviceName"));
+      assertEquals(0L, server.getAttribute(name, "CommandsInFlight"));
+      assertTrue(
+        (Long) server.getAttribute(name, "LiveSubscriptions") >= 0L
+      );
+    }
+
+    for (final var name : registered) {
+      assertFalse(server.isRegistered(name));
+    }
+  }
+
   private GWControllerType openControllerCorrectly()
     throws Exception
   {
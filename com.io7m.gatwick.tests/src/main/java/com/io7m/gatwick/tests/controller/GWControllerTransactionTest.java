@@ -0,0 +1,431 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.controller;
+
+import com.io7m.gatwick.controller.api.GWControllerException;
+import com.io7m.gatwick.controller.main.internal.GWControllerTransaction;
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceResponseOK;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import com.io7m.gatwick.iovar.GWIOIntConversions;
+import com.io7m.gatwick.iovar.GWIOIntVariable;
+import com.io7m.gatwick.iovar.GWIOIntVariableType;
+import com.io7m.gatwick.iovar.GWIOSerializers;
+import com.io7m.gatwick.iovar.GWIOVariableInformation;
+import com.io7m.jattribute.core.Attributes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.when;
+
+@Timeout(value = 5L, unit = TimeUnit.SECONDS)
+public final class GWControllerTransactionTest
+{
+  private static final int BASE = 0x10000000;
+
+  private GWDeviceType device;
+  private Attributes attributes;
+  private byte[] memory;
+  private List<GWDeviceCommandSetData> writes;
+  private int failAt;
+
+  /*
+   * The device is a mock over a small block of memory starting at BASE.
+   * Reads return the memory, and every write is recorded and applied to
+   * the memory unless it is the write with index failAt.
+   */
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.memory = new byte[256];
+    this.writes = new ArrayList<>();
+    this.failAt = -1;
+
+    this.device = Mockito.mock(GWDeviceType.class);
+
+    when(this.device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandRequestData read = invocation.getArgument(0);
+        final var offset = offsetOf(read.address());
+        return new GWDeviceResponseRequestData(
+          read.address(),
+          Arrays.copyOfRange(
+            this.memory,
+            offset,
+            offset + GWIOAddresses.linearOf(read.size())),
+          0
+        );
+      });
+
+    when(this.device.sendCommand(isA(GWDeviceCommandSetData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandSetData write = invocation.getArgument(0);
+        if (this.writes.size() == this.failAt) {
+          this.failAt = -1;
+          throw new GWDeviceException(DEVICE_TIMED_OUT, "Timed out.");
+        }
+        this.writes.add(write);
+        final var data = write.data();
+        System.arraycopy(
+          data, 0, this.memory, offsetOf(write.address()), data.length);
+        return GWDeviceResponseOK.ok();
+      });
+
+    this.attributes =
+      Attributes.create(e -> {
+        throw new IllegalStateException(e);
+      });
+  }
+
+  private static int offsetOf(
+    final int address)
+  {
+    return GWIOAddresses.linearOf(address) - GWIOAddresses.linearOf(BASE);
+  }
+
+  private GWIOIntVariableType<Integer> variable(
+    final int offset)
+  {
+    return GWIOIntVariable.create(
+      this.device,
+      this.attributes,
+      GWIOIntConversions.integers(),
+      GWIOSerializers.uint8IntSerializer(),
+      GWIOSerializers.uint8IntDeserializer(),
+      1,
+      new GWIOVariableInformation<>(
+        "V%d".formatted(Integer.valueOf(offset)),
+        Integer.class,
+        Integer.valueOf(0),
+        Integer.valueOf(0),
+        Integer.valueOf(255)
+      ),
+      GWIOAddresses.addressOf(GWIOAddresses.linearOf(BASE) + offset)
+    );
+  }
+
+  private static int addressAt(
+    final int offset)
+  {
+    return GWIOAddresses.addressOf(GWIOAddresses.linearOf(BASE) + offset);
+  }
+
+  /**
+   * Adjacent variables staged in any order are merged into a single write.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testAdjacentMerged()
+    throws Exception
+  {
+    final var v0 = this.variable(0);
+    final var v1 = this.variable(1);
+    final var v2 = this.variable(2);
+
+    new GWControllerTransaction(this.device)
+      .set(v2, Integer.valueOf(3))
+      .set(v0, Integer.valueOf(1))
+      .set(v1, Integer.valueOf(2))
+      .commit();
+
+    assertEquals(1, this.writes.size());
+    final var write = this.writes.get(0);
+    assertEquals(addressAt(0), write.address());
+    assertArrayEquals(new byte[]{1, 2, 3}, write.data());
+  }
+
+  /**
+   * Runs of adjacent variables are split into writes no larger than the
+   * maximum write size.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testAdjacentSplit()
+    throws Exception
+  {
+    final var max = GWControllerTransaction.MAXIMUM_WRITE_SIZE;
+    final var transaction = new GWControllerTransaction(this.device);
+    for (int index = 0; index < max + 2; ++index) {
+      transaction.set(this.variable(index), Integer.valueOf(index & 0x7f));
+    }
+    transaction.commit();
+
+    assertEquals(2, this.writes.size());
+    final var w0 = this.writes.get(0);
+    final var w1 = this.writes.get(1);
+    assertEquals(addressAt(0), w0.address());
+    assertEquals(max, w0.data().length);
+    assertEquals(addressAt(max), w1.address());
+    assertArrayEquals(new byte[]{0, 1}, w1.data());
+  }
+
+  /**
+   * Variables separated by a gap are written separately.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testGapNotMerged()
+    throws Exception
+  {
+    final var v0 = this.variable(0);
+    final var v1 = this.variable(1);
+    final var v3 = this.variable(3);
+
+    new GWControllerTransaction(this.device)
+      .set(v0, Integer.valueOf(1))
+      .set(v1, Integer.valueOf(2))
+      .set(v3, Integer.valueOf(4))
+      .commit();
+
+    assertEquals(2, this.writes.size());
+    final var w0 = this.writes.get(0);
+    final var w1 = this.writes.get(1);
+    assertEquals(addressAt(0), w0.address());
+    assertArrayEquals(new byte[]{1, 2}, w0.data());
+    assertEquals(addressAt(3), w1.address());
+    assertArrayEquals(new byte[]{4}, w1.data());
+  }
+
+  /**
+   * A failure partway through a commit restores only the ranges that were
+   * already sent, using the contents they had on the device before the
+   * commit, and leaves every local value unchanged.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRollbackSentRangesOnly()
+    throws Exception
+  {
+    final var v0 = this.variable(0);
+    final var v1 = this.variable(1);
+    final var v3 = this.variable(3);
+    final var v5 = this.variable(5);
+    v0.setIntLocal(10);
+    v1.setIntLocal(11);
+    v3.setIntLocal(13);
+    v5.setIntLocal(15);
+    this.memory[0] = 20;
+    this.memory[1] = 21;
+    this.memory[3] = 23;
+    this.memory[5] = 25;
+
+    final var memoryBefore = this.memory.clone();
+    this.failAt = 1;
+
+    final var transaction =
+      new GWControllerTransaction(this.device)
+        .set(v0, Integer.valueOf(1))
+        .set(v1, Integer.valueOf(2))
+        .set(v3, Integer.valueOf(4))
+        .set(v5, Integer.valueOf(6));
+
+    assertThrows(GWControllerException.class, transaction::commit);
+
+    assertEquals(2, this.writes.size());
+    final var sent = this.writes.get(0);
+    assertEquals(addressAt(0), sent.address());
+    assertArrayEquals(new byte[]{1, 2}, sent.data());
+
+    final var restored = this.writes.get(1);
+    assertEquals(addressAt(0), restored.address());
+    assertArrayEquals(new byte[]{20, 21}, restored.data());
+    assertArrayEquals(memoryBefore, this.memory);
+
+    assertEquals(10, v0.getInt());
+    assertEquals(11, v1.getInt());
+    assertEquals(13, v3.getInt());
+    assertEquals(15, v5.getInt());
+  }
+
+  /**
+   * A rollback restores the device contents even for variables that were
+   * never read from the device, and whose local values are therefore only
+   * their defaults.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRollbackNeverRead()
+    throws Exception
+  {
+    final var v0 = this.variable(0);
+    final var v2 = this.variable(2);
+    this.memory[0] = 30;
+    this.memory[2] = 32;
+
+    final var memoryBefore = this.memory.clone();
+    this.failAt = 1;
+
+    final var transaction =
+      new GWControllerTransaction(this.device)
+        .set(v0, Integer.valueOf(1))
+        .set(v2, Integer.valueOf(3));
+
+    assertThrows(GWControllerException.class, transaction::commit);
+
+    final var restored = this.writes.get(1);
+    assertEquals(addressAt(0), restored.address());
+    assertArrayEquals(new byte[]{30}, restored.data());
+    assertArrayEquals(memoryBefore, this.memory);
+    assertEquals(0, v0.getInt());
+    assertEquals(0, v2.getInt());
+  }
+
+  /**
+   * A failure to read the original contents of a range writes nothing.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReadFailureWritesNothing()
+    throws Exception
+  {
+    final var v0 = this.variable(0);
+
+    Mockito.doThrow(new GWDeviceException(DEVICE_TIMED_OUT, "Timed out."))
+      .when(this.device)
+      .sendCommand(isA(GWDeviceCommandRequestData.class));
+
+    final var transaction =
+      new GWControllerTransaction(this.device)
+        .set(v0, Integer.valueOf(1));
+
+    assertThrows(GWControllerException.class, transaction::commit);
+    assertEquals(0, this.writes.size());
+    assertEquals(0, v0.getInt());
+  }
+
+  /**
+   * A failure on the first write sends nothing else.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRollbackNothingSent()
+    throws Exception
+  {
+    final var v0 = this.variable(0);
+    this.failAt = 0;
+
+    final var transaction =
+      new GWControllerTransaction(this.device)
+        .set(v0, Integer.valueOf(1));
+
+    assertThrows(GWControllerException.class, transaction::commit);
+    assertEquals(0, this.writes.size());
+    assertEquals(0, v0.getInt());
+  }
+
+  /**
+   * Each variable publishes its value exactly once, and only after every
+   * write has succeeded.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPublishOnceAfterSuccess()
+    throws Exception
+  {
+    final var v0 = this.variable(0);
+    final var v1 = this.variable(1);
+
+    final var received0 = new AtomicInteger();
+    final var received1 = new AtomicInteger();
+    v0.subscribeInt((oldValue, newValue) -> received0.incrementAndGet());
+    v1.subscribeInt((oldValue, newValue) -> received1.incrementAndGet());
+    received0.set(0);
+    received1.set(0);
+
+    final var transaction =
+      new GWControllerTransaction(this.device)
+        .set(v0, Integer.valueOf(1))
+        .set(v0, Integer.valueOf(2))
+        .set(v1, Integer.valueOf(3));
+
+    assertEquals(0, received0.get());
+    assertEquals(0, received1.get());
+    assertEquals(0, this.writes.size());
+
+    transaction.commit();
+
+    assertEquals(1, received0.get());
+    assertEquals(1, received1.get());
+    assertEquals(2, v0.getInt());
+    assertEquals(3, v1.getInt());
+  }
+
+  /**
+   * No variable publishes a value when a commit fails.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testNoPublishAfterFailure()
+    throws Exception
+  {
+    final var v0 = this.variable(0);
+    final var v2 = this.variable(2);
+
+    final var received = new AtomicInteger();
+    v0.subscribeInt((oldValue, newValue) -> received.incrementAndGet());
+    v2.subscribeInt((oldValue, newValue) -> received.incrementAndGet());
+    received.set(0);
+
+    this.failAt = 1;
+
+    final var transaction =
+      new GWControllerTransaction(this.device)
+        .set(v0, Integer.valueOf(1))
+        .set(v2, Integer.valueOf(3));
+
+    assertThrows(GWControllerException.class, transaction::commit);
+    assertEquals(0, received.get());
+  }
+}
@@ -20,6 +20,7 @@ package com.io7m.gatwick.tests.controller;
 import com.io7m.gatwick.controller.api.GWAmpCtlValue;
 import com.io7m.gatwick.controller.api.GWBankChangeModeValue;
 import com.io7m.gatwick.controller.api.GWChainElementValue;
+import com.io7m.gatwick.controller.api.GWEnumerationRegistry;
 import com.io7m.gatwick.controller.api.GWHighCutValue;
 import com.io7m.gatwick.controller.api.GWLEDLuminanceValue;
 import com.io7m.gatwick.controller.api.GWLowCutValue;
@@ -131,12 +132,15 @@ import com.io7m.gatwick.controller.api.GWTunerModeValue;
 import com.io7m.gatwick.controller.api.GWTunerTypeValue;
 import com.io7m.gatwick.iovar.GWIOEnumerationInfo;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
 import java.util.HashSet;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public final class GWEnumerationsTest
 {
@@ -315,4 +319,35 @@ public final class GWEnumerationsTest
         );
       });
   }
+
+  @TestFactory
+  public Stream<DynamicTest> testRegistry()
+  {
+    return Stream.of(ENUMERATIONS)
+      .map(GWEnumerationsTest::registry);
+  }
+
+  private static <T extends Enum<T>> DynamicTest registry(
+    final Class<T> enumClass)
+  {
+    return DynamicTest.dynamicTest(
+      "testRegistry_" + enumClass.getName(),
+      () -> {
+        final var registry =
+          new GWEnumerationRegistry();
+        final var info =
+          registry.findInfo(enumClass)
+            .orElseThrow();
+
+        assertSame(info, GWIOEnumerationInfo.findInfo(enumClass));
+        assertSame(enumClass, info.enumerationClass());
+      });
+  }
+
+  @Test
+  public void testRegistryUnknown()
+  {
+    final var registry = new GWEnumerationRegistry();
+    assertTrue(registry.findInfo(String.class).isEmpty());
+  }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.gatwick.tests.controller;
+
+import com.io7m.gatwick.controller.main.internal.generated.StructPatch3;
+import com.io7m.gatwick.controller.main.internal.generated.StructPatchChorus;
+import com.io7m.gatwick.controller.main.internal.generated.StructPatchCommon;
+import com.io7m.gatwick.controller.main.internal.generated.StructPatchEfct;
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOImageCodecType;
+import com.io7m.gatwick.iovar.GWIOVariableContainerType;
+import com.io7m.gatwick.iovar.GWIOVariableType;
+import com.io7m.jattribute.core.Attributes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.io7m.gatwick.iovar.GWIOAddresses.linearOf;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.when;
+
+public final class GWGeneratedStructuresTest
+{
+  private static final int BASE_ADDRESS = 0x1000_0000;
+  private static final Duration FOREVER = Duration.ofDays(1L);
+
+  private GWDeviceType device;
+  private Attributes attributes;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.device =
+      Mockito.mock(GWDeviceType.class);
+    this.attributes =
+      Attributes.create(throwable -> {
+
+      });
+  }
+
+  /**
+   * An image built from the maximum value of every variable, serialized
+   * with each variable's own serializer, decodes to those values and
+   * encodes back to the same image.
+   */
+
+  @Test
+  public void testImageRoundTrip()
+  {
+    checkRoundTrip(
+      new StructPatchEfct(this.device, this.attributes, BASE_ADDRESS));
+    checkRoundTrip(
+      new StructPatchChorus(this.device, this.attributes, BASE_ADDRESS));
+    checkRoundTrip(
+      new StructPatchCommon(this.device, this.attributes, BASE_ADDRESS));
+
+    Mockito.verifyNoInteractions(this.device);
+  }
+
+  /**
+   * Reading a structure requests its image from the device in as few
+   * requests as the maximum transfer size allows, and decodes the result.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReadFromDevice()
+    throws Exception
+  {
+    final var source =
+      new StructPatchEfct(this.device, this.attributes, BASE_ADDRESS);
+    final var image =
+      maximumImage(source);
+
+    final var commands =
+      new ArrayList<GWDeviceCommandRequestData>();
+
+    when(this.device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandRequestData command = invocation.getArgument(0);
+        commands.add(command);
+        final var offset =
+          linearOf(command.address()) - linearOf(BASE_ADDRESS);
+        final var data =
+          Arrays.copyOfRange(
+            image.array(), offset, offset + linearOf(command.size()));
+        return new GWDeviceResponseRequestData(command.address(), data, 0);
+      });
+
+    final var target =
+      new StructPatchEfct(this.device, this.attributes, BASE_ADDRESS);
+    target.readFromDevice();
+
+    assertEquals(
+      List.of(
+        new GWDeviceCommandRequestData(BASE_ADDRESS, 0x100),
+        new GWDeviceCommandRequestData(BASE_ADDRESS + 0x100, 0x1a)
+      ),
+      commands
+    );
+
+    for (final var variable : target.variables()) {
+      assertEquals(
+        variable.information().valueMaximumInclusive(),
+        variable.get(),
+        variable.information().label()
+      );
+    }
+  }
+
+  /**
+   * A structure is only fresh if every structure it references is fresh.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testFreshnessIncludesReferences()
+    throws Exception
+  {
+    when(this.device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandRequestData command = invocation.getArgument(0);
+        return new GWDeviceResponseRequestData(
+          command.address(), new byte[linearOf(command.size())], 0);
+      });
+
+    final var patch =
+      new StructPatch3(this.device, this.attributes, BASE_ADDRESS);
+
+    assertFalse(patch.isFresh(FOREVER));
+    patch.readFromDevice();
+    assertTrue(patch.isFresh(FOREVER));
+
+    patch.invalidateAddress(patch.f_fx2dist.address());
+    assertTrue(patch.f_fx1dist.isFresh(FOREVER));
+    assertFalse(patch.f_fx2dist.isFresh(FOREVER));
+    assertFalse(patch.isFresh(FOREVER));
+
+    patch.readFromDeviceIfStale(FOREVER);
+    assertTrue(patch.isFresh(FOREVER));
+  }
+
+  private static <S extends GWIOVariableContainerType & GWIOImageCodecType>
+  void checkRoundTrip(
+    final S structure)
+  {
+    final var image = maximumImage(structure);
+    structure.decodeFrom(image, 0);
+
+    for (final var variable : structure.variables()) {
+      assertEquals(
+        variable.information().valueMaximumInclusive(),
+        variable.get(),
+        variable.information().label()
+      );
+    }
+
+    final var encoded = ByteBuffer.allocate(structure.imageSize());
+    structure.encodeTo(encoded, 0);
+    assertArrayEquals(image.array(), encoded.array());
+  }
+
+  private static <S extends GWIOVariableContainerType & GWIOImageCodecType>
+  ByteBuffer maximumImage(
+    final S structure)
+  {
+    final var image = ByteBuffer.allocate(structure.imageSize());
+    final var base = linearOf(BASE_ADDRESS);
+
+    /*
+     * Enumerations with more than 127 cases reserve two bytes, but only
+     * the first byte is encoded, and so the image may end after it.
+     */
+
+    assertTrue(structure.variables().size() > 1);
+    for (final var variable : structure.variables()) {
+      final var offset = linearOf(variable.address()) - base;
+      final var size =
+        Math.min(variable.size(), structure.imageSize() - offset);
+      serializeMaximum(variable, image.slice(offset, size));
+    }
+    return image;
+  }
+
+  private static <T> void serializeMaximum(
+    final GWIOVariableType<T> variable,
+    final ByteBuffer output)
+  {
+    final var information = variable.information();
+    final var value = information.valueMaximumInclusive();
+
+    /*
+     * The raw serializer consumes the buffer that it is given.
+     */
+
+    if (value instanceof ByteBuffer data) {
+      variable.serializeTo(
+        output, information.valueClass().cast(data.duplicate()));
+    } else {
+      variable.serializeTo(output, value);
+    }
+  }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.device.broker;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceConfiguration;
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
+import com.io7m.gatwick.device.api.GWDeviceResponseOK;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.device.broker.GWDeviceBroker;
+import com.io7m.gatwick.device.broker.GWDeviceBrokerConfiguration;
+import com.io7m.gatwick.device.broker.GWDevicesBroker;
+import com.io7m.gatwick.device.broker.internal.GWBrokerConnection;
+import com.io7m.gatwick.device.broker.internal.GWBrokerShadow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Timeout(value = 10L, unit = TimeUnit.SECONDS)
+public final class GWDeviceBrokerTest
+{
+  private static final GWDeviceMIDIDescription MIDI =
+    new GWDeviceMIDIDescription("GT-1000", "Device", "ALSA", "1.0");
+
+  private GWDeviceType device;
+  private GWDeviceBroker broker;
+  private GWDevicesBroker devices;
+  private GWDeviceType client0;
+  private GWDeviceType client1;
+  private AtomicReference<IntConsumer> programChange;
+
+  private static GWDeviceConfiguration configuration()
+  {
+    return new GWDeviceConfiguration(
+      MIDI,
+      Duration.ofSeconds(1L),
+      Duration.ofSeconds(1L),
+      1,
+      Duration.ofMillis(1L)
+    );
+  }
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.device =
+      Mockito.mock(GWDeviceType.class);
+
+    when(this.device.description())
+      .thenReturn(new GWDeviceDescription(MIDI, 0x41, 0x4f, 0x03, 0x01));
+    when(this.device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandRequestData command = invocation.getArgument(0);
+        final var data = new byte[command.size()];
+        for (int index = 0; index < data.length; ++index) {
+          data[index] = (byte) index;
+        }
+        return new GWDeviceResponseRequestData(command.address(), data, 0);
+      });
+    when(this.device.sendCommand(isA(GWDeviceCommandSetData.class)))
+      .thenReturn(GWDeviceResponseOK.ok());
+
+    this.programChange = new AtomicReference<>();
+    doAnswer(invocation -> {
+      this.programChange.set(invocation.getArgument(0));
+      return null;
+    }).when(this.device).setProgramChangeHandler(any());
+
+    this.broker =
+      GWDeviceBroker.create(
+        this.device,
+        new GWDeviceBrokerConfiguration(
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+          Duration.ofMinutes(1L)
+        )
+      );
+
+    this.devices =
+      new GWDevicesBroker(this.broker.address());
+    this.client0 =
+      this.devices.openDevice(configuration());
+    this.client1 =
+      this.devices.openDevice(configuration());
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws GWDeviceException
+  {
+    this.client0.close();
+    this.client1.close();
+    this.broker.close();
+  }
+
+  /**
+   * The broker reports the description of the device it owns.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDescription()
+    throws Exception
+  {
+    assertEquals(MIDI, this.client0.description().midiDevice());
+
+    final var listed = this.devices.listMIDIDevices();
+    assertEquals(1, listed.size());
+    assertEquals("GT-1000", listed.get(0).midiDeviceName());
+    assertEquals(GWDevicesBroker.BROKER_VENDOR, listed.get(0).midiDeviceVendor());
+  }
+
+  /**
+   * Repeated reads of the same memory by different clients reach the device
+   * once.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReadShadowed()
+    throws Exception
+  {
+    final var command =
+      new GWDeviceCommandRequestData(0x10000000, 0x10);
+
+    final var r0 = this.client0.sendCommand(command);
+    final var r1 = this.client1.sendCommand(command);
+    final var r2 =
+      this.client1.sendCommand(new GWDeviceCommandRequestData(0x10000004, 0x4));
+
+    assertArrayEquals(r0.data(), r1.data());
+    assertArrayEquals(new byte[]{4, 5, 6, 7}, r2.data());
+    assertEquals(0x10000004, r2.address());
+
+    verify(this.device, times(1))
+      .sendCommand(isA(GWDeviceCommandRequestData.class));
+
+    final var stats = this.broker.statistics();
+    assertEquals(2, stats.clients());
+    assertEquals(1L, stats.deviceReads());
+    assertEquals(2L, stats.shadowHits());
+  }
+
+  /**
+   * Writes update the shadow and are announced to the other clients.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWriteNotifies()
+    throws Exception
+  {
+    final var received0 =
+      new LinkedBlockingQueue<GWDeviceResponseRequestData>();
+    final var received1 =
+      new LinkedBlockingQueue<GWDeviceResponseRequestData>();
+
+    this.client0.setUnsolicitedDataHandler(received0::add);
+    this.client1.setUnsolicitedDataHandler(received1::add);
+
+    final var data = new byte[]{0x7f, 0x7e, 0x7d};
+    this.client0.sendCommand(new GWDeviceCommandSetData(0x10000002, data));
+
+    final var notified = received1.poll(5L, TimeUnit.SECONDS);
+    assertEquals(0x10000002, notified.address());
+    assertArrayEquals(data, notified.data());
+    assertTrue(received0.isEmpty());
+
+    final var read =
+      this.client1.sendCommand(new GWDeviceCommandRequestData(0x10000002, 0x3));
+    assertArrayEquals(data, read.data());
+
+    verify(this.device, times(1))
+      .sendCommand(isA(GWDeviceCommandSetData.class));
+    verify(this.device, times(0))
+      .sendCommand(isA(GWDeviceCommandRequestData.class));
+  }
+
+  /**
+   * Program changes on the device are announced to every client, and discard
+   * the shadow.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testProgramChangeNotifies()
+    throws Exception
+  {
+    final var received0 =
+      new LinkedBlockingQueue<Integer>();
+    final var received1 =
+      new LinkedBlockingQueue<Integer>();
+
+    this.client0.setProgramChangeHandler(received0::add);
+    this.client1.setProgramChangeHandler(received1::add);
+
+    final var command =
+      new GWDeviceCommandRequestData(0x10000000, 0x10);
+    this.client0.sendCommand(command);
+
+    this.programChange.get().accept(23);
+    assertEquals(23, received0.poll(5L, TimeUnit.SECONDS).intValue());
+    assertEquals(23, received1.poll(5L, TimeUnit.SECONDS).intValue());
+
+    this.client1.sendCommand(command);
+
+    verify(this.device, times(2))
+      .sendCommand(isA(GWDeviceCommandRequestData.class));
+
+    final var stats = this.broker.statistics();
+    assertEquals(2L, stats.deviceReads());
+    assertEquals(0L, stats.shadowHits());
+  }
+
+  /**
+   * A client that stops reading is disconnected once its outbound queue
+   * fills, and does not hold up the other clients.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSlowClientDisconnected()
+    throws Exception
+  {
+    final var received1 =
+      new LinkedBlockingQueue<GWDeviceResponseRequestData>();
+    this.client1.setUnsolicitedDataHandler(received1::add);
+
+    final var writes = GWBrokerConnection.OUTBOUND_CAPACITY + 1;
+
+    /*
+     * A client that connects and then never reads anything.
+     */
+
+    try (var slow = new Socket()) {
+      slow.connect(this.broker.address());
+      while (this.broker.statistics().clients() != 3) {
+        Thread.sleep(10L);
+      }
+
+      for (int index = 0; index < writes; ++index) {
+        this.client0.sendCommand(
+          new GWDeviceCommandSetData(0x10000000, new byte[]{1}));
+      }
+
+      while (this.broker.statistics().clients() != 2) {
+        Thread.sleep(10L);
+      }
+    }
+
+    for (int index = 0; index < writes; ++index) {
+      assertEquals(0x10000000, received1.take().address());
+    }
+  }
+
+  /**
+   * Refreshing part of a shadow page does not refresh the rest of the page.
+   */
+
+  @Test
+  public void testShadowFreshnessPerByte()
+  {
+    final var shadow = new GWBrokerShadow(Duration.ofNanos(100L));
+
+    shadow.update(0, new byte[]{0, 1, 2, 3}, 0L);
+    shadow.update(4, new byte[]{4, 5, 6, 7}, 90L);
+
+    assertTrue(shadow.read(0, 8, 100L).isPresent());
+    assertTrue(shadow.read(0, 8, 150L).isEmpty());
+    assertTrue(shadow.read(0, 1, 150L).isEmpty());
+    assertArrayEquals(
+      new byte[]{4, 5, 6, 7},
+      shadow.read(4, 4, 150L).orElseThrow()
+    );
+
+    assertTrue(shadow.read(4, 4, 200L).isEmpty());
+    assertEquals(0, shadow.pageCount());
+  }
+
+  /**
+   * Device errors are delivered to the client that made the request.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testErrorPropagated()
+    throws Exception
+  {
+    when(this.device.sendCommand(any()))
+      .thenThrow(new GWDeviceException(DEVICE_TIMED_OUT, "Timed out."));
+
+    final var ex =
+      assertThrows(GWDeviceException.class, () -> {
+        this.client0.sendCommand(new GWDeviceCommandRequestData(0x0, 0x1));
+      });
+    assertEquals(DEVICE_TIMED_OUT, ex.errorCode());
+  }
+
+  /**
+   * No devices are listed when no broker is running.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testNoBroker()
+    throws Exception
+  {
+    final var address = this.broker.address();
+    this.broker.close();
+    assertTrue(new GWDevicesBroker(address).listMIDIDevices().isEmpty());
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.gatwick.tests.device.javamidi;
+
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceCommandSetData;
+import com.io7m.gatwick.device.api.GWDeviceCommandType;
+import com.io7m.gatwick.device.api.GWDeviceDescription;
+import com.io7m.gatwick.device.api.GWDeviceException;
+import com.io7m.gatwick.device.api.GWDeviceMIDIDescription;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.javamidi.GWDeviceCapture;
+import com.io7m.gatwick.device.javamidi.GWDeviceCaptureFiles;
+import com.io7m.gatwick.device.javamidi.GWDeviceCaptureRecord;
+import com.io7m.gatwick.device.javamidi.GWDeviceReplay;
+import com.io7m.gatwick.device.javamidi.internal.GWDeviceCaptureBuffer;
+import com.io7m.gatwick.device.javamidi.internal.GWDeviceMessages;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
+import static com.io7m.gatwick.device.javamidi.GWDeviceCaptureDirection.INBOUND;
+import static com.io7m.gatwick.device.javamidi.GWDeviceCaptureDirection.OUTBOUND;
+import static com.io7m.gatwick.device.javamidi.GWDeviceReplayTiming.AS_FAST_AS_POSSIBLE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 5L, unit = TimeUnit.SECONDS)
+public final class GWDeviceCaptureTest
+{
+  private static final GWDeviceDescription DEVICE =
+    new GWDeviceDescription(
+      new GWDeviceMIDIDescription("GT-1000", "Desc", "Roland", "1.0"),
+      0x41,
+      0x4f03,
+      0x0,
+      0x1
+    );
+
+  private static byte[] serialize(
+    final GWDeviceCommandType<?> command)
+    throws Exception
+  {
+    return GWDeviceMessages.serializeCommand(0x10, 0x41, command)
+      .getMessage();
+  }
+
+  /**
+   * A response to a data request has the same form as a data set command.
+   */
+
+  private static byte[] response(
+    final int address,
+    final byte[] data)
+    throws Exception
+  {
+    return serialize(new GWDeviceCommandSetData(address, data));
+  }
+
+  /**
+   * A full capture buffer discards the oldest messages.
+   */
+
+  @Test
+  public void testBufferDiscardsOldest()
+  {
+    final var buffer = new GWDeviceCaptureBuffer(4096);
+    for (int index = 0; index < 100; ++index) {
+      final var data = new byte[100];
+      data[0] = (byte) index;
+      buffer.record(OUTBOUND, index, data);
+    }
+
+    final var records = buffer.snapshot();
+    assertEquals(records.size(), buffer.size());
+    assertTrue(records.size() < 100);
+    assertTrue(records.size() > 1);
+
+    final var last = records.get(records.size() - 1);
+    assertEquals(99L, last.timeNanos());
+    assertEquals(99, last.data()[0]);
+
+    for (int index = 1; index < records.size(); ++index) {
+      assertEquals(
+        records.get(index - 1).timeNanos() + 1L,
+        records.get(index).timeNanos()
+      );
+    }
+  }
+
+  /**
+   * Messages larger than the buffer are ignored.
+   */
+
+  @Test
+  public void testBufferIgnoresOversized()
+  {
+    final var buffer = new GWDeviceCaptureBuffer(4096);
+    buffer.record(INBOUND, 0L, new byte[8192]);
+    assertEquals(0, buffer.size());
+  }
+
+  /**
+   * Captures survive a round trip through the file format.
+   */
+
+  @Test
+  public void testFileRoundTrip()
+    throws Exception
+  {
+    final var records = new ArrayList<GWDeviceCaptureRecord>();
+    records.add(new GWDeviceCaptureRecord(
+      OUTBOUND, 1000L, serialize(new GWDeviceCommandRequestData(0x100, 4))));
+    records.add(new GWDeviceCaptureRecord(
+      INBOUND, 5000L, response(0x100, new byte[]{1, 2, 3, 4})));
+    records.add(new GWDeviceCaptureRecord(
+      INBOUND, 4000L, response(0x200, new byte[]{5})));
+
+    final var capture = new GWDeviceCapture(DEVICE, records);
+    final var out = new ByteArrayOutputStream();
+    GWDeviceCaptureFiles.write(out, capture);
+
+    final var read =
+      GWDeviceCaptureFiles.read(new ByteArrayInputStream(out.toByteArray()));
+
+    assertEquals(DEVICE, read.device());
+    assertEquals(records.size(), read.records().size());
+    for (int index = 0; index < records.size(); ++index) {
+      final var expected = records.get(index);
+      final var received = read.records().get(index);
+      assertEquals(expected.direction(), received.direction());
+      assertEquals(expected.timeNanos() - 1000L, received.timeNanos());
+      assertArrayEquals(expected.data(), received.data());
+    }
+  }
+
+  /**
+   * Replaying a capture yields the captured responses, and delivers
+   * unrelated messages as unsolicited data.
+   */
+
+  @Test
+  public void testReplay()
+    throws Exception
+  {
+    final var request0 = serialize(new GWDeviceCommandRequestData(0x100, 4));
+    final var request1 = serialize(new GWDeviceCommandRequestData(0x200, 1));
+
+    final var capture =
+      new GWDeviceCapture(DEVICE, List.of(
+        new GWDeviceCaptureRecord(OUTBOUND, 0L, request0),
+        new GWDeviceCaptureRecord(OUTBOUND, 10L, request0),
+        new GWDeviceCaptureRecord(
+          INBOUND, 20L, response(0x300, new byte[]{9})),
+        new GWDeviceCaptureRecord(
+          INBOUND, 30L, response(0x100, new byte[]{1, 2, 3, 4})),
+        new GWDeviceCaptureRecord(
+          INBOUND, 40L, response(0x400, new byte[]{8})),
+        new GWDeviceCaptureRecord(OUTBOUND, 50L, request1),
+        new GWDeviceCaptureRecord(
+          INBOUND, 60L, response(0x200, new byte[]{5}))
+      ));
+
+    final var unsolicited = new ArrayList<GWDeviceResponseRequestData>();
+    try (var device = GWDeviceReplay.create(capture, AS_FAST_AS_POSSIBLE)) {
+      device.setUnsolicitedDataHandler(unsolicited::add);
+
+      final var commands = device.commands();
+      assertEquals(2, commands.size());
+      assertEquals(new GWDeviceCommandRequestData(0x100, 4), commands.get(0));
+      assertEquals(new GWDeviceCommandRequestData(0x200, 1), commands.get(1));
+
+      final var r0 =
+        device.sendCommand(new GWDeviceCommandRequestData(0x100, 4));
+      assertEquals(0x100, r0.address());
+      assertArrayEquals(new byte[]{1, 2, 3, 4}, r0.data());
+
+      final var r1 =
+        device.sendCommand(new GWDeviceCommandRequestData(0x200, 1));
+      assertEquals(0x200, r1.address());
+      assertArrayEquals(new byte[]{5}, r1.data());
+
+      assertEquals(2, unsolicited.size());
+      assertEquals(0x300, unsolicited.get(0).address());
+      assertEquals(0x400, unsolicited.get(1).address());
+      assertEquals(0, device.remaining());
+
+      final var ex =
+        assertThrows(GWDeviceException.class, () -> {
+          device.sendCommand(new GWDeviceCommandRequestData(0x100, 4));
+        });
+      assertEquals(DEVICE_TIMED_OUT, ex.errorCode());
+    }
+  }
+}
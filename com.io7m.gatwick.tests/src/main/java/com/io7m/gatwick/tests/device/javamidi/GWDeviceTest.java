@@ -42,16 +42,17 @@ import org.slf4j.LoggerFactory;
 import javax.sound.midi.MidiDevice;
 import javax.sound.midi.MidiUnavailableException;
 import javax.sound.midi.Receiver;
+import javax.sound.midi.ShortMessage;
 import javax.sound.midi.SysexMessage;
 import javax.sound.midi.Transmitter;
 import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
-import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_MIDI_MESSAGE_UNEXPECTED_TYPE;
 import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_MIDI_SYSTEM_ERROR;
 import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_NOT_FOUND;
 import static com.io7m.gatwick.device.api.GWDeviceStandardErrorCodes.DEVICE_TIMED_OUT;
@@ -753,13 +754,14 @@ public final class GWDeviceTest
   }
 
   /**
-   * Sending a read command fails if the wrong response comes back.
+   * Messages that are not responses to a read command are skipped while
+   * waiting for the response.
    *
    * @throws Exception On errors
    */
 
   @Test
-  public void testSendReadInvalid()
+  public void testSendReadSkipsUnrelatedMessages()
     throws Exception
   {
     final var command =
@@ -768,45 +770,65 @@ public final class GWDeviceTest
         4
       );
 
+    final GWDeviceResponseRequestData response;
     try (var device = this.openDeviceCorrectly()) {
 
       /*
-       * Respond with the wrong message type.
+       * Respond with a message of the wrong type, a program change, a
+       * message from a different manufacturer, and finally the correct
+       * response.
        */
 
       doAnswer(invocation -> {
-        final var msg =
+        final var wrongType =
           GWDeviceMessages.serializeCommand(
             0x1f,
             0x41,
             new GWDeviceCommandRequestData(0, 23)
           );
+        final var wrongManufacturer =
+          GWDeviceMessages.serializeCommand(
+            0x1f,
+            0x20,
+            new GWDeviceCommandSetData(0, new byte[4])
+          );
+        final var programChange =
+          new ShortMessage(ShortMessage.PROGRAM_CHANGE, 0, 3, 0);
+        final var correct =
+          GWDeviceMessages.serializeCommand(
+            0x1f,
+            0x41,
+            new GWDeviceCommandSetData(0, new byte[4])
+          );
 
         this.midiThread.execute(() -> {
-          this.currentReceiver.get().send(msg, -1L);
+          final var receiver = this.currentReceiver.get();
+          receiver.send(wrongType, -1L);
+          receiver.send(programChange, -1L);
+          receiver.send(wrongManufacturer, -1L);
+          receiver.send(correct, -1L);
         });
         return "ok";
       })
         .when(this.midiReceiver)
         .send(any(), anyLong());
 
-      final var ex =
-        assertThrows(GWDeviceException.class, () -> {
-          device.sendCommand(command);
-        });
-
-      assertEquals(DEVICE_MIDI_MESSAGE_UNEXPECTED_TYPE, ex.errorCode());
+      response = device.sendCommand(command);
     }
+
+    assertEquals(0, response.address());
+    assertArrayEquals(new byte[4], response.data());
   }
 
   /**
-   * Sending a read command fails if the wrong response comes back.
+   * A response for a different address is passed to the unsolicited data
+   * handler rather than being treated as the response.
    *
    * @throws Exception On errors
    */
 
   @Test
-  public void testSendReadInvalidManufacturer()
+  public void testSendReadOtherAddressUnsolicited()
     throws Exception
   {
     final var command =
@@ -815,35 +837,104 @@ public final class GWDeviceTest
         4
       );
 
+    final var unsolicited =
+      new LinkedBlockingQueue<GWDeviceResponseRequestData>();
+
     final GWDeviceResponseRequestData response;
     try (var device = this.openDeviceCorrectly()) {
-
-      /*
-       * Respond with the wrong message type.
-       */
+      device.setUnsolicitedDataHandler(unsolicited::add);
 
       doAnswer(invocation -> {
-        final var msg =
+        final var other =
           GWDeviceMessages.serializeCommand(
             0x1f,
-            0x20,
-            new GWDeviceCommandRequestData(0, 23)
+            0x41,
+            new GWDeviceCommandSetData(0x1000, new byte[]{1})
+          );
+        final var correct =
+          GWDeviceMessages.serializeCommand(
+            0x1f,
+            0x41,
+            new GWDeviceCommandSetData(0, new byte[4])
           );
 
         this.midiThread.execute(() -> {
-          this.currentReceiver.get().send(msg, -1L);
+          final var receiver = this.currentReceiver.get();
+          receiver.send(other, -1L);
+          receiver.send(correct, -1L);
         });
         return "ok";
       })
         .when(this.midiReceiver)
         .send(any(), anyLong());
 
-      final var ex =
-        assertThrows(GWDeviceException.class, () -> {
-          device.sendCommand(command);
-        });
+      response = device.sendCommand(command);
+    }
+
+    assertEquals(0, response.address());
+    assertEquals(0x1000, unsolicited.take().address());
+  }
+
+  /**
+   * Data sent by the device is passed to the unsolicited data handler as
+   * soon as it arrives, even if no command is ever sent.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testUnsolicitedWhileIdle()
+    throws Exception
+  {
+    final var unsolicited =
+      new LinkedBlockingQueue<GWDeviceResponseRequestData>();
+
+    try (var device = this.openDeviceCorrectly()) {
+      device.setUnsolicitedDataHandler(unsolicited::add);
+
+      final var message =
+        GWDeviceMessages.serializeCommand(
+          0x1f,
+          0x41,
+          new GWDeviceCommandSetData(0x1000_0000, new byte[]{1, 2, 3})
+        );
+
+      this.midiThread.execute(() -> {
+        this.currentReceiver.get().send(message, -1L);
+      });
+
+      final var data = unsolicited.take();
+      assertEquals(0x1000_0000, data.address());
+      assertArrayEquals(new byte[]{1, 2, 3}, data.data());
+    }
+  }
+
+  /**
+   * Program change messages sent by the device are passed to the program
+   * change handler.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testProgramChange()
+    throws Exception
+  {
+    final var programs = new LinkedBlockingQueue<Integer>();
+
+    try (var device = this.openDeviceCorrectly()) {
+      device.setProgramChangeHandler(program -> {
+        programs.add(Integer.valueOf(program));
+      });
+
+      final var message =
+        new ShortMessage(ShortMessage.PROGRAM_CHANGE, 0, 23, 0);
+
+      this.midiThread.execute(() -> {
+        this.currentReceiver.get().send(message, -1L);
+      });
 
-      assertEquals(DEVICE_WRONG_MANUFACTURER, ex.errorCode());
+      assertEquals(Integer.valueOf(23), programs.take());
     }
   }
 
@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.iovar;
+
+import com.io7m.gatwick.iovar.GWIOCodecs;
+import com.io7m.gatwick.iovar.GWIORate118Milliseconds;
+import com.io7m.gatwick.iovar.GWIORate119Milliseconds;
+import com.io7m.gatwick.iovar.GWIORate119Off;
+import com.io7m.gatwick.iovar.GWIORate318Milliseconds;
+import com.io7m.gatwick.iovar.GWIOSerializers;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.CharRange;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.StringLength;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class GWIOCodecsTest
+{
+  @Property
+  public void testUint8(
+    final @ForAll @IntRange(min = 0, max = 127) int x,
+    final @ForAll @IntRange(min = 0, max = 60) int offset)
+  {
+    final var buffer = ByteBuffer.allocate(64);
+    GWIOCodecs.uint8Write(buffer, offset, x);
+    assertEquals(x, GWIOCodecs.uint8Read(buffer, offset));
+  }
+
+  @Property
+  public void testUint16(
+    final @ForAll @IntRange(min = 0, max = 255) int x,
+    final @ForAll @IntRange(min = 0, max = 60) int offset)
+  {
+    final var buffer = ByteBuffer.allocate(64);
+    GWIOCodecs.uint8As16Write(buffer, offset, x);
+    assertEquals(x, GWIOCodecs.uint8As16Read(buffer, offset));
+  }
+
+  @Property
+  public void testUint32(
+    final @ForAll @IntRange(min = 0, max = 65535) int x,
+    final @ForAll @IntRange(min = 0, max = 60) int offset)
+  {
+    final var buffer = ByteBuffer.allocate(64);
+    GWIOCodecs.uint16As32Write(buffer, offset, x);
+    assertEquals(x, GWIOCodecs.uint16As32Read(buffer, offset));
+  }
+
+  @Property
+  public void testUint32MatchesSerializer(
+    final @ForAll @IntRange(min = 0, max = 65535) int x)
+  {
+    final var bufferA = ByteBuffer.allocate(4);
+    final var bufferB = ByteBuffer.allocate(4);
+    GWIOCodecs.uint16As32Write(bufferA, 0, x);
+    GWIOSerializers.uint16As32Serializer()
+      .serializeTo(bufferB, Integer.valueOf(x));
+    assertEquals(bufferB, bufferA);
+  }
+
+  @Property
+  public void testString(
+    final @ForAll @CharRange(from = 'a', to = 'z') @StringLength(16) String x,
+    final @ForAll @IntRange(min = 0, max = 48) int offset)
+  {
+    final var buffer = ByteBuffer.allocate(64);
+    GWIOCodecs.stringWrite(buffer, offset, 16, x);
+    assertEquals(x, GWIOCodecs.stringRead(buffer, offset, 16));
+  }
+
+  @Property
+  public void testRate118Milliseconds(
+    final @ForAll @IntRange(min = 0, max = 100) int x)
+  {
+    final var buffer = ByteBuffer.allocate(8);
+    final var v = new GWIORate118Milliseconds(x);
+    GWIOCodecs.rate118Write(buffer, 3, v);
+    assertEquals(v, GWIOCodecs.rate118Read(buffer, 3));
+  }
+
+  @Property
+  public void testRate318Milliseconds(
+    final @ForAll @IntRange(min = 0, max = 300) int x)
+  {
+    final var buffer = ByteBuffer.allocate(8);
+    final var v = new GWIORate318Milliseconds(x);
+    GWIOCodecs.rate318Write(buffer, 3, v);
+    assertEquals(v, GWIOCodecs.rate318Read(buffer, 3));
+  }
+
+  @Test
+  public void testRate119Off()
+  {
+    final var buffer = ByteBuffer.allocate(8);
+    GWIOCodecs.rate119Write(buffer, 3, GWIORate119Off.OFF);
+    assertEquals(0, buffer.get(3));
+    assertEquals(GWIORate119Off.OFF, GWIOCodecs.rate119Read(buffer, 3));
+  }
+
+  @Test
+  public void testRate119Milliseconds()
+  {
+    final var buffer = ByteBuffer.allocate(8);
+    GWIOCodecs.rate119Write(buffer, 3, new GWIORate119Milliseconds(10));
+    assertEquals(11, buffer.get(3));
+  }
+}
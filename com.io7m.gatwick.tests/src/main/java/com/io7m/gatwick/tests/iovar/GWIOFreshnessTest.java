@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.iovar;
+
+import com.io7m.gatwick.iovar.GWIOAddresses;
+import com.io7m.gatwick.iovar.GWIOFreshness;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class GWIOFreshnessTest
+{
+  private static final Duration FOREVER =
+    Duration.ofDays(1L);
+
+  @Test
+  public void testNeverSynchronized()
+  {
+    final var f = new GWIOFreshness();
+    assertFalse(f.isFresh(FOREVER));
+  }
+
+  @Test
+  public void testSynchronized()
+  {
+    final var f = new GWIOFreshness();
+    f.endSynchronization(f.beginSynchronization());
+    assertTrue(f.isFresh(FOREVER));
+    assertFalse(f.isFresh(Duration.ofNanos(-1L)));
+  }
+
+  @Test
+  public void testInvalidated()
+  {
+    final var f = new GWIOFreshness();
+    f.endSynchronization(f.beginSynchronization());
+    f.invalidate();
+    assertFalse(f.isFresh(FOREVER));
+  }
+
+  @Test
+  public void testInvalidatedDuringSynchronization()
+  {
+    final var f = new GWIOFreshness();
+    final var token = f.beginSynchronization();
+    f.invalidate();
+    f.endSynchronization(token);
+    assertFalse(f.isFresh(FOREVER));
+  }
+
+  @Test
+  public void testAddressContains()
+  {
+    assertTrue(GWIOAddresses.contains(0x10000000, 1, 0x10000000));
+    assertFalse(GWIOAddresses.contains(0x10000000, 1, 0x10000001));
+    assertTrue(GWIOAddresses.contains(0x1000007f, 2, 0x10000100));
+    assertFalse(GWIOAddresses.contains(0x10000100, 2, 0x1000007f));
+    assertFalse(GWIOAddresses.contains(0x1000007f, 1, 0x10000100));
+  }
+
+  @Test
+  public void testAddressRoundTrip()
+  {
+    for (final var address : new int[]{
+      0x00000000, 0x1000007f, 0x10000100, 0x10017f7f, 0x7f7f7f7f,
+    }) {
+      assertEquals(
+        address,
+        GWIOAddresses.addressOf(GWIOAddresses.linearOf(address))
+      );
+    }
+
+    assertEquals(
+      0x10000100,
+      GWIOAddresses.addressOf(GWIOAddresses.linearOf(0x1000007f) + 1)
+    );
+  }
+}
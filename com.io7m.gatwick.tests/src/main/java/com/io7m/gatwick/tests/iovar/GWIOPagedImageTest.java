@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.iovar;
+
+import com.io7m.gatwick.iovar.GWIOImageRange;
+import com.io7m.gatwick.iovar.GWIOPagedImage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class GWIOPagedImageTest
+{
+  @Test
+  public void testUnknown()
+  {
+    final var image = GWIOPagedImage.create(1000, 10000);
+    assertEquals(-1, image.get(999));
+    assertEquals(-1, image.get(1000));
+    assertEquals(-1, image.get(11000));
+  }
+
+  @Test
+  public void testWriteDoesNotModify()
+  {
+    final var image0 = GWIOPagedImage.create(1000, 10000);
+    final var image1 = image0.write(1000, new byte[]{1, 2, 3});
+
+    assertEquals(-1, image0.get(1000));
+    assertEquals(1, image1.get(1000));
+    assertEquals(2, image1.get(1001));
+    assertEquals(3, image1.get(1002));
+    assertEquals(-1, image1.get(1003));
+  }
+
+  @Test
+  public void testWriteClipped()
+  {
+    final var image0 = GWIOPagedImage.create(1000, 10);
+    final var image1 = image0.write(998, new byte[]{1, 2, 3, 4});
+    assertEquals(3, image1.get(1000));
+    assertEquals(4, image1.get(1001));
+
+    assertSame(image0, image0.write(0, new byte[]{1}));
+  }
+
+  @Test
+  public void testWriteAcrossPages()
+  {
+    final var data = new byte[GWIOPagedImage.PAGE_SIZE * 3];
+    for (int index = 0; index < data.length; ++index) {
+      data[index] = (byte) index;
+    }
+
+    final var image =
+      GWIOPagedImage.create(0, 100000)
+        .write(GWIOPagedImage.PAGE_SIZE - 7, data);
+
+    assertArrayEquals(
+      data,
+      image.read(new GWIOImageRange(GWIOPagedImage.PAGE_SIZE - 7, data.length))
+    );
+  }
+
+  @Test
+  public void testDifferences()
+  {
+    final var image0 =
+      GWIOPagedImage.create(0, 100000)
+        .write(0, new byte[100000]);
+    final var image1 =
+      image0.write(10, new byte[]{1, 2, 0, 3})
+        .write(50000, new byte[]{4});
+
+    assertEquals(
+      List.of(
+        new GWIOImageRange(10, 2),
+        new GWIOImageRange(13, 1),
+        new GWIOImageRange(50000, 1)
+      ),
+      GWIOPagedImage.differences(image0, image1)
+    );
+    assertEquals(
+      List.of(),
+      GWIOPagedImage.differences(image1, image1)
+    );
+  }
+
+  @Test
+  public void testDifferencesIgnoreUnknown()
+  {
+    final var image0 =
+      GWIOPagedImage.create(0, 1000);
+    final var image1 =
+      image0.write(10, new byte[]{1, 2, 3});
+
+    assertEquals(
+      List.of(),
+      GWIOPagedImage.differences(image0, image1)
+    );
+  }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.gatwick.tests.iovar;
+
+import com.io7m.gatwick.controller.api.GWOnOffValue;
+import com.io7m.gatwick.device.api.GWDeviceCommandRequestData;
+import com.io7m.gatwick.device.api.GWDeviceResponseRequestData;
+import com.io7m.gatwick.device.api.GWDeviceType;
+import com.io7m.gatwick.iovar.GWIOCodecs;
+import com.io7m.gatwick.iovar.GWIORate118Note;
+import com.io7m.gatwick.iovar.GWIORate118Type;
+import com.io7m.gatwick.iovar.GWIOStructure;
+import com.io7m.gatwick.iovar.GWIOStructureTables;
+import com.io7m.jattribute.core.Attributes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Timeout(value = 10L, unit = TimeUnit.SECONDS)
+public final class GWIOStructureTest
+{
+  private static final Duration FOREVER =
+    Duration.ofDays(1L);
+
+  private static final String OUTER =
+    """
+      S\tName\t0\t4
+      I\tLevel\t4\t50\t0\t100
+      M\tPan\t5\t0\t-50\t50\t0\t100
+      I\tTime\t6\t0\t0\t2000
+      E\tEnabled\ta\t0
+      F\tGain\tb\t0.0\t0.0\t20.0\t0\t40
+      R118\tRate\tc
+      C\tChain\td\t3
+      T\tInner\t100\tInner
+      """;
+
+  private static final String INNER =
+    """
+      I\tValue\t0\t0\t0\t10
+      """;
+
+  private GWIOStructureTables tables;
+  private GWDeviceType device;
+  private Attributes attributes;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.tables =
+      GWIOStructureTables.create(
+        new String[]{"Outer", "Inner"},
+        new String[]{OUTER, INNER},
+        List.of(GWOnOffValue.class)
+      );
+    this.device =
+      Mockito.mock(GWDeviceType.class);
+    this.attributes =
+      Attributes.create(throwable -> {
+
+      });
+  }
+
+  /**
+   * Tables are parsed into descriptors with the expected layout.
+   */
+
+  @Test
+  public void testDescriptor()
+  {
+    final var outer = this.tables.descriptor("Outer");
+    assertEquals("Outer", outer.name());
+    assertEquals(9, outer.parameters().size());
+    assertEquals(0x10, outer.imageSize());
+    assertEquals(Optional.of(Integer.valueOf(4)), outer.indexOf("Enabled"));
+    assertEquals(Optional.empty(), outer.indexOf("Nonexistent"));
+    assertSame(outer, this.tables.descriptor("Outer"));
+    assertSame(
+      this.tables.descriptor("Inner"),
+      this.tables.descriptor("Inner")
+    );
+  }
+
+  /**
+   * Malformed tables are rejected.
+   */
+
+  @Test
+  public void testDescriptorMalformed()
+  {
+    assertThrows(IllegalArgumentException.class, () -> {
+      GWIOStructureTables.parse(
+        "X", "Q\tName\t0\n", name -> null, List.of());
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      GWIOStructureTables.parse(
+        "X", "I\tName\t0\t1\n", name -> null, List.of());
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      GWIOStructureTables.parse(
+        "X",
+        "I\tName\t0\t0\t0\t1\nI\tName\t1\t0\t0\t1\n",
+        name -> null,
+        List.of());
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      this.tables.descriptor("Nonexistent");
+    });
+  }
+
+  /**
+   * Variables are created at the correct addresses with the correct types.
+   */
+
+  @Test
+  public void testVariables()
+  {
+    final var structure =
+      GWIOStructure.create(
+        this.device,
+        this.attributes,
+        this.tables.descriptor("Outer"),
+        0x1000_0000
+      );
+
+    assertEquals(8, structure.variables().size());
+    assertEquals(0x1000_0000, structure.address());
+    assertEquals(0x1000_0004, structure.variable("Level").address());
+    assertEquals(0x1000_0100, structure.structure("Inner").address());
+    assertEquals(
+      0x1000_0100,
+      structure.structure("Inner").variable("Value").address()
+    );
+
+    structure.variable("Name", String.class);
+    structure.intVariable("Level", Integer.class);
+    structure.intVariable("Enabled", GWOnOffValue.class);
+    structure.variable("Gain", Double.class);
+    structure.variable("Rate", GWIORate118Type.class);
+    structure.variable("Chain", ByteBuffer.class);
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      structure.variable("Level", String.class);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      structure.intVariable("Gain", Double.class);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      structure.variable("Inner");
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      structure.structure("Level");
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      structure.variable("Nonexistent");
+    });
+  }
+
+  /**
+   * Serialized values can be set locally without touching the device.
+   */
+
+  @Test
+  public void testSetLocalSerialized()
+  {
+    final var structure =
+      GWIOStructure.create(
+        this.device,
+        this.attributes,
+        this.tables.descriptor("Outer"),
+        0x1000_0000
+      );
+
+    final var level = structure.intVariable("Level", Integer.class);
+    level.setLocalSerialized(new byte[]{23});
+    assertEquals(23, level.getInt());
+
+    final var name = structure.variable("Name", String.class);
+    name.setLocalSerialized("ABCD".getBytes(StandardCharsets.US_ASCII));
+    assertEquals("ABCD", name.get());
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      level.setLocalSerialized(new byte[2]);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      name.setLocalSerialized(new byte[3]);
+    });
+
+    Mockito.verifyNoInteractions(this.device);
+  }
+
+  /**
+   * Decoding and then encoding an image yields the original image.
+   */
+
+  @Test
+  public void testImageRoundTrip()
+  {
+    final var structure =
+      GWIOStructure.create(
+        this.device,
+        this.attributes,
+        this.tables.descriptor("Outer"),
+        0x1000_0000
+      );
+
+    final var offset = 3;
+    final var source =
+      ByteBuffer.allocate(offset + structure.imageSize());
+
+    GWIOCodecs.stringWrite(source, offset, 4, "ABCD");
+    GWIOCodecs.uint8Write(source, offset + 0x4, 70);
+    GWIOCodecs.uint8Write(source, offset + 0x5, 80);
+    GWIOCodecs.uint16As32Write(source, offset + 0x6, 1500);
+    GWIOCodecs.uint8Write(source, offset + 0xa, 1);
+    GWIOCodecs.uint8Write(source, offset + 0xb, 10);
+    GWIOCodecs.rate118Write(source, offset + 0xc, GWIORate118Note.last());
+    GWIOCodecs.rawWrite(
+      source, offset + 0xd, 3, ByteBuffer.wrap(new byte[]{1, 2, 3}));
+
+    structure.decodeFrom(source, offset);
+
+    assertEquals("ABCD", structure.variable("Name").get());
+    assertEquals(
+      Integer.valueOf(70),
+      structure.variable("Level", Integer.class).get());
+    assertEquals(
+      Integer.valueOf(30),
+      structure.variable("Pan", Integer.class).get());
+    assertEquals(
+      Integer.valueOf(1500),
+      structure.variable("Time", Integer.class).get());
+    assertEquals(
+      GWOnOffValue.ON,
+      structure.variable("Enabled", GWOnOffValue.class).get());
+    assertEquals(
+      Double.valueOf(5.0),
+      structure.variable("Gain", Double.class).get());
+    assertEquals(
+      GWIORate118Note.last(),
+      structure.variable("Rate", GWIORate118Type.class).get());
+
+    final var target =
+      ByteBuffer.allocate(offset + structure.imageSize());
+    structure.encodeTo(target, offset);
+    assertArrayEquals(source.array(), target.array());
+  }
+
+  /**
+   * Reading a structure reads the image of every structure with a single
+   * request, invalidation propagates to nested structures, and a structure
+   * is only fresh if its nested structures are fresh.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReadAndInvalidate()
+    throws Exception
+  {
+    final var commands =
+      new ArrayList<GWDeviceCommandRequestData>();
+
+    when(this.device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandRequestData command = invocation.getArgument(0);
+        commands.add(command);
+        return new GWDeviceResponseRequestData(
+          command.address(), new byte[command.size()], 0);
+      });
+
+    final var structure =
+      GWIOStructure.create(
+        this.device,
+        this.attributes,
+        this.tables.descriptor("Outer"),
+        0x1000_0000
+      );
+    final var inner =
+      structure.structure("Inner");
+
+    assertFalse(structure.isFresh(FOREVER));
+    structure.readFromDevice();
+
+    verify(this.device, times(2))
+      .sendCommand(isA(GWDeviceCommandRequestData.class));
+    assertEquals(
+      List.of(
+        new GWDeviceCommandRequestData(0x1000_0000, 0x10),
+        new GWDeviceCommandRequestData(0x1000_0100, 0x1)
+      ),
+      commands
+    );
+    assertTrue(structure.isFresh(FOREVER));
+    assertTrue(inner.isFresh(FOREVER));
+
+    structure.invalidateAddress(0x1000_0100);
+    assertFalse(structure.isFresh(FOREVER));
+    assertFalse(inner.isFresh(FOREVER));
+
+    structure.readFromDevice();
+    structure.invalidateAddress(0x1000_0004);
+    assertFalse(structure.isFresh(FOREVER));
+    assertTrue(inner.isFresh(FOREVER));
+
+    structure.readFromDevice();
+    structure.invalidate();
+    assertFalse(structure.isFresh(FOREVER));
+    assertFalse(inner.isFresh(FOREVER));
+  }
+
+  /**
+   * Reading a structure decodes the image returned by the device.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReadDecodesImage()
+    throws Exception
+  {
+    when(this.device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandRequestData command = invocation.getArgument(0);
+        final var data = ByteBuffer.allocate(command.size());
+        if (command.address() == 0x1000_0000) {
+          GWIOCodecs.stringWrite(data, 0x0, 4, "WXYZ");
+          GWIOCodecs.uint8Write(data, 0x4, 70);
+          GWIOCodecs.uint8Write(data, 0xa, 1);
+        } else {
+          GWIOCodecs.uint8Write(data, 0x0, 7);
+        }
+        return new GWDeviceResponseRequestData(
+          command.address(), data.array(), 0);
+      });
+
+    final var structure =
+      GWIOStructure.create(
+        this.device,
+        this.attributes,
+        this.tables.descriptor("Outer"),
+        0x1000_0000
+      );
+
+    structure.readFromDevice();
+
+    assertEquals("WXYZ", structure.variable("Name").get());
+    assertEquals(
+      Integer.valueOf(70),
+      structure.variable("Level", Integer.class).get());
+    assertEquals(
+      GWOnOffValue.ON,
+      structure.variable("Enabled", GWOnOffValue.class).get());
+    assertEquals(
+      Integer.valueOf(7),
+      structure.structure("Inner").variable("Value", Integer.class).get());
+  }
+
+  /**
+   * Invalidating a range invalidates every structure that overlaps any
+   * byte of the range, and the structures that contain them, and no others.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testInvalidateRange()
+    throws Exception
+  {
+    when(this.device.sendCommand(isA(GWDeviceCommandRequestData.class)))
+      .thenAnswer(invocation -> {
+        final GWDeviceCommandRequestData command = invocation.getArgument(0);
+        return new GWDeviceResponseRequestData(
+          command.address(), new byte[command.size()], 0);
+      });
+
+    final var structure =
+      GWIOStructure.create(
+        this.device,
+        this.attributes,
+        this.tables.descriptor("Outer"),
+        0x1000_0000
+      );
+    final var inner =
+      structure.structure("Inner");
+
+    /*
+     * Only the last byte of the range falls within the inner structure.
+     */
+
+    structure.readFromDevice();
+    structure.invalidateRange(0x1000_0020, 0x61);
+    assertFalse(structure.isFresh(FOREVER));
+    assertFalse(inner.isFresh(FOREVER));
+
+    structure.readFromDevice();
+    structure.invalidateRange(0x1000_000f, 1);
+    assertFalse(structure.isFresh(FOREVER));
+    assertTrue(inner.isFresh(FOREVER));
+
+    /*
+     * The range lies between the two structures.
+     */
+
+    structure.readFromDevice();
+    structure.invalidateRange(0x1000_0010, 0x70);
+    assertTrue(structure.isFresh(FOREVER));
+    assertTrue(inner.isFresh(FOREVER));
+  }
+}
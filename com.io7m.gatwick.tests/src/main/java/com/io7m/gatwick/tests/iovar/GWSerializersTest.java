@@ -166,6 +166,82 @@ public final class GWSerializersTest
     assertEquals(x, y);
   }
 
+  @Property
+  public void testUint8Int(
+    final @ForAll @IntRange(min = 0, max = 127) int x)
+  {
+    final var buffer =
+      ByteBuffer.allocate(1);
+    final var s =
+      GWIOSerializers.uint8IntSerializer();
+    final var d =
+      GWIOSerializers.uint8IntDeserializer();
+
+    s.serializeTo(buffer, x);
+    assertEquals(x, d.deserializeFrom(buffer));
+    assertEquals(x, GWIOSerializers.uint8Deserializer().deserializeFrom(buffer));
+  }
+
+  @Property
+  public void testUint16Int(
+    final @ForAll @IntRange(min = 0, max = 255) int x)
+  {
+    final var buffer =
+      ByteBuffer.allocate(2);
+    final var s =
+      GWIOSerializers.uint8As16IntSerializer();
+    final var d =
+      GWIOSerializers.uint8As16IntDeserializer();
+
+    s.serializeTo(buffer, x);
+    assertEquals(x, d.deserializeFrom(buffer));
+    assertEquals(x, GWIOSerializers.uint8As16Deserializer().deserializeFrom(buffer));
+  }
+
+  @Property
+  public void testUint32Int(
+    final @ForAll @IntRange(min = 0, max = 65535) int x)
+  {
+    final var buffer =
+      ByteBuffer.allocate(4);
+    final var s =
+      GWIOSerializers.uint16As32IntSerializer();
+    final var d =
+      GWIOSerializers.uint16As32IntDeserializer();
+
+    s.serializeTo(buffer, x);
+    assertEquals(x, d.deserializeFrom(buffer));
+    assertEquals(x, GWIOSerializers.uint16As32Deserializer().deserializeFrom(buffer));
+  }
+
+  @Property
+  public void testPitchInt(
+    final @ForAll @IntRange(min = -24, max = 24) int x)
+  {
+    final var buffer =
+      ByteBuffer.allocate(1);
+    final var s =
+      GWIOSerializers.integerMappedIntSerializer(
+        GWIOSerializers.uint8IntSerializer(),
+        -24,
+        24,
+        8,
+        56
+      );
+    final var d =
+      GWIOSerializers.integerMappedIntDeserializer(
+        GWIOSerializers.uint8IntDeserializer(),
+        -24,
+        24,
+        8,
+        56
+      );
+
+    s.serializeTo(buffer, x);
+    assertEquals(x, d.deserializeFrom(buffer));
+    assertEquals(x + 32, buffer.get(0));
+  }
+
   @Property
   public void testPreDelay(
     final @ForAll @DoubleRange(min = 0.0, max = 40.0) double x)
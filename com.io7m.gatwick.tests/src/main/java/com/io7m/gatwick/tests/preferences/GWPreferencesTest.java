@@ -36,8 +36,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.LinkedList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public final class GWPreferencesTest
 {
@@ -183,6 +187,75 @@ public final class GWPreferencesTest
     }
   }
 
+  /**
+   * Rewriting a configuration file without changing the preferences does
+   * not publish new preferences.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPreferencesFileUnchanged()
+    throws Exception
+  {
+    final var file =
+      this.directory.resolve("config")
+        .resolve("preferences.xml")
+        .toAbsolutePath();
+
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, """
+      <?xml version="1.0" encoding="UTF-8"?>
+      <Preferences xmlns="urn:com.io7m.gatwick:preferences:1">
+        <Device ShowFakeDevices="false"/>
+        <Debug EnableDebugServer="false" DebugServerPort="30000"/>
+      </Preferences>
+      """);
+
+    final var prefs =
+      new LinkedBlockingQueue<GWPreferences>();
+
+    try (var service =
+           GWPreferencesService.create(
+             this.directories,
+             Duration.ofSeconds(1L),
+             this.attributes)) {
+
+      service.preferences()
+        .subscribe((oldValue, newValue) -> {
+          LOG.debug("received: {}", newValue);
+          prefs.add(newValue);
+        });
+
+      assertNotNull(prefs.poll(1L, TimeUnit.SECONDS));
+
+      Files.writeString(file, """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <Preferences xmlns="urn:com.io7m.gatwick:preferences:1">
+          <Device ShowFakeDevices="false" />
+          <Debug EnableDebugServer="false" DebugServerPort="30000" />
+        </Preferences>
+        """);
+
+      Files.writeString(file, """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <Preferences xmlns="urn:com.io7m.gatwick:preferences:1">
+          <Device ShowFakeDevices="true"/>
+          <Debug EnableDebugServer="false" DebugServerPort="30000"/>
+        </Preferences>
+        """);
+
+      final var prefs1 =
+        new GWPreferences(
+          new GWPreferencesDevice(true),
+          new GWPreferencesDebug(false, 30000)
+        );
+
+      assertEquals(prefs1, prefs.poll(5L, TimeUnit.SECONDS));
+      assertNull(prefs.poll(2L, TimeUnit.SECONDS));
+    }
+  }
+
   /**
    * Updating configuration files works.
    *